@@ -16,6 +16,11 @@ public interface ConsistentHash {
 
    SocketAddress getServer(byte[] key);
 
+   /**
+    * @return all the servers owning the given key, the one returned by {@link #getServer(byte[])} being the first
+    */
+   SocketAddress[] getOwners(byte[] key);
+
    /**
     * Computes hash code of a given object, and then normalizes it to ensure a positive
     * value is always returned.
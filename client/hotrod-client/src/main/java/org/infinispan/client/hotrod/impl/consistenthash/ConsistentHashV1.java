@@ -79,6 +79,34 @@ public void init(Map<SocketAddress, Set<Integer>> servers2Hash, int numKeyOwners
 
    @Override
    public SocketAddress getServer(byte[] key) {
+      return addresses[getMainOwnerIndex(key)];
+   }
+
+   @Override
+   public SocketAddress[] getOwners(byte[] key) {
+      int mainOwner = getMainOwnerIndex(key);
+      SocketAddress[] addresses = this.addresses;
+      int numOwners = Math.max(Math.min(numKeyOwners, addresses.length), 1);
+      SocketAddress[] owners = new SocketAddress[numOwners];
+      int found = 0;
+      // the backup owners are the next distinct servers on the hash wheel
+      for (int i = 0; i < addresses.length && found < numOwners; i++) {
+         SocketAddress candidate = addresses[(mainOwner + i) % addresses.length];
+         boolean duplicate = false;
+         for (int j = 0; j < found; j++) {
+            if (owners[j].equals(candidate)) {
+               duplicate = true;
+               break;
+            }
+         }
+         if (!duplicate) {
+            owners[found++] = candidate;
+         }
+      }
+      return found == numOwners ? owners : Arrays.copyOf(owners, found);
+   }
+
+   private int getMainOwnerIndex(byte[] key) {
       int normalisedHashForKey;
       if (hashSpaceIsMaxInt) {
          normalisedHashForKey = getNormalizedHash(key);
@@ -89,9 +117,7 @@ public SocketAddress getServer(byte[] key) {
 
       int mainOwner = getHashIndex(normalisedHashForKey);
 
-      int indexToReturn = mainOwner % hashes.length;
-
-      return addresses[indexToReturn];
+      return mainOwner % hashes.length;
    }
 
    private int getHashIndex(int normalisedHashForKey) {
@@ -36,12 +36,19 @@ protected AbstractKeyOperation(Codec codec, TransportFactory transportFactory,
    @Override
    protected Transport getTransport(int retryCount) {
       if (retryCount == 0) {
-         return transportFactory.getTransport(key);
+         return transportFactory.getTransport(key, isReadOnly());
       } else {
          return transportFactory.getTransport();
       }
    }
 
+   /**
+    * Read-only operations may be served by any of the owners of the key, not just the primary one.
+    */
+   protected boolean isReadOnly() {
+      return false;
+   }
+
    protected short sendKeyOperation(byte[] key, Transport transport, byte opCode, byte opRespCode) {
       // 1) write [header][key length][key]
       HeaderParams params = writeHeader(transport, opCode);
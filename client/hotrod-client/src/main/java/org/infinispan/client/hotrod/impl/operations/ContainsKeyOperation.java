@@ -22,6 +22,11 @@ public ContainsKeyOperation(Codec codec, TransportFactory transportFactory,
       super(codec, transportFactory, key, cacheName, topologyId, flags);
    }
 
+   @Override
+   protected boolean isReadOnly() {
+      return true;
+   }
+
    @Override
    protected Boolean executeOperation(Transport transport) {
       boolean containsKey = false;
@@ -30,6 +30,11 @@ public GetWithMetadataOperation(Codec codec, TransportFactory transportFactory,
       super(codec, transportFactory, key, cacheName, topologyId, flags);
    }
 
+   @Override
+   protected boolean isReadOnly() {
+      return true;
+   }
+
    @Override
    protected MetadataValue<byte[]> executeOperation(Transport transport) {
       short status = sendKeyOperation(key, transport, GET_WITH_METADATA, GET_WITH_METADATA_RESPONSE);
@@ -31,6 +31,11 @@ public GetWithVersionOperation(Codec codec, TransportFactory transportFactory,
       super(codec, transportFactory, key, cacheName, topologyId, flags);
    }
 
+   @Override
+   protected boolean isReadOnly() {
+      return true;
+   }
+
    @Override
    protected VersionedValue<byte[]> executeOperation(Transport transport) {
       short status = sendKeyOperation(key, transport, GET_WITH_VERSION, GET_WITH_VERSION_RESPONSE);
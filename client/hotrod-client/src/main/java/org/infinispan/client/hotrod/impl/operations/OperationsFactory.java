@@ -149,7 +149,12 @@ public FaultTolerantPingOperation newFaultTolerantPingOperation() {
 
    public QueryOperation newQueryOperation(RemoteQuery remoteQuery) {
       return new QueryOperation(
-            codec, transportFactory, cacheNameBytes, topologyId, flags(), remoteQuery);
+            codec, transportFactory, cacheNameBytes, topologyId, flags(), remoteQuery, 0, -1);
+   }
+
+   public QueryOperation newQueryOperation(RemoteQuery remoteQuery, int fetchSize, long continuationToken) {
+      return new QueryOperation(
+            codec, transportFactory, cacheNameBytes, topologyId, flags(), remoteQuery, fetchSize, continuationToken);
    }
 
    private Flag[] flags() {
@@ -27,10 +27,16 @@ public class QueryOperation extends RetryOnFailureOperation<QueryResponse> {
 
    private final RemoteQuery remoteQuery;
 
+   private final int fetchSize;
+
+   private final long continuationToken;
+
    public QueryOperation(Codec codec, TransportFactory transportFactory, byte[] cacheName, AtomicInteger topologyId,
-                         Flag[] flags, RemoteQuery remoteQuery) {
+                         Flag[] flags, RemoteQuery remoteQuery, int fetchSize, long continuationToken) {
       super(codec, transportFactory, cacheName, topologyId, flags);
       this.remoteQuery = remoteQuery;
+      this.fetchSize = fetchSize;
+      this.continuationToken = continuationToken;
    }
 
    @Override
@@ -45,6 +51,8 @@ protected QueryResponse executeOperation(Transport transport) {
       queryRequest.setJpqlString(remoteQuery.getJpqlString());
       queryRequest.setStartOffset(remoteQuery.getStartOffset());
       queryRequest.setMaxResults(remoteQuery.getMaxResults());
+      queryRequest.setFetchSize(fetchSize);
+      queryRequest.setContinuationToken(continuationToken);
       if (remoteQuery.getSortCriteria() != null && !remoteQuery.getSortCriteria().isEmpty()) {
          List<QueryRequest.SortCriteria> scl = new ArrayList<QueryRequest.SortCriteria>();
          for (SortCriteria sc : remoteQuery.getSortCriteria()) {
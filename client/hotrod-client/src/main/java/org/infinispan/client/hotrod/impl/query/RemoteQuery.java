@@ -12,8 +12,10 @@
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * @author anistor@redhat.com
@@ -72,12 +74,31 @@ public <T> List<T> list() {
       return (List<T>) results;
    }
 
-   private List<Object> executeQuery() {
-      List<Object> results;
+   /**
+    * Returns the results of a search as an iterator that fetches them lazily from the server, in pages of at most
+    * {@code fetchSize} results. Only the current page is held in memory on both the client and the server and each
+    * page is unmarshalled only when the iteration reaches it.
+    *
+    * @param fetchSize the maximum number of results to fetch in one round trip
+    * @return an iterator over the results of the query
+    */
+   @SuppressWarnings("unchecked")
+   public <T> Iterator<T> iterator(int fetchSize) {
+      if (fetchSize <= 0) {
+         throw new IllegalArgumentException("fetchSize must be greater than 0");
+      }
+      return (Iterator<T>) new PagingIterator(fetchSize);
+   }
 
+   private List<Object> executeQuery() {
       QueryOperation op = cache.getOperationsFactory().newQueryOperation(this);
       QueryResponse response = op.execute();
       numResults = response.getNumResults();
+      return unwrapResults(response);
+   }
+
+   private List<Object> unwrapResults(QueryResponse response) {
+      List<Object> results;
       if (response.getProjectionSize() > 0) {
          results = new ArrayList<Object>(response.getResults().size() / response.getProjectionSize());
          Iterator<WrappedMessage> it = response.getResults().iterator();
@@ -114,4 +135,48 @@ public int getResultSize() {
    public SerializationContext getSerializationContext() {
       return serializationContext;
    }
+
+   private final class PagingIterator implements Iterator<Object> {
+
+      private final int fetchSize;
+
+      private Iterator<Object> page = Collections.<Object>emptyList().iterator();
+
+      private long continuationToken = -1;
+
+      private boolean lastPage = false;
+
+      PagingIterator(int fetchSize) {
+         this.fetchSize = fetchSize;
+      }
+
+      @Override
+      public boolean hasNext() {
+         while (!page.hasNext() && !lastPage) {
+            fetchNextPage();
+         }
+         return page.hasNext();
+      }
+
+      @Override
+      public Object next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         return page.next();
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+
+      private void fetchNextPage() {
+         QueryOperation op = cache.getOperationsFactory().newQueryOperation(RemoteQuery.this, fetchSize, continuationToken);
+         QueryResponse response = op.execute();
+         continuationToken = response.getContinuationToken();
+         lastPage = !response.hasMoreResults();
+         page = unwrapResults(response).iterator();
+      }
+   }
 }
@@ -36,6 +36,11 @@ public interface TransportFactory {
 
    Transport getTransport(byte[] key);
 
+   /**
+    * @param readOnly whether the operation only reads the key, and thus can be served by any of its owners
+    */
+   Transport getTransport(byte[] key, boolean readOnly);
+
    boolean isTcpNoDelay();
 
    int getTransportCount();
@@ -0,0 +1,90 @@
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.Collection;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.util.concurrent.jdk7backported.ThreadLocalRandom;
+
+/**
+ * A {@link RequestBalancingStrategy} which takes the load of the servers into account: for every request it samples two
+ * servers at random and picks the one with the lower {@link ServerStatistics#getCost(SocketAddress) cost}, avoiding
+ * the servers which failed recently.
+ * <p/>
+ * When this strategy is configured, the {@link TcpTransportFactory} also uses it for key based operations: reads are
+ * sent to the cheapest owner of the key instead of always going to the first one, and writes avoid a suspected primary
+ * owner.
+ *
+ * @since 6.0
+ */
+@ThreadSafe
+public class LatencyAwareBalancingStrategy implements RequestBalancingStrategy {
+
+   private static final Log log = LogFactory.getLog(LatencyAwareBalancingStrategy.class);
+
+   private volatile ServerStatistics statistics = new ServerStatistics();
+
+   private volatile SocketAddress[] servers;
+
+   public void setServerStatistics(ServerStatistics statistics) {
+      this.statistics = statistics;
+   }
+
+   public ServerStatistics getServerStatistics() {
+      return statistics;
+   }
+
+   @Override
+   public void setServers(Collection<SocketAddress> servers) {
+      this.servers = servers.toArray(new InetSocketAddress[servers.size()]);
+      if (log.isTraceEnabled()) {
+         log.tracef("New server list is: %s", Arrays.toString(this.servers));
+      }
+   }
+
+   /**
+    * Multiple threads might call this method at the same time.
+    */
+   @Override
+   public SocketAddress nextServer() {
+      SocketAddress[] servers = this.servers;
+      SocketAddress server;
+      if (servers.length == 1) {
+         server = servers[0];
+      } else {
+         ThreadLocalRandom random = ThreadLocalRandom.current();
+         int first = random.nextInt(servers.length);
+         int second = random.nextInt(servers.length - 1);
+         if (second >= first) {
+            second++;
+         }
+         server = statistics.selectServer(servers[first], servers[second]);
+      }
+      if (log.isTraceEnabled()) {
+         log.tracef("Returning server: %s", server);
+      }
+      return server;
+   }
+
+   /**
+    * Picks the server a key based operation should be sent to.
+    *
+    * @param owners the owners of the key, primary owner first
+    * @param readOnly whether the operation can be served by any of the owners
+    */
+   public SocketAddress nextServer(SocketAddress[] owners, boolean readOnly) {
+      if (readOnly || statistics.isSuspected(owners[0])) {
+         return statistics.selectServer(owners);
+      }
+      return owners[0];
+   }
+
+   public SocketAddress[] getServers() {
+      return servers;
+   }
+}
@@ -0,0 +1,188 @@
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import java.net.SocketAddress;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.util.CollectionFactory;
+
+/**
+ * Keeps track, for each server, of the number of requests currently in flight and of an exponentially weighted
+ * moving average (EWMA) of the request latency. Servers which failed a request recently are considered suspected for
+ * a short period of time.
+ * <p/>
+ * The latency estimate of a server decays while no request is sent to it, so that a server which was slow at some
+ * point is probed again after a while instead of being avoided forever.
+ *
+ * @since 6.0
+ */
+@ThreadSafe
+public class ServerStatistics {
+
+   /**
+    * Weight of the latest sample in the moving average.
+    */
+   private static final double ALPHA = 0.3;
+
+   private static final long DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+   static final long SUSPECT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+   private final ConcurrentMap<SocketAddress, Stats> stats = CollectionFactory.makeConcurrentMap();
+
+   /**
+    * Invoked when a connection to the server was obtained and a request is about to be sent.
+    *
+    * @return the start time of the request, to be passed back to {@link #requestCompleted(SocketAddress, long)}
+    */
+   public long requestStarted(SocketAddress server) {
+      getStats(server).inFlight.incrementAndGet();
+      return System.nanoTime();
+   }
+
+   public void requestCompleted(SocketAddress server, long startNanos) {
+      Stats s = getStats(server);
+      s.inFlight.decrementAndGet();
+      long now = System.nanoTime();
+      s.update(now - startNanos, now);
+      s.suspectedUntil = 0;
+   }
+
+   public void requestFailed(SocketAddress server) {
+      Stats s = getStats(server);
+      s.inFlight.decrementAndGet();
+      suspect(s);
+   }
+
+   /**
+    * Marks the server as suspected without affecting the in-flight counter, e.g. when all its connections are
+    * invalidated.
+    */
+   public void serverFailed(SocketAddress server) {
+      suspect(getStats(server));
+   }
+
+   public boolean isSuspected(SocketAddress server) {
+      Stats s = stats.get(server);
+      return s != null && s.isSuspected(System.nanoTime());
+   }
+
+   public int getInFlight(SocketAddress server) {
+      Stats s = stats.get(server);
+      return s == null ? 0 : s.inFlight.get();
+   }
+
+   /**
+    * @return the current latency estimate for the server, in nanoseconds
+    */
+   public long getLatency(SocketAddress server) {
+      Stats s = stats.get(server);
+      return s == null ? 0 : s.latency(System.nanoTime());
+   }
+
+   /**
+    * The cost of sending a request to the server: the latency estimate weighted by the number of requests already
+    * waiting for it. Lower is better.
+    */
+   public double getCost(SocketAddress server) {
+      return cost(stats.get(server), System.nanoTime());
+   }
+
+   /**
+    * Picks the cheapest server among the given candidates, ignoring suspected servers unless all of them are
+    * suspected. On equal cost the first candidate wins, so callers should pass their preferred server first.
+    */
+   public SocketAddress selectServer(SocketAddress[] candidates) {
+      long now = System.nanoTime();
+      SocketAddress best = null;
+      double bestCost = Double.MAX_VALUE;
+      boolean bestSuspected = true;
+      for (SocketAddress candidate : candidates) {
+         Stats s = stats.get(candidate);
+         boolean suspected = s != null && s.isSuspected(now);
+         double cost = cost(s, now);
+         if (best == null || (bestSuspected && !suspected) || (suspected == bestSuspected && cost < bestCost)) {
+            best = candidate;
+            bestCost = cost;
+            bestSuspected = suspected;
+         }
+      }
+      return best;
+   }
+
+   /**
+    * Picks the cheaper of two servers, like {@link #selectServer(SocketAddress[])} but without allocating.
+    */
+   public SocketAddress selectServer(SocketAddress first, SocketAddress second) {
+      long now = System.nanoTime();
+      Stats s1 = stats.get(first);
+      Stats s2 = stats.get(second);
+      boolean suspected1 = s1 != null && s1.isSuspected(now);
+      boolean suspected2 = s2 != null && s2.isSuspected(now);
+      if (suspected1 != suspected2) {
+         return suspected1 ? second : first;
+      }
+      return cost(s2, now) < cost(s1, now) ? second : first;
+   }
+
+   public void removeServer(SocketAddress server) {
+      stats.remove(server);
+   }
+
+   private static double cost(Stats s, long now) {
+      if (s == null) {
+         return 1;
+      }
+      return (s.latency(now) + 1.0) * (Math.max(s.inFlight.get(), 0) + 1);
+   }
+
+   private void suspect(Stats s) {
+      s.suspectedUntil = System.nanoTime() + SUSPECT_NANOS;
+   }
+
+   private Stats getStats(SocketAddress server) {
+      Stats s = stats.get(server);
+      if (s == null) {
+         s = new Stats();
+         Stats existing = stats.putIfAbsent(server, s);
+         if (existing != null) {
+            s = existing;
+         }
+      }
+      return s;
+   }
+
+   private static class Stats {
+      final AtomicInteger inFlight = new AtomicInteger();
+      final AtomicLong ewma = new AtomicLong();
+      volatile long lastUpdate = System.nanoTime();
+      volatile long suspectedUntil;
+
+      void update(long sample, long now) {
+         long current, next;
+         do {
+            current = ewma.get();
+            next = current == 0 ? sample : (long) (ALPHA * sample + (1 - ALPHA) * current);
+         } while (!ewma.compareAndSet(current, next));
+         lastUpdate = now;
+      }
+
+      long latency(long now) {
+         long idle = now - lastUpdate;
+         long value = ewma.get();
+         if (idle <= 0) {
+            return value;
+         }
+         return (long) (value * Math.exp(-(double) idle / DECAY_NANOS));
+      }
+
+      boolean isSuspected(long now) {
+         long until = suspectedUntil;
+         return until != 0 && now - until < 0;
+      }
+   }
+}
@@ -50,6 +50,9 @@ public class TcpTransport extends AbstractTransport {
 
    private volatile boolean invalid;
 
+   // start time of the request this transport is currently borrowed for, 0 when idle
+   private volatile long requestStart;
+
    public TcpTransport(SocketAddress serverAddress, TransportFactory transportFactory) {
       super(transportFactory);
       this.serverAddress = serverAddress;
@@ -287,6 +290,14 @@ public long getId() {
       return id;
    }
 
+   long getRequestStart() {
+      return requestStart;
+   }
+
+   void setRequestStart(long requestStart) {
+      this.requestStart = requestStart;
+   }
+
    @Override
    public byte[] dumpStream() {
       ByteArrayOutputStream os = new ByteArrayOutputStream();
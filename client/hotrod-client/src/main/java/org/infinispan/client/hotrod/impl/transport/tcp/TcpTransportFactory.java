@@ -50,6 +50,7 @@ public class TcpTransportFactory implements TransportFactory {
    private Collection<SocketAddress> servers;
    private ConsistentHash consistentHash;
    private final ConsistentHashFactory hashFactory = new ConsistentHashFactory();
+   private final ServerStatistics serverStatistics = new ServerStatistics();
 
    // the primitive fields are often accessed separately from the rest so it makes sense not to require synchronization for them
    private volatile boolean tcpNoDelay;
@@ -69,6 +70,9 @@ public void start(Codec codec, Configuration configuration, AtomicInteger topolo
          }
          servers = Collections.unmodifiableCollection(servers);
          balancer = Util.getInstance(configuration.balancingStrategy());
+         if (balancer instanceof LatencyAwareBalancingStrategy) {
+            ((LatencyAwareBalancingStrategy) balancer).setServerStatistics(serverStatistics);
+         }
          tcpNoDelay = configuration.tcpNoDelay();
          soTimeout = configuration.socketTimeout();
          connectTimeout = configuration.connectionTimeout();
@@ -167,10 +171,19 @@ public Transport getTransport() {
 
    @Override
    public Transport getTransport(byte[] key) {
+      return getTransport(key, false);
+   }
+
+   @Override
+   public Transport getTransport(byte[] key, boolean readOnly) {
       SocketAddress server;
       synchronized (lock) {
          if (consistentHash != null) {
-            server = consistentHash.getServer(key);
+            if (balancer instanceof LatencyAwareBalancingStrategy) {
+               server = ((LatencyAwareBalancingStrategy) balancer).nextServer(consistentHash.getOwners(key), readOnly);
+            } else {
+               server = consistentHash.getServer(key);
+            }
             if (log.isTraceEnabled()) {
                log.tracef("Using consistent hash for determining the server: " + server);
             }
@@ -189,6 +202,15 @@ public void releaseTransport(Transport transport) {
       // The invalidateObject()/returnObject() calls could take a long time, so we hold the lock only until we get the connection pool reference
       KeyedObjectPool<SocketAddress, TcpTransport> pool = getConnectionPool();
       TcpTransport tcpTransport = (TcpTransport) transport;
+      long requestStart = tcpTransport.getRequestStart();
+      if (requestStart != 0) {
+         tcpTransport.setRequestStart(0);
+         if (tcpTransport.isValid()) {
+            serverStatistics.requestCompleted(tcpTransport.getServerAddress(), requestStart);
+         } else {
+            serverStatistics.requestFailed(tcpTransport.getServerAddress());
+         }
+      }
       if (!tcpTransport.isValid()) {
          try {
             if (log.isTraceEnabled()) {
@@ -211,6 +233,9 @@ public void releaseTransport(Transport transport) {
 
    @Override
    public void invalidateTransport(SocketAddress serverAddress, Transport transport) {
+      if (serverAddress != null) {
+         serverStatistics.serverFailed(serverAddress);
+      }
       KeyedObjectPool<SocketAddress, TcpTransport> pool = getConnectionPool();
       try {
          // Transport could be null, in which case all connections
@@ -259,6 +284,7 @@ public void updateServers(Collection<SocketAddress> newServers) {
          for (SocketAddress server : failedServers) {
             log.removingServer(server);
             connectionPool.clear(server);
+            serverStatistics.removeServer(server);
          }
 
          servers = Collections.unmodifiableList(new ArrayList(newServers));
@@ -284,9 +310,12 @@ private Transport borrowTransportFromPool(SocketAddress server) {
       // The borrowObject() call could take a long time, so we hold the lock only until we get the connection pool reference
       KeyedObjectPool<SocketAddress, TcpTransport> pool = getConnectionPool();
       try {
-         return pool.borrowObject(server);
+         TcpTransport transport = pool.borrowObject(server);
+         transport.setRequestStart(serverStatistics.requestStarted(server));
+         return transport;
       } catch (Exception e) {
          String message = "Could not fetch transport";
+         serverStatistics.serverFailed(server);
          log.couldNotFetchTransport(e);
          throw new TransportException(message, e, server);
       } finally {
@@ -336,6 +365,10 @@ public SSLContext getSSLContext() {
       return sslContext;
    }
 
+   public ServerStatistics getServerStatistics() {
+      return serverStatistics;
+   }
+
    /**
     * Note that the returned <code>RequestBalancingStrategy</code> may not be thread-safe.
     */
@@ -164,6 +164,11 @@ public SocketAddress getServer(byte[] key) {
          return (candidates.size() > 0 ? candidates : positions).entrySet().iterator().next().getValue();
       }
 
+      @Override
+      public SocketAddress[] getOwners(byte[] key) {
+         return new SocketAddress[] {getServer(key)};
+      }
+
       private SocketAddress getItemAtPosition(int position, SortedMap<Integer, SocketAddress> map) {
          Iterator<Map.Entry<Integer,SocketAddress>> iterator = map.entrySet().iterator();
          for (int i = 0; i < position; i++) {
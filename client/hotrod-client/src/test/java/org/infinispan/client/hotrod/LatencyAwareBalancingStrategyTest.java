@@ -0,0 +1,103 @@
+package org.infinispan.client.hotrod;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.client.hotrod.impl.transport.tcp.LatencyAwareBalancingStrategy;
+import org.infinispan.client.hotrod.impl.transport.tcp.ServerStatistics;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "client.hotrod.LatencyAwareBalancingStrategyTest")
+public class LatencyAwareBalancingStrategyTest {
+
+   SocketAddress addr1 = new InetSocketAddress("localhost", 1111);
+   SocketAddress addr2 = new InetSocketAddress("localhost", 2222);
+   SocketAddress addr3 = new InetSocketAddress("localhost", 3333);
+   private LatencyAwareBalancingStrategy strategy;
+   private ServerStatistics statistics;
+
+   @BeforeMethod
+   public void setUp() {
+      statistics = new ServerStatistics();
+      strategy = new LatencyAwareBalancingStrategy();
+      strategy.setServerStatistics(statistics);
+      strategy.setServers(Arrays.asList(addr1, addr2, addr3));
+   }
+
+   public void testAvoidSlowServer() {
+      recordLatency(addr1, 1);
+      recordLatency(addr2, 1);
+      recordLatency(addr3, 500);
+      for (int i = 0; i < 100; i++) {
+         SocketAddress server = strategy.nextServer();
+         assertFalse(addr3.equals(server));
+      }
+   }
+
+   public void testAvoidBusyServer() {
+      recordLatency(addr1, 10);
+      recordLatency(addr2, 10);
+      recordLatency(addr3, 10);
+      for (int i = 0; i < 5; i++) {
+         statistics.requestStarted(addr2);
+      }
+      assertEquals(5, statistics.getInFlight(addr2));
+      for (int i = 0; i < 100; i++) {
+         assertFalse(addr2.equals(strategy.nextServer()));
+      }
+   }
+
+   public void testAvoidSuspectedServer() {
+      statistics.serverFailed(addr1);
+      assertTrue(statistics.isSuspected(addr1));
+      for (int i = 0; i < 100; i++) {
+         assertFalse(addr1.equals(strategy.nextServer()));
+      }
+      recordLatency(addr1, 1);
+      assertFalse(statistics.isSuspected(addr1));
+   }
+
+   public void testAllServersSuspected() {
+      statistics.serverFailed(addr1);
+      statistics.serverFailed(addr2);
+      statistics.serverFailed(addr3);
+      // still need to return something
+      assertTrue(Arrays.asList(addr1, addr2, addr3).contains(strategy.nextServer()));
+   }
+
+   public void testReadsUseCheapestOwner() {
+      recordLatency(addr1, 200);
+      recordLatency(addr2, 1);
+      SocketAddress[] owners = {addr1, addr2};
+      assertEquals(addr2, strategy.nextServer(owners, true));
+      // writes stick to the primary owner
+      assertEquals(addr1, strategy.nextServer(owners, false));
+   }
+
+   public void testWritesAvoidSuspectedPrimaryOwner() {
+      SocketAddress[] owners = {addr1, addr2};
+      assertEquals(addr1, strategy.nextServer(owners, false));
+      statistics.serverFailed(addr1);
+      assertEquals(addr2, strategy.nextServer(owners, false));
+   }
+
+   public void testPrimaryOwnerPreferredOnEqualCost() {
+      SocketAddress[] owners = {addr3, addr1, addr2};
+      assertEquals(addr3, strategy.nextServer(owners, true));
+   }
+
+   private void recordLatency(SocketAddress server, long millis) {
+      long start = statistics.requestStarted(server);
+      statistics.requestCompleted(server, start - TimeUnit.MILLISECONDS.toNanos(millis));
+   }
+}
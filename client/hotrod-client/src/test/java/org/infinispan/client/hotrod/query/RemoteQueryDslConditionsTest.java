@@ -6,6 +6,7 @@
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.Search;
 import org.infinispan.client.hotrod.TestHelper;
+import org.infinispan.client.hotrod.impl.query.RemoteQuery;
 import org.infinispan.client.hotrod.marshall.ProtoStreamMarshaller;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.manager.EmbeddedCacheManager;
@@ -33,6 +34,7 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killRemoteCacheManager;
@@ -1042,6 +1044,54 @@ public void testSampleDomainQuery16() throws Exception {
       }
    }
 
+   public void testPagedIteration() throws Exception {
+      for (int i = 0; i < 50; i++) {
+         Transaction transaction = new Transaction();
+         transaction.setId(50 + i);
+         transaction.setDescription("Expensive shoes " + i);
+         transaction.setAccountId(2);
+         transaction.setAmount(100 + i);
+         transaction.setDate(DATE_FORMAT.parse("2013-08-20"));
+         transaction.setDebit(true);
+         remoteCache.put("transaction_" + transaction.getId(), transaction);
+      }
+
+      QueryFactory qf = Search.getQueryFactory(remoteCache);
+
+      // 25 transactions starting from the 11th, fetched in pages of 7
+      RemoteQuery q = (RemoteQuery) qf.from(Transaction.class)
+            .startOffset(10).maxResults(25)
+            .orderBy("id", SortOrder.ASC)
+            .having("accountId").eq(2).and().having("description").like("Expensive%")
+            .toBuilder().build();
+
+      Iterator<Transaction> it = q.iterator(7);
+      int count = 0;
+      while (it.hasNext()) {
+         assertEquals("Expensive shoes " + (10 + count), it.next().getDescription());
+         count++;
+      }
+      assertEquals(25, count);
+   }
+
+   public void testPagedIterationWithProjection() throws Exception {
+      QueryFactory qf = Search.getQueryFactory(remoteCache);
+
+      RemoteQuery q = (RemoteQuery) qf.from(User.class)
+            .setProjection("id", "name")
+            .orderBy("id", SortOrder.ASC)
+            .build();
+
+      Iterator<Object[]> it = q.iterator(2);
+      for (int i = 1; i <= 3; i++) {
+         assertTrue(it.hasNext());
+         Object[] row = it.next();
+         assertEquals(2, row.length);
+         assertEquals(i, row[0]);
+      }
+      assertFalse(it.hasNext());
+   }
+
    public void testSampleDomainQuery17() throws Exception {
       QueryFactory qf = Search.getQueryFactory(remoteCache);
 
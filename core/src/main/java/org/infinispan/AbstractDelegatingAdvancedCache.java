@@ -2,6 +2,7 @@
 
 import org.infinispan.atomic.Delta;
 import org.infinispan.batch.BatchContainer;
+import org.infinispan.compute.ComputeFunction;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.Flag;
@@ -196,6 +197,16 @@ public V putIfAbsent(K key, V value, Metadata metadata) {
       return cache.putIfAbsent(key, value, metadata);
    }
 
+   @Override
+   public <R> R compute(K key, ComputeFunction<K, V, R> function) {
+      return cache.compute(key, function);
+   }
+
+   @Override
+   public <R> R compute(K key, ComputeFunction<K, V, R> function, Metadata metadata) {
+      return cache.compute(key, function, metadata);
+   }
+
    @Override
    public NotifyingFuture<V> putAsync(K key, V value, Metadata metadata) {
       return cache.putAsync(key, value, metadata);
@@ -2,7 +2,9 @@
 
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.Converter;
 import org.infinispan.notifications.KeyFilter;
+import org.infinispan.notifications.KeyValueFilter;
 import org.infinispan.util.concurrent.NotifyingFuture;
 
 import java.util.Collection;
@@ -326,6 +328,11 @@ public void addListener(Object listener, KeyFilter filter) {
       cache.addListener(listener, filter);
    }
 
+   @Override
+   public void addListener(Object listener, KeyValueFilter<?, ?> filter, Converter<?, ?, ?> converter) {
+      cache.addListener(listener, filter, converter);
+   }
+
    @Override
    public void removeListener(Object listener) {
       cache.removeListener(listener);
@@ -2,6 +2,7 @@
 
 import org.infinispan.atomic.Delta;
 import org.infinispan.batch.BatchContainer;
+import org.infinispan.compute.ComputeFunction;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.Flag;
@@ -340,6 +341,35 @@
     */
    V putIfAbsent(K key, V value, Metadata metadata);
 
+   /**
+    * Atomically applies a function to the entry mapped to the given key, and returns its result. In clustered caches
+    * the function is executed by the primary owner of the key, while holding the lock on the entry, and only the new
+    * value (or the removal of the entry) is replicated to the backup owners. This saves the round trips of reading the
+    * value, computing the new one locally and writing it back conditionally.
+    * <p/>
+    * Transactional caches are not supported.
+    *
+    * @param key key of the entry
+    * @param function function computing the new value, which must be marshallable in clustered caches
+    * @return the result of the function
+    *
+    * @since 6.0
+    */
+   <R> R compute(K key, ComputeFunction<K, V, R> function);
+
+   /**
+    * An overloaded form of {@link #compute(Object, ComputeFunction)}, which takes in an instance of {@link Metadata}
+    * which is stored alongside the value, if the function sets a new value.
+    *
+    * @param key key of the entry
+    * @param function function computing the new value, which must be marshallable in clustered caches
+    * @param metadata information to store alongside the new value
+    * @return the result of the function
+    *
+    * @since 6.0
+    */
+   <R> R compute(K key, ComputeFunction<K, V, R> function, Metadata metadata);
+
    /**
     * Asynchronous version of {@link #put(Object, Object, Metadata)} which stores
     * metadata alongside the value.  This method does not block on remote calls,
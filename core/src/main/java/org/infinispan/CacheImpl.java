@@ -12,11 +12,14 @@
 import org.infinispan.commands.read.ValuesCommand;
 import org.infinispan.commands.write.ApplyDeltaCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.ComputeCommand;
+import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.EvictCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
+import org.infinispan.compute.ComputeFunction;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.configuration.global.GlobalConfiguration;
@@ -47,9 +50,14 @@
 import org.infinispan.commons.util.Util;
 import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.metadata.Metadata;
+import org.infinispan.notifications.Converter;
 import org.infinispan.notifications.KeyFilter;
+import org.infinispan.notifications.KeyValueFilter;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
+import org.infinispan.remoting.RemoteException;
 import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.jgroups.SuspectException;
+import org.infinispan.statetransfer.OutdatedTopologyException;
 import org.infinispan.stats.Stats;
 import org.infinispan.stats.StatsImpl;
 import org.infinispan.transaction.TransactionCoordinator;
@@ -57,6 +65,7 @@
 import org.infinispan.transaction.xa.TransactionXaAdapter;
 import org.infinispan.transaction.xa.recovery.RecoveryManager;
 import org.infinispan.util.concurrent.AbstractInProcessNotifyingFuture;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.concurrent.LegacyNotifyingFutureAdaptor;
 import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.locks.LockManager;
@@ -78,6 +87,7 @@
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -534,6 +544,11 @@ public void addListener(Object listener, KeyFilter filter) {
       notifier.addListener(listener, filter);
    }
 
+   @Override
+   public void addListener(Object listener, KeyValueFilter<?, ?> filter, Converter<?, ?, ?> converter) {
+      notifier.addListener(listener, filter, converter);
+   }
+
    @Override
    public void removeListener(Object listener) {
       notifier.removeListener(listener);
@@ -992,6 +1007,11 @@ public final NotifyingFuture<V> putAsync(K key, V value, long lifespan, TimeUnit
    }
 
    final NotifyingFuture<V> putAsync(final K key, final V value, final Metadata metadata, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      if (value != null && isRemoteResponseDeferrable(key, explicitFlags)) {
+         PutKeyValueCommand command = commandsFactory.buildPutKeyValueCommand(key, value, metadata,
+                                                                              withFutureReturnValue(explicitFlags));
+         return invokeWithDeferredResponse(command, explicitClassLoader);
+      }
       final LegacyNotifyingFutureAdaptor<V> result = new LegacyNotifyingFutureAdaptor<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
@@ -1075,6 +1095,12 @@ public final NotifyingFuture<V> putIfAbsentAsync(K key, V value, long lifespan,
 
    final NotifyingFuture<V> putIfAbsentAsync(final K key, final V value, final Metadata metadata,
          final EnumSet<Flag> explicitFlags,final ClassLoader explicitClassLoader) {
+      if (value != null && isRemoteResponseDeferrable(key, explicitFlags)) {
+         PutKeyValueCommand command = commandsFactory.buildPutKeyValueCommand(key, value, metadata,
+                                                                              withFutureReturnValue(explicitFlags));
+         command.setPutIfAbsent(true);
+         return invokeWithDeferredResponse(command, explicitClassLoader);
+      }
       final LegacyNotifyingFutureAdaptor<V> result = new LegacyNotifyingFutureAdaptor<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
@@ -1098,6 +1124,10 @@ public final NotifyingFuture<V> removeAsync(Object key) {
    }
 
    final NotifyingFuture<V> removeAsync(final Object key, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      if (isRemoteResponseDeferrable(key, explicitFlags)) {
+         RemoveCommand command = commandsFactory.buildRemoveCommand(key, null, withFutureReturnValue(explicitFlags));
+         return invokeWithDeferredResponse(command, explicitClassLoader);
+      }
       final LegacyNotifyingFutureAdaptor<V> result = new LegacyNotifyingFutureAdaptor<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
@@ -1121,6 +1151,10 @@ public final NotifyingFuture<Boolean> removeAsync(Object key, Object value) {
    }
 
    final NotifyingFuture<Boolean> removeAsync(final Object key, final Object value, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      if (value != null && isRemoteResponseDeferrable(key, explicitFlags)) {
+         RemoveCommand command = commandsFactory.buildRemoveCommand(key, value, withFutureReturnValue(explicitFlags));
+         return invokeWithDeferredResponse(command, explicitClassLoader);
+      }
       final LegacyNotifyingFutureAdaptor<Boolean> result = new LegacyNotifyingFutureAdaptor<Boolean>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<Boolean> returnValue = asyncExecutor.submit(new Callable<Boolean>() {
@@ -1148,6 +1182,11 @@ public final NotifyingFuture<V> replaceAsync(K key, V value, long lifespan, Time
 
    final NotifyingFuture<V> replaceAsync(final K key, final V value, final Metadata metadata,
          final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      if (value != null && isRemoteResponseDeferrable(key, explicitFlags)) {
+         ReplaceCommand command = commandsFactory.buildReplaceCommand(key, null, value, metadata,
+                                                                      withFutureReturnValue(explicitFlags));
+         return invokeWithDeferredResponse(command, explicitClassLoader);
+      }
       final LegacyNotifyingFutureAdaptor<V> result = new LegacyNotifyingFutureAdaptor<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
@@ -1175,6 +1214,11 @@ public final NotifyingFuture<Boolean> replaceAsync(K key, V oldValue, V newValue
 
    final NotifyingFuture<Boolean> replaceAsync(final K key, final V oldValue, final V newValue,
          final Metadata metadata, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      if (oldValue != null && newValue != null && isRemoteResponseDeferrable(key, explicitFlags)) {
+         ReplaceCommand command = commandsFactory.buildReplaceCommand(key, oldValue, newValue, metadata,
+                                                                      withFutureReturnValue(explicitFlags));
+         return invokeWithDeferredResponse(command, explicitClassLoader);
+      }
       final LegacyNotifyingFutureAdaptor<Boolean> result = new LegacyNotifyingFutureAdaptor<Boolean>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<Boolean> returnValue = asyncExecutor.submit(new Callable<Boolean>() {
@@ -1192,6 +1236,81 @@ public Boolean call() throws Exception {
       return result;
    }
 
+   /**
+    * Checks whether an async single key write can be sent to the primary owner without waiting for its response, i.e.
+    * whether the cache is synchronous, non-transactional, and none of the interceptors needs the actual return value
+    * before it's returned to the caller. If the local node is the primary owner, the command is executed locally and
+    * there is no response to wait for.
+    */
+   private boolean isRemoteResponseDeferrable(Object key, EnumSet<Flag> explicitFlags) {
+      if (key == null || !isDeferrableConfiguration()) {
+         return false;
+      }
+      if (explicitFlags != null && (explicitFlags.contains(FORCE_ASYNCHRONOUS) || explicitFlags.contains(CACHE_MODE_LOCAL)
+            || explicitFlags.contains(PUT_FOR_EXTERNAL_READ))) {
+         return false;
+      }
+      return !distributionManager.getPrimaryLocation(key).equals(rpcManager.getAddress());
+   }
+
+   /**
+    * The interceptors of these configurations need the actual return value of the command, so they can't be given a
+    * future instead.
+    */
+   private boolean isDeferrableConfiguration() {
+      return distributionManager != null && config.clustering().cacheMode().isSynchronous()
+            && !config.transaction().transactionMode().isTransactional() && !config.clustering().l1().enabled()
+            && !config.compatibility().enabled() && !config.storeAsBinary().enabled() && !config.indexing().enabled()
+            && config.customInterceptors().interceptors().isEmpty();
+   }
+
+   private static EnumSet<Flag> withFutureReturnValue(EnumSet<Flag> explicitFlags) {
+      EnumSet<Flag> flags = explicitFlags == null ? EnumSet.noneOf(Flag.class) : EnumSet.copyOf(explicitFlags);
+      flags.add(FUTURE_RETURN_VALUE);
+      return flags;
+   }
+
+   /**
+    * A thread of the async executor sends the command to the primary owner, but doesn't wait for the response: the
+    * returned future is completed once the response is received, without holding a thread in the meantime.
+    */
+   private <X> NotifyingFuture<X> invokeWithDeferredResponse(final DataWriteCommand command,
+                                                             final ClassLoader explicitClassLoader) {
+      final CompletableNotifyingFuture<X> result = new CompletableNotifyingFuture<X>();
+      final InvocationContext ctx = getInvocationContextForWrite(explicitClassLoader, 1, false);
+      asyncExecutor.execute(new Runnable() {
+         @Override
+         @SuppressWarnings("unchecked")
+         public void run() {
+            Object retval;
+            try {
+               retval = invoker.invoke(ctx, command);
+            } catch (Throwable t) {
+               result.completeExceptionally(t);
+               return;
+            }
+            if (retval instanceof NotifyingFuture) {
+               ((NotifyingFuture<Object>) retval).attachListener(new org.infinispan.commons.util.concurrent.FutureListener<Object>() {
+                  @Override
+                  public void futureDone(Future<Object> response) {
+                     // the caller's listeners must not run in the thread that received the response
+                     Runnable handler = new DeferredResponseHandler<X>(command, explicitClassLoader, response, result);
+                     try {
+                        asyncExecutor.execute(handler);
+                     } catch (RejectedExecutionException e) {
+                        handler.run();
+                     }
+                  }
+               });
+            } else {
+               // the local node became the primary owner in the meantime
+               result.complete((X) retval);
+            }
+         }
+      });
+      return result;
+   }
+
    @Override
    public NotifyingFuture<V> getAsync(K key) {
       return getAsync(key, null, null);
@@ -1202,6 +1321,8 @@ NotifyingFuture<V> getAsync(final K key, final EnumSet<Flag> explicitFlags, fina
       // Optimization to not start a new thread only when the operation is cheap:
       if (asyncSkipsThread(explicitFlags, key)) {
          return wrapInFuture(get(key, explicitFlags, explicitClassLoader));
+      } else if (isRemoteReadDeferrable(explicitFlags)) {
+         return getWithDeferredResponse(key, explicitFlags, explicitClassLoader);
       } else {
          // Make sure the flags are cleared
          final EnumSet<Flag> appliedFlags;
@@ -1228,6 +1349,91 @@ public V call() throws Exception {
       }
    }
 
+   /**
+    * A read of a key that isn't local only needs to send a {@link org.infinispan.commands.remote.ClusteredGetCommand}
+    * and wait for the response, unless a store has to be checked as well.
+    * <p/>
+    * Must only be called when {@link #asyncSkipsThread(EnumSet, Object)} returned {@code false}.
+    */
+   private boolean isRemoteReadDeferrable(EnumSet<Flag> explicitFlags) {
+      if (!config.clustering().cacheMode().isDistributed() || !isDeferrableConfiguration() || !isSkipLoader(explicitFlags)) {
+         return false;
+      }
+      return explicitFlags == null || !explicitFlags.contains(FORCE_ASYNCHRONOUS);
+   }
+
+   /**
+    * The calling thread runs the interceptors and sends the remote get to the primary owner, but the returned future
+    * is completed once the response is received, without holding a thread in the meantime. If the primary owner
+    * can't answer, e.g. because of a topology change, the read is retried with a blocking get on the async executor.
+    */
+   @SuppressWarnings("unchecked")
+   private NotifyingFuture<V> getWithDeferredResponse(final K key, final EnumSet<Flag> explicitFlags,
+                                                      final ClassLoader explicitClassLoader) {
+      final EnumSet<Flag> appliedFlags = explicitFlags == null ? null : explicitFlags.clone();
+      InvocationContext ctx = getInvocationContextForRead(null, explicitClassLoader, 1);
+      GetKeyValueCommand command = commandsFactory.buildGetKeyValueCommand(key, withFutureReturnValue(explicitFlags), false);
+      if (explicitFlags != null) {
+         explicitFlags.clear();
+      }
+      Object retval;
+      try {
+         retval = invoker.invoke(ctx, command);
+      } catch (RuntimeException e) {
+         final CompletableNotifyingFuture<V> failed = new CompletableNotifyingFuture<V>();
+         failed.completeExceptionally(e);
+         return failed;
+      }
+      if (!(retval instanceof NotifyingFuture)) {
+         // the local node became an owner in the meantime
+         return wrapInFuture(retval);
+      }
+
+      final CompletableNotifyingFuture<V> result = new CompletableNotifyingFuture<V>();
+      ((NotifyingFuture<Object>) retval).attachListener(new org.infinispan.commons.util.concurrent.FutureListener<Object>() {
+         @Override
+         public void futureDone(final Future<Object> response) {
+            // the caller's listeners must not run in the thread that received the response
+            Runnable handler = new Runnable() {
+               @Override
+               @SuppressWarnings("unchecked")
+               public void run() {
+                  try {
+                     result.complete((V) response.get());
+                  } catch (ExecutionException e) {
+                     Throwable cause = e.getCause();
+                     while (cause instanceof RemoteException) {
+                        cause = cause.getCause();
+                     }
+                     if (cause instanceof OutdatedTopologyException || cause instanceof SuspectException) {
+                        if (trace) log.tracef("Retrying the async get of key %s with a blocking get", key);
+                        retry();
+                     } else {
+                        result.completeExceptionally(e.getCause());
+                     }
+                  } catch (Throwable t) {
+                     result.completeExceptionally(t);
+                  }
+               }
+
+               private void retry() {
+                  try {
+                     result.complete(get(key, appliedFlags, explicitClassLoader));
+                  } catch (Throwable t) {
+                     result.completeExceptionally(t);
+                  }
+               }
+            };
+            try {
+               asyncExecutor.execute(handler);
+            } catch (RejectedExecutionException e) {
+               handler.run();
+            }
+         }
+      });
+      return result;
+   }
+
    /**
     * Encodes the cases for an asyncGet operation in which it makes sense to actually perform the operation in sync.
     *
@@ -1369,6 +1575,31 @@ public NotifyingFuture<V> putAsync(K key, V value, Metadata metadata) {
       return putAsync(key, value, metadata, null, null);
    }
 
+   @Override
+   public <R> R compute(K key, ComputeFunction<K, V, R> function) {
+      return compute(key, function, defaultMetadata, null, null);
+   }
+
+   @Override
+   public <R> R compute(K key, ComputeFunction<K, V, R> function, Metadata metadata) {
+      return compute(key, function, metadata, null, null);
+   }
+
+   @SuppressWarnings("unchecked")
+   final <R> R compute(K key, ComputeFunction<K, V, R> function, Metadata metadata,
+         EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
+      assertKeyNotNull(key);
+      if (function == null) {
+         throw new NullPointerException("Null functions are not supported!");
+      }
+      if (config.transaction().transactionMode().isTransactional()) {
+         throw new UnsupportedOperationException("compute() is not supported by transactional caches");
+      }
+      InvocationContext ctx = getInvocationContextForWrite(explicitClassLoader, 1, false);
+      ComputeCommand command = commandsFactory.buildComputeCommand(key, function, metadata, explicitFlags);
+      return (R) invoker.invoke(ctx, command);
+   }
+
    private void associateImplicitTransactionWithCurrentThread(InvocationContext ctx) throws InvalidTransactionException, SystemException {
       if (isTxInjected(ctx)) {
          Transaction transaction = ((TxInvocationContext) ctx).getTransaction();
@@ -1377,4 +1608,57 @@ private void associateImplicitTransactionWithCurrentThread(InvocationContext ctx
          transactionManager.resume(transaction);
       }
    }
+
+   /**
+    * Completes the future returned to the caller with the response of the primary owner. If the primary owner had a
+    * different topology, the command is retried the same way as synchronous commands are.
+    */
+   private class DeferredResponseHandler<X> implements Runnable {
+      private final DataWriteCommand command;
+      private final ClassLoader explicitClassLoader;
+      private final Future<Object> response;
+      private final CompletableNotifyingFuture<X> result;
+
+      DeferredResponseHandler(DataWriteCommand command, ClassLoader explicitClassLoader, Future<Object> response,
+                              CompletableNotifyingFuture<X> result) {
+         this.command = command;
+         this.explicitClassLoader = explicitClassLoader;
+         this.response = response;
+         this.result = result;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public void run() {
+         try {
+            result.complete((X) response.get());
+         } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof RemoteException) {
+               cause = cause.getCause();
+            }
+            if (cause instanceof OutdatedTopologyException) {
+               if (trace) log.tracef("Retrying command because of topology change: %s", command);
+               retry();
+            } else {
+               result.completeExceptionally(e.getCause());
+            }
+         } catch (Throwable t) {
+            result.completeExceptionally(t);
+         }
+      }
+
+      @SuppressWarnings("unchecked")
+      private void retry() {
+         // StateTransferInterceptor takes care of any further topology change
+         Set<Flag> flags = EnumSet.copyOf(command.getFlags());
+         flags.remove(FUTURE_RETURN_VALUE);
+         command.setFlags(flags);
+         try {
+            result.complete((X) invoker.invoke(getInvocationContextForWrite(explicitClassLoader, 1, false), command));
+         } catch (Throwable t) {
+            result.completeExceptionally(t);
+         }
+      }
+   }
 }
@@ -11,11 +11,14 @@
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import org.infinispan.compute.ComputeFunction;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.metadata.Metadata;
+import org.infinispan.notifications.Converter;
 import org.infinispan.notifications.KeyFilter;
+import org.infinispan.notifications.KeyValueFilter;
 import org.infinispan.util.concurrent.NotifyingFuture;
 
 /**
@@ -466,6 +469,11 @@ public void addListener(Object listener, KeyFilter filter) {
       cacheImplementation.notifier.addListener(listener, filter, classLoader.get());
    }
 
+   @Override
+   public void addListener(Object listener, KeyValueFilter<?, ?> filter, Converter<?, ?, ?> converter) {
+      cacheImplementation.notifier.addListener(listener, filter, converter, classLoader.get());
+   }
+
    @Override
    public V put(K key, V value, Metadata metadata) {
       return cacheImplementation.put(key, value, metadata, flags, classLoader.get());
@@ -491,6 +499,16 @@ public V replace(K key, V value, Metadata metadata) {
       return cacheImplementation.replace(key, value, metadata, flags, classLoader.get());
    }
 
+   @Override
+   public <R> R compute(K key, ComputeFunction<K, V, R> function) {
+      return cacheImplementation.compute(key, function, cacheImplementation.defaultMetadata, flags, classLoader.get());
+   }
+
+   @Override
+   public <R> R compute(K key, ComputeFunction<K, V, R> function, Metadata metadata) {
+      return cacheImplementation.compute(key, function, metadata, flags, classLoader.get());
+   }
+
    @Override
    public CacheEntry getCacheEntry(K key) {
       return cacheImplementation.getCacheEntry(key, flags, classLoader.get());
@@ -81,4 +81,30 @@ public static <K, V> KeyAffinityService<K> newLocalKeyAffinityService(Cache<K, V
    public static <K, V> KeyAffinityService<K> newLocalKeyAffinityService(Cache<K, V> cache, KeyGenerator<K> keyGenerator, Executor ex, int keyBufferSize) {
       return newLocalKeyAffinityService(cache, keyGenerator, ex, keyBufferSize, true);
    }
+
+   /**
+    * Creates a {@link KeyAffinityService} which pools the generated keys per segment of the consistent hash instead of
+    * per address. The pools survive topology changes, as the segment of a key never changes, and
+    * {@link KeyAffinityService#getKeyForAddress(Address)} never waits for the background key generation.
+    *
+    * @param cache          the distributed cache for which this service runs
+    * @param filter         the addresses for which to generate keys, or null for all the cluster members
+    * @param keyGenerator   allows one to control how the generated keys look like.
+    * @param ex             used for refilling the key pools. On service shutdown, the executor won't be stopped.
+    * @param keysPerSegment the number of generated keys pooled for each segment.
+    * @param start          weather to start the service or not
+    * @throws IllegalStateException if the supplied cache is not DIST.
+    * @see SegmentedKeyAffinityServiceImpl
+    */
+   public static <K, V> KeyAffinityService<K> newSegmentedKeyAffinityService(Cache<K, V> cache, Collection<Address> filter, KeyGenerator<K> keyGenerator, Executor ex, int keysPerSegment, boolean start) {
+      return new SegmentedKeyAffinityServiceImpl<K>(ex, cache, keyGenerator, keysPerSegment, filter, start);
+   }
+
+   /**
+    * Same as {@link #newSegmentedKeyAffinityService(org.infinispan.Cache, java.util.Collection, KeyGenerator,
+    * java.util.concurrent.Executor, int, boolean)} with no filter and start == true.
+    */
+   public static <K, V> KeyAffinityService<K> newSegmentedKeyAffinityService(Cache<K, V> cache, KeyGenerator<K> keyGenerator, Executor ex, int keysPerSegment) {
+      return newSegmentedKeyAffinityService(cache, null, keyGenerator, ex, keysPerSegment, true);
+   }
 }
@@ -0,0 +1,376 @@
+package org.infinispan.affinity;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.Cache;
+import org.infinispan.commons.CacheException;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.TopologyChanged;
+import org.infinispan.notifications.cachelistener.event.TopologyChangedEvent;
+import org.infinispan.notifications.cachemanagerlistener.annotation.CacheStopped;
+import org.infinispan.notifications.cachemanagerlistener.event.CacheStoppedEvent;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link KeyAffinityService} which keeps a pool of generated keys per segment instead of per address.
+ * <p/>
+ * The segment of a key only depends on its hash, so the pools survive topology changes: when the topology changes,
+ * only the (cheap) mapping from addresses to the segments they are the primary owner of is recomputed. Every
+ * generated key is kept in the pool of its segment, so keys are never dropped because their owner's pool is full while
+ * another one is empty.
+ * <p/>
+ * {@link #getKeyForAddress(Address)} never waits for the key generator: it takes a key from the pool of one of the
+ * segments the address is the primary owner of, and only if all of them are empty it generates keys in the caller's
+ * thread until one maps to the address, which takes (number of segments / number of segments owned by the address)
+ * attempts on average. The pools are refilled in the background, by a task submitted to the executor only when a pool
+ * runs low. The caller only waits if the address is a member which doesn't own any segment yet, e.g. a joiner before
+ * the rebalance, as no key can map to it until the topology changes.
+ *
+ * @see KeyAffinityServiceFactory#newSegmentedKeyAffinityService(Cache, Collection, KeyGenerator, Executor, int, boolean)
+ * @since 6.0
+ */
+@ThreadSafe
+public class SegmentedKeyAffinityServiceImpl<K> implements KeyAffinityService<K> {
+
+   private static final Log log = LogFactory.getLog(SegmentedKeyAffinityServiceImpl.class);
+
+   private final Executor executor;
+   private final Cache<? extends K, ?> cache;
+   private final KeyGenerator<? extends K> keyGenerator;
+   private final int keysPerSegment;
+   private final Set<Address> filter;
+   private final AtomicBoolean refillScheduled = new AtomicBoolean();
+   private final AtomicInteger nextSegment = new AtomicInteger();
+   private final Runnable refillTask = new RefillTask();
+   private final TopologyListener listener = new TopologyListener();
+   private final Object topologyChanged = new Object();
+
+   private volatile BlockingQueue<K>[] segmentKeys;
+   private volatile Ownership ownership;
+   private volatile boolean started;
+   /** Incremented while holding the {@link #topologyChanged} monitor whenever the ownership changes */
+   private volatile int generation;
+
+   public SegmentedKeyAffinityServiceImpl(Executor executor, Cache<? extends K, ?> cache,
+                                          KeyGenerator<? extends K> keyGenerator, int keysPerSegment,
+                                          Collection<Address> filter, boolean start) {
+      if (keysPerSegment <= 0)
+         throw new IllegalArgumentException("The number of keys per segment must be positive: " + keysPerSegment);
+      this.executor = executor;
+      this.cache = cache;
+      this.keyGenerator = keyGenerator;
+      this.keysPerSegment = keysPerSegment;
+      this.filter = filter != null ? Collections.unmodifiableSet(new HashSet<Address>(filter)) : null;
+      if (start)
+         start();
+   }
+
+   @Override
+   public K getCollocatedKey(K otherKey) {
+      Address address = getDistributionManager().getConsistentHash().locatePrimaryOwner(otherKey);
+      return getKeyForAddress(address);
+   }
+
+   @Override
+   public K getKeyForAddress(Address address) {
+      if (!started) {
+         throw new IllegalStateException("You have to start the service first!");
+      }
+      if (address == null)
+         throw new NullPointerException("Null address not supported!");
+
+      if (filter != null && !filter.contains(address))
+         throw new IllegalStateException("Address " + address + " is not accepted by the filter of the service");
+
+      K key = null;
+      while (key == null) {
+         int observedGeneration = generation;
+         Ownership ownership = this.ownership;
+         int[] segments = ownership.primarySegments.get(address);
+         if (segments == null) {
+            if (!ownership.ch.getMembers().contains(address))
+               throw new IllegalStateException("Address " + address + " is no longer in the cluster");
+            // a member which is not the primary owner of any segment yet will get some after the rebalance
+            awaitTopologyChange(observedGeneration);
+            continue;
+         }
+         key = pollKey(segments);
+         if (key == null) {
+            scheduleRefill();
+            key = generateKey(address, ownership);
+         }
+      }
+      log.tracef("Returning key %s for address %s", key, address);
+      return key;
+   }
+
+   @Override
+   public void start() {
+      if (started) {
+         log.debug("Service already started, ignoring call to start!");
+         return;
+      }
+      ConsistentHash ch = getDistributionManager().getConsistentHash();
+      segmentKeys = newSegmentPools(ch.getNumSegments());
+      ownership = new Ownership(ch, filter);
+      cache.getCacheManager().addListener(listener);
+      cache.addListener(listener);
+      started = true;
+      scheduleRefill();
+   }
+
+   @Override
+   public void stop() {
+      if (!started) {
+         log.debug("Ignoring call to stop as service is not started.");
+         return;
+      }
+      started = false;
+      cache.getCacheManager().removeListener(listener);
+      cache.removeListener(listener);
+      signalWaitingCallers();
+   }
+
+   @Override
+   public boolean isStarted() {
+      return started;
+   }
+
+   /**
+    * @return the number of keys currently pooled for each segment.
+    */
+   public int[] getPooledKeyCounts() {
+      BlockingQueue<K>[] pools = segmentKeys;
+      int[] counts = new int[pools.length];
+      for (int i = 0; i < pools.length; i++) {
+         counts[i] = pools[i].size();
+      }
+      return counts;
+   }
+
+   /**
+    * @return the segments pooled keys are generated for, i.e. the ones whose primary owner passes the filter.
+    */
+   public Set<Integer> getPooledSegments() {
+      Ownership ownership = this.ownership;
+      Set<Integer> segments = new HashSet<Integer>();
+      for (int i = 0; i < ownership.pooled.length; i++) {
+         if (ownership.pooled[i]) segments.add(i);
+      }
+      return segments;
+   }
+
+   void handleTopologyChange(ConsistentHash ch) {
+      ownership = new Ownership(ch, filter);
+      log.tracef("Updated the segment ownership after a topology change: %s", ownership.primarySegments.keySet());
+      // segments that moved to an address passing the filter have empty pools
+      scheduleRefill();
+      signalWaitingCallers();
+   }
+
+   private K pollKey(int[] segments) {
+      BlockingQueue<K>[] pools = segmentKeys;
+      // start from a different segment every time, so that the pools are drained evenly
+      int start = (nextSegment.getAndIncrement() & Integer.MAX_VALUE) % segments.length;
+      for (int i = 0; i < segments.length; i++) {
+         BlockingQueue<K> pool = pools[segments[(start + i) % segments.length]];
+         K key = pool.poll();
+         if (key != null) {
+            if (pool.size() < keysPerSegment * KeyAffinityServiceImpl.THRESHOLD) {
+               scheduleRefill();
+            }
+            return key;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Generates keys in the caller's thread until one maps to the given address. The keys mapping to other segments
+    * are not wasted, they are added to the pools.
+    *
+    * @return the key, or null if the address lost all its segments in a topology change
+    */
+   private K generateKey(Address address, Ownership ownership) {
+      BlockingQueue<K>[] pools = segmentKeys;
+      while (started) {
+         K key = keyGenerator.getKey();
+         int segment = ownership.ch.getSegment(key);
+         if (address.equals(ownership.ch.locatePrimaryOwnerForSegment(segment)))
+            return key;
+         if (ownership.pooled[segment])
+            pools[segment].offer(key);
+
+         Ownership current = this.ownership;
+         if (current != ownership) {
+            if (!current.primarySegments.containsKey(address))
+               return null;
+            ownership = current;
+         }
+      }
+      throw new IllegalStateException("The service was stopped");
+   }
+
+   /**
+    * Waits until the topology changes or the service is stopped.
+    */
+   private void awaitTopologyChange(int observedGeneration) {
+      try {
+         synchronized (topologyChanged) {
+            while (generation == observedGeneration) {
+               if (!started)
+                  throw new IllegalStateException("The service was stopped");
+               topologyChanged.wait();
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException("Interrupted while waiting for a key", e);
+      }
+   }
+
+   private void signalWaitingCallers() {
+      synchronized (topologyChanged) {
+         generation++;
+         topologyChanged.notifyAll();
+      }
+   }
+
+   private void scheduleRefill() {
+      if (started && refillScheduled.compareAndSet(false, true)) {
+         executor.execute(refillTask);
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private BlockingQueue<K>[] newSegmentPools(int numSegments) {
+      BlockingQueue<K>[] pools = new BlockingQueue[numSegments];
+      for (int i = 0; i < numSegments; i++) {
+         pools[i] = new ArrayBlockingQueue<K>(keysPerSegment);
+      }
+      return pools;
+   }
+
+   private DistributionManager getDistributionManager() {
+      DistributionManager distributionManager = cache.getAdvancedCache().getDistributionManager();
+      if (distributionManager == null) {
+         throw new IllegalStateException("Null distribution manager. Is this an distributed(v.s. replicated) cache?");
+      }
+      return distributionManager;
+   }
+
+   /**
+    * Fills the pools of all the segments owned by the addresses passing the filter, and exits when they are full.
+    */
+   private class RefillTask implements Runnable {
+
+      @Override
+      public void run() {
+         try {
+            while (started && fill() > 0) {
+               // the ownership changed while filling, start over with the new one
+            }
+         } finally {
+            refillScheduled.set(false);
+         }
+         // keys might have been taken after the last check, but before the task was marked as done
+         if (started && missingKeys(ownership) > 0) {
+            scheduleRefill();
+         }
+      }
+
+      private int fill() {
+         Ownership ownership = SegmentedKeyAffinityServiceImpl.this.ownership;
+         BlockingQueue<K>[] pools = segmentKeys;
+         int missing = missingKeys(ownership);
+         log.tracef("Generating %d keys", missing);
+         while (missing > 0 && started && ownership == SegmentedKeyAffinityServiceImpl.this.ownership) {
+            K key = keyGenerator.getKey();
+            int segment = ownership.ch.getSegment(key);
+            if (ownership.pooled[segment] && pools[segment].offer(key))
+               missing--;
+         }
+         return missing;
+      }
+
+      private int missingKeys(Ownership ownership) {
+         BlockingQueue<K>[] pools = segmentKeys;
+         int missing = 0;
+         for (int i = 0; i < pools.length; i++) {
+            if (ownership.pooled[i]) missing += pools[i].remainingCapacity();
+         }
+         return missing;
+      }
+   }
+
+   /**
+    * The primary owner of each segment in a given topology, as seen by the service.
+    */
+   private static final class Ownership {
+      final ConsistentHash ch;
+      final Map<Address, int[]> primarySegments;
+      final boolean[] pooled;
+
+      Ownership(ConsistentHash ch, Set<Address> filter) {
+         this.ch = ch;
+         int numSegments = ch.getNumSegments();
+         this.pooled = new boolean[numSegments];
+         Map<Address, List<Integer>> owned = new HashMap<Address, List<Integer>>();
+         for (int i = 0; i < numSegments; i++) {
+            Address owner = ch.locatePrimaryOwnerForSegment(i);
+            if (owner != null && (filter == null || filter.contains(owner))) {
+               pooled[i] = true;
+               List<Integer> segments = owned.get(owner);
+               if (segments == null) {
+                  segments = new ArrayList<Integer>();
+                  owned.put(owner, segments);
+               }
+               segments.add(i);
+            }
+         }
+         Map<Address, int[]> segments = new HashMap<Address, int[]>(owned.size());
+         for (Map.Entry<Address, List<Integer>> e : owned.entrySet()) {
+            int[] array = new int[e.getValue().size()];
+            for (int i = 0; i < array.length; i++) {
+               array[i] = e.getValue().get(i);
+            }
+            segments.put(e.getKey(), array);
+         }
+         this.primarySegments = segments;
+      }
+   }
+
+   @Listener(sync = true)
+   public class TopologyListener {
+
+      @TopologyChanged
+      public void handleTopologyChange(TopologyChangedEvent<?, ?> tce) {
+         if (!tce.isPre()) SegmentedKeyAffinityServiceImpl.this.handleTopologyChange(tce.getConsistentHashAtEnd());
+      }
+
+      @CacheStopped
+      public void handleCacheStopped(CacheStoppedEvent cse) {
+         if (cache.getName().equals(cse.getCacheName())) {
+            log.tracef("Cache stopped, stopping the service: %s", cse);
+            stop();
+         }
+      }
+   }
+}
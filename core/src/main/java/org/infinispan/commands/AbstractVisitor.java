@@ -62,6 +62,11 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
       return handleDefault(ctx, command);
    }
 
+   @Override
+   public Object visitComputeCommand(InvocationContext ctx, ComputeCommand command) throws Throwable {
+      return handleDefault(ctx, command);
+   }
+
    // read commands
 
    @Override
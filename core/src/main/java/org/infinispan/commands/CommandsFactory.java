@@ -24,6 +24,7 @@
 import org.infinispan.commands.tx.VersionedCommitCommand;
 import org.infinispan.commands.tx.VersionedPrepareCommand;
 import org.infinispan.commands.write.*;
+import org.infinispan.compute.ComputeFunction;
 import org.infinispan.context.Flag;
 import org.infinispan.distexec.mapreduce.Mapper;
 import org.infinispan.distexec.mapreduce.Reducer;
@@ -107,6 +108,16 @@ public interface CommandsFactory {
     */
    ReplaceCommand buildReplaceCommand(Object key, Object oldValue, Object newValue, Metadata metadata, Set<Flag> flags);
 
+   /**
+    * Builds a ComputeCommand
+    * @param key key of the entry to compute
+    * @param function function computing the new value, applied by the primary owner
+    * @param metadata metadata of the entry, if the function sets a new value
+    * @param flags Command flags provided by cache
+    * @return a ComputeCommand
+    */
+   ComputeCommand buildComputeCommand(Object key, ComputeFunction function, Metadata metadata, Set<Flag> flags);
+
    /**
     * Builds a SizeCommand
     * @param flags Command flags provided by cache
@@ -32,6 +32,7 @@
 import org.infinispan.commands.tx.totalorder.TotalOrderVersionedPrepareCommand;
 import org.infinispan.commands.write.ApplyDeltaCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.ComputeCommand;
 import org.infinispan.commands.write.EvictCommand;
 import org.infinispan.commands.write.InvalidateCommand;
 import org.infinispan.commands.write.InvalidateL1Command;
@@ -40,6 +41,8 @@
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.compute.ComputeFunction;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.InternalEntryFactory;
@@ -115,6 +118,7 @@ public class CommandsFactoryImpl implements CommandsFactory {
    private BackupSender backupSender;
    private CancellationService cancellationService;
    private TimeService timeService;
+   private StreamingMarshaller marshaller;
 
    private Map<Byte, ModuleCommandInitializer> moduleCommandInitializers;
 
@@ -126,7 +130,8 @@ public void setupDependencies(DataContainer container, CacheNotifier notifier, C
                                  RecoveryManager recoveryManager, StateProvider stateProvider, StateConsumer stateConsumer,
                                  LockManager lockManager, InternalEntryFactory entryFactory, MapReduceManager mapReduceManager, 
                                  StateTransferManager stm, BackupSender backupSender, CancellationService cancellationService,
-                                 TimeService timeService) {
+                                 TimeService timeService,
+                                 @ComponentName(KnownComponentNames.CACHE_MARSHALLER) StreamingMarshaller marshaller) {
       this.dataContainer = container;
       this.notifier = notifier;
       this.cache = cache;
@@ -146,6 +151,7 @@ public void setupDependencies(DataContainer container, CacheNotifier notifier, C
       this.backupSender = backupSender;
       this.cancellationService = cancellationService;
       this.timeService = timeService;
+      this.marshaller = marshaller;
    }
 
    @Start(priority = 1)
@@ -185,6 +191,11 @@ public ReplaceCommand buildReplaceCommand(Object key, Object oldValue, Object ne
       return new ReplaceCommand(key, oldValue, newValue, notifier, metadata, flags, configuration.dataContainer().valueEquivalence());
    }
 
+   @Override
+   public ComputeCommand buildComputeCommand(Object key, ComputeFunction function, Metadata metadata, Set<Flag> flags) {
+      return new ComputeCommand(key, function, notifier, metadata, flags);
+   }
+
    @Override
    public SizeCommand buildSizeCommand(Set<Flag> flags) {
       return new SizeCommand(dataContainer, flags);
@@ -286,6 +297,9 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
          case PutMapCommand.COMMAND_ID:
             ((PutMapCommand) c).init(notifier);
             break;
+         case ComputeCommand.COMMAND_ID:
+            ((ComputeCommand) c).init(notifier);
+            break;
          case RemoveCommand.COMMAND_ID:
             ((RemoveCommand) c).init(notifier, configuration);
             break;
@@ -351,7 +365,7 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
             ClusteredGetCommand clusteredGetCommand = (ClusteredGetCommand) c;
             clusteredGetCommand.initialize(icc, this, entryFactory,
                   interceptorChain, distributionManager, txTable,
-                  configuration.dataContainer().keyEquivalence());
+                  configuration.dataContainer().keyEquivalence(), stateProvider);
             break;
          case LockControlCommand.COMMAND_ID:
             LockControlCommand lcc = (LockControlCommand) c;
@@ -377,7 +391,7 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
             ((StateRequestCommand) c).init(stateProvider);
             break;
          case StateResponseCommand.COMMAND_ID:
-            ((StateResponseCommand) c).init(stateConsumer);
+            ((StateResponseCommand) c).init(stateConsumer, marshaller);
             break;
          case GetInDoubtTransactionsCommand.COMMAND_ID:
             GetInDoubtTransactionsCommand gptx = (GetInDoubtTransactionsCommand) c;
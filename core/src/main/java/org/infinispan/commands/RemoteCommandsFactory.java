@@ -39,6 +39,7 @@
 import org.infinispan.statetransfer.StateResponseCommand;
 import org.infinispan.topology.CacheTopologyControlCommand;
 import org.infinispan.xsite.XSiteAdminCommand;
+import org.infinispan.xsite.XSiteBatchCommand;
 
 import java.util.Map;
 
@@ -113,9 +114,15 @@ public ReplicableCommand fromStream(byte id, Object[] parameters, byte type) {
             case ApplyDeltaCommand.COMMAND_ID:
                command = new ApplyDeltaCommand();
                break;
+            case ComputeCommand.COMMAND_ID:
+               command = new ComputeCommand();
+               break;
             case CacheTopologyControlCommand.COMMAND_ID:
                command = new CacheTopologyControlCommand();
                break;
+            case XSiteBatchCommand.COMMAND_ID:
+               command = new XSiteBatchCommand();
+               break;
             default:
                throw new CacheException("Unknown command id " + id + "!");
          }
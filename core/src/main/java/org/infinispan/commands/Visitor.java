@@ -37,6 +37,8 @@ public interface Visitor {
    
    Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand command) throws Throwable;
 
+   Object visitComputeCommand(InvocationContext ctx, ComputeCommand command) throws Throwable;
+
    // read commands
 
    Object visitSizeCommand(InvocationContext ctx, SizeCommand command) throws Throwable;
@@ -18,6 +18,7 @@
 import org.infinispan.interceptors.InterceptorChain;
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.metadata.Metadata;
+import org.infinispan.statetransfer.StateProvider;
 import org.infinispan.transaction.TransactionTable;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.logging.Log;
@@ -55,6 +56,7 @@ public class ClusteredGetCommand extends BaseRpcCommand implements FlagAffectedC
    private InternalEntryFactory entryFactory;
    private int topologyId;
    private Equivalence keyEquivalence;
+   private StateProvider stateProvider;
    //only used by extended statistics. this boolean is local.
    private boolean isWrite;
 
@@ -81,7 +83,7 @@ public ClusteredGetCommand(Object key, String cacheName, Set<Flag> flags,
 
    public void initialize(InvocationContextContainer icc, CommandsFactory commandsFactory, InternalEntryFactory entryFactory,
          InterceptorChain interceptorChain, DistributionManager distributionManager, TransactionTable txTable,
-         Equivalence keyEquivalence) {
+         Equivalence keyEquivalence, StateProvider stateProvider) {
       this.distributionManager = distributionManager;
       this.icc = icc;
       this.commandsFactory = commandsFactory;
@@ -89,6 +91,7 @@ public void initialize(InvocationContextContainer icc, CommandsFactory commandsF
       this.txTable = txTable;
       this.entryFactory = entryFactory;
       this.keyEquivalence = keyEquivalence;
+      this.stateProvider = stateProvider;
    }
 
    /**
@@ -99,6 +102,8 @@ public void initialize(InvocationContextContainer icc, CommandsFactory commandsF
     */
    @Override
    public InternalCacheValue perform(InvocationContext context) throws Throwable {
+      // the requester might be reading the key because it didn't receive its segment yet
+      if (stateProvider != null) stateProvider.onKeyRequested(getOrigin(), key);
       acquireLocksIfNeeded();
       if (distributionManager != null && distributionManager.isAffectedByRehash(key)) return null;
       // make sure the get command doesn't perform a remote call
@@ -0,0 +1,313 @@
+package org.infinispan.commands.write;
+
+import org.infinispan.commands.MetadataAwareCommand;
+import org.infinispan.commands.Visitor;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.compute.ComputeEntry;
+import org.infinispan.compute.ComputeFunction;
+import org.infinispan.container.entries.MVCCEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.marshall.core.MarshalledValue;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.notifications.cachelistener.CacheNotifier;
+
+import java.util.Set;
+
+import static org.infinispan.commons.util.Util.toStr;
+
+/**
+ * Implements functionality defined by {@link org.infinispan.AdvancedCache#compute(Object, ComputeFunction)}.
+ * <p/>
+ * The function is applied once, by the primary owner of the key while holding its lock. The outcome of the function
+ * is then recorded in the command, so that the backup owners (and retries of the command after a topology change) only
+ * apply it, without marshalling or applying the function again.
+ *
+ * @since 6.0
+ */
+public class ComputeCommand extends AbstractDataWriteCommand implements MetadataAwareCommand {
+   public static final byte COMMAND_ID = 41;
+
+   private ComputeFunction function;
+   private Metadata metadata;
+   private CacheNotifier notifier;
+   private boolean ignorePreviousValue;
+   private boolean successful;
+   private StreamingMarshaller valueMarshaller;
+
+   // the outcome of the function
+   private boolean computed;
+   private boolean modified;
+   private boolean removed;
+   private Object newValue;
+   // not marshalled, only returned by the node which applied the function
+   private Object result;
+
+   public ComputeCommand() {
+   }
+
+   public ComputeCommand(Object key, ComputeFunction function, CacheNotifier notifier, Metadata metadata,
+                         Set<Flag> flags) {
+      super(key, flags);
+      this.function = function;
+      this.notifier = notifier;
+      this.metadata = metadata;
+   }
+
+   public void init(CacheNotifier notifier) {
+      this.notifier = notifier;
+   }
+
+   /**
+    * Set when the cache stores values as binary, so that the new value is wrapped in a {@link MarshalledValue}.
+    */
+   public void setValueMarshaller(StreamingMarshaller valueMarshaller) {
+      this.valueMarshaller = valueMarshaller;
+   }
+
+   @Override
+   public Object acceptVisitor(InvocationContext ctx, Visitor visitor) throws Throwable {
+      return visitor.visitComputeCommand(ctx, this);
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object perform(InvocationContext ctx) throws Throwable {
+      MVCCEntry e = (MVCCEntry) ctx.lookupEntry(key);
+      //possible as in certain situations (e.g. when locking delegation is used) we don't wrap
+      if (e == null) {
+         successful = false;
+         return null;
+      }
+
+      if (!computed) {
+         EntryView view = new EntryView(e);
+         result = function.apply(view);
+         computed = true;
+         // removing an entry which doesn't exist is not a modification
+         modified = view.modified && (view.existed || !view.removed);
+         removed = view.removed;
+         newValue = wrapValue(view.value);
+      }
+
+      successful = modified;
+      if (modified) {
+         if (removed) {
+            performRemove(e, ctx);
+         } else {
+            performPut(e, ctx);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * @return the value returned by the function, if it was applied locally
+    */
+   public Object getResult() {
+      return result;
+   }
+
+   private void performPut(MVCCEntry e, InvocationContext ctx) {
+      Object entryValue = e.isRemoved() ? null : e.getValue();
+      notifier.notifyCacheEntryModified(key, entryValue, entryValue == null, true, ctx, this);
+      e.setValue(newValue);
+      if (e.isRemoved()) {
+         e.setRemoved(false);
+         e.setValid(true);
+      }
+      e.setChanged(true);
+   }
+
+   private void performRemove(MVCCEntry e, InvocationContext ctx) {
+      if (!e.isNull() && !e.isRemoved()) {
+         Object removedValue = e.getValue();
+         notifier.notifyCacheEntryRemoved(key, removedValue, removedValue, true, ctx, this);
+      }
+      e.setRemoved(true);
+      e.setValid(false);
+      e.setChanged(true);
+   }
+
+   private Object wrapValue(Object value) {
+      if (valueMarshaller != null && value != null && !MarshalledValue.isTypeExcluded(value.getClass())) {
+         return new MarshalledValue(value, valueMarshaller);
+      }
+      return value;
+   }
+
+   private static Object unwrap(Object o) {
+      return o instanceof MarshalledValue ? ((MarshalledValue) o).get() : o;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      // once computed, only the outcome is sent
+      return new Object[]{key, computed ? null : function, metadata, computed, modified, removed, newValue,
+                          ignorePreviousValue, Flag.copyWithoutRemotableFlags(flags)};
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public void setParameters(int commandId, Object[] parameters) {
+      if (commandId != COMMAND_ID) throw new IllegalStateException("Invalid method id");
+      key = parameters[0];
+      function = (ComputeFunction) parameters[1];
+      metadata = (Metadata) parameters[2];
+      computed = (Boolean) parameters[3];
+      modified = (Boolean) parameters[4];
+      removed = (Boolean) parameters[5];
+      newValue = parameters[6];
+      ignorePreviousValue = (Boolean) parameters[7];
+      flags = (Set<Flag>) parameters[8];
+   }
+
+   public ComputeFunction getFunction() {
+      return function;
+   }
+
+   /**
+    * @return true if the function removed the entry, once computed
+    */
+   public boolean isRemoval() {
+      return removed;
+   }
+
+   /**
+    * @return the value the function set, once computed, or null if it removed the entry
+    */
+   public Object getNewValue() {
+      return newValue;
+   }
+
+   /**
+    * @return true once the function has been applied, either locally or by the primary owner
+    */
+   public boolean isComputed() {
+      return computed;
+   }
+
+   @Override
+   public Metadata getMetadata() {
+      return metadata;
+   }
+
+   @Override
+   public void setMetadata(Metadata metadata) {
+      this.metadata = metadata;
+   }
+
+   /**
+    * @return true if the function modified the entry, and the command must be replicated to the backup owners
+    */
+   @Override
+   public boolean isSuccessful() {
+      return successful;
+   }
+
+   @Override
+   public boolean isConditional() {
+      return false;
+   }
+
+   @Override
+   public boolean isIgnorePreviousValue() {
+      return ignorePreviousValue;
+   }
+
+   @Override
+   public void setIgnorePreviousValue(boolean ignorePreviousValue) {
+      this.ignorePreviousValue = ignorePreviousValue;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      if (!super.equals(o)) return false;
+
+      ComputeCommand that = (ComputeCommand) o;
+
+      if (computed != that.computed) return false;
+      if (function != null ? !function.equals(that.function) : that.function != null) return false;
+      if (metadata != null ? !metadata.equals(that.metadata) : that.metadata != null) return false;
+      if (newValue != null ? !newValue.equals(that.newValue) : that.newValue != null) return false;
+
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      int result = super.hashCode();
+      result = 31 * result + (function != null ? function.hashCode() : 0);
+      result = 31 * result + (metadata != null ? metadata.hashCode() : 0);
+      result = 31 * result + (computed ? 1 : 0);
+      result = 31 * result + (newValue != null ? newValue.hashCode() : 0);
+      return result;
+   }
+
+   @Override
+   public String toString() {
+      return "ComputeCommand{" +
+            "key=" + toStr(key) +
+            ", function=" + function +
+            ", computed=" + computed +
+            ", modified=" + modified +
+            ", removed=" + removed +
+            ", newValue=" + toStr(newValue) +
+            ", metadata=" + metadata +
+            ", flags=" + flags +
+            ", successful=" + successful +
+            ", ignorePreviousValue=" + ignorePreviousValue +
+            '}';
+   }
+
+   private final class EntryView implements ComputeEntry<Object, Object> {
+      private final boolean existed;
+      private boolean modified;
+      private boolean removed;
+      private Object value;
+
+      EntryView(MVCCEntry entry) {
+         if (!entry.isNull() && !entry.isRemoved()) {
+            value = unwrap(entry.getValue());
+         }
+         existed = value != null;
+      }
+
+      @Override
+      public Object getKey() {
+         return unwrap(key);
+      }
+
+      @Override
+      public Object getValue() {
+         return value;
+      }
+
+      @Override
+      public boolean exists() {
+         return value != null;
+      }
+
+      @Override
+      public void setValue(Object value) {
+         if (value == null) throw new NullPointerException("Null values are not supported!");
+         this.value = value;
+         this.removed = false;
+         this.modified = true;
+      }
+
+      @Override
+      public void remove() {
+         this.value = null;
+         this.removed = true;
+         this.modified = true;
+      }
+   }
+}
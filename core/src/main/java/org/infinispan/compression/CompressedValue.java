@@ -0,0 +1,113 @@
+package org.infinispan.compression;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.io.UnsignedNumeric;
+import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.Util;
+import org.infinispan.marshall.core.Ids;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * The compressed, marshalled form of a value. It records the id of the {@link CompressionCodec} used and the length of
+ * the marshalled value, so that it can be decompressed wherever it ends up: in a {@link
+ * org.infinispan.marshall.core.MarshalledValue}, in a cache store or on another node.
+ *
+ * @since 6.0
+ */
+public final class CompressedValue {
+
+   private final byte codecId;
+   private final int uncompressedLength;
+   private final byte[] payload;
+
+   public CompressedValue(byte codecId, int uncompressedLength, byte[] payload) {
+      this.codecId = codecId;
+      this.uncompressedLength = uncompressedLength;
+      this.payload = payload;
+   }
+
+   public byte getCodecId() {
+      return codecId;
+   }
+
+   public int getUncompressedLength() {
+      return uncompressedLength;
+   }
+
+   public byte[] getPayload() {
+      return payload;
+   }
+
+   /**
+    * Decompresses and unmarshalls the value.
+    */
+   public Object decompress(StreamingMarshaller marshaller) {
+      byte[] bytes = CompressionCodecs.get(codecId).decompress(payload, uncompressedLength);
+      try {
+         return marshaller.objectFromByteBuffer(bytes);
+      } catch (Exception e) {
+         throw new CacheException("Unable to unmarshall compressed value", e);
+      }
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      CompressedValue that = (CompressedValue) o;
+      return codecId == that.codecId && uncompressedLength == that.uncompressedLength
+            && Arrays.equals(payload, that.payload);
+   }
+
+   @Override
+   public int hashCode() {
+      return Arrays.hashCode(payload);
+   }
+
+   @Override
+   public String toString() {
+      return "CompressedValue{" +
+            "codecId=" + codecId +
+            ", uncompressedLength=" + uncompressedLength +
+            ", compressedLength=" + payload.length +
+            '}';
+   }
+
+   public static class Externalizer extends AbstractExternalizer<CompressedValue> {
+
+      @Override
+      public void writeObject(ObjectOutput output, CompressedValue value) throws IOException {
+         output.writeByte(value.codecId);
+         UnsignedNumeric.writeUnsignedInt(output, value.uncompressedLength);
+         UnsignedNumeric.writeUnsignedInt(output, value.payload.length);
+         output.write(value.payload);
+      }
+
+      @Override
+      public CompressedValue readObject(ObjectInput input) throws IOException {
+         byte codecId = input.readByte();
+         int uncompressedLength = UnsignedNumeric.readUnsignedInt(input);
+         byte[] payload = new byte[UnsignedNumeric.readUnsignedInt(input)];
+         input.readFully(payload);
+         return new CompressedValue(codecId, uncompressedLength, payload);
+      }
+
+      @Override
+      public Integer getId() {
+         return Ids.COMPRESSED_VALUE;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public Set<Class<? extends CompressedValue>> getTypeClasses() {
+         return Util.<Class<? extends CompressedValue>>asSet(CompressedValue.class);
+      }
+   }
+}
@@ -0,0 +1,31 @@
+package org.infinispan.compression;
+
+/**
+ * Compresses and decompresses the marshalled form of cache values.
+ * <p/>
+ * The id of the codec is recorded next to every value it compresses, so that the value can be decompressed by any
+ * node or cache store reading it later, even if the cache is configured with a different codec by then. Custom codecs
+ * must therefore use a stable, unique id and be configured on every node which may read the values they produce. Ids
+ * between 0 and 15 are reserved for the codecs shipped with Infinispan.
+ *
+ * @since 6.0
+ */
+public interface CompressionCodec {
+
+   /**
+    * @return the id recorded in the compressed form of the values
+    */
+   byte getId();
+
+   /**
+    * Compresses <tt>length</tt> bytes of the buffer, starting at <tt>offset</tt>.
+    */
+   byte[] compress(byte[] buf, int offset, int length);
+
+   /**
+    * Decompresses the output of {@link #compress(byte[], int, int)}.
+    *
+    * @param uncompressedLength the number of bytes which were compressed
+    */
+   byte[] decompress(byte[] buf, int uncompressedLength);
+}
@@ -0,0 +1,49 @@
+package org.infinispan.compression;
+
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.commons.CacheException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves the codec a value was compressed with from the id recorded in its {@link CompressedValue}. The built-in
+ * codecs are always available, custom ones are registered when a cache configured with them starts.
+ *
+ * @since 6.0
+ */
+public final class CompressionCodecs {
+
+   private static final ConcurrentMap<Byte, CompressionCodec> codecs = new ConcurrentHashMap<Byte, CompressionCodec>();
+
+   static {
+      register(new DeflateCodec());
+   }
+
+   private CompressionCodecs() {
+   }
+
+   /**
+    * Makes the codec available for decompression.
+    *
+    * @throws CacheConfigurationException if a codec of a different type is already registered with the same id
+    */
+   public static void register(CompressionCodec codec) {
+      CompressionCodec existing = codecs.putIfAbsent(codec.getId(), codec);
+      if (existing != null && existing.getClass() != codec.getClass()) {
+         throw new CacheConfigurationException("Compression codec id " + codec.getId() + " of " + codec
+               + " is already used by " + existing);
+      }
+   }
+
+   /**
+    * @throws CacheException if no codec is registered with the given id
+    */
+   public static CompressionCodec get(byte id) {
+      CompressionCodec codec = codecs.get(id);
+      if (codec == null) {
+         throw new CacheException("Unknown compression codec id " + id + ", is the codec configured on this node?");
+      }
+      return codec;
+   }
+}
@@ -0,0 +1,28 @@
+package org.infinispan.compression;
+
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+
+/**
+ * Compresses the values of a cache according to its {@link org.infinispan.configuration.cache.CompressionConfiguration}.
+ *
+ * @since 6.0
+ */
+@Scope(Scopes.NAMED_CACHE)
+public interface CompressionManager {
+
+   boolean isEnabled();
+
+   /**
+    * Compresses the marshalled form of the value if compression is enabled, the marshalled form reaches the
+    * configured threshold and compressing it actually makes it smaller.
+    *
+    * @return a {@link CompressedValue}, or the value itself if it was not compressed
+    */
+   Object compress(Object value);
+
+   /**
+    * @return the original value if the given one is a {@link CompressedValue}, the value itself otherwise
+    */
+   Object decompress(Object value);
+}
@@ -0,0 +1,82 @@
+package org.infinispan.compression;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.cache.CompressionConfiguration;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.marshall.core.MarshalledValue;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
+
+/**
+ * Default {@link CompressionManager}.
+ *
+ * @since 6.0
+ */
+public class CompressionManagerImpl implements CompressionManager {
+
+   private static final Log log = LogFactory.getLog(CompressionManagerImpl.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private StreamingMarshaller marshaller;
+   private Configuration configuration;
+   private boolean enabled;
+   private CompressionCodec codec;
+   private int threshold;
+
+   @Inject
+   public void init(@ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller, Configuration configuration) {
+      this.marshaller = marshaller;
+      this.configuration = configuration;
+   }
+
+   @Start
+   public void start() {
+      CompressionConfiguration compression = configuration.compression();
+      enabled = compression.enabled();
+      if (enabled) {
+         codec = compression.codec();
+         threshold = compression.threshold();
+         CompressionCodecs.register(codec);
+      }
+   }
+
+   @Override
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   @Override
+   public Object compress(Object value) {
+      // a MarshalledValue was already given the chance to be compressed when it was created
+      if (!enabled || value == null || value instanceof CompressedValue || value instanceof MarshalledValue) {
+         return value;
+      }
+      ByteBuffer bytes;
+      try {
+         bytes = marshaller.objectToBuffer(value);
+      } catch (Exception e) {
+         throw new CacheException("Unable to marshall value for compression", e);
+      }
+      if (bytes.getLength() < threshold) {
+         return value;
+      }
+      byte[] compressed = codec.compress(bytes.getBuf(), bytes.getOffset(), bytes.getLength());
+      if (compressed.length >= bytes.getLength()) {
+         if (trace) log.tracef("Value of %d bytes doesn't compress, keeping it as is", bytes.getLength());
+         return value;
+      }
+      return new CompressedValue(codec.getId(), bytes.getLength(), compressed);
+   }
+
+   @Override
+   public Object decompress(Object value) {
+      return value instanceof CompressedValue ? ((CompressedValue) value).decompress(marshaller) : value;
+   }
+}
@@ -0,0 +1,81 @@
+package org.infinispan.compression;
+
+import org.infinispan.commons.CacheException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The default {@link CompressionCodec}: deflate at its fastest level, which favours speed over compression ratio.
+ *
+ * @since 6.0
+ */
+public class DeflateCodec implements CompressionCodec {
+
+   public static final byte ID = 1;
+
+   @Override
+   public byte getId() {
+      return ID;
+   }
+
+   @Override
+   public byte[] compress(byte[] buf, int offset, int length) {
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try {
+         deflater.setInput(buf, offset, length);
+         deflater.finish();
+         ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 16);
+         byte[] chunk = new byte[Math.min(4096, length + 16)];
+         while (!deflater.finished()) {
+            int count = deflater.deflate(chunk);
+            out.write(chunk, 0, count);
+         }
+         return out.toByteArray();
+      } finally {
+         deflater.end();
+      }
+   }
+
+   @Override
+   public byte[] decompress(byte[] buf, int uncompressedLength) {
+      Inflater inflater = new Inflater();
+      try {
+         inflater.setInput(buf);
+         byte[] result = new byte[uncompressedLength];
+         int offset = 0;
+         while (offset < uncompressedLength && !inflater.finished()) {
+            int count = inflater.inflate(result, offset, uncompressedLength - offset);
+            if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+               break;
+            }
+            offset += count;
+         }
+         if (offset != uncompressedLength) {
+            throw new CacheException("Corrupted compressed value: expected " + uncompressedLength + " bytes, got " + offset);
+         }
+         return result;
+      } catch (DataFormatException e) {
+         throw new CacheException("Corrupted compressed value", e);
+      } finally {
+         inflater.end();
+      }
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      return o != null && o.getClass() == getClass();
+   }
+
+   @Override
+   public int hashCode() {
+      return ID;
+   }
+
+   @Override
+   public String toString() {
+      return "DeflateCodec";
+   }
+}
@@ -0,0 +1,36 @@
+package org.infinispan.compute;
+
+/**
+ * The view of a cache entry passed to a {@link ComputeFunction}. Changes are only applied once the function returns,
+ * and the last one wins.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @since 6.0
+ */
+public interface ComputeEntry<K, V> {
+
+   K getKey();
+
+   /**
+    * @return the current value, reflecting the changes made by the function, or null if the entry doesn't exist
+    */
+   V getValue();
+
+   /**
+    * @return true if the key is mapped to a value, taking into account the changes made by the function
+    */
+   boolean exists();
+
+   /**
+    * Sets the new value of the entry, creating it if it doesn't exist.
+    *
+    * @param value the new value, which can't be null
+    */
+   void setValue(V value);
+
+   /**
+    * Removes the entry.
+    */
+   void remove();
+}
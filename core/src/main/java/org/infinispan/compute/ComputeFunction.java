@@ -0,0 +1,26 @@
+package org.infinispan.compute;
+
+/**
+ * A function computing a new value for a cache entry from its current value, applied by {@link
+ * org.infinispan.AdvancedCache#compute(Object, ComputeFunction)}.
+ * <p/>
+ * In clustered caches the function is shipped to the primary owner of the key and applied there while holding the lock
+ * on the entry, so implementations must be marshallable. Only the outcome (the new value, or the removal of the entry)
+ * is replicated to the backup owners. The function must not access the cache, and must not modify the current value in
+ * place: new values are always set with {@link ComputeEntry#setValue(Object)}.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @param <R> the type of the result returned to the caller
+ * @since 6.0
+ */
+public interface ComputeFunction<K, V, R> {
+
+   /**
+    * Applies the function to an entry.
+    *
+    * @param entry a view of the entry, which exists only if the key is mapped to a value
+    * @return the result returned by {@link org.infinispan.AdvancedCache#compute(Object, ComputeFunction)}
+    */
+   R apply(ComputeEntry<K, V> entry);
+}
@@ -93,6 +93,11 @@ public CompatibilityModeConfigurationBuilder compatibility() {
       return builder.compatibility();
    }
 
+   @Override
+   public CompressionConfigurationBuilder compression() {
+      return builder.compression();
+   }
+
    protected ConfigurationBuilder getBuilder() {
       return builder;
    }
@@ -15,14 +15,19 @@ public class AsyncConfiguration {
    private final ReplicationQueue replicationQueue;
    private final long replicationQueueInterval;
    private final int replicationQueueMaxElements;
+   private final long replicationQueueMaxBytes;
+   private final long replicationQueueMaxLatency;
    private final boolean useReplicationQueue;
 
    AsyncConfiguration(boolean asyncMarshalling, ReplicationQueue replicationQueue, long replicationQueueInterval,
-         int replicationQueueMaxElements, boolean useReplicationQueue) {
+         int replicationQueueMaxElements, long replicationQueueMaxBytes, long replicationQueueMaxLatency,
+         boolean useReplicationQueue) {
       this.asyncMarshalling = asyncMarshalling;
       this.replicationQueue = replicationQueue;
       this.replicationQueueInterval = replicationQueueInterval;
       this.replicationQueueMaxElements = replicationQueueMaxElements;
+      this.replicationQueueMaxBytes = replicationQueueMaxBytes;
+      this.replicationQueueMaxLatency = replicationQueueMaxLatency;
       this.useReplicationQueue = useReplicationQueue;
    }
 
@@ -59,6 +64,25 @@ public int replQueueMaxElements() {
       return replicationQueueMaxElements;
    }
 
+   /**
+    * If useReplQueue is set to true, this attribute can be used to trigger flushing of the queue
+    * when the estimated size of the queued commands reaches a specific number of bytes. 0 means
+    * the queue is not flushed based on its size in bytes.
+    */
+   public long replQueueMaxBytes() {
+      return replicationQueueMaxBytes;
+   }
+
+   /**
+    * If useReplQueue is set to true, this attribute can be used to trigger flushing of the queue
+    * when a command has been waiting in it for a specific number of milliseconds, independently of
+    * {@link #replQueueInterval()}. 0 means the queue is not flushed based on the latency of the
+    * queued commands.
+    */
+   public long replQueueMaxLatency() {
+      return replicationQueueMaxLatency;
+   }
+
    /**
     * If true, this forces all async communications to be queued up and sent out periodically as a
     * batch.
@@ -74,6 +98,8 @@ public String toString() {
             ", replicationQueue=" + replicationQueue +
             ", replicationQueueInterval=" + replicationQueueInterval +
             ", replicationQueueMaxElements=" + replicationQueueMaxElements +
+            ", replicationQueueMaxBytes=" + replicationQueueMaxBytes +
+            ", replicationQueueMaxLatency=" + replicationQueueMaxLatency +
             ", useReplicationQueue=" + useReplicationQueue +
             '}';
    }
@@ -90,6 +116,10 @@ public boolean equals(Object o) {
          return false;
       if (replicationQueueMaxElements != that.replicationQueueMaxElements)
          return false;
+      if (replicationQueueMaxBytes != that.replicationQueueMaxBytes)
+         return false;
+      if (replicationQueueMaxLatency != that.replicationQueueMaxLatency)
+         return false;
       if (useReplicationQueue != that.useReplicationQueue) return false;
       if (replicationQueue != null ? !replicationQueue.equals(that.replicationQueue) : that.replicationQueue != null)
          return false;
@@ -103,6 +133,8 @@ public int hashCode() {
       result = 31 * result + (replicationQueue != null ? replicationQueue.hashCode() : 0);
       result = 31 * result + (int) (replicationQueueInterval ^ (replicationQueueInterval >>> 32));
       result = 31 * result + replicationQueueMaxElements;
+      result = 31 * result + (int) (replicationQueueMaxBytes ^ (replicationQueueMaxBytes >>> 32));
+      result = 31 * result + (int) (replicationQueueMaxLatency ^ (replicationQueueMaxLatency >>> 32));
       result = 31 * result + (useReplicationQueue ? 1 : 0);
       return result;
    }
@@ -19,6 +19,8 @@ public class AsyncConfigurationBuilder extends AbstractClusteringConfigurationCh
    private ReplicationQueue replicationQueue;
    private long replicationQueueInterval = TimeUnit.SECONDS.toMillis(5);
    private int replicationQueueMaxElements = 1000;
+   private long replicationQueueMaxBytes = 0;
+   private long replicationQueueMaxLatency = 0;
    private boolean useReplicationQueue = false;
 
    protected AsyncConfigurationBuilder(ClusteringConfigurationBuilder builder) {
@@ -89,6 +91,35 @@ public AsyncConfigurationBuilder replQueueMaxElements(int elements) {
       return this;
    }
 
+   /**
+    * If useReplQueue is set to true, this attribute can be used to trigger flushing of the queue
+    * when the estimated size of the queued commands reaches a specific number of bytes. 0, the
+    * default, disables this threshold.
+    */
+   public AsyncConfigurationBuilder replQueueMaxBytes(long bytes) {
+      this.replicationQueueMaxBytes = bytes;
+      return this;
+   }
+
+   /**
+    * If useReplQueue is set to true, this attribute can be used to trigger flushing of the queue
+    * when a command has been waiting in it for a specific number of milliseconds, independently of
+    * {@link #replQueueInterval(long)}. 0, the default, disables this trigger.
+    */
+   public AsyncConfigurationBuilder replQueueMaxLatency(long latency) {
+      this.replicationQueueMaxLatency = latency;
+      return this;
+   }
+
+   /**
+    * If useReplQueue is set to true, this attribute can be used to trigger flushing of the queue
+    * when a command has been waiting in it for a specific amount of time, independently of
+    * {@link #replQueueInterval(long)}. 0, the default, disables this trigger.
+    */
+   public AsyncConfigurationBuilder replQueueMaxLatency(long latency, TimeUnit unit) {
+      return replQueueMaxLatency(unit.toMillis(latency));
+   }
+
    /**
     * If true, forces all async communications to be queued up and sent out periodically as a
     * batch.
@@ -106,12 +137,18 @@ void validate() {
 
       if (useReplicationQueue && getClusteringBuilder().cacheMode().isSynchronous())
          throw new CacheConfigurationException("Use of the replication queue is only allowed with an ASYNCHRONOUS cluster mode.");
+
+      if (replicationQueueMaxBytes < 0)
+         throw new CacheConfigurationException("replQueueMaxBytes cannot be negative: " + replicationQueueMaxBytes);
+
+      if (replicationQueueMaxLatency < 0)
+         throw new CacheConfigurationException("replQueueMaxLatency cannot be negative: " + replicationQueueMaxLatency);
    }
 
    @Override
    public
    AsyncConfiguration create() {
-      return new AsyncConfiguration(asyncMarshalling, replicationQueue, replicationQueueInterval, replicationQueueMaxElements, useReplicationQueue);
+      return new AsyncConfiguration(asyncMarshalling, replicationQueue, replicationQueueInterval, replicationQueueMaxElements, replicationQueueMaxBytes, replicationQueueMaxLatency, useReplicationQueue);
    }
 
    @Override
@@ -120,6 +157,8 @@ public AsyncConfigurationBuilder read(AsyncConfiguration template) {
       this.replicationQueue = template.replQueue();
       this.replicationQueueInterval = template.replQueueInterval();
       this.replicationQueueMaxElements = template.replQueueMaxElements();
+      this.replicationQueueMaxBytes = template.replQueueMaxBytes();
+      this.replicationQueueMaxLatency = template.replQueueMaxLatency();
       this.useReplicationQueue = template.useReplQueue();
 
       return this;
@@ -132,6 +171,8 @@ public String toString() {
             ", replicationQueue=" + replicationQueue +
             ", replicationQueueInterval=" + replicationQueueInterval +
             ", replicationQueueMaxElements=" + replicationQueueMaxElements +
+            ", replicationQueueMaxBytes=" + replicationQueueMaxBytes +
+            ", replicationQueueMaxLatency=" + replicationQueueMaxLatency +
             ", useReplicationQueue=" + useReplicationQueue +
             '}';
    }
@@ -14,9 +14,18 @@ public class BackupConfiguration {
    private final boolean useTwoPhaseCommit;
    private final TakeOfflineConfiguration takeOfflineConfiguration;
    private final boolean enabled;
+   private final int asyncBatchSize;
+   private final long asyncBatchInterval;
 
    public BackupConfiguration(String site, BackupStrategy strategy, long timeout, BackupFailurePolicy backupFailurePolicy,
                               String failurePolicyClass, boolean useTwoPhaseCommit, TakeOfflineConfiguration takeOfflineConfiguration, boolean enabled) {
+      this(site, strategy, timeout, backupFailurePolicy, failurePolicyClass, useTwoPhaseCommit, takeOfflineConfiguration,
+           enabled, 1, 0);
+   }
+
+   public BackupConfiguration(String site, BackupStrategy strategy, long timeout, BackupFailurePolicy backupFailurePolicy,
+                              String failurePolicyClass, boolean useTwoPhaseCommit, TakeOfflineConfiguration takeOfflineConfiguration, boolean enabled,
+                              int asyncBatchSize, long asyncBatchInterval) {
       this.site = site;
       this.strategy = strategy;
       this.timeout = timeout;
@@ -25,6 +34,8 @@ public BackupConfiguration(String site, BackupStrategy strategy, long timeout, B
       this.useTwoPhaseCommit = useTwoPhaseCommit;
       this.takeOfflineConfiguration = takeOfflineConfiguration;
       this.enabled = enabled;
+      this.asyncBatchSize = asyncBatchSize;
+      this.asyncBatchInterval = asyncBatchInterval;
    }
 
    /**
@@ -73,6 +84,27 @@ public boolean isTwoPhaseCommit() {
       return useTwoPhaseCommit;
    }
 
+   /**
+    * @see BackupConfigurationBuilder#asyncBatchSize(int)
+    */
+   public int asyncBatchSize() {
+      return asyncBatchSize;
+   }
+
+   /**
+    * @see BackupConfigurationBuilder#asyncBatchInterval(long)
+    */
+   public long asyncBatchInterval() {
+      return asyncBatchInterval;
+   }
+
+   /**
+    * Whether the modifications backed up to this site are sent in batches.
+    */
+   public boolean isAsyncBatchingEnabled() {
+      return isAsyncBackup() && asyncBatchSize > 1;
+   }
+
    /**
     * @see BackupConfigurationBuilder#enabled(boolean).
     */
@@ -95,6 +127,8 @@ public boolean equals(Object o) {
       if( useTwoPhaseCommit != that.useTwoPhaseCommit ) return false;
       if (strategy != that.strategy) return false;
       if (enabled != that.enabled) return false;
+      if (asyncBatchSize != that.asyncBatchSize) return false;
+      if (asyncBatchInterval != that.asyncBatchInterval) return false;
 
       return true;
    }
@@ -107,6 +141,8 @@ public int hashCode() {
       result = 31 * result + (backupFailurePolicy != null ? backupFailurePolicy.hashCode() : 0);
       result = 31 * result + (failurePolicyClass != null ? failurePolicyClass.hashCode() : 0);
       result = 31 * result + (useTwoPhaseCommit ? 1 : 0);
+      result = 31 * result + asyncBatchSize;
+      result = 31 * result + (int) (asyncBatchInterval ^ (asyncBatchInterval >>> 32));
       return result;
    }
 
@@ -120,6 +156,8 @@ public String toString() {
             ", backupFailurePolicy=" + backupFailurePolicy +
             ", failurePolicyClass='" + failurePolicyClass + '\'' +
             ", enabled='" + enabled + '\'' +
+            ", asyncBatchSize=" + asyncBatchSize +
+            ", asyncBatchInterval=" + asyncBatchInterval +
             '}';
    }
 }
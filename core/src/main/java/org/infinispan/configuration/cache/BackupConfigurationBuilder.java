@@ -25,6 +25,10 @@ public class BackupConfigurationBuilder extends AbstractConfigurationChildBuilde
 
    private boolean enabled = true;
 
+   private int asyncBatchSize = 1;
+
+   private long asyncBatchInterval = 100;
+
    public BackupConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
       takeOfflineBuilder = new TakeOfflineConfigurationBuilder(builder, this);
@@ -130,6 +134,28 @@ public BackupConfigurationBuilder enabled(boolean isEnabled) {
       return this;
    }
 
+   /**
+    * The maximum number of modifications sent to this site in a single batch, when the backup strategy is
+    * {@link BackupConfiguration.BackupStrategy#ASYNC}. Modifications to the same key are coalesced in the batch, and the
+    * batch is compressed before being sent. Defaults to 1, i.e. every modification is sent on its own.
+    * <p/>
+    * Only non-transactional caches batch their backups. The modifications of a key are queued by its primary owner, so
+    * that they reach the remote site in the order they were applied.
+    */
+   public BackupConfigurationBuilder asyncBatchSize(int asyncBatchSize) {
+      this.asyncBatchSize = asyncBatchSize;
+      return this;
+   }
+
+   /**
+    * The maximum amount of time (millis) a modification waits in the batch before it is sent to this site. Only used
+    * if {@link #asyncBatchSize(int)} is greater than 1. Defaults to 100 milliseconds.
+    */
+   public BackupConfigurationBuilder asyncBatchInterval(long asyncBatchInterval) {
+      this.asyncBatchInterval = asyncBatchInterval;
+      return this;
+   }
+
    @Override
    public void validate() {
       takeOfflineBuilder.validate();
@@ -139,12 +165,17 @@ public void validate() {
          throw new CacheConfigurationException("It is required to specify a 'failurePolicyClass' when using a " +
                                                 "custom backup failure policy!");
       }
+      if (asyncBatchSize < 1)
+         throw new CacheConfigurationException("The 'asyncBatchSize' must be at least 1!");
+      if (asyncBatchSize > 1 && asyncBatchInterval <= 0)
+         throw new CacheConfigurationException("The 'asyncBatchInterval' must be positive when batching is enabled!");
    }
 
    @Override
    public BackupConfiguration create() {
       return new BackupConfiguration(site, strategy, replicationTimeout, backupFailurePolicy, failurePolicyClass,
-                                     useTwoPhaseCommit, takeOfflineBuilder.create(), enabled);
+                                     useTwoPhaseCommit, takeOfflineBuilder.create(), enabled, asyncBatchSize,
+                                     asyncBatchInterval);
    }
 
    @Override
@@ -157,6 +188,8 @@ public Builder read(BackupConfiguration template) {
       this.failurePolicyClass = template.failurePolicyClass();
       this.useTwoPhaseCommit = template.isTwoPhaseCommit();
       this.enabled = template.enabled();
+      this.asyncBatchSize = template.asyncBatchSize();
+      this.asyncBatchInterval = template.asyncBatchInterval();
       return this;
    }
 
@@ -177,6 +210,8 @@ public boolean equals(Object o) {
          return false;
       if( useTwoPhaseCommit != that.useTwoPhaseCommit ) return false;
       if( enabled != that.enabled) return false;
+      if (asyncBatchSize != that.asyncBatchSize) return false;
+      if (asyncBatchInterval != that.asyncBatchInterval) return false;
 
       return true;
    }
@@ -190,6 +225,8 @@ public int hashCode() {
       result = 31 * result + (failurePolicyClass != null ? failurePolicyClass.hashCode() : 0);
       result = 31 * result + (takeOfflineBuilder != null ? takeOfflineBuilder.hashCode() : 0);
       result = 31 * result + (useTwoPhaseCommit ? 1 : 0);
+      result = 31 * result + asyncBatchSize;
+      result = 31 * result + (int) (asyncBatchInterval ^ (asyncBatchInterval >>> 32));
       return result;
    }
 
@@ -204,6 +241,8 @@ public String toString() {
             ", failurePolicyClass='" + failurePolicyClass + '\'' +
             ", takeOfflineBuilder=" + takeOfflineBuilder +
             ", enabled=" + enabled +
+            ", asyncBatchSize=" + asyncBatchSize +
+            ", asyncBatchInterval=" + asyncBatchInterval +
             '}';
    }
 }
@@ -16,22 +16,32 @@
 @ConfigurationFor(ClusterLoader.class)
 public class ClusterLoaderConfiguration extends AbstractStoreConfiguration {
    private final long remoteCallTimeout;
+   private final long staggerDelay;
 
    public ClusterLoaderConfiguration(boolean purgeOnStartup, boolean fetchPersistentState,
                                      boolean ignoreModifications, AsyncStoreConfiguration async,
                                      SingletonStoreConfiguration singletonStore, boolean preload, boolean shared, Properties properties,
-                                     long remoteCallTimeout) {
+                                     long remoteCallTimeout, long staggerDelay) {
       super(purgeOnStartup, fetchPersistentState, ignoreModifications, async, singletonStore, preload, shared, properties);
       this.remoteCallTimeout = remoteCallTimeout;
+      this.staggerDelay = staggerDelay;
    }
 
    public long remoteCallTimeout() {
       return remoteCallTimeout;
    }
 
+   /**
+    * The maximum time, in milliseconds, to wait for the most likely owner of a key before asking the other members
+    * for it. If 0, all the members are asked at once.
+    */
+   public long staggerDelay() {
+      return staggerDelay;
+   }
+
    @Override
    public String toString() {
-      return "ClusterLoaderConfiguration [remoteCallTimeout=" + remoteCallTimeout + "]";
+      return "ClusterLoaderConfiguration [remoteCallTimeout=" + remoteCallTimeout + ", staggerDelay=" + staggerDelay + "]";
    }
 
 }
@@ -1,5 +1,6 @@
 package org.infinispan.configuration.cache;
 
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.configuration.parsing.XmlConfigHelper;
 
 import java.util.Properties;
@@ -7,6 +8,7 @@
 
 public class ClusterLoaderConfigurationBuilder extends AbstractStoreConfigurationBuilder<ClusterLoaderConfiguration, ClusterLoaderConfigurationBuilder> {
    private long remoteCallTimeout;
+   private long staggerDelay;
 
    public ClusterLoaderConfigurationBuilder(PersistenceConfigurationBuilder builder) {
       super(builder);
@@ -27,6 +29,21 @@ public ClusterLoaderConfigurationBuilder remoteCallTimeout(long remoteCallTimeou
       return this;
    }
 
+   /**
+    * If greater than 0, a key is first requested from its most likely owner, and the other members are only asked for
+    * it if that owner doesn't have it or doesn't respond within a delay. The delay adapts to the response times of the
+    * owners, and this is its maximum value in milliseconds. Defaults to 0, which asks all the members at once.
+    */
+   public ClusterLoaderConfigurationBuilder staggerDelay(long staggerDelay) {
+      this.staggerDelay = staggerDelay;
+      return this;
+   }
+
+   public ClusterLoaderConfigurationBuilder staggerDelay(long staggerDelay, TimeUnit unit) {
+      this.staggerDelay = unit.toMillis(staggerDelay);
+      return this;
+   }
+
    @Override
    public ClusterLoaderConfigurationBuilder withProperties(Properties p) {
       this.properties = p;
@@ -36,17 +53,21 @@ public ClusterLoaderConfigurationBuilder withProperties(Properties p) {
 
    @Override
    public void validate() {
+      if (staggerDelay < 0)
+         throw new CacheConfigurationException("The stagger delay of the cluster loader cannot be negative");
    }
 
    @Override
    public ClusterLoaderConfiguration create() {
       return new ClusterLoaderConfiguration(purgeOnStartup, fetchPersistentState, ignoreModifications, async.create(),
-                                                 singletonStore.create(), preload, shared, properties, remoteCallTimeout);
+                                                 singletonStore.create(), preload, shared, properties, remoteCallTimeout,
+                                                 staggerDelay);
    }
 
    @Override
    public ClusterLoaderConfigurationBuilder read(ClusterLoaderConfiguration template) {
       this.remoteCallTimeout = template.remoteCallTimeout();
+      this.staggerDelay = template.staggerDelay();
       this.properties = template.properties();
       return this;
    }
@@ -0,0 +1,73 @@
+package org.infinispan.configuration.cache;
+
+import org.infinispan.compression.CompressionCodec;
+
+/**
+ * Controls the compression of the values which are stored as binary, written to cache stores or sent during state
+ * transfer.
+ *
+ * @see CompressionConfigurationBuilder
+ * @since 6.0
+ */
+public final class CompressionConfiguration {
+
+   private final boolean enabled;
+   private final CompressionCodec codec;
+   private final int threshold;
+
+   CompressionConfiguration(boolean enabled, CompressionCodec codec, int threshold) {
+      this.enabled = enabled;
+      this.codec = codec;
+      this.threshold = threshold;
+   }
+
+   public boolean enabled() {
+      return enabled;
+   }
+
+   /**
+    * The codec used to compress new values.
+    */
+   public CompressionCodec codec() {
+      return codec;
+   }
+
+   /**
+    * The minimum size, in bytes, of the marshalled form of a value for it to be compressed.
+    */
+   public int threshold() {
+      return threshold;
+   }
+
+   @Override
+   public String toString() {
+      return "CompressionConfiguration{" +
+            "enabled=" + enabled +
+            ", codec=" + codec +
+            ", threshold=" + threshold +
+            '}';
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      CompressionConfiguration that = (CompressionConfiguration) o;
+
+      if (enabled != that.enabled) return false;
+      if (threshold != that.threshold) return false;
+      if (codec != null ? !codec.equals(that.codec) : that.codec != null)
+         return false;
+
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      int result = (enabled ? 1 : 0);
+      result = 31 * result + (codec != null ? codec.hashCode() : 0);
+      result = 31 * result + threshold;
+      return result;
+   }
+}
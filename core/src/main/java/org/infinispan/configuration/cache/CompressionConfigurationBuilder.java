@@ -0,0 +1,98 @@
+package org.infinispan.configuration.cache;
+
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.commons.configuration.Builder;
+import org.infinispan.compression.CompressionCodec;
+import org.infinispan.compression.DeflateCodec;
+
+/**
+ * Configures the compression of the values which are stored as binary, written to cache stores or sent during state
+ * transfer. Compressed values record the codec they were compressed with, so they remain readable if compression is
+ * later disabled or the codec changed.
+ *
+ * @since 6.0
+ */
+public class CompressionConfigurationBuilder extends AbstractConfigurationChildBuilder implements Builder<CompressionConfiguration> {
+
+   private boolean enabled = false;
+   private CompressionCodec codec = new DeflateCodec();
+   private int threshold = 1024;
+
+   CompressionConfigurationBuilder(ConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   /**
+    * Enables the compression of values.
+    */
+   public CompressionConfigurationBuilder enable() {
+      enabled = true;
+      return this;
+   }
+
+   /**
+    * Disables the compression of values. Values which were compressed before remain readable.
+    */
+   public CompressionConfigurationBuilder disable() {
+      enabled = false;
+      return this;
+   }
+
+   /**
+    * Sets whether the compression of values is enabled.
+    */
+   public CompressionConfigurationBuilder enabled(boolean enabled) {
+      this.enabled = enabled;
+      return this;
+   }
+
+   /**
+    * The codec used to compress values, {@link DeflateCodec} by default. Custom codecs must be configured on every
+    * node which may read the values they compress.
+    */
+   public CompressionConfigurationBuilder codec(CompressionCodec codec) {
+      this.codec = codec;
+      return this;
+   }
+
+   /**
+    * The minimum size, in bytes, of the marshalled form of a value for it to be compressed. Defaults to 1024: smaller
+    * values rarely compress well enough to be worth the CPU time.
+    */
+   public CompressionConfigurationBuilder threshold(int threshold) {
+      this.threshold = threshold;
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      if (enabled) {
+         if (codec == null)
+            throw new CacheConfigurationException("A compression codec is required when compression is enabled");
+         if (threshold < 0)
+            throw new CacheConfigurationException("The compression threshold must not be negative");
+      }
+   }
+
+   @Override
+   public CompressionConfiguration create() {
+      return new CompressionConfiguration(enabled, codec, threshold);
+   }
+
+   @Override
+   public Builder<?> read(CompressionConfiguration template) {
+      this.enabled = template.enabled();
+      this.codec = template.codec();
+      this.threshold = template.threshold();
+      return this;
+   }
+
+   @Override
+   public String toString() {
+      return "CompressionConfigurationBuilder{" +
+            "enabled=" + enabled +
+            ", codec=" + codec +
+            ", threshold=" + threshold +
+            '}';
+   }
+}
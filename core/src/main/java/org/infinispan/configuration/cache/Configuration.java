@@ -27,6 +27,7 @@ public class Configuration {
    private final Map<Class<?>, ?> moduleConfiguration;
    private final SitesConfiguration sitesConfiguration;
    private final CompatibilityModeConfiguration compatibilityConfiguration;
+   private final CompressionConfiguration compressionConfiguration;
 
    Configuration(ClusteringConfiguration clusteringConfiguration,
                  CustomInterceptorsConfiguration customInterceptorsConfiguration,
@@ -39,6 +40,7 @@ public class Configuration {
                  TransactionConfiguration transactionConfiguration, UnsafeConfiguration unsafeConfiguration,
                  VersioningConfiguration versioningConfiguration, SitesConfiguration sitesConfiguration,
                  CompatibilityModeConfiguration compatibilityConfiguration,
+                 CompressionConfiguration compressionConfiguration,
                  List<?> modules, ClassLoader cl) {
       this.clusteringConfiguration = clusteringConfiguration;
       this.customInterceptorsConfiguration = customInterceptorsConfiguration;
@@ -57,6 +59,7 @@ public class Configuration {
       this.versioningConfiguration = versioningConfiguration;
       this.sitesConfiguration = sitesConfiguration;
       this.compatibilityConfiguration = compatibilityConfiguration;
+      this.compressionConfiguration = compressionConfiguration;
       Map<Class<?>, Object> modulesMap = new HashMap<Class<?>, Object>();
       for(Object module : modules) {
          modulesMap.put(module.getClass(), module);
@@ -150,6 +153,10 @@ public CompatibilityModeConfiguration compatibility() {
       return compatibilityConfiguration;
    }
 
+   public CompressionConfiguration compression() {
+      return compressionConfiguration;
+   }
+
    @Override
    public String toString() {
       return "Configuration{" +
@@ -172,6 +179,7 @@ public String toString() {
             ", unsafe=" + unsafeConfiguration +
             ", sites=" + sitesConfiguration +
             ", compatibility=" + compatibilityConfiguration +
+            ", compression=" + compressionConfiguration +
             '}';
    }
 
@@ -220,6 +228,8 @@ public boolean equals(Object o) {
          return false;
       if (compatibilityConfiguration != null ? !compatibilityConfiguration.equals(that.compatibilityConfiguration) : that.compatibilityConfiguration != null)
          return false;
+      if (compressionConfiguration != null ? !compressionConfiguration.equals(that.compressionConfiguration) : that.compressionConfiguration != null)
+         return false;
 
       return true;
    }
@@ -245,6 +255,7 @@ public int hashCode() {
       result = 31 * result + (unsafeConfiguration != null ? unsafeConfiguration.hashCode() : 0);
       result = 31 * result + (sitesConfiguration != null ? sitesConfiguration.hashCode() : 0);
       result = 31 * result + (compatibilityConfiguration != null ? compatibilityConfiguration.hashCode() : 0);
+      result = 31 * result + (compressionConfiguration != null ? compressionConfiguration.hashCode() : 0);
       return result;
    }
 }
@@ -33,6 +33,7 @@ public class ConfigurationBuilder implements ConfigurationChildBuilder {
    private final List<Builder<?>> modules = new ArrayList<Builder<?>>();
    private final SitesConfigurationBuilder sites;
    private final CompatibilityModeConfigurationBuilder compatibility;
+   private final CompressionConfigurationBuilder compression;
 
    public ConfigurationBuilder() {
       this.clustering = new ClusteringConfigurationBuilder(this);
@@ -52,6 +53,7 @@ public ConfigurationBuilder() {
       this.unsafe = new UnsafeConfigurationBuilder(this);
       this.sites = new SitesConfigurationBuilder(this);
       this.compatibility = new CompatibilityModeConfigurationBuilder(this);
+      this.compression = new CompressionConfigurationBuilder(this);
    }
 
    public ConfigurationBuilder classLoader(ClassLoader cl) {
@@ -148,6 +150,11 @@ public CompatibilityModeConfigurationBuilder compatibility() {
       return compatibility;
    }
 
+   @Override
+   public CompressionConfigurationBuilder compression() {
+      return compression;
+   }
+
    public List<Builder<?>> modules() {
       return modules;
    }
@@ -173,7 +180,7 @@ public void validate() {
       for (Builder<?> validatable:
             asList(clustering, customInterceptors, dataContainer, deadlockDetection, eviction, expiration, indexing,
                    invocationBatching, jmxStatistics, persistence, locking, storeAsBinary, transaction,
-                   versioning, unsafe, sites, compatibility)) {
+                   versioning, unsafe, sites, compatibility, compression)) {
          validatable.validate();
       }
       for (Builder<?> m : modules) {
@@ -200,7 +207,7 @@ public Configuration build(boolean validate) {
                expiration.create(), indexing.create(), invocationBatching.create(),
                jmxStatistics.create(), persistence.create(), locking.create(), storeAsBinary.create(),
                transaction.create(), unsafe.create(), versioning.create(), sites.create(),
-               compatibility.create(),
+               compatibility.create(), compression.create(),
                modulesConfig, classLoader == null ? null : classLoader.get());
    }
 
@@ -223,6 +230,7 @@ public ConfigurationBuilder read(Configuration template) {
       this.sites.read(template.sites());
       this.versioning.read(template.versioning());
       this.compatibility.read(template.compatibility());
+      this.compression.read(template.compression());
 
       for (Object c : template.modules().values()) {
          Builder<Object> builder = this.addModule(ConfigurationUtils.builderFor(c));
@@ -254,6 +262,7 @@ public String toString() {
             ", unsafe=" + unsafe +
             ", sites=" + sites +
             ", compatibility=" + compatibility +
+            ", compression=" + compression +
             '}';
    }
 
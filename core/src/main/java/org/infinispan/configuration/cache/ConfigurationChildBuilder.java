@@ -36,5 +36,7 @@ public interface ConfigurationChildBuilder {
 
    CompatibilityModeConfigurationBuilder compatibility();
 
+   CompressionConfigurationBuilder compression();
+
    Configuration build();
 }
@@ -1,5 +1,6 @@
 package org.infinispan.configuration.cache;
 
+import org.infinispan.eviction.EntryWeigher;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
 
@@ -11,16 +12,21 @@ public class EvictionConfiguration {
    private final int maxEntries;
    private final EvictionStrategy strategy;
    private final EvictionThreadPolicy threadPolicy;
+   private final long maxMemory;
+   private final EntryWeigher weigher;
    
-   EvictionConfiguration(int maxEntries, EvictionStrategy strategy, EvictionThreadPolicy threadPolicy) {
+   EvictionConfiguration(int maxEntries, EvictionStrategy strategy, EvictionThreadPolicy threadPolicy,
+                         long maxMemory, EntryWeigher weigher) {
       this.maxEntries = maxEntries;
       this.strategy = strategy;
       this.threadPolicy = threadPolicy;
+      this.maxMemory = maxMemory;
+      this.weigher = weigher;
    }
    
    /**
-    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS' and 'NONE' (to disable
-    * eviction).
+    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS', 'TINY_LFU' and 'NONE' (to
+    * disable eviction).
     */
    public EvictionStrategy strategy() {
       return strategy;
@@ -42,12 +48,31 @@ public int maxEntries() {
       return maxEntries;
    }
 
+   /**
+    * Maximum total weight of the entries in a cache instance, as computed by the {@link #weigher()}: with the default
+    * weigher, an estimate of their memory footprint in bytes. Entries are evicted, according to the eviction strategy,
+    * until the cache fits both this budget and {@link #maxEntries()}. A value lower than or equal to zero disables
+    * the memory budget.
+    */
+   public long maxMemory() {
+      return maxMemory;
+   }
+
+   /**
+    * Computes the weight of the entries accounted against {@link #maxMemory()}.
+    */
+   public EntryWeigher weigher() {
+      return weigher;
+   }
+
    @Override
    public String toString() {
       return "EvictionConfiguration{" +
             "maxEntries=" + maxEntries +
             ", strategy=" + strategy +
             ", threadPolicy=" + threadPolicy +
+            ", maxMemory=" + maxMemory +
+            ", weigher=" + weigher +
             '}';
    }
 
@@ -61,6 +86,8 @@ public boolean equals(Object o) {
       if (maxEntries != that.maxEntries) return false;
       if (strategy != that.strategy) return false;
       if (threadPolicy != that.threadPolicy) return false;
+      if (maxMemory != that.maxMemory) return false;
+      if (weigher != null ? !weigher.equals(that.weigher) : that.weigher != null) return false;
 
       return true;
    }
@@ -70,6 +97,8 @@ public int hashCode() {
       int result = maxEntries;
       result = 31 * result + (strategy != null ? strategy.hashCode() : 0);
       result = 31 * result + (threadPolicy != null ? threadPolicy.hashCode() : 0);
+      result = 31 * result + (int) (maxMemory ^ (maxMemory >>> 32));
+      result = 31 * result + (weigher != null ? weigher.hashCode() : 0);
       return result;
    }
 
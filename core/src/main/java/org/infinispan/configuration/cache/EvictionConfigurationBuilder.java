@@ -2,6 +2,8 @@
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.eviction.DefaultEntryWeigher;
+import org.infinispan.eviction.EntryWeigher;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
 import org.infinispan.util.logging.Log;
@@ -17,6 +19,8 @@ public class EvictionConfigurationBuilder extends AbstractConfigurationChildBuil
    private int maxEntries = -1;
    private EvictionStrategy strategy = EvictionStrategy.NONE;
    private EvictionThreadPolicy threadPolicy = EvictionThreadPolicy.DEFAULT;
+   private long maxMemory = -1;
+   private EntryWeigher weigher;
 
    EvictionConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -24,8 +28,8 @@ public class EvictionConfigurationBuilder extends AbstractConfigurationChildBuil
 
 
    /**
-    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS' and 'NONE' (to disable
-    * eviction).
+    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS', 'TINY_LFU' and 'NONE' (to
+    * disable eviction).
     *
     * @param evictionStrategy
     */
@@ -60,23 +64,53 @@ public EvictionConfigurationBuilder maxEntries(int maxEntries) {
       return this;
    }
 
+   /**
+    * Maximum total weight of the entries in a cache instance, as computed by the {@link #weigher(EntryWeigher)}: with
+    * the default weigher, an estimate of their memory footprint in bytes. Entries are evicted, according to the
+    * eviction strategy, until the cache fits both this budget and the max entries, if configured.
+    *
+    * @param maxMemory
+    */
+   public EvictionConfigurationBuilder maxMemory(long maxMemory) {
+      this.maxMemory = maxMemory;
+      return this;
+   }
+
+   /**
+    * Computes the weight of the entries accounted against the max memory. Defaults to a
+    * {@link DefaultEntryWeigher}.
+    *
+    * @param weigher
+    */
+   public EvictionConfigurationBuilder weigher(EntryWeigher weigher) {
+      this.weigher = weigher;
+      return this;
+   }
+
    @Override
    public void validate() {
       if (!strategy.isEnabled() && getBuilder().persistence().passivation())
          log.passivationWithoutEviction();
       if(strategy == EvictionStrategy.FIFO)
          log.warnFifoStrategyIsDeprecated();
-      if (strategy.isEnabled() && maxEntries <= 0)
-         throw new CacheConfigurationException("Eviction maxEntries value cannot be less than or equal to zero if eviction is enabled");
+      if (strategy.isEnabled() && maxEntries <= 0 && maxMemory <= 0)
+         throw new CacheConfigurationException("Eviction maxEntries value cannot be less than or equal to zero if eviction is enabled without maxMemory");
       if (maxEntries > 0 && !strategy.isEnabled()) {
          strategy = EvictionStrategy.LIRS;
          log.debugf("Max entries configured (%d) without eviction strategy. Eviction strategy overriden to %s", maxEntries, strategy);
       }
+      if (maxMemory > 0 && !strategy.isEnabled()) {
+         strategy = EvictionStrategy.LIRS;
+         log.debugf("Max memory configured (%d) without eviction strategy. Eviction strategy overriden to %s", maxMemory, strategy);
+      }
    }
 
    @Override
    public EvictionConfiguration create() {
-      return new EvictionConfiguration(maxEntries, strategy, threadPolicy);
+      EntryWeigher w = weigher;
+      if (w == null && maxMemory > 0)
+         w = new DefaultEntryWeigher();
+      return new EvictionConfiguration(maxEntries, strategy, threadPolicy, maxMemory, w);
    }
 
    @Override
@@ -84,6 +118,8 @@ public EvictionConfigurationBuilder read(EvictionConfiguration template) {
       this.maxEntries = template.maxEntries();
       this.strategy = template.strategy();
       this.threadPolicy = template.threadPolicy();
+      this.maxMemory = template.maxMemory();
+      this.weigher = template.weigher();
 
       return this;
    }
@@ -94,6 +130,8 @@ public String toString() {
             "maxEntries=" + maxEntries +
             ", strategy=" + strategy +
             ", threadPolicy=" + threadPolicy +
+            ", maxMemory=" + maxMemory +
+            ", weigher=" + weigher +
             '}';
    }
 
@@ -14,14 +14,16 @@ public class LockingConfiguration {
    private final IsolationLevel isolationLevel;
    private long lockAcquisitionTimeout;
    private final boolean useLockStriping;
+   private final boolean useInlineLocks;
    private final boolean writeSkewCheck;
 
    LockingConfiguration(int concurrencyLevel, IsolationLevel isolationLevel, long lockAcquisitionTimeout,
-         boolean useLockStriping, boolean writeSkewCheck) {
+         boolean useLockStriping, boolean useInlineLocks, boolean writeSkewCheck) {
       this.concurrencyLevel = concurrencyLevel;
       this.isolationLevel = isolationLevel;
       this.lockAcquisitionTimeout = lockAcquisitionTimeout;
       this.useLockStriping = useLockStriping;
+      this.useInlineLocks = useInlineLocks;
       this.writeSkewCheck = writeSkewCheck;
    }
 
@@ -76,6 +78,15 @@ public boolean useLockStriping() {
       return useLockStriping;
    }
 
+   /**
+    * If true, non-transactional caches which don't use lock striping keep the state of their locks in a pre-sized table
+    * of reusable slots, so that acquiring and releasing a lock doesn't allocate, instead of creating a lock per entry.
+    * Ignored by transactional caches and with lock striping.
+    */
+   public boolean useInlineLocks() {
+      return useInlineLocks;
+   }
+
    /**
     * This setting is only applicable in the case of REPEATABLE_READ. When write skew check is set
     * to false, if the writer at commit time discovers that the working entry and the underlying
@@ -93,6 +104,7 @@ public String toString() {
             ", isolationLevel=" + isolationLevel +
             ", lockAcquisitionTimeout=" + lockAcquisitionTimeout +
             ", useLockStriping=" + useLockStriping +
+            ", useInlineLocks=" + useInlineLocks +
             ", writeSkewCheck=" + writeSkewCheck +
             '}';
    }
@@ -107,6 +119,7 @@ public boolean equals(Object o) {
       if (concurrencyLevel != that.concurrencyLevel) return false;
       if (lockAcquisitionTimeout != that.lockAcquisitionTimeout) return false;
       if (useLockStriping != that.useLockStriping) return false;
+      if (useInlineLocks != that.useInlineLocks) return false;
       if (writeSkewCheck != that.writeSkewCheck) return false;
       if (isolationLevel != that.isolationLevel) return false;
 
@@ -119,6 +132,7 @@ public int hashCode() {
       result = 31 * result + (isolationLevel != null ? isolationLevel.hashCode() : 0);
       result = 31 * result + (int) (lockAcquisitionTimeout ^ (lockAcquisitionTimeout >>> 32));
       result = 31 * result + (useLockStriping ? 1 : 0);
+      result = 31 * result + (useInlineLocks ? 1 : 0);
       result = 31 * result + (writeSkewCheck ? 1 : 0);
       return result;
    }
@@ -23,6 +23,7 @@ public class LockingConfigurationBuilder extends AbstractConfigurationChildBuild
    private IsolationLevel isolationLevel = IsolationLevel.READ_COMMITTED;
    private long lockAcquisitionTimeout = TimeUnit.SECONDS.toMillis(10);
    private boolean useLockStriping = false;
+   private boolean useInlineLocks = false;
    private boolean writeSkewCheck = false;
 
    protected LockingConfigurationBuilder(ConfigurationBuilder builder) {
@@ -86,6 +87,16 @@ public LockingConfigurationBuilder useLockStriping(boolean b) {
       return this;
    }
 
+   /**
+    * If true, non-transactional caches which don't use lock striping keep the state of their locks in a pre-sized table
+    * of reusable slots, so that acquiring and releasing a lock doesn't allocate, instead of creating a lock per entry.
+    * Ignored by transactional caches and with lock striping.
+    */
+   public LockingConfigurationBuilder useInlineLocks(boolean b) {
+      this.useInlineLocks = b;
+      return this;
+   }
+
    /**
     * This setting is only applicable in the case of REPEATABLE_READ. When write skew check is set
     * to false, if the writer at commit time discovers that the working entry and the underlying
@@ -125,7 +136,7 @@ && clustering().cacheMode() != CacheMode.LOCAL)
 
    @Override
    public LockingConfiguration create() {
-      return new LockingConfiguration(concurrencyLevel, isolationLevel, lockAcquisitionTimeout, useLockStriping, writeSkewCheck);
+      return new LockingConfiguration(concurrencyLevel, isolationLevel, lockAcquisitionTimeout, useLockStriping, useInlineLocks, writeSkewCheck);
    }
 
    @Override
@@ -134,6 +145,7 @@ public LockingConfigurationBuilder read(LockingConfiguration template) {
       isolationLevel = template.isolationLevel();
       lockAcquisitionTimeout = template.lockAcquisitionTimeout();
       useLockStriping = template.useLockStriping();
+      useInlineLocks = template.useInlineLocks();
       writeSkewCheck = template.writeSkewCheck();
 
       return this;
@@ -146,6 +158,7 @@ public String toString() {
             ", isolationLevel=" + isolationLevel +
             ", lockAcquisitionTimeout=" + lockAcquisitionTimeout +
             ", useLockStriping=" + useLockStriping +
+            ", useInlineLocks=" + useInlineLocks +
             ", writeSkewCheck=" + writeSkewCheck +
             '}';
    }
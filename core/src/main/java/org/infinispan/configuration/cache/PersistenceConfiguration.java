@@ -9,10 +9,15 @@
 public class PersistenceConfiguration {
 
    private final boolean passivation;
+   private final int passivationQueueSize;
+   private final boolean negativeLookupFilter;
    private final List<StoreConfiguration> stores;
 
-   PersistenceConfiguration(boolean passivation, List<StoreConfiguration> stores) {
+   PersistenceConfiguration(boolean passivation, int passivationQueueSize, boolean negativeLookupFilter,
+                            List<StoreConfiguration> stores) {
       this.passivation = passivation;
+      this.passivationQueueSize = passivationQueueSize;
+      this.negativeLookupFilter = negativeLookupFilter;
       this.stores = stores;
    }
 
@@ -29,6 +34,26 @@ public boolean passivation() {
       return passivation;
    }
 
+   /**
+    * If positive, passivation is asynchronous: the entries evicted from memory are staged, up to this many, and they are
+    * written to the stores in batches by the persistence executor. Staged entries are still visible to reads, and they
+    * are activated without accessing the stores. When the staging area is full, entries are passivated synchronously.
+    * 0, the default, always passivates entries synchronously.
+    */
+   public int passivationQueueSize() {
+      return passivationQueueSize;
+   }
+
+   /**
+    * If true, each store that only this node writes to keeps an in-memory filter of the keys it may contain. The filter
+    * is built from the keys of the store when the cache starts and it is updated on every write and delete, so that
+    * loads of keys which are definitely not in the store skip it entirely. Shared, singleton and read-only stores are
+    * never filtered. The filter takes about 5 bytes per key in the store.
+    */
+   public boolean negativeLookupFilter() {
+      return negativeLookupFilter;
+   }
+
    public List<StoreConfiguration> stores() {
       return stores;
    }
@@ -74,6 +99,8 @@ public String toString() {
       return "PersistenceConfiguration{" +
             "persistence=" + stores +
             ", passivation=" + passivation +
+            ", passivationQueueSize=" + passivationQueueSize +
+            ", negativeLookupFilter=" + negativeLookupFilter +
             '}';
    }
 
@@ -85,6 +112,8 @@ public boolean equals(Object o) {
       PersistenceConfiguration that = (PersistenceConfiguration) o;
 
       if (passivation != that.passivation) return false;
+      if (passivationQueueSize != that.passivationQueueSize) return false;
+      if (negativeLookupFilter != that.negativeLookupFilter) return false;
       if (stores != null ? !stores.equals(that.stores) : that.stores != null)
          return false;
 
@@ -94,6 +123,8 @@ public boolean equals(Object o) {
    @Override
    public int hashCode() {
       int result = (passivation ? 1 : 0);
+      result = 31 * result + passivationQueueSize;
+      result = 31 * result + (negativeLookupFilter ? 1 : 0);
       result = 31 * result + (stores != null ? stores.hashCode() : 0);
       return result;
    }
@@ -16,6 +16,8 @@
 public class PersistenceConfigurationBuilder extends AbstractConfigurationChildBuilder implements Builder<PersistenceConfiguration> {
 
    private boolean passivation = false;
+   private int passivationQueueSize = 0;
+   private boolean negativeLookupFilter = false;
    private List<StoreConfigurationBuilder<?,?>> stores = new ArrayList<StoreConfigurationBuilder<?,?>>(2);
 
    protected PersistenceConfigurationBuilder(ConfigurationBuilder builder) {
@@ -40,6 +42,28 @@ boolean passivation() {
       return passivation;
    }
 
+   /**
+    * If positive, passivation is asynchronous: the entries evicted from memory are staged, up to this many, and they are
+    * written to the stores in batches by the persistence executor. Staged entries are still visible to reads, and they
+    * are activated without accessing the stores. When the staging area is full, entries are passivated synchronously.
+    * 0, the default, always passivates entries synchronously.
+    */
+   public PersistenceConfigurationBuilder passivationQueueSize(int passivationQueueSize) {
+      this.passivationQueueSize = passivationQueueSize;
+      return this;
+   }
+
+   /**
+    * If true, each store that only this node writes to keeps an in-memory filter of the keys it may contain. The filter
+    * is built from the keys of the store when the cache starts and it is updated on every write and delete, so that
+    * loads of keys which are definitely not in the store skip it entirely. Shared, singleton and read-only stores are
+    * never filtered. The filter takes about 5 bytes per key in the store.
+    */
+   public PersistenceConfigurationBuilder negativeLookupFilter(boolean b) {
+      this.negativeLookupFilter = b;
+      return this;
+   }
+
    /**
     * Adds a cache loader which uses the specified builder class to build its configuration
     */
@@ -106,6 +130,8 @@ public void validate() {
       }
       if (numFetchPersistentState > 1)
          throw new CacheConfigurationException("Maximum one store can be set to 'fetchPersistentState'!");
+      if (passivationQueueSize < 0)
+         throw new CacheConfigurationException("passivationQueueSize cannot be negative: " + passivationQueueSize);
    }
 
    @Override
@@ -113,7 +139,7 @@ public PersistenceConfiguration create() {
       List<StoreConfiguration> stores = new ArrayList<StoreConfiguration>(this.stores.size());
       for (StoreConfigurationBuilder<?, ?> loader : this.stores)
          stores.add(loader.create());
-      return new PersistenceConfiguration(passivation, stores);
+      return new PersistenceConfiguration(passivation, passivationQueueSize, negativeLookupFilter, stores);
    }
 
    @SuppressWarnings("unchecked")
@@ -126,6 +152,8 @@ public PersistenceConfigurationBuilder read(PersistenceConfiguration template) {
          builder.read(c);
       }
       this.passivation = template.passivation();
+      this.passivationQueueSize = template.passivationQueueSize();
+      this.negativeLookupFilter = template.negativeLookupFilter();
       return this;
    }
 
@@ -138,6 +166,8 @@ public String toString() {
       return "PersistenceConfigurationBuilder{" +
             "stores=" + stores +
             ", passivation=" + passivation +
+            ", passivationQueueSize=" + passivationQueueSize +
+            ", negativeLookupFilter=" + negativeLookupFilter +
             '}';
    }
 
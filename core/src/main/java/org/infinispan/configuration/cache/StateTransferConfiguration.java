@@ -14,15 +14,20 @@ public class StateTransferConfiguration {
    private int chunkSize;
    private boolean awaitInitialTransfer;
    private Boolean originalAwaitInitialTransfer;
+   private final long maxBandwidth;
+   private final int maxChunksInFlight;
 
    StateTransferConfiguration(boolean fetchInMemoryState, Boolean originalFetchInMemoryState, long timeout, int chunkSize,
-                              boolean awaitInitialTransfer, Boolean originalAwaitInitialTransfer) {
+                              boolean awaitInitialTransfer, Boolean originalAwaitInitialTransfer, long maxBandwidth,
+                              int maxChunksInFlight) {
       this.fetchInMemoryState = fetchInMemoryState;
       this.originalFetchInMemoryState = originalFetchInMemoryState;
       this.timeout = timeout;
       this.chunkSize = chunkSize;
       this.awaitInitialTransfer = awaitInitialTransfer;
       this.originalAwaitInitialTransfer = originalAwaitInitialTransfer;
+      this.maxBandwidth = maxBandwidth;
+      this.maxChunksInFlight = maxChunksInFlight;
    }
 
    /**
@@ -88,6 +93,22 @@ protected Boolean originalAwaitInitialTransfer() {
       return originalAwaitInitialTransfer;
    }
 
+   /**
+    * The maximum rate, in bytes per second, at which a node sends the state of this cache to the other nodes, shared
+    * by all its outbound transfers. If &lt;= 0, the rate is not limited.
+    */
+   public long maxBandwidth() {
+      return maxBandwidth;
+   }
+
+   /**
+    * The maximum number of chunks a node may send to another node without waiting for them to be applied. The receiver
+    * grants fewer credits while it is busy applying state, down to a single chunk at a time.
+    */
+   public int maxChunksInFlight() {
+      return maxChunksInFlight;
+   }
+
    @Override
    public String toString() {
       return "StateTransferConfiguration{" +
@@ -97,6 +118,8 @@ public String toString() {
             ", timeout=" + timeout +
             ", awaitInitialTransfer=" + awaitInitialTransfer +
             ", originalAwaitInitialTransfer=" + originalAwaitInitialTransfer +
+            ", maxBandwidth=" + maxBandwidth +
+            ", maxChunksInFlight=" + maxChunksInFlight +
             '}';
    }
 
@@ -113,6 +136,8 @@ public boolean equals(Object o) {
       if (originalFetchInMemoryState != null ? !originalFetchInMemoryState.equals(that.originalFetchInMemoryState) : that.originalFetchInMemoryState != null)
          return false;
       if (awaitInitialTransfer != that.awaitInitialTransfer) return false;
+      if (maxBandwidth != that.maxBandwidth) return false;
+      if (maxChunksInFlight != that.maxChunksInFlight) return false;
       if (originalAwaitInitialTransfer != null ? !originalAwaitInitialTransfer.equals(that.originalAwaitInitialTransfer) : that.originalAwaitInitialTransfer != null)
          return false;
 
@@ -127,6 +152,8 @@ public int hashCode() {
       result = 31 * result + chunkSize;
       result = 31 * result + (awaitInitialTransfer ? 1 : 0);
       result = 31 * result + (originalAwaitInitialTransfer != null ? originalAwaitInitialTransfer.hashCode() : 0);
+      result = 31 * result + (int) (maxBandwidth ^ (maxBandwidth >>> 32));
+      result = 31 * result + maxChunksInFlight;
       return result;
    }
 
@@ -22,6 +22,8 @@ public class StateTransferConfigurationBuilder extends
    private Boolean awaitInitialTransfer = null;
    private int chunkSize = 10000;
    private long timeout = TimeUnit.MINUTES.toMillis(4);
+   private long maxBandwidth = 0;
+   private int maxChunksInFlight = 1;
 
    StateTransferConfigurationBuilder(ClusteringConfigurationBuilder builder) {
       super(builder);
@@ -79,6 +81,25 @@ public StateTransferConfigurationBuilder timeout(long l, TimeUnit unit) {
       return timeout(unit.toMillis(l));
    }
 
+   /**
+    * The maximum rate, in bytes per second, at which a node sends the state of this cache to the other nodes, shared
+    * by all its outbound transfers. If &lt;= 0, the rate is not limited. Defaults to 0.
+    */
+   public StateTransferConfigurationBuilder maxBandwidth(long bytesPerSecond) {
+      this.maxBandwidth = bytesPerSecond;
+      return this;
+   }
+
+   /**
+    * The maximum number of chunks a node may send to another node without waiting for them to be applied. The receiver
+    * grants fewer credits while it is busy applying state, down to a single chunk at a time. Defaults to 1, i.e. each
+    * chunk is only sent after the previous one was applied.
+    */
+   public StateTransferConfigurationBuilder maxChunksInFlight(int maxChunksInFlight) {
+      this.maxChunksInFlight = maxChunksInFlight;
+      return this;
+   }
+
    @Override
    public void validate() {
       // certain combinations are illegal, such as state transfer + invalidation
@@ -89,6 +110,8 @@ public void validate() {
             && !getClusteringBuilder().cacheMode().isReplicated() && !getClusteringBuilder().cacheMode().isDistributed())
          throw new CacheConfigurationException(
                "awaitInitialTransfer can be enabled only if cache mode is distributed or replicated.");
+      if (maxChunksInFlight < 1)
+         throw new CacheConfigurationException("maxChunksInFlight must be at least 1, was " + maxChunksInFlight);
    }
 
    @Override
@@ -118,7 +141,7 @@ public  StateTransferConfiguration create() {
          _awaitInitialTransfer = false;
       }
       return new StateTransferConfiguration(_fetchInMemoryState, fetchInMemoryState,
-            timeout, chunkSize, _awaitInitialTransfer, awaitInitialTransfer);
+            timeout, chunkSize, _awaitInitialTransfer, awaitInitialTransfer, maxBandwidth, maxChunksInFlight);
    }
 
    @Override
@@ -127,6 +150,8 @@ public StateTransferConfigurationBuilder read(StateTransferConfiguration templat
       this.awaitInitialTransfer = template.originalAwaitInitialTransfer();
       this.timeout = template.timeout();
       this.chunkSize = template.chunkSize();
+      this.maxBandwidth = template.maxBandwidth();
+      this.maxChunksInFlight = template.maxChunksInFlight();
       return this;
    }
 
@@ -137,6 +162,8 @@ public String toString() {
             ", fetchInMemoryState=" + fetchInMemoryState +
             ", awaitInitialTransfer=" + awaitInitialTransfer +
             ", timeout=" + timeout +
+            ", maxBandwidth=" + maxBandwidth +
+            ", maxChunksInFlight=" + maxChunksInFlight +
             '}';
    }
 
@@ -15,6 +15,8 @@ public enum Attribute {
     AFTER("after"),
     ALLOW_DUPLICATE_DOMAINS("allowDuplicateDomains"),
     ALWAYS_PROVIDE_IN_MEMORY_STATE("alwaysProvideInMemoryState"),
+    ASYNC_BATCH_INTERVAL("asyncBatchInterval"),
+    ASYNC_BATCH_SIZE("asyncBatchSize"),
     ASYNC_MARSHALLING("asyncMarshalling"),
     AUTO_COMMIT("autoCommit"),
     BEFORE("before"),
@@ -24,6 +26,7 @@ public enum Attribute {
     CHUNK_SIZE("chunkSize"),
     CLASS("class"),
     CLUSTER_NAME("clusterName"),
+    CODEC("codec"),
     CONCURRENCY_LEVEL("concurrencyLevel"),
     DISTRIBUTED_SYNC_TIMEOUT("distributedSyncTimeout"),
     EAGER_LOCK_SINGLE_NODE("eagerLockSingleNode"),
@@ -55,20 +58,25 @@ public enum Attribute {
     LOG_FLUSH_TIMEOUT("logFlushTimeout"),
     MACHINE_ID("machineId"),
     MARSHALLER_CLASS("marshallerClass"),
+    MAX_BANDWIDTH("maxBandwidth"),
+    MAX_CHUNKS_IN_FLIGHT("maxChunksInFlight"),
     MAX_ENTRIES("maxEntries"),
     MAX_IDLE("maxIdle"),
+    MAX_MEMORY("maxMemory"),
     MAX_NON_PROGRESSING_LOG_WRITES("maxProgressingLogWrites"),
     MBEAN_SERVER_LOOKUP("mBeanServerLookup"),
     MODE("mode"),
     NODE_NAME("nodeName"),
     MODIFICATION_QUEUE_SIZE("modificationQueueSize"),
     NAME("name"),
+    NEGATIVE_LOOKUP_FILTER("negativeLookupFilter"),
     NUM_OWNERS("numOwners"),
     NUM_SEGMENTS("numSegments"),
     NUM_RETRIES("numRetries"),
     NUM_VIRTUAL_NODES("numVirtualNodes"),
     ON_REHASH("onRehash"),
     PASSIVATION("passivation"),
+    PASSIVATION_QUEUE_SIZE("passivationQueueSize"),
     POSITION("position"),
     PRELOAD("preload"),
     PURGE_ON_STARTUP("purgeOnStartup"),
@@ -84,12 +92,15 @@ public enum Attribute {
     REPL_QUEUE_INTERVAL("replQueueInterval"),
     REPL_QUEUE_CLASS("replQueueClass"),
     REPL_QUEUE_MAX_ELEMENTS("replQueueMaxElements"),
+    REPL_QUEUE_MAX_BYTES("replQueueMaxBytes"),
+    REPL_QUEUE_MAX_LATENCY("replQueueMaxLatency"),
     REPL_TIMEOUT("replTimeout"),
     RETRY_WAIT_TIME_INCREASE_FACTOR("retryWaitTimeIncreaseFactor"),
     SHARED("shared"),
     SHUTDOWN_TIMEOUT("shutdownTimeout"),
     SITE_ID("siteId"),
     SPIN_DURATION("spinDuration"),
+    STAGGER_DELAY("staggerDelay"),
     STORE_KEYS_AS_BINARY("storeKeysAsBinary"),
     STORE_VALUES_AS_BINARY("storeValuesAsBinary"),
     DEFENSIVE("defensive"),
@@ -106,13 +117,16 @@ public enum Attribute {
     TRANSPORT_CLASS("transportClass"),
     UNRELIABLE_RETURN_VALUES("unreliableReturnValues"),
     USE_EAGER_LOCKING("useEagerLocking"),
+    USE_INLINE_LOCKS("useInlineLocks"),
     USE_LOCK_STRIPING("useLockStriping"),
     SUPPORTS_CONCURRENT_UPDATES("supportsConcurrentUpdates"),
     USE_REPL_QUEUE("useReplQueue"),
     USE_SYNCHRONIZAION("useSynchronization"),
     VALUE("value"),
     VERSION("version"),
+    THRESHOLD("threshold"),
     WAKE_UP_INTERVAL("wakeUpInterval"),
+    WEIGHER("weigher"),
     WRITE_SKEW_CHECK("writeSkewCheck"),
     USE_1PC_FOR_AUTOCOMMIT_TX("use1PcForAutoCommitTransactions"),
     VERSIONING_SCHEME("versioningScheme"),
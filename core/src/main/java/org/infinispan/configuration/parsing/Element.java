@@ -23,6 +23,7 @@ public enum Element {
     CLUSTERING("clustering"),
     CLUSTER_STORE("cluster"),
     COMPATIBILITY("compatibility"),
+    COMPRESSION("compression"),
     CUSTOM_INTERCEPTORS("customInterceptors"),
     DATA_CONTAINER("dataContainer"),
     DEADLOCK_DETECTION("deadlockDetection"),
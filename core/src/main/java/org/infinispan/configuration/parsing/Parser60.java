@@ -7,6 +7,7 @@
 import org.infinispan.commons.marshall.AdvancedExternalizer;
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.util.Util;
+import org.infinispan.compression.CompressionCodec;
 import org.infinispan.configuration.cache.*;
 import org.infinispan.configuration.cache.InterceptorConfiguration.Position;
 import org.infinispan.configuration.global.ExecutorFactoryConfigurationBuilder;
@@ -16,6 +17,7 @@
 import org.infinispan.container.DataContainer;
 import org.infinispan.distribution.ch.ConsistentHashFactory;
 import org.infinispan.distribution.group.Grouper;
+import org.infinispan.eviction.EntryWeigher;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
 import org.infinispan.executors.ScheduledExecutorFactory;
@@ -174,6 +176,9 @@ private void parseCache(final XMLExtendedStreamReader reader, final Configuratio
             case COMPATIBILITY:
                parseCompatibility(reader, holder);
                break;
+            case COMPRESSION:
+               parseCompression(reader, holder);
+               break;
             default:
                throw ParseUtils.unexpectedElement(reader);
          }
@@ -309,6 +314,12 @@ private void parseBackup(XMLExtendedStreamReader reader, ConfigurationBuilder cc
             case ENABLED:
                backup.enabled(Boolean.parseBoolean(value));
                break;
+            case ASYNC_BATCH_SIZE:
+               backup.asyncBatchSize(Integer.parseInt(value));
+               break;
+            case ASYNC_BATCH_INTERVAL:
+               backup.asyncBatchInterval(Long.parseLong(value));
+               break;
             default:
                throw ParseUtils.unexpectedElement(reader);
          }
@@ -512,6 +523,9 @@ private void parseLocking(final XMLExtendedStreamReader reader, final Configurat
             case USE_LOCK_STRIPING:
                builder.locking().useLockStriping(Boolean.parseBoolean(value));
                break;
+            case USE_INLINE_LOCKS:
+               builder.locking().useInlineLocks(Boolean.parseBoolean(value));
+               break;
             case WRITE_SKEW_CHECK:
                builder.locking().writeSkewCheck(Boolean.parseBoolean(value));
                break;
@@ -537,6 +551,12 @@ private void parsePersistence(final XMLExtendedStreamReader reader, final Config
             case PASSIVATION:
                builder.persistence().passivation(Boolean.parseBoolean(value));
                break;
+            case PASSIVATION_QUEUE_SIZE:
+               builder.persistence().passivationQueueSize(Integer.parseInt(value));
+               break;
+            case NEGATIVE_LOOKUP_FILTER:
+               builder.persistence().negativeLookupFilter(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -595,6 +615,9 @@ private void parseClusterLoader(XMLExtendedStreamReader reader, ConfigurationBui
          case REMOTE_CALL_TIMEOUT:
             cclb.remoteCallTimeout(Long.parseLong(value));
             break;
+         case STAGGER_DELAY:
+            cclb.staggerDelay(Long.parseLong(value));
+            break;
          default:
             parseCommonStoreAttributes(reader, cclb, attrName, value, i);
             break;
@@ -916,12 +939,18 @@ private void parseEviction(final XMLExtendedStreamReader reader, final Configura
             case MAX_ENTRIES:
                builder.eviction().maxEntries(Integer.parseInt(value));
                break;
+            case MAX_MEMORY:
+               builder.eviction().maxMemory(Long.parseLong(value));
+               break;
             case STRATEGY:
                builder.eviction().strategy(EvictionStrategy.valueOf(value));
                break;
             case THREAD_POLICY:
                builder.eviction().threadPolicy(EvictionThreadPolicy.valueOf(value));
                break;
+            case WEIGHER:
+               builder.eviction().weigher(Util.<EntryWeigher>getInstance(value, holder.getClassLoader()));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1181,6 +1210,12 @@ private void parseStateTransfer(final XMLExtendedStreamReader reader, final Conf
             case CHUNK_SIZE:
                builder.clustering().stateTransfer().chunkSize(Integer.parseInt(value));
                break;
+            case MAX_BANDWIDTH:
+               builder.clustering().stateTransfer().maxBandwidth(Long.parseLong(value));
+               break;
+            case MAX_CHUNKS_IN_FLIGHT:
+               builder.clustering().stateTransfer().maxChunksInFlight(Integer.parseInt(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1329,6 +1364,12 @@ private void parseAsync(final XMLExtendedStreamReader reader, final Configuratio
             case REPL_QUEUE_MAX_ELEMENTS:
                builder.clustering().async().replQueueMaxElements(Integer.parseInt(value));
                break;
+            case REPL_QUEUE_MAX_BYTES:
+               builder.clustering().async().replQueueMaxBytes(Long.parseLong(value));
+               break;
+            case REPL_QUEUE_MAX_LATENCY:
+               builder.clustering().async().replQueueMaxLatency(Long.parseLong(value));
+               break;
             case USE_REPL_QUEUE:
                builder.clustering().async().useReplQueue(Boolean.parseBoolean(value));
                break;
@@ -1772,4 +1813,28 @@ private void parseCompatibility(XMLExtendedStreamReader reader, ConfigurationBui
       ParseUtils.requireNoContent(reader);
    }
 
+   private void parseCompression(XMLExtendedStreamReader reader, ConfigurationBuilderHolder holder) throws XMLStreamException {
+      ConfigurationBuilder builder = holder.getCurrentConfigurationBuilder();
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+         ParseUtils.requireNoNamespaceAttribute(reader, i);
+         String value = replaceProperties(reader.getAttributeValue(i));
+         Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+         switch (attribute) {
+            case ENABLED:
+               builder.compression().enabled(Boolean.parseBoolean(value));
+               break;
+            case CODEC:
+               builder.compression().codec(Util.<CompressionCodec>getInstance(value, holder.getClassLoader()));
+               break;
+            case THRESHOLD:
+               builder.compression().threshold(Integer.parseInt(value));
+               break;
+            default:
+               throw ParseUtils.unexpectedAttribute(reader, i);
+         }
+      }
+
+      ParseUtils.requireNoContent(reader);
+   }
+
 }
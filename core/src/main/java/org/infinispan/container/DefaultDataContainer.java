@@ -9,6 +9,7 @@
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EntryWeigher;
 import org.infinispan.eviction.EvictionManager;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
@@ -50,6 +51,7 @@ public class DefaultDataContainer implements DataContainer {
    final protected ConcurrentMap<Object, InternalCacheEntry> entries;
    protected InternalEntryFactory entryFactory;
    final protected DefaultEvictionListener evictionListener;
+   private final boolean weighted;
    private EvictionManager evictionManager;
    private PassivationManager passivator;
    private ActivationManager activator;
@@ -60,6 +62,7 @@ public DefaultDataContainer(int concurrencyLevel) {
       // If no comparing implementations passed, could fallback on JDK CHM
       entries = CollectionFactory.makeConcurrentMap(128, concurrencyLevel);
       evictionListener = null;
+      weighted = false;
    }
 
    public DefaultDataContainer(int concurrencyLevel,
@@ -67,11 +70,19 @@ public DefaultDataContainer(int concurrencyLevel,
       // If at least one comparing implementation give, use ComparingCHMv8
       entries = CollectionFactory.makeConcurrentMap(128, concurrencyLevel, keyEq, valueEq);
       evictionListener = null;
+      weighted = false;
    }
 
    protected DefaultDataContainer(int concurrencyLevel, int maxEntries,
          EvictionStrategy strategy, EvictionThreadPolicy policy,
          Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      this(concurrencyLevel, maxEntries, strategy, policy, keyEquivalence, valueEquivalence, -1, null);
+   }
+
+   protected DefaultDataContainer(int concurrencyLevel, int maxEntries,
+         EvictionStrategy strategy, EvictionThreadPolicy policy,
+         Equivalence keyEquivalence, Equivalence valueEquivalence,
+         long maxMemory, EntryWeigher weigher) {
       // translate eviction policy and strategy
       switch (policy) {
          case PIGGYBACK:
@@ -92,13 +103,18 @@ protected DefaultDataContainer(int concurrencyLevel, int maxEntries,
          case LIRS:
             eviction = Eviction.LIRS;
             break;
+         case TINY_LFU:
+            eviction = Eviction.TINY_LFU;
+            break;
          default:
             throw new IllegalArgumentException("No such eviction strategy " + strategy);
       }
 
+      weighted = maxMemory > 0;
+      // without max entries, the container is only bounded by weight
       entries = new BoundedConcurrentHashMap<Object, InternalCacheEntry>(
-            maxEntries, concurrencyLevel, eviction, evictionListener,
-            keyEquivalence, valueEquivalence);
+            weighted ? Math.max(maxEntries, 0) : maxEntries, concurrencyLevel, eviction, evictionListener,
+            keyEquivalence, valueEquivalence, weighted ? maxMemory : -1, weighted ? weigher : null);
    }
 
    @Inject
@@ -119,6 +135,18 @@ public static DataContainer boundedDataContainer(int concurrencyLevel, int maxEn
             policy, keyEquivalence, valueEquivalence);
    }
 
+   /**
+    * Creates a data container bounded both by the number of entries and by their total weight, as computed by the
+    * weigher.
+    */
+   public static DataContainer boundedDataContainer(int concurrencyLevel, int maxEntries,
+            EvictionStrategy strategy, EvictionThreadPolicy policy,
+            Equivalence keyEquivalence, Equivalence valueEquivalence,
+            long maxMemory, EntryWeigher weigher) {
+      return new DefaultDataContainer(concurrencyLevel, maxEntries, strategy,
+            policy, keyEquivalence, valueEquivalence, maxMemory, weigher);
+   }
+
    public static DataContainer unBoundedDataContainer(int concurrencyLevel,
          Equivalence keyEquivalence, Equivalence valueEquivalence) {
       return new DefaultDataContainer(concurrencyLevel, keyEquivalence, valueEquivalence);
@@ -196,6 +224,19 @@ public void clear() {
       entries.clear();
    }
 
+   /**
+    * Returns the total weight of the entries in the container, as computed by the configured
+    * {@link EntryWeigher}.
+    *
+    * @return the weight of the entries, or -1 if the container isn't bounded by memory
+    */
+   public long getWeight() {
+      if (!weighted) {
+         return -1;
+      }
+      return ((BoundedConcurrentHashMap<Object, InternalCacheEntry>) entries).getWeight();
+   }
+
    @Override
    public Set<Object> keySet() {
       return Collections.unmodifiableSet(entries.keySet());
@@ -246,6 +287,8 @@ public void onEntryActivated(Object key) {
 
       @Override
       public void onEntryRemoved(Object key) {
+         // an entry being passivated must be in the stores before it can be deleted from them
+         passivator.unstage(key);
          if (pm != null)
             pm.deleteFromAllStores(key, false);
       }
@@ -231,6 +231,14 @@ public enum Flag {
     */
    OPERATION_MEMCACHED,
 
+   /**
+    * Flags the invocation as coming from one of the <tt>*Async</tt> methods of the cache: instead of waiting for the
+    * response of the remote node executing the command, the interceptors may return a
+    * {@link org.infinispan.commons.util.concurrent.NotifyingFuture} completed when the response is received. This
+    * flag was created purely for internal Infinispan usage, and should not be used by clients calling into Infinispan.
+    */
+   FUTURE_RETURN_VALUE,
+
    ;
 
    /**
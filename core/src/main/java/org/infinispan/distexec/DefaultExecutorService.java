@@ -56,12 +56,14 @@
 import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.TopologyAwareAddress;
 import org.infinispan.util.TimeService;
 import org.infinispan.commons.util.concurrent.FutureListener;
 import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
+import org.infinispan.commons.util.concurrent.jdk8backported.ForkJoinPool;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -128,6 +130,7 @@ public boolean include(TopologyAwareAddress thisAddress, TopologyAwareAddress ot
    protected final ClusteringDependentLogic clusterDependentLogic;
    protected final boolean takeExecutorOwnership;
    private final TimeService timeService;
+   private volatile ExecutorService subtaskExecutor;
 
    /**
     * Creates a new DefaultExecutorService given a master cache node for local task execution. All
@@ -251,9 +254,34 @@ private List<Runnable> realShutdown(boolean interrupt) {
          else
             localExecutorService.shutdown();
       }
+      synchronized (this) {
+         if (subtaskExecutor != null) {
+            if (interrupt)
+               subtaskExecutor.shutdownNow();
+            else
+               subtaskExecutor.shutdown();
+         }
+      }
       return InfinispanCollections.emptyList();
    }
 
+   /**
+    * @return the fork/join pool executing the sub-tasks assigned to this node
+    */
+   private ExecutorService subtaskExecutor() {
+      ExecutorService executor = subtaskExecutor;
+      if (executor == null) {
+         synchronized (this) {
+            executor = subtaskExecutor;
+            if (executor == null) {
+               executor = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+               subtaskExecutor = executor;
+            }
+         }
+      }
+      return executor;
+   }
+
    @Override
    public List<Runnable> shutdownNow() {
       return realShutdown(true);
@@ -507,6 +535,9 @@ public <T, K> List<Future<T>> submitEverywhere(DistributedTask<T> task, K... inp
          Address me = getAddress();
          Map<Address, List<K>> nodesKeysMap = keysToExecutionNodes(task.getTaskExecutionPolicy(), input);
          checkExecutionPolicy(task, nodesKeysMap, input);
+         if (task.maxKeysPerSubtask() > 0) {
+            return new SubtaskScheduler<T>(task).submit(nodesKeysMap);
+         }
          for (Entry<Address, List<K>> e : nodesKeysMap.entrySet()) {
             Address target = e.getKey();
             DistributedExecuteCommand<T> c = null;
@@ -712,6 +743,7 @@ interface NodeFilter {
       private long timeout;
       private DistributedTaskExecutionPolicy executionPolicy = DistributedTaskExecutionPolicy.ALL;
       private DistributedTaskFailoverPolicy failoverPolicy = NO_FAILOVER;
+      private int maxKeysPerSubtask;
 
 
       public DefaultDistributedTaskBuilder(long taskTimeout) {
@@ -751,12 +783,21 @@ public DistributedTaskBuilder<T> failoverPolicy(DistributedTaskFailoverPolicy po
          return this;
       }
 
+      @Override
+      public DistributedTaskBuilder<T> maxKeysPerSubtask(int maxKeysPerSubtask) {
+         if (maxKeysPerSubtask < 0)
+            throw new IllegalArgumentException("Maximum number of keys per sub-task cannot be negative");
+         this.maxKeysPerSubtask = maxKeysPerSubtask;
+         return this;
+      }
+
       @Override
       public DistributedTask<T> build() {
          DefaultDistributedTaskBuilder<T> task = new DefaultDistributedTaskBuilder<T>(timeout);
          task.callable(callable);
          task.executionPolicy(executionPolicy);
          task.failoverPolicy(failoverPolicy);
+         task.maxKeysPerSubtask(maxKeysPerSubtask);
          return task;
       }
 
@@ -779,6 +820,11 @@ public DistributedTaskFailoverPolicy getTaskFailoverPolicy() {
       public Callable<T> getCallable() {
          return callable;
       }
+
+      @Override
+      public int maxKeysPerSubtask() {
+         return maxKeysPerSubtask;
+      }
    }
 
    /**
@@ -1043,15 +1089,22 @@ public void execute() {
             if (trace) log.tracef("Sending %s to remote execution at node %s", f, getExecutionTarget());
             try {
                rpc.invokeRemotelyInFuture(Collections.singletonList(getExecutionTarget()), getCommand(),
-                                          rpc.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS)
-                                                .timeout(getOwningTask().timeout(), TimeUnit.MILLISECONDS).build(),
-                                          (DistributedTaskPart<Object>) this);
+                                          rpcOptions(), (DistributedTaskPart<Object>) this);
             } catch (Throwable e) {
                log.remoteExecutionFailed(getExecutionTarget(), e);
             }
          }
       }
 
+      protected RpcOptions rpcOptions() {
+         return rpc.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS)
+               .timeout(getOwningTask().timeout(), TimeUnit.MILLISECONDS).build();
+      }
+
+      protected ExecutorService localExecutor() {
+         return localExecutorService;
+      }
+
       protected void invokeLocally() {
          log.debugf("Sending %s to self", this);
          try {
@@ -1083,7 +1136,7 @@ private Object doLocalInvoke() {
                   }
                }
             };
-            setNetworkFuture((Future<V>) localExecutorService.submit(call));
+            setNetworkFuture((Future<V>) localExecutor().submit(call));
          } catch (Throwable e1) {
             log.localExecutionFailed(e1);
          }
@@ -1133,6 +1186,270 @@ private DefaultExecutorService getOuterType() {
       }
    }
 
+   /**
+    * A part of a task executing a sub-task. Sub-tasks are sent out of order, so that a node executes
+    * them in parallel. The receiving node runs them on a dedicated fork/join pool, rather than on the
+    * threads handling the remote commands, and the sub-tasks assigned to this node are executed by a
+    * fork/join pool as well.
+    */
+   private class SubtaskPart<V> extends DistributedTaskPart<V> {
+
+      public SubtaskPart(DistributedTask<V> task, DistributedExecuteCommand<V> command,
+               List<Object> inputKeys, Address executionTarget) {
+         super(task, command, inputKeys, executionTarget, 0);
+      }
+
+      @Override
+      protected RpcOptions rpcOptions() {
+         return rpc.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS, false)
+               .timeout(getOwningTask().timeout(), TimeUnit.MILLISECONDS).build();
+      }
+
+      @Override
+      protected ExecutorService localExecutor() {
+         return subtaskExecutor();
+      }
+   }
+
+   /**
+    * Splits the input keys of each node in sub-tasks, and keeps a bounded number of sub-tasks in
+    * progress on each node. When a node has no pending sub-tasks left, it steals one from the node
+    * with the most pending sub-tasks, if the execution policy of the task allows it.
+    */
+   private class SubtaskScheduler<V> {
+      private final DistributedTask<V> task;
+      private final int maxSubtasksPerNode = Runtime.getRuntime().availableProcessors();
+      // guarded by this
+      private final Map<Address, LinkedList<Subtask<V>>> pendingSubtasks = new HashMap<Address, LinkedList<Subtask<V>>>();
+
+      SubtaskScheduler(DistributedTask<V> task) {
+         this.task = task;
+      }
+
+      <K> List<Future<V>> submit(Map<Address, List<K>> nodesKeysMap) {
+         List<Future<V>> futures = new ArrayList<Future<V>>();
+         int maxKeys = task.maxKeysPerSubtask();
+         synchronized (this) {
+            // nodes without input keys can still steal sub-tasks
+            for (Address node : executionCandidates(task)) {
+               pendingSubtasks.put(node, new LinkedList<Subtask<V>>());
+            }
+            for (Entry<Address, List<K>> e : nodesKeysMap.entrySet()) {
+               LinkedList<Subtask<V>> subtasks = pendingSubtasks.get(e.getKey());
+               if (subtasks == null) {
+                  subtasks = new LinkedList<Subtask<V>>();
+                  pendingSubtasks.put(e.getKey(), subtasks);
+               }
+               List<K> keys = e.getValue();
+               for (int i = 0; i < keys.size(); i += maxKeys) {
+                  Subtask<V> subtask = new Subtask<V>(this, new ArrayList<Object>(keys.subList(i, Math.min(i + maxKeys, keys.size()))));
+                  subtasks.add(subtask);
+                  futures.add(subtask);
+               }
+            }
+         }
+         for (Address node : new ArrayList<Address>(pendingSubtasks.keySet())) {
+            for (int i = 0; i < maxSubtasksPerNode; i++) {
+               if (!executeNext(node))
+                  break;
+            }
+         }
+         return futures;
+      }
+
+      /**
+       * Executes the next sub-task on the given node, either its own or a stolen one.
+       * 
+       * @return false if there was no sub-task to execute
+       */
+      boolean executeNext(Address node) {
+         Subtask<V> next;
+         synchronized (this) {
+            next = nextSubtask(node);
+         }
+         if (next == null)
+            return false;
+         next.execute(node);
+         return true;
+      }
+
+      private Subtask<V> nextSubtask(Address node) {
+         LinkedList<Subtask<V>> own = pendingSubtasks.get(node);
+         if (own != null && !own.isEmpty())
+            return own.poll();
+
+         Address victim = null;
+         int victimPending = 0;
+         for (Entry<Address, LinkedList<Subtask<V>>> e : pendingSubtasks.entrySet()) {
+            int pending = e.getValue().size();
+            if (pending > victimPending && task.getTaskExecutionPolicy().allowsStealing(node, e.getKey())) {
+               victim = e.getKey();
+               victimPending = pending;
+            }
+         }
+         if (victim == null)
+            return null;
+         if (trace) log.tracef("Node %s steals a sub-task from node %s, which has %d pending sub-tasks", node, victim, victimPending);
+         // steal from the end of the queue, the victim executes its sub-tasks from the start
+         return pendingSubtasks.get(victim).pollLast();
+      }
+
+      synchronized boolean remove(Subtask<V> subtask) {
+         for (LinkedList<Subtask<V>> subtasks : pendingSubtasks.values()) {
+            if (subtasks.remove(subtask))
+               return true;
+         }
+         return false;
+      }
+   }
+
+   /**
+    * The future of a sub-task, which is only assigned to a node when the node is ready to execute
+    * it.
+    */
+   private class Subtask<V> implements NotifyingFuture<V>, FutureListener<V> {
+      private final SubtaskScheduler<V> scheduler;
+      private final List<Object> inputKeys;
+      private final List<FutureListener<V>> listeners = new ArrayList<FutureListener<V>>();
+      // guarded by this
+      private DistributedTaskPart<V> part;
+      private boolean cancelled;
+
+      Subtask(SubtaskScheduler<V> scheduler, List<Object> inputKeys) {
+         this.scheduler = scheduler;
+         this.inputKeys = inputKeys;
+      }
+
+      void execute(Address target) {
+         DistributedTask<V> task = scheduler.task;
+         Address me = getAddress();
+         DistributedExecuteCommand<V> c;
+         if (target.equals(me)) {
+            c = factory.buildDistributedExecuteCommand(clone(task.getCallable()), me, inputKeys);
+         } else {
+            c = factory.buildDistributedExecuteCommand(task.getCallable(), me, inputKeys);
+         }
+         DistributedTaskPart<V> newPart = new SubtaskPart<V>(task, c, inputKeys, target);
+         synchronized (this) {
+            if (cancelled) {
+               newPart = null;
+            } else {
+               part = newPart;
+               notifyAll();
+            }
+         }
+         if (newPart == null) {
+            scheduler.executeNext(target);
+            return;
+         }
+         newPart.attachListener(this);
+         newPart.execute();
+      }
+
+      @Override
+      public void futureDone(Future<V> future) {
+         // the node is ready for another sub-task
+         scheduler.executeNext(((DistributedTaskPart<V>) future).getExecutionTarget());
+         notifyListeners();
+      }
+
+      private void notifyListeners() {
+         List<FutureListener<V>> toNotify;
+         synchronized (this) {
+            toNotify = new ArrayList<FutureListener<V>>(listeners);
+            listeners.clear();
+         }
+         for (FutureListener<V> l : toNotify) l.futureDone(this);
+      }
+
+      @Override
+      public NotifyingFuture<V> attachListener(FutureListener<V> listener) {
+         synchronized (this) {
+            if (!isDone()) {
+               listeners.add(listener);
+               return this;
+            }
+         }
+         listener.futureDone(this);
+         return this;
+      }
+
+      @Override
+      public boolean cancel(boolean mayInterruptIfRunning) {
+         DistributedTaskPart<V> p;
+         synchronized (this) {
+            if (cancelled)
+               return false;
+            p = part;
+            if (p == null) {
+               cancelled = true;
+               notifyAll();
+            }
+         }
+         if (p != null)
+            return p.cancel(mayInterruptIfRunning);
+         scheduler.remove(this);
+         notifyListeners();
+         return true;
+      }
+
+      @Override
+      public synchronized boolean isCancelled() {
+         return cancelled || (part != null && part.isCancelled());
+      }
+
+      @Override
+      public synchronized boolean isDone() {
+         return cancelled || (part != null && part.isDone());
+      }
+
+      /**
+       * Waits at most for the timeout of the task, as the sub-task may be queued behind sub-tasks of
+       * a node that never completes them.
+       */
+      @Override
+      public V get() throws InterruptedException, ExecutionException {
+         long taskTimeout = scheduler.task.timeout();
+         if (taskTimeout > 0) {
+            try {
+               return get(taskTimeout, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+               throw new ExecutionException(e);
+            }
+         }
+         DistributedTaskPart<V> p;
+         synchronized (this) {
+            while (part == null && !cancelled) {
+               wait();
+            }
+            p = part;
+         }
+         if (p == null)
+            throw new CancellationException("Task already cancelled");
+         return p.get();
+      }
+
+      @Override
+      public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+         long endNanos = timeService.expectedEndTime(timeout, unit);
+         DistributedTaskPart<V> p;
+         synchronized (this) {
+            while (part == null && !cancelled) {
+               long remainingMillis = timeService.remainingTime(endNanos, TimeUnit.MILLISECONDS);
+               if (remainingMillis <= 0)
+                  throw new TimeoutException();
+               wait(remainingMillis);
+            }
+            p = part;
+         }
+         if (p == null)
+            throw new CancellationException("Task already cancelled");
+         // a part waits for the timeout of the task when given no time at all
+         long remainingNanos = Math.max(timeService.remainingTime(endNanos, TimeUnit.NANOSECONDS), 1);
+         return p.get(remainingNanos, TimeUnit.NANOSECONDS);
+      }
+   }
+
    private static final class RunnableAdapter<T> implements Callable<T>, Serializable {
 
       /** The serialVersionUID */
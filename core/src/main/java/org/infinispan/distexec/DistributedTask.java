@@ -40,4 +40,12 @@
     */
    Callable<T> getCallable();
 
+   /**
+    * Returns the maximum number of input keys per sub-task, 0 if the input keys of a node are not
+    * split in sub-tasks
+    * 
+    * @return maximum number of keys per sub-task
+    */
+   int maxKeysPerSubtask();
+
 }
@@ -50,6 +50,19 @@
     */
    DistributedTaskBuilder<T> failoverPolicy(DistributedTaskFailoverPolicy policy);
 
+   /**
+    * Splits the input keys assigned to each node in sub-tasks of at most the given number of
+    * keys. Each sub-task executes the callable on its own keys, the sub-tasks of a node are
+    * executed in parallel, and an idle node may steal the pending sub-tasks of a busy node if the
+    * {@link DistributedTaskExecutionPolicy} of the task allows it. The callable must therefore
+    * produce a partial result from any subset of the input keys.
+    * 
+    * @param maxKeysPerSubtask
+    *           maximum number of keys per sub-task, or 0 to execute a single task per node
+    * @return this DistributedTaskBuilder
+    */
+   DistributedTaskBuilder<T> maxKeysPerSubtask(int maxKeysPerSubtask);
+
    /**
     * Completes creation of DistributedTask with the currently provided attributes of this
     * DistributedTaskBuilder
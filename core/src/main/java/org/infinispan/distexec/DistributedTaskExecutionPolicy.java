@@ -1,5 +1,8 @@
 package org.infinispan.distexec;
 
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.TopologyAwareAddress;
+
 /**
  * DistributedTaskExecutionPolicy allows task to specify its custom task execution policy across
  * Infinispan cluster.
@@ -9,6 +12,10 @@
  * backup remote network centre as well. Others might, for example, use only a dedicated subset of a
  * certain Infinispan rack nodes for specific task execution. DistributedTaskExecutionPolicy is set
  * per instance of DistributedTask.
+ * <p>
+ * When the input keys of a task are split in sub-tasks (see
+ * {@link DistributedTaskBuilder#maxKeysPerSubtask(int)}), DistributedTaskExecutionPolicy also decides
+ * which nodes may steal the pending sub-tasks of another node.
  * 
  * 
  * @author Vladimir Blagojevic
@@ -17,4 +24,33 @@
 public enum DistributedTaskExecutionPolicy {
 
    ALL, SAME_MACHINE, SAME_RACK, SAME_SITE;
+
+   /**
+    * Decides whether an idle node may steal a pending sub-task from another node. The thief reads
+    * the input keys of a stolen sub-task from the victim, so the thief has to be in the scope of
+    * this policy relative to the victim. Nodes without topology information may always steal.
+    * 
+    * @param thief
+    *           the idle node
+    * @param victim
+    *           the node which the sub-task was assigned to
+    * @return true if the thief may execute the sub-task instead of the victim
+    */
+   public boolean allowsStealing(Address thief, Address victim) {
+      if (!(thief instanceof TopologyAwareAddress) || !(victim instanceof TopologyAwareAddress))
+         return true;
+
+      TopologyAwareAddress thiefAddress = (TopologyAwareAddress) thief;
+      TopologyAwareAddress victimAddress = (TopologyAwareAddress) victim;
+      switch (this) {
+         case SAME_MACHINE:
+            return thiefAddress.isSameMachine(victimAddress);
+         case SAME_RACK:
+            return thiefAddress.isSameRack(victimAddress);
+         case SAME_SITE:
+            return thiefAddress.isSameSite(victimAddress);
+         default:
+            return true;
+      }
+   }
 }
@@ -14,6 +14,7 @@
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.eviction.PassivationManager;
 import org.infinispan.persistence.CollectionKeyFilter;
 import org.infinispan.persistence.CompositeFilter;
 import org.infinispan.persistence.manager.PersistenceManager;
@@ -59,6 +60,7 @@ public class MapReduceManagerImpl implements MapReduceManager {
    private ClusteringDependentLogic cdl;
    private EmbeddedCacheManager cacheManager;
    private PersistenceManager persistenceManager;
+   private PassivationManager passivationManager;
    private ExecutorService executorService;
    private TimeService timeService;
    private int chunkSize;
@@ -69,9 +71,11 @@ public class MapReduceManagerImpl implements MapReduceManager {
    @Inject
    public void init(EmbeddedCacheManager cacheManager, PersistenceManager persistenceManager,
             @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncTransportExecutor,
-            ClusteringDependentLogic cdl, TimeService timeService, Configuration configuration) {
+            ClusteringDependentLogic cdl, TimeService timeService, Configuration configuration,
+            PassivationManager passivationManager) {
       this.cacheManager = cacheManager;
       this.persistenceManager = persistenceManager;
+      this.passivationManager = passivationManager;
       this.cdl = cdl;
       this.executorService = asyncTransportExecutor;
       this.timeService = timeService;
@@ -191,6 +195,8 @@ protected <KIn, VIn, KOut, VOut> CollectableCollector<KOut, VOut> map(
             } else {
                keyFilter = new CompositeFilter(new PrimaryOwnerFilter(cdl), new CollectionKeyFilter(inputKeys));
             }
+            // the entries evicted while the data container was mapped may still be staged for passivation
+            passivationManager.flushStagedEntries();
             persistenceManager.processOnAllStores(keyFilter, new MapReduceCacheLoaderTask(mapper, collector),
                                                   true, false);
          }
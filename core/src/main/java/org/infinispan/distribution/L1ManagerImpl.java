@@ -15,6 +15,10 @@
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.interceptors.distribution.L1WriteSynchronizer;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.rpc.RpcOptions;
@@ -28,19 +32,25 @@
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
 
+@MBean(objectName = "L1Manager", description = "Tracks the requestors of the keys owned by this node and invalidates their L1 caches")
 public class L1ManagerImpl implements L1Manager, RemoteValueRetrievedListener {
 
    private static final Log log = LogFactory.getLog(L1ManagerImpl.class);
@@ -53,19 +63,22 @@ public class L1ManagerImpl implements L1Manager, RemoteValueRetrievedListener {
    private long l1Lifespan;
    private ExecutorService asyncTransportExecutor;
 
-   // TODO replace this with a custom, expirable collection
-   private final ConcurrentMap<Object, ConcurrentMap<Address, Long>> requestors;
+   private volatile RequestorIndex requestors;
+   private volatile long epochStart;
    private final ConcurrentMap<Object, L1WriteSynchronizer> synchronizers;
+   private final ConcurrentMap<InvalidationTarget, InvalidationQueue> invalidationQueues;
    private ScheduledExecutorService scheduledExecutor;
    private ScheduledFuture<?> scheduledRequestorsCleanupTask;
    private TimeService timeService;
 
-   private RpcOptions syncRpcOptions;
+   private final AtomicLong unicastInvalidations = new AtomicLong();
+   private final AtomicLong invalidationRpcs = new AtomicLong();
+
    private RpcOptions syncIgnoreLeaversRpcOptions;
 
    public L1ManagerImpl() {
-      requestors = CollectionFactory.makeConcurrentMap();
       synchronizers = CollectionFactory.makeConcurrentMap();
+      invalidationQueues = CollectionFactory.makeConcurrentMap();
    }
 
    @Inject
@@ -85,6 +98,9 @@ public void init(Configuration configuration, RpcManager rpcManager, CommandsFac
    public void start() {
       this.threshold = configuration.clustering().l1().invalidationThreshold();
       this.l1Lifespan = configuration.clustering().l1().lifespan();
+      this.requestors = new RequestorIndex(configuration.dataContainer().<Object>keyEquivalence(),
+                                           RequestorIndex.DEFAULT_NUM_SEGMENTS);
+      this.epochStart = timeService.wallClockTime();
       if (configuration.clustering().l1().cleanupTaskFrequency() > 0) {
          scheduledRequestorsCleanupTask = scheduledExecutor.scheduleAtFixedRate(new Runnable() {
             @Override
@@ -96,7 +112,6 @@ public void run() {
       } else {
          log.warnL1NotHavingReaperThread();
       }
-      syncRpcOptions = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS, false).build();
       syncIgnoreLeaversRpcOptions = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS, false)
             .build();
    }
@@ -107,39 +122,24 @@ public void stop() {
    }
 
    private void cleanUpRequestors() {
-      long expiryTime = timeService.wallClockTime() - l1Lifespan;
-      for (Map.Entry<Object, ConcurrentMap<Address, Long>> entry: requestors.entrySet()) {
-         Object key = entry.getKey();
-         ConcurrentMap<Address, Long> reqs = entry.getValue();
-         prune(reqs, expiryTime);
-         if (reqs.isEmpty()) requestors.remove(key);
+      long now = timeService.wallClockTime();
+      // The requestors of the previous epoch are forgotten when a new one starts, so a requestor is remembered for
+      // at least the L1 lifespan
+      List<Address> members = rpcManager.getMembers();
+      if (now - epochStart >= l1Lifespan) {
+         epochStart = now;
+         requestors.advanceEpoch(members);
       }
-   }
-
-   private void prune(ConcurrentMap<Address, Long> reqs, long expiryTime) {
-      for (Map.Entry<Address, Long> req: reqs.entrySet()) {
-         if (req.getValue() < expiryTime) reqs.remove(req.getKey());
+      for (Iterator<InvalidationQueue> it = invalidationQueues.values().iterator(); it.hasNext(); ) {
+         InvalidationQueue queue = it.next();
+         if (!members.contains(queue.target.target) && queue.isIdle()) it.remove();
       }
    }
 
    @Override
    public void addRequestor(Object key, Address origin) {
-      //we do a plain get first as that's likely to be enough
-      ConcurrentMap<Address, Long> as = requestors.get(key);
       log.tracef("Registering requestor %s for key '%s'", origin, key);
-      long now = timeService.wallClockTime();
-      if (as == null) {
-         // only if needed we create a new HashSet, but make sure we don't replace another one being created
-         as = CollectionFactory.makeConcurrentMap();
-         as.put(origin, now);
-         ConcurrentMap<Address, Long> previousAs = requestors.putIfAbsent(key, as);
-         if (previousAs != null) {
-            //another thread added it already, so use his copy and discard our proposed instance
-            previousAs.put(origin, now);
-         }
-      } else {
-         as.put(origin, now);
-      }
+      requestors.addRequestor(key, origin);
    }
 
    @Override
@@ -154,30 +154,23 @@ public Future<Object> flushCache(Collection<Object> keys, Address origin, boolea
       int nodes = invalidationAddresses.size();
 
       if (nodes > 0) {
-         InvalidateCommand ic = commandsFactory.buildInvalidateFromL1Command(origin, false, InfinispanCollections.<Flag>emptySet(), keys);
-         final SingleRpcCommand rpcCommand = commandsFactory.buildSingleRpcCommand(ic);
-
          // No need to invalidate at all if there is no one to invalidate!
          boolean multicast = isUseMulticast(nodes);
          if (trace) log.tracef("Invalidating keys %s on nodes %s. Use multicast? %s", keys, invalidationAddresses, multicast);
 
-         Runnable toExecute;
          if (multicast) {
-            toExecute = new Runnable() {
+            InvalidateCommand ic = commandsFactory.buildInvalidateFromL1Command(origin, false, InfinispanCollections.<Flag>emptySet(), keys);
+            final SingleRpcCommand rpcCommand = commandsFactory.buildSingleRpcCommand(ic);
+            Runnable toExecute = new Runnable() {
                @Override
                public void run() {
                   rpcManager.invokeRemotely(null, rpcCommand, rpcManager.getDefaultRpcOptions(true));
                }
             };
+            return (Future<Object>) asyncTransportExecutor.submit(toExecute);
          } else {
-            toExecute = new Runnable() {
-               @Override
-               public void run() {
-                  rpcManager.invokeRemotely(invalidationAddresses, rpcCommand, syncRpcOptions);
-               }
-            };
+            return invalidateInBatches(invalidationAddresses, keys, origin, null);
          }
-         return (Future<Object>) asyncTransportExecutor.submit(toExecute);
       } else {
          if (trace) log.tracef("No L1 caches to invalidate for keys %s", keys);
          return null;
@@ -216,24 +209,9 @@ public Object call() throws Exception {
                });
             }
          } else {
-            final CacheRpcCommand rpc = commandsFactory.buildSingleRpcCommand(
-                  commandsFactory.buildInvalidateFromL1Command(origin, false,
-                        InfinispanCollections.<Flag>emptySet(), keys));
             // Ask the caches who have requested from us to remove
             if (trace) log.tracef("Keys %s needs invalidation on %s", keys, invalidationAddresses);
-            if (useNotifyingFuture) {
-               NotifyingNotifiableFuture<Object> future = new AggregatingNotifyingFutureImpl(retval, 2);
-               rpcManager.invokeRemotelyInFuture(invalidationAddresses, rpc, syncIgnoreLeaversRpcOptions, future);
-               return future;
-            } else {
-               return asyncTransportExecutor.submit(new Callable<Object>() {
-                  @Override
-                  public Object call() throws Exception {
-                     rpcManager.invokeRemotely(invalidationAddresses, rpc, syncRpcOptions);
-                     return retval;
-                  }
-               });
-            }
+            return invalidateInBatches(invalidationAddresses, keys, origin, retval);
          }
       } else {
          if (trace) log.trace("No L1 caches to invalidate");
@@ -242,25 +220,55 @@ public Object call() throws Exception {
    }
 
    private Collection<Address> buildInvalidationAddressList(Collection<Object> keys, Address origin, boolean assumeOriginKeptEntryInL1) {
-      Collection<Address> addresses = new HashSet<Address>(2);
-      boolean originIsInRequestorsList = false;
-      for (Object key : keys) {
-         ConcurrentMap<Address, Long> as = requestors.remove(key);
-         if (as != null) {
-            Set<Address> requestorAddresses = as.keySet();
-            addresses.addAll(requestorAddresses);
-            if (assumeOriginKeptEntryInL1 && origin != null && requestorAddresses.contains(origin)) {
-               originIsInRequestorsList = true;
-               // re-add the origin as a requestor since the key will still be in the origin's L1 cache
-               addRequestor(key, origin);
-            }
-         }
-      }
+      // The requestors stay in the index until their epoch expires, as other keys of the same segments may still be
+      // in their L1 cache. The origin thus remains a requestor as well.
+      Set<Address> addresses = requestors.getRequestors(keys);
       // Prevent a loop by not sending the invalidation message to the origin
-      if (originIsInRequestorsList) addresses.remove(origin);
+      if (assumeOriginKeptEntryInL1 && origin != null) addresses.remove(origin);
+      // The index may still contain nodes that left the cache
+      if (!addresses.isEmpty()) addresses.retainAll(rpcManager.getMembers());
       return addresses;
    }
 
+   /**
+    * Invalidates the keys with one unicast RPC per node. While an invalidation RPC to a node is in progress, the keys to
+    * invalidate on the same node are accumulated in a batch, which is sent once that RPC completes.
+    */
+   private Future<Object> invalidateInBatches(Collection<Address> targets, Collection<Object> keys, Address origin,
+                                              Object retval) {
+      unicastInvalidations.incrementAndGet();
+      AggregatingNotifyingFutureImpl<Object> future = new AggregatingNotifyingFutureImpl<Object>(retval, targets.size());
+      for (Address target : targets) {
+         InvalidationTarget invalidationTarget = new InvalidationTarget(target, origin);
+         InvalidationQueue queue = invalidationQueues.get(invalidationTarget);
+         if (queue == null) {
+            queue = new InvalidationQueue(invalidationTarget);
+            InvalidationQueue existing = invalidationQueues.putIfAbsent(invalidationTarget, queue);
+            if (existing != null) queue = existing;
+         }
+         future.setNetworkFuture(queue.enqueue(keys));
+      }
+      return future;
+   }
+
+   @ManagedAttribute(description = "Number of unicast L1 invalidations requested by writes", displayName = "Unicast L1 invalidations",
+                     measurementType = MeasurementType.TRENDSUP)
+   public long getUnicastInvalidations() {
+      return unicastInvalidations.get();
+   }
+
+   @ManagedAttribute(description = "Number of unicast RPCs sent to invalidate L1 caches", displayName = "L1 invalidation RPCs",
+                     measurementType = MeasurementType.TRENDSUP)
+   public long getInvalidationRpcs() {
+      return invalidationRpcs.get();
+   }
+
+   @ManagedOperation(description = "Resets the L1 invalidation statistics", displayName = "Reset statistics")
+   public void resetStatistics() {
+      unicastInvalidations.set(0);
+      invalidationRpcs.set(0);
+   }
+
    private boolean isUseMulticast(int nodes) {
       // User has requested unicast only
       if (threshold == -1) return false;
@@ -294,4 +302,125 @@ public void remoteValueFound(InternalCacheEntry ice) {
          synchronizer.runL1UpdateIfPossible(ice);
       }
    }
+
+   private static final class InvalidationTarget {
+      final Address target;
+      // The origin of the write is part of the invalidation command
+      final Address origin;
+
+      InvalidationTarget(Address target, Address origin) {
+         this.target = target;
+         this.origin = origin;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (!(o instanceof InvalidationTarget)) return false;
+         InvalidationTarget that = (InvalidationTarget) o;
+         return target.equals(that.target) && (origin == null ? that.origin == null : origin.equals(that.origin));
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * target.hashCode() + (origin != null ? origin.hashCode() : 0);
+      }
+   }
+
+   /**
+    * Sends the invalidations to a node one batch at a time.
+    */
+   private final class InvalidationQueue {
+      final InvalidationTarget target;
+      // guarded by this
+      private InvalidationBatch pending;
+      private boolean sending;
+
+      InvalidationQueue(InvalidationTarget target) {
+         this.target = target;
+      }
+
+      Future<Object> enqueue(Collection<Object> keys) {
+         InvalidationBatch toSend = null;
+         Future<Object> future;
+         synchronized (this) {
+            if (pending == null) pending = new InvalidationBatch(this);
+            pending.keys.addAll(keys);
+            future = pending.future;
+            if (!sending) {
+               sending = true;
+               toSend = pending;
+               pending = null;
+            }
+         }
+         send(toSend);
+         return future;
+      }
+
+      void batchSent() {
+         send(nextBatch());
+      }
+
+      private synchronized InvalidationBatch nextBatch() {
+         InvalidationBatch next = pending;
+         pending = null;
+         sending = next != null;
+         return next;
+      }
+
+      /**
+       * Hands the batch over to the async transport executor. If the executor rejects it, the batch fails, and so do
+       * the batches accumulated in the meantime, as nothing would send them otherwise.
+       */
+      private void send(InvalidationBatch batch) {
+         while (batch != null) {
+            try {
+               asyncTransportExecutor.execute(batch.future);
+               return;
+            } catch (RejectedExecutionException e) {
+               log.debugf(e, "Could not send the L1 invalidation of keys %s to %s", batch.keys, target.target);
+               batch.future.fail(e);
+               batch = nextBatch();
+            }
+         }
+      }
+
+      synchronized boolean isIdle() {
+         return !sending && pending == null;
+      }
+   }
+
+   private final class InvalidationBatch implements Callable<Object> {
+      final InvalidationQueue queue;
+      final Set<Object> keys = new HashSet<Object>();
+      final BatchFuture future = new BatchFuture(this);
+
+      InvalidationBatch(InvalidationQueue queue) {
+         this.queue = queue;
+      }
+
+      @Override
+      public Object call() throws Exception {
+         try {
+            CacheRpcCommand rpc = commandsFactory.buildSingleRpcCommand(commandsFactory.buildInvalidateFromL1Command(
+                  queue.target.origin, false, InfinispanCollections.<Flag>emptySet(), keys));
+            if (trace) log.tracef("Invalidating keys %s on %s", keys, queue.target.target);
+            invalidationRpcs.incrementAndGet();
+            rpcManager.invokeRemotely(Collections.singleton(queue.target.target), rpc, syncIgnoreLeaversRpcOptions);
+            return null;
+         } finally {
+            queue.batchSent();
+         }
+      }
+   }
+
+   private static final class BatchFuture extends FutureTask<Object> {
+      BatchFuture(Callable<Object> callable) {
+         super(callable);
+      }
+
+      void fail(Throwable t) {
+         setException(t);
+      }
+   }
 }
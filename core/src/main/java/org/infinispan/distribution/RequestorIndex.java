@@ -0,0 +1,173 @@
+package org.infinispan.distribution;
+
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.remoting.transport.Address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A compact index of the nodes that requested keys from this node and may therefore hold them in their L1 cache.
+ * <p/>
+ * Instead of recording the requestors of each key, the keys are hashed into a fixed number of segments and each segment
+ * records the requestors as a bitset of node indexes. The index may thus report more requestors for a key than the ones
+ * that actually requested it, which only causes some unnecessary invalidations.
+ * <p/>
+ * Requestors are recorded in the current epoch, and the requestors of the previous epoch are still reported. The owner
+ * of the index advances the epoch every L1 lifespan, so a requestor is remembered for at least the lifespan of the
+ * entries it stored in its L1 cache.
+ * <p/>
+ * Each epoch assigns its own node indexes, starting with the requestors of the previous epoch that are still members
+ * of the cluster. The indexes of the nodes that left are thus reclaimed, and the bitsets stay as small as the cluster.
+ *
+ * @since 6.0
+ */
+class RequestorIndex {
+
+   static final int DEFAULT_NUM_SEGMENTS = 1 << 14;
+
+   private final Equivalence<Object> keyEquivalence;
+   private final int segmentMask;
+
+   private volatile Epoch currentEpoch;
+   private volatile Epoch previousEpoch;
+
+   RequestorIndex(Equivalence<Object> keyEquivalence, int numSegments) {
+      if (Integer.bitCount(numSegments) != 1)
+         throw new IllegalArgumentException("The number of segments must be a power of 2: " + numSegments);
+      this.keyEquivalence = keyEquivalence;
+      this.segmentMask = numSegments - 1;
+      this.currentEpoch = new Epoch(numSegments, Collections.<Address>emptyList());
+      this.previousEpoch = new Epoch(numSegments, Collections.<Address>emptyList());
+   }
+
+   void addRequestor(Object key, Address requestor) {
+      Epoch epoch = currentEpoch;
+      int nodeIndex = epoch.nodeIndex(requestor);
+      int word = nodeIndex >>> 6;
+      long mask = 1L << nodeIndex;
+      AtomicReferenceArray<long[]> segments = epoch.segments;
+      int segment = segment(key);
+      while (true) {
+         long[] bits = segments.get(segment);
+         // a node usually requests many keys of a segment, so the bit is most likely set already
+         if (bits != null && word < bits.length && (bits[word] & mask) != 0)
+            return;
+
+         long[] newBits = bits == null ? new long[word + 1] : Arrays.copyOf(bits, Math.max(bits.length, word + 1));
+         newBits[word] |= mask;
+         if (segments.compareAndSet(segment, bits, newBits))
+            return;
+      }
+   }
+
+   /**
+    * @return the nodes that may hold any of the given keys in their L1 cache
+    */
+   Set<Address> getRequestors(Collection<Object> keys) {
+      Set<Address> requestors = new HashSet<Address>(2);
+      // read the current epoch first: advanceEpoch() replaces the previous epoch before the current one, so an epoch
+      // that becomes the previous one in between is still read
+      Epoch current = currentEpoch;
+      Epoch previous = previousEpoch;
+      for (Object key : keys) {
+         int segment = segment(key);
+         previous.addNodes(segment, requestors);
+         current.addNodes(segment, requestors);
+      }
+      return requestors;
+   }
+
+   /**
+    * Starts a new epoch, forgetting the requestors recorded before the current one. Only invoked by a single thread at
+    * a time.
+    *
+    * @param members the current members of the cluster, the only requestors of the current epoch whose indexes are kept
+    */
+   void advanceEpoch(Collection<Address> members) {
+      Epoch epoch = currentEpoch;
+      List<Address> retainedNodes = new ArrayList<Address>(members.size());
+      for (Address node : epoch.nodes) {
+         if (members.contains(node)) {
+            retainedNodes.add(node);
+         }
+      }
+      previousEpoch = epoch;
+      currentEpoch = new Epoch(segmentMask + 1, retainedNodes);
+   }
+
+   /**
+    * @return the number of nodes with an index in the current epoch
+    */
+   int getIndexedNodes() {
+      return currentEpoch.nodes.length;
+   }
+
+   private int segment(Object key) {
+      int h = keyEquivalence.hashCode(key);
+      // spread the bits of the hash code, as the segment only uses the lower ones
+      h ^= (h >>> 20) ^ (h >>> 12);
+      h ^= (h >>> 7) ^ (h >>> 4);
+      return h & segmentMask;
+   }
+
+   /**
+    * The requestors recorded during an epoch, as bitsets of node indexes assigned by the epoch.
+    */
+   private static final class Epoch {
+      final AtomicReferenceArray<long[]> segments;
+      private final ConcurrentMap<Address, Integer> nodeIndexes = CollectionFactory.makeConcurrentMap();
+      private volatile Address[] nodes;
+
+      Epoch(int numSegments, List<Address> nodes) {
+         this.segments = new AtomicReferenceArray<long[]>(numSegments);
+         this.nodes = nodes.toArray(new Address[nodes.size()]);
+         for (int i = 0; i < this.nodes.length; i++) {
+            nodeIndexes.put(this.nodes[i], i);
+         }
+      }
+
+      int nodeIndex(Address address) {
+         Integer index = nodeIndexes.get(address);
+         if (index != null)
+            return index;
+
+         synchronized (this) {
+            index = nodeIndexes.get(address);
+            if (index == null) {
+               Address[] newNodes = Arrays.copyOf(nodes, nodes.length + 1);
+               index = nodes.length;
+               newNodes[index] = address;
+               // publish the address before its index, so that readers can always resolve the indexes they find
+               nodes = newNodes;
+               nodeIndexes.put(address, index);
+            }
+            return index;
+         }
+      }
+
+      void addNodes(int segment, Set<Address> requestors) {
+         long[] bits = segments.get(segment);
+         if (bits == null)
+            return;
+         // read after the bits, so that it includes all the nodes they refer to
+         Address[] nodes = this.nodes;
+         for (int word = 0; word < bits.length; word++) {
+            long remaining = bits[word];
+            while (remaining != 0) {
+               int nodeIndex = (word << 6) + Long.numberOfTrailingZeros(remaining);
+               requestors.add(nodes[nodeIndex]);
+               remaining &= remaining - 1;
+            }
+         }
+      }
+   }
+}
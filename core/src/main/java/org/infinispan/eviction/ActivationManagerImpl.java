@@ -28,14 +28,16 @@ public class ActivationManagerImpl implements ActivationManager {
 
    private final AtomicLong activations = new AtomicLong(0);
    private PersistenceManager persistenceManager;
+   private PassivationManager passivationManager;
    private Configuration cfg;
 
    @ManagedAttribute(description = "Enables or disables the gathering of statistics by this component", displayName = "Statistics enabled", writable = true)
    private boolean statisticsEnabled = false;
 
    @Inject
-   public void inject(PersistenceManager clm, Configuration cfg) {
+   public void inject(PersistenceManager clm, PassivationManager passivationManager, Configuration cfg) {
       this.persistenceManager = clm;
+      this.passivationManager = passivationManager;
       this.cfg = cfg;
    }
 
@@ -47,7 +49,9 @@ public void start() {
    @Override
    public void activate(Object key) {
       try {
-         if (persistenceManager.activate(key) && statisticsEnabled) {
+         // an entry still staged for passivation isn't in the stores, so there's nothing to remove from them
+         boolean activated = passivationManager.unstage(key) || persistenceManager.activate(key);
+         if (activated && statisticsEnabled) {
             activations.incrementAndGet();
          }
       } catch (CacheException e) {
@@ -0,0 +1,59 @@
+package org.infinispan.eviction;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.marshall.core.MarshalledValue;
+
+/**
+ * The default {@link EntryWeigher}: estimates the memory footprint of an entry in bytes.
+ * <p/>
+ * Byte arrays, {@link MarshalledValue}s (i.e. caches configured with <tt>storeAsBinary</tt>) and strings are
+ * measured precisely enough to be useful; any other key or value is accounted for with a fixed estimate, so caches
+ * storing arbitrary objects should either store them as binary or provide their own weigher.
+ *
+ * @since 6.0
+ */
+public class DefaultEntryWeigher implements EntryWeigher {
+
+   /**
+    * Estimated footprint of an internal cache entry and of its data container node, excluding key and value.
+    */
+   static final int ENTRY_OVERHEAD = 64;
+
+   /**
+    * Estimated footprint of an object whose size cannot be computed.
+    */
+   static final int OBJECT_ESTIMATE = 64;
+
+   private static final int OBJECT_HEADER = 16;
+
+   private static final int ARRAY_HEADER = 16;
+
+   @Override
+   public int weigh(Object key, InternalCacheEntry entry) {
+      long weight = ENTRY_OVERHEAD + sizeOf(key) + (entry == null ? 0 : sizeOf(entry.getValue()));
+      return weight > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) weight;
+   }
+
+   /**
+    * Estimates the size of an object in bytes.
+    */
+   protected long sizeOf(Object o) {
+      if (o == null) {
+         return 0;
+      } else if (o instanceof byte[]) {
+         return align(ARRAY_HEADER + ((byte[]) o).length);
+      } else if (o instanceof MarshalledValue) {
+         // the backing array of the raw stream may be larger than the marshalled value itself
+         return OBJECT_HEADER + 16 + align(ARRAY_HEADER + ((MarshalledValue) o).getRaw().getRaw().length);
+      } else if (o instanceof String) {
+         return OBJECT_HEADER + 8 + align(ARRAY_HEADER + 2 * ((String) o).length());
+      } else if (o instanceof Number || o instanceof Boolean || o instanceof Character) {
+         return OBJECT_HEADER + 8;
+      }
+      return OBJECT_ESTIMATE;
+   }
+
+   private static long align(long size) {
+      return (size + 7) & ~7L;
+   }
+}
@@ -0,0 +1,18 @@
+package org.infinispan.eviction;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+
+/**
+ * Computes the weight of the entries of a cache, usually an estimate of their memory footprint in bytes. Used when
+ * eviction is configured with a {@link org.infinispan.configuration.cache.EvictionConfiguration#maxMemory() memory
+ * budget}: entries are evicted until the total weight of the cache entries fits the budget.
+ * <p/>
+ * Implementations are invoked on every write while holding a lock on a part of the data container, so they must be
+ * fast, thread safe and must not access the cache. They need a public no-arg constructor when configured in XML.
+ *
+ * @see DefaultEntryWeigher
+ * @since 6.0
+ */
+public interface EntryWeigher extends BoundedConcurrentHashMap.Weigher<Object, InternalCacheEntry> {
+}
@@ -16,7 +16,12 @@ public enum EvictionStrategy {
    @Deprecated
    FIFO, 
    LRU, 
-   LIRS;
+   LIRS,
+   /**
+    * An LRU policy filtered by TinyLFU admission: on eviction, a new entry is only kept at the expense of an older
+    * one if it was accessed more frequently, which protects frequently accessed entries from scans.
+    */
+   TINY_LFU;
 
    public boolean isEnabled() {
       return this != NONE;
@@ -20,6 +20,26 @@ public interface PassivationManager {
 
    void passivate(InternalCacheEntry entry);
 
+   /**
+    * Returns the entry passivated under the given key if it is still staged, i.e. it has not been written to the stores
+    * yet. Always null if passivation is synchronous.
+    */
+   InternalCacheEntry getStagedEntry(Object key);
+
+   /**
+    * Removes the staged entry of the given key, if any, before the key is activated or removed. If the entry is being
+    * written to the stores, waits until it has been written, so that the caller can delete it from the stores.
+    *
+    * @return true if the entry was staged and will never be written to the stores
+    */
+   boolean unstage(Object key);
+
+   /**
+    * Writes the staged entries to the stores and waits until they have all been written, so that iterating over the
+    * stores finds them.
+    */
+   void flushStagedEntries();
+
    void passivateAll() throws PersistenceException;
 
    long getPassivationCount();
@@ -1,11 +1,15 @@
 package org.infinispan.eviction;
 
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Util;
+import org.infinispan.compression.CompressionManager;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.impl.ImmutableContext;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
@@ -18,13 +22,46 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static org.infinispan.factories.KnownComponentNames.PERSISTENCE_EXECUTOR;
 import static org.infinispan.persistence.PersistenceUtil.internalMetadata;
 
+/**
+ * Passivates the entries evicted from memory, either synchronously or, if the passivation queue size is positive,
+ * asynchronously.
+ * <p/>
+ * Eviction passivates entries while holding the lock of a data container segment, so writing them to the stores
+ * synchronously blocks all the writers of that segment. Asynchronous passivation instead stages the evicted entries in
+ * memory, where reads and activations can still find them, and writes them to the stores in batches on the
+ * persistence executor. A single flush runs at a time, so the writes of a key are never reordered. When the staging
+ * area is full, entries are passivated synchronously.
+ * <p/>
+ * The post-passivation notification of a staged entry is only sent once the entry is in the stores. An entry activated
+ * or evicted again before being written gets no post-passivation notification for the cancelled passivation.
+ * <p/>
+ * Staged entries are neither in the data container nor in the stores, so the components iterating over both must
+ * {@link #flushStagedEntries() flush} the staging area before iterating over the stores.
+ */
 public class PassivationManagerImpl implements PassivationManager {
 
+   private static final int MAX_BATCH_SIZE = 128;
+
+   private static final int STAGED = 0;
+   private static final int WRITING = 1;
+   private static final int CANCELLED = 2;
+
    PersistenceManager persistenceManager;
    CacheNotifier notifier;
    Configuration cfg;
@@ -37,16 +74,41 @@ public class PassivationManagerImpl implements PassivationManager {
    private TimeService timeService;
    private static final boolean trace = log.isTraceEnabled();
    private MarshalledEntryFactory marshalledEntryFactory;
+   private CompressionManager compressionManager;
+   private ExecutorService persistenceExecutor;
+
+   private int maxStagedEntries;
+   private ConcurrentMap<Object, StagedEntry> stagedEntries;
+   private final Queue<StagedEntry> flushQueue = new ConcurrentLinkedQueue<StagedEntry>();
+   private final AtomicInteger stagedCount = new AtomicInteger();
+   private final AtomicBoolean flushing = new AtomicBoolean();
+   private final Runnable flushTask = new Runnable() {
+      @Override
+      public void run() {
+         do {
+            try {
+               writeStagedEntries();
+            } finally {
+               flushing.set(false);
+            }
+            // entries staged after the last poll, but before the flag was cleared, would be left behind
+         } while (!flushQueue.isEmpty() && flushing.compareAndSet(false, true));
+      }
+   };
 
    @Inject
    public void inject(PersistenceManager persistenceManager, CacheNotifier notifier, Configuration cfg, DataContainer container,
-                      TimeService timeService, MarshalledEntryFactory marshalledEntryFactory) {
+                      TimeService timeService, MarshalledEntryFactory marshalledEntryFactory,
+                      CompressionManager compressionManager,
+                      @ComponentName(PERSISTENCE_EXECUTOR) ExecutorService persistenceExecutor) {
       this.persistenceManager = persistenceManager;
       this.notifier = notifier;
       this.cfg = cfg;
       this.container = container;
       this.timeService = timeService;
       this.marshalledEntryFactory = marshalledEntryFactory;
+      this.compressionManager = compressionManager;
+      this.persistenceExecutor = persistenceExecutor;
    }
 
    @Start(priority = 12)
@@ -54,6 +116,11 @@ public void start() {
       enabled = cfg.persistence().passivation() && cfg.persistence().usingStores();
       if (enabled) {
          statsEnabled = cfg.jmxStatistics().enabled();
+         maxStagedEntries = cfg.persistence().passivationQueueSize();
+         if (maxStagedEntries > 0) {
+            stagedEntries = CollectionFactory.makeConcurrentMap(cfg.dataContainer().keyEquivalence(),
+                                                                AnyEquivalence.<StagedEntry>getInstance());
+         }
       }
    }
 
@@ -69,36 +136,72 @@ public void passivate(InternalCacheEntry entry) {
          // notify listeners that this entry is about to be passivated
          notifier.notifyCacheEntryPassivated(key, entry.getValue(), true,
                ImmutableContext.INSTANCE, null);
-         if (trace) log.tracef("Passivating entry %s", key);
-         try {
-            MarshalledEntry marshalledEntry = marshalledEntryFactory.newMarshalledEntry(entry.getKey(), entry.getValue(),
-                                                                                        internalMetadata(entry));
-            persistenceManager.writeToAllStores(marshalledEntry, false);
-            if (statsEnabled) passivations.getAndIncrement();
-         } catch (CacheException e) {
-            log.unableToPassivateEntry(key, e);
+         if (stagedEntries != null && stage(entry)) {
+            if (trace) log.tracef("Staged entry %s for passivation", key);
+         } else {
+            if (trace) log.tracef("Passivating entry %s", key);
+            try {
+               persistenceManager.writeToAllStores(toMarshalledEntry(entry), false);
+               if (statsEnabled) passivations.getAndIncrement();
+            } catch (CacheException e) {
+               log.unableToPassivateEntry(key, e);
+            }
+            notifier.notifyCacheEntryPassivated(key, null, false,
+                  ImmutableContext.INSTANCE, null);
          }
-         notifier.notifyCacheEntryPassivated(key, null, false,
-               ImmutableContext.INSTANCE, null);
       }
    }
 
+   @Override
+   public InternalCacheEntry getStagedEntry(Object key) {
+      if (stagedEntries == null)
+         return null;
+      StagedEntry staged = stagedEntries.get(key);
+      return staged != null ? staged.entry : null;
+   }
+
+   @Override
+   public boolean unstage(Object key) {
+      if (stagedEntries == null)
+         return false;
+      StagedEntry staged = stagedEntries.remove(key);
+      if (staged == null)
+         return false;
+      if (staged.state.compareAndSet(STAGED, CANCELLED)) {
+         stagedCount.decrementAndGet();
+         return true;
+      }
+      staged.awaitWritten();
+      return false;
+   }
+
    @Override
    @Stop(priority = 9)
    public void passivateAll() throws PersistenceException {
       if (enabled) {
          long start = timeService.time();
+         flushStagedEntries();
          log.passivatingAllEntries();
          for (InternalCacheEntry e : container) {
             if (trace) log.tracef("Passivating %s", e.getKey());
-            persistenceManager.writeToAllStores(marshalledEntryFactory.newMarshalledEntry(e.getKey(), e.getValue(),
-                                                                        internalMetadata(e)), false);
+            persistenceManager.writeToAllStores(toMarshalledEntry(e), false);
          }
          log.passivatedEntries(container.size(),
                                Util.prettyPrintTime(timeService.timeDuration(start, TimeUnit.MILLISECONDS)));
       }
    }
 
+   @Override
+   public void flushStagedEntries() {
+      if (stagedEntries == null)
+         return;
+      writeStagedEntries();
+      // wait for the entries that a background flush is still writing
+      for (StagedEntry staged : stagedEntries.values()) {
+         staged.awaitWritten();
+      }
+   }
+
    @Override
    public long getPassivationCount() {
       return passivations.get();
@@ -108,4 +211,102 @@ public long getPassivationCount() {
    public void resetPassivationCount() {
       passivations.set(0L);
    }
+
+   private boolean stage(InternalCacheEntry entry) {
+      if (stagedCount.incrementAndGet() > maxStagedEntries) {
+         stagedCount.decrementAndGet();
+         return false;
+      }
+      StagedEntry staged = new StagedEntry(entry);
+      StagedEntry previous = stagedEntries.put(entry.getKey(), staged);
+      if (previous != null && previous.state.compareAndSet(STAGED, CANCELLED))
+         stagedCount.decrementAndGet();
+      flushQueue.offer(staged);
+
+      if (flushing.compareAndSet(false, true)) {
+         try {
+            persistenceExecutor.execute(flushTask);
+         } catch (RejectedExecutionException e) {
+            // the executor is shutting down, write the staged entries from this thread
+            flushTask.run();
+         }
+      }
+      return true;
+   }
+
+   private void writeStagedEntries() {
+      List<StagedEntry> batch = new ArrayList<StagedEntry>(MAX_BATCH_SIZE);
+      List<MarshalledEntry> marshalledEntries = new ArrayList<MarshalledEntry>(MAX_BATCH_SIZE);
+      StagedEntry staged;
+      while ((staged = flushQueue.poll()) != null) {
+         // skip the entries activated or superseded in the meantime
+         if (staged.state.compareAndSet(STAGED, WRITING)) {
+            batch.add(staged);
+            marshalledEntries.add(toMarshalledEntry(staged.entry));
+         }
+         if (batch.size() == MAX_BATCH_SIZE || (flushQueue.isEmpty() && !batch.isEmpty())) {
+            writeBatch(batch, marshalledEntries);
+            batch.clear();
+            marshalledEntries.clear();
+         }
+      }
+      // another thread may have polled the last entry after this one checked that the queue wasn't empty
+      if (!batch.isEmpty())
+         writeBatch(batch, marshalledEntries);
+   }
+
+   private void writeBatch(List<StagedEntry> batch, List<MarshalledEntry> marshalledEntries) {
+      if (trace) log.tracef("Passivating %d staged entries", batch.size());
+      try {
+         persistenceManager.writeBatchToAllStores(marshalledEntries, false);
+         if (statsEnabled) passivations.getAndAdd(batch.size());
+      } catch (CacheException e) {
+         for (StagedEntry staged : batch) {
+            log.unableToPassivateEntry(staged.entry.getKey(), e);
+         }
+      } finally {
+         // the entries must be in the stores before they stop being visible
+         for (StagedEntry staged : batch) {
+            stagedEntries.remove(staged.entry.getKey(), staged);
+            stagedCount.decrementAndGet();
+            staged.written.countDown();
+         }
+      }
+      for (StagedEntry staged : batch) {
+         notifier.notifyCacheEntryPassivated(staged.entry.getKey(), null, false,
+               ImmutableContext.INSTANCE, null);
+      }
+   }
+
+   private MarshalledEntry toMarshalledEntry(InternalCacheEntry entry) {
+      return marshalledEntryFactory.newMarshalledEntry(entry.getKey(), compressionManager.compress(entry.getValue()),
+                                                       internalMetadata(entry));
+   }
+
+   private static class StagedEntry {
+      final InternalCacheEntry entry;
+      final AtomicInteger state = new AtomicInteger(STAGED);
+      final CountDownLatch written = new CountDownLatch(1);
+
+      StagedEntry(InternalCacheEntry entry) {
+         this.entry = entry;
+      }
+
+      void awaitWritten() {
+         if (state.get() != WRITING)
+            return;
+         // activation and removal can't proceed before the entry is in the stores, so don't give up when interrupted
+         boolean interrupted = false;
+         while (true) {
+            try {
+               written.await();
+               break;
+            } catch (InterruptedException e) {
+               interrupted = true;
+            }
+         }
+         if (interrupted)
+            Thread.currentThread().interrupt();
+      }
+   }
 }
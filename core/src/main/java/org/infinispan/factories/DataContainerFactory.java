@@ -39,14 +39,21 @@ public <T> T construct(Class<T> componentType) {
             case LRU:
             case FIFO:
             case LIRS:
+            case TINY_LFU:
                int maxEntries = configuration.eviction().maxEntries();
+               long maxMemory = configuration.eviction().maxMemory();
                //handle case when < 0 value signifies unbounded container 
-               if(maxEntries < 0) {
+               if(maxEntries < 0 && maxMemory <= 0) {
                    return (T) DefaultDataContainer.unBoundedDataContainer(
                          level, keyEquivalence, valueEquivalence);
                }
 
                EvictionThreadPolicy policy = configuration.eviction().threadPolicy();
+               if (maxMemory > 0) {
+                  return (T) DefaultDataContainer.boundedDataContainer(
+                     level, maxEntries, st, policy, keyEquivalence, valueEquivalence,
+                     maxMemory, configuration.eviction().weigher());
+               }
 
                return (T) DefaultDataContainer.boundedDataContainer(
                   level, maxEntries, st, policy, keyEquivalence, valueEquivalence);
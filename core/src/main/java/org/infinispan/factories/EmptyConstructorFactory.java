@@ -10,6 +10,7 @@
 import org.infinispan.marshall.core.ExternalizerTable;
 import org.infinispan.remoting.InboundInvocationHandler;
 import org.infinispan.remoting.InboundInvocationHandlerImpl;
+import org.infinispan.statetransfer.BandwidthLimiter;
 import org.infinispan.topology.ClusterTopologyManager;
 import org.infinispan.topology.ClusterTopologyManagerImpl;
 import org.infinispan.topology.DefaultRebalancePolicy;
@@ -31,7 +32,7 @@
 
 @DefaultFactoryFor(classes = {InboundInvocationHandler.class, RemoteCommandsFactory.class, ExternalizerTable.class,
                               RebalancePolicy.class, BackupReceiverRepository.class, CancellationService.class,
-                              TimeService.class})
+                              TimeService.class, BandwidthLimiter.class})
 @Scope(Scopes.GLOBAL)
 public class EmptyConstructorFactory extends AbstractComponentFactory implements AutoInstantiableFactory {
 
@@ -57,6 +58,8 @@ else if (componentType.equals(CancellationService.class))
       else if (componentType.equals(TimeService.class)) {
          return (T) new DefaultTimeService();
       }
+      else if (componentType.equals(BandwidthLimiter.class))
+         return (T) new BandwidthLimiter();
 
       throw new CacheConfigurationException("Don't know how to create a " + componentType.getName());
    }
@@ -7,6 +7,8 @@
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.io.ByteBufferFactory;
 import org.infinispan.commons.io.ByteBufferFactoryImpl;
+import org.infinispan.compression.CompressionManager;
+import org.infinispan.compression.CompressionManagerImpl;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.context.InvocationContextContainer;
 import org.infinispan.context.NonTransactionalInvocationContextContainer;
@@ -34,6 +36,7 @@
 import org.infinispan.transaction.totalorder.TotalOrderManager;
 import org.infinispan.transaction.xa.TransactionFactory;
 import org.infinispan.transaction.xa.recovery.RecoveryAdminOperations;
+import org.infinispan.util.concurrent.locks.containers.InlineLockContainer;
 import org.infinispan.util.concurrent.locks.containers.LockContainer;
 import org.infinispan.util.concurrent.locks.containers.OwnableReentrantPerEntryLockContainer;
 import org.infinispan.util.concurrent.locks.containers.OwnableReentrantStripedLockContainer;
@@ -59,7 +62,7 @@
                               ClusteringDependentLogic.class, LockContainer.class,
                               L1Manager.class, TransactionFactory.class, BackupSender.class,
                               TotalOrderManager.class, ByteBufferFactory.class, MarshalledEntryFactory.class,
-                              RemoteValueRetrievedListener.class})
+                              RemoteValueRetrievedListener.class, CompressionManager.class})
 public class EmptyConstructorNamedCacheFactory extends AbstractNamedCacheComponentFactory implements AutoInstantiableFactory {
 
    @Override
@@ -108,7 +111,9 @@ public <T> T construct(Class<T> componentType) {
             LockContainer<?> lockContainer = configuration.locking().useLockStriping() ?
                   notTransactional ? new ReentrantStripedLockContainer(configuration.locking().concurrencyLevel())
                         : new OwnableReentrantStripedLockContainer(configuration.locking().concurrencyLevel()) :
-                  notTransactional ? new ReentrantPerEntryLockContainer(configuration.locking().concurrencyLevel())
+                  notTransactional ? configuration.locking().useInlineLocks() ?
+                        new InlineLockContainer(configuration.locking().concurrencyLevel())
+                        : new ReentrantPerEntryLockContainer(configuration.locking().concurrencyLevel())
                         : new OwnableReentrantPerEntryLockContainer(configuration.locking().concurrencyLevel());
             return (T) lockContainer;
          } else if (componentType.equals(L1Manager.class)) {
@@ -123,6 +128,8 @@ public <T> T construct(Class<T> componentType) {
             return (T) new ByteBufferFactoryImpl();
          } else if (componentType.equals(MarshalledEntryFactory.class)) {
             return (T) new MarshalledEntryFactoryImpl();
+         } else if (componentType.equals(CompressionManager.class)) {
+            return (T) new CompressionManagerImpl();
          } else if (componentType.equals(RemoteValueRetrievedListener.class)) {
             // L1Manager is currently only listener for remotely retrieved values
             return (T) componentRegistry.getComponent(L1Manager.class);
@@ -1,21 +1,31 @@
 package org.infinispan.interceptors;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.KeySetCommand;
+import org.infinispan.commands.read.SizeCommand;
+import org.infinispan.commands.read.ValuesCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.EvictionConfiguration;
 import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.eviction.ActivationManager;
 import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.PassivationManager;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryFactory;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.Arrays;
 
+import static org.infinispan.persistence.PersistenceUtil.internalMetadata;
+
 public class ActivationInterceptor extends CacheLoaderInterceptor {
 
    private static final Log log = LogFactory.getLog(ActivationInterceptor.class);
@@ -23,6 +33,8 @@ public class ActivationInterceptor extends CacheLoaderInterceptor {
    private Configuration cfg;
    private boolean isManualEviction;
    private ActivationManager activationManager;
+   private PassivationManager passivationManager;
+   private MarshalledEntryFactory marshalledEntryFactory;
    private ClusteringDependentLogic cdl;
 
    @Override
@@ -31,9 +43,12 @@ protected Log getLog() {
    }
 
    @Inject
-   public void inject(Configuration cfg, ActivationManager activationManager, ClusteringDependentLogic cdl) {
+   public void inject(Configuration cfg, ActivationManager activationManager, PassivationManager passivationManager,
+                      MarshalledEntryFactory marshalledEntryFactory, ClusteringDependentLogic cdl) {
       this.cfg = cfg;
       this.activationManager = activationManager;
+      this.passivationManager = passivationManager;
+      this.marshalledEntryFactory = marshalledEntryFactory;
       this.cdl = cdl;
    }
 
@@ -59,6 +74,31 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
       return retval;
    }
 
+   @Override
+   public Object visitSizeCommand(InvocationContext ctx, SizeCommand command) throws Throwable {
+      // the entries staged for passivation are neither in memory nor in the stores
+      passivationManager.flushStagedEntries();
+      return super.visitSizeCommand(ctx, command);
+   }
+
+   @Override
+   public Object visitKeySetCommand(InvocationContext ctx, KeySetCommand command) throws Throwable {
+      passivationManager.flushStagedEntries();
+      return super.visitKeySetCommand(ctx, command);
+   }
+
+   @Override
+   public Object visitEntrySetCommand(InvocationContext ctx, EntrySetCommand command) throws Throwable {
+      passivationManager.flushStagedEntries();
+      return super.visitEntrySetCommand(ctx, command);
+   }
+
+   @Override
+   public Object visitValuesCommand(InvocationContext ctx, ValuesCommand command) throws Throwable {
+      passivationManager.flushStagedEntries();
+      return super.visitValuesCommand(ctx, command);
+   }
+
    @Override
    protected Boolean loadIfNeeded(InvocationContext ctx, Object key, boolean isRetrieval, FlagAffectedCommand cmd) throws Throwable {
       Boolean loaded = super.loadIfNeeded(ctx, key, isRetrieval, cmd);
@@ -77,6 +117,18 @@ protected Boolean loadIfNeeded(InvocationContext ctx, Object key, boolean isRetr
       return loaded;
    }
 
+   @Override
+   protected MarshalledEntry loadEntry(Object key) {
+      // the entries staged for passivation are written to the stores before they stop being staged
+      InternalCacheEntry staged = passivationManager.getStagedEntry(key);
+      if (staged != null) {
+         if (log.isTraceEnabled())
+            log.tracef("Activating key %s from the passivation staging area", key);
+         return marshalledEntryFactory.newMarshalledEntry(staged.getKey(), staged.getValue(), internalMetadata(staged));
+      }
+      return super.loadEntry(key);
+   }
+
    @Override
    protected void sendNotification(Object key, Object value, boolean pre,
          InvocationContext ctx, FlagAffectedCommand cmd) {
@@ -8,6 +8,7 @@
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
 import org.infinispan.commands.write.ApplyDeltaCommand;
+import org.infinispan.commands.write.ComputeCommand;
 import org.infinispan.commands.write.InvalidateCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -143,6 +144,17 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return invokeNextInterceptor(ctx, command);
    }
 
+   @Override
+   public Object visitComputeCommand(InvocationContext ctx, ComputeCommand command) throws Throwable {
+      if (enabled) {
+         Object key;
+         if ((key = command.getKey()) != null) {
+            loadIfNeededAndUpdateStats(ctx, key, false, command);
+         }
+      }
+      return invokeNextInterceptor(ctx, command);
+   }
+
    @Override
    public Object visitSizeCommand(InvocationContext ctx, SizeCommand command) throws Throwable {
       int totalSize = 0;
@@ -260,7 +272,7 @@ protected Boolean loadIfNeeded(InvocationContext ctx, Object key, boolean isRetr
       // first check if the container contains the key we need.  Try and load this into the context.
       CacheEntry e = ctx.lookupEntry(key);
       if (e == null || e.isNull() || e.getValue() == null) {
-         MarshalledEntry loaded = persistenceManager.loadFromAllStores(key);
+         MarshalledEntry loaded = loadEntry(key);
          if(loaded == null)
             return Boolean.FALSE;
          InternalMetadata metadata = loaded.getMetadata();
@@ -282,6 +294,15 @@ protected Boolean loadIfNeeded(InvocationContext ctx, Object key, boolean isRetr
       }
    }
 
+   /**
+    * Loads the entry of the given key from the stores.
+    *
+    * @return the entry, or null if none of the stores contains the key
+    */
+   protected MarshalledEntry loadEntry(Object key) {
+      return persistenceManager.loadFromAllStores(key);
+   }
+
    /**
     * This method records a loaded entry, performing the following steps: <ol> <li>Increments counters for reporting via
     * JMX</li> <li>updates the 'entry' reference (an entry in the current thread's InvocationContext) with the contents
@@ -9,6 +9,9 @@
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.factories.annotations.Inject;
@@ -25,6 +28,7 @@
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.Map;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.infinispan.commons.util.concurrent.jdk8backported.LongAdder;
 import java.util.concurrent.atomic.AtomicLong;
@@ -91,22 +95,39 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
 
       Object retval = invokeNextInterceptor(ctx, command);
 
-      if (statisticsEnabled) {
-         long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
-         if (ctx.isOriginLocal()) {
-            if (retval == null) {
-               missTimes.add(intervalMilliseconds);
-               misses.increment();
-            } else {
-               hitTimes.add(intervalMilliseconds);
-               hits.increment();
-            }
+      if (statisticsEnabled && ctx.isOriginLocal()) {
+         if (retval instanceof NotifyingFuture) {
+            // hit or miss is only known when the owner responds
+            final long startNanos = start;
+            ((NotifyingFuture<Object>) retval).attachListener(new FutureListener<Object>() {
+               @Override
+               public void futureDone(Future<Object> future) {
+                  try {
+                     updateGetStatistics(future.get(), startNanos);
+                  } catch (Exception e) {
+                     // failed reads are retried by the caller, which counts them then
+                  }
+               }
+            });
+         } else {
+            updateGetStatistics(retval, start);
          }
       }
 
       return retval;
    }
 
+   private void updateGetStatistics(Object retval, long start) {
+      long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+      if (retval == null) {
+         missTimes.add(intervalMilliseconds);
+         misses.increment();
+      } else {
+         hitTimes.add(intervalMilliseconds);
+         hits.increment();
+      }
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       long start = 0;
@@ -166,18 +187,37 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
       Object retval = invokeNextInterceptor(ctx, command);
 
       if (statisticsEnabled && ctx.isOriginLocal()) {
-         if (retval == null) {
-            removeMisses.increment();
+         if (retval instanceof NotifyingFuture) {
+            // the previous value is only known when the primary owner responds
+            final long startNanos = start;
+            ((NotifyingFuture<Object>) retval).attachListener(new FutureListener<Object>() {
+               @Override
+               public void futureDone(Future<Object> future) {
+                  try {
+                     updateRemoveStatistics(future.get(), startNanos);
+                  } catch (Exception e) {
+                     // failed removals are not counted, as in the synchronous case
+                  }
+               }
+            });
          } else {
-            long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
-            removeTimes.add(intervalMilliseconds);
-            removeHits.increment();
+            updateRemoveStatistics(retval, start);
          }
       }
 
       return retval;
    }
 
+   private void updateRemoveStatistics(Object retval, long start) {
+      if (retval == null) {
+         removeMisses.increment();
+      } else {
+         long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+         removeTimes.add(intervalMilliseconds);
+         removeHits.increment();
+      }
+   }
+
    @ManagedAttribute(
          description = "Number of cache attribute hits",
          displayName = "Number of cache hits",
@@ -317,6 +357,19 @@ public int getNumberOfEntries() {
       return dataContainer.size();
    }
 
+   @ManagedAttribute(
+         description = "Total weight of the entries currently in the cache, by default an estimate of their memory " +
+               "footprint in bytes. -1 if eviction is not bounded by memory",
+         displayName = "Current weight of cache entries",
+         displayType = DisplayType.SUMMARY
+   )
+   public long getCurrentWeight() {
+      if (dataContainer instanceof DefaultDataContainer) {
+         return ((DefaultDataContainer) dataContainer).getWeight();
+      }
+      return -1;
+   }
+
    @ManagedAttribute(
          description = "Number of seconds since cache started",
          displayName = "Seconds since cache started",
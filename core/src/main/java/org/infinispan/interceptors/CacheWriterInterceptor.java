@@ -7,6 +7,7 @@
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.write.*;
 import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.compression.CompressionManager;
 import org.infinispan.configuration.cache.PersistenceConfiguration;
 import org.infinispan.container.InternalEntryFactory;
 import org.infinispan.container.entries.CacheEntry;
@@ -64,6 +65,7 @@ public class CacheWriterInterceptor extends JmxStatsCommandInterceptor {
    private InternalEntryFactory entryFactory;
    private TransactionManager transactionManager;
    private StreamingMarshaller marshaller;
+   private CompressionManager compressionManager;
    protected volatile boolean enabled = true;
 
    private static final Log log = LogFactory.getLog(CacheWriterInterceptor.class);
@@ -75,11 +77,13 @@ protected Log getLog() {
 
    @Inject
    protected void init(PersistenceManager pm, InternalEntryFactory entryFactory, TransactionManager transactionManager,
-                       @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller) {
+                       @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller,
+                       CompressionManager compressionManager) {
       this.persistenceManager = pm;
       this.entryFactory = entryFactory;
       this.transactionManager = transactionManager;
       this.marshaller = marshaller;
+      this.compressionManager = compressionManager;
    }
 
    @Start(priority = 15)
@@ -182,6 +186,24 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return returnValue;
    }
 
+   @Override
+   public Object visitComputeCommand(InvocationContext ctx, ComputeCommand command) throws Throwable {
+      Object returnValue = invokeNextInterceptor(ctx, command);
+      if (!isStoreEnabled(command) || ctx.isInTxScope() || !command.isSuccessful()) return returnValue;
+      Object key = command.getKey();
+      if (!isProperWriter(ctx, command, key)) return returnValue;
+
+      CacheEntry entry = ctx.lookupEntry(key);
+      if (entry != null && entry.isRemoved()) {
+         boolean resp = persistenceManager.deleteFromAllStores(key, skipSharedStores(ctx, key, command));
+         if (getLog().isTraceEnabled()) getLog().tracef("Removed entry under key %s and got response %s from CacheStore", key, resp);
+      } else {
+         storeEntry(ctx, key, command);
+         if (getStatisticsEnabled()) cacheStores.incrementAndGet();
+      }
+      return returnValue;
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       Object returnValue = invokeNextInterceptor(ctx, command);
@@ -264,7 +286,7 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
             } else {
                ice = entryFactory.create(entry);
             }
-            MarshalledEntryImpl marshalledEntry = new MarshalledEntryImpl(ice.getKey(), ice.getValue(), internalMetadata(ice), marshaller);
+            MarshalledEntryImpl marshalledEntry = new MarshalledEntryImpl(ice.getKey(), compressionManager.compress(ice.getValue()), internalMetadata(ice), marshaller);
             persistenceManager.writeToAllStores(marshalledEntry, command.hasFlag(Flag.SKIP_SHARED_CACHE_STORE));
          }
          return null;
@@ -302,7 +324,7 @@ protected Object visitSingleStore(InvocationContext ctx, FlagAffectedCommand com
          if (isProperWriter(ctx, command, key)) {
             if (generateStatistics) putCount++;
             InternalCacheValue sv = getStoredValue(key, ctx);
-            MarshalledEntryImpl me = new MarshalledEntryImpl(key, sv.getValue(), internalMetadata(sv), marshaller);
+            MarshalledEntryImpl me = new MarshalledEntryImpl(key, compressionManager.compress(sv.getValue()), internalMetadata(sv), marshaller);
             persistenceManager.writeToAllStores(me, command.hasFlag(Flag.SKIP_SHARED_CACHE_STORE));
          }
          return null;
@@ -329,7 +351,7 @@ public long getWritesToTheStores() {
 
    void storeEntry(InvocationContext ctx, Object key, FlagAffectedCommand command) {
       InternalCacheValue sv = getStoredValue(key, ctx);
-      persistenceManager.writeToAllStores(new MarshalledEntryImpl(key, sv.getValue(), internalMetadata(sv), marshaller),
+      persistenceManager.writeToAllStores(new MarshalledEntryImpl(key, compressionManager.compress(sv.getValue()), internalMetadata(sv), marshaller),
                                           skipSharedStores(ctx, key, command));
       if (getLog().isTraceEnabled()) getLog().tracef("Stored entry %s under key %s", sv, key);
    }
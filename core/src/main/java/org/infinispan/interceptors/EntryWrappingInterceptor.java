@@ -8,6 +8,7 @@
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.write.ApplyDeltaCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.ComputeCommand;
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.EvictCommand;
 import org.infinispan.commands.write.InvalidateCommand;
@@ -246,6 +247,15 @@ private void wrapEntryForReplaceIfNeeded(InvocationContext ctx, ReplaceCommand c
       }
    }
 
+   @Override
+   public final Object visitComputeCommand(InvocationContext ctx, ComputeCommand command) throws Throwable {
+      if (shouldWrap(command.getKey(), ctx, command)) {
+         // the function needs the current value, and the outcome can create, update or remove the entry
+         entryFactory.wrapEntryForPut(ctx, command.getKey(), null, false, command, false);
+      }
+      return setSkipRemoteGetsAndInvokeNextForDataCommand(ctx, command, command.getMetadata());
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       for (Object key : command.getMap().keySet()) {
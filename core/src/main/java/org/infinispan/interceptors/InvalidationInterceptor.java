@@ -14,6 +14,7 @@
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.ComputeCommand;
 import org.infinispan.commands.write.InvalidateCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -92,6 +93,11 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
       return handleInvalidate(ctx, command, command.getKey());
    }
 
+   @Override
+   public Object visitComputeCommand(InvocationContext ctx, ComputeCommand command) throws Throwable {
+      return handleInvalidate(ctx, command, command.getKey());
+   }
+
    @Override
    public Object visitClearCommand(InvocationContext ctx, ClearCommand command) throws Throwable {
       Object retval = invokeNextInterceptor(ctx, command);
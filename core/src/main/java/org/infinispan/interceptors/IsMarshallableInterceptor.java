@@ -3,6 +3,7 @@
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.ComputeCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -109,6 +110,16 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return super.visitReplaceCommand(ctx, command);
    }
 
+   @Override
+   public Object visitComputeCommand(InvocationContext ctx, ComputeCommand command) throws Throwable {
+      if (isStoreAsBinary() || isClusterInvocation(ctx, command) || isStoreInvocation(command))
+         checkMarshallable(command.getKey());
+      // the function is shipped to the primary owner
+      if (isClusterInvocation(ctx, command))
+         checkMarshallable(command.getFunction());
+      return super.visitComputeCommand(ctx, command);
+   }
+
    private boolean isClusterInvocation(InvocationContext ctx, FlagAffectedCommand command) {
       // If the cache is local, the interceptor should only be enabled in case
       // of lazy deserialization or when an async store is in place. So, if
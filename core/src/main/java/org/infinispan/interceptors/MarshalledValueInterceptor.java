@@ -5,10 +5,12 @@
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.ValuesCommand;
+import org.infinispan.commands.write.ComputeCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
+import org.infinispan.compression.CompressionManager;
 import org.infinispan.container.InternalEntryFactory;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.InvocationContext;
@@ -54,6 +56,7 @@ public class MarshalledValueInterceptor extends CommandInterceptor {
    private boolean wrapKeys = true;
    private boolean wrapValues = true;
    private InternalEntryFactory entryFactory;
+   private CompressionManager compressionManager;
 
    private static final Log log = LogFactory.getLog(MarshalledValueInterceptor.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -69,6 +72,11 @@ protected void injectMarshaller(@ComponentName(CACHE_MARSHALLER) StreamingMarsha
       this.entryFactory = entryFactory;
    }
 
+   @Inject
+   protected void injectCompressionManager(CompressionManager compressionManager) {
+      this.compressionManager = compressionManager;
+   }
+
    @Start
    protected void start() {
       wrapKeys = cacheConfiguration.storeAsBinary().storeKeysAsBinary();
@@ -117,7 +125,7 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
 
       if (wrapValues) {
          if (!isTypeExcluded(command.getValue().getClass())) {
-            value = createMarshalledValue(command.getValue(), ctx);
+            value = createMarshalledValueForValue(command.getValue(), ctx);
             command.setValue(value);
          }
       }
@@ -229,17 +237,30 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
          command.setKey(key);
       }
       if (wrapValues && !isTypeExcluded(command.getNewValue().getClass())) {
-         newValue = createMarshalledValue(command.getNewValue(), ctx);
+         newValue = createMarshalledValueForValue(command.getNewValue(), ctx);
          command.setNewValue(newValue);
       }
       if (wrapValues && command.getOldValue() != null && !isTypeExcluded(command.getOldValue().getClass())) {
-         oldValue = createMarshalledValue(command.getOldValue(), ctx);
+         oldValue = createMarshalledValueForValue(command.getOldValue(), ctx);
          command.setOldValue(oldValue);
       }
       Object retVal = invokeNextInterceptor(ctx, command);
       return processRetVal(retVal, ctx);
    }
 
+   @Override
+   public Object visitComputeCommand(InvocationContext ctx, ComputeCommand command) throws Throwable {
+      if (wrapKeys && !isTypeExcluded(command.getKey().getClass())) {
+         command.setKey(createMarshalledValue(command.getKey(), ctx));
+      }
+      // the new value is only known once the function has been applied
+      if (wrapValues) {
+         command.setValueMarshaller(marshaller);
+      }
+      Object retVal = invokeNextInterceptor(ctx, command);
+      return processRetVal(retVal, ctx);
+   }
+
    protected Object processRetVal(Object retVal, InvocationContext ctx) {
       if (retVal instanceof MarshalledValue) {
          if (ctx.isOriginLocal()) {
@@ -262,7 +283,7 @@ protected Map<Object, Object> wrapMap(Map<Object, Object> m, Set<MarshalledValue
          Object key = me.getKey();
          Object value = me.getValue();
          Object newKey = (key == null || isTypeExcluded(key.getClass())) || !wrapKeys ? key : createMarshalledValue(key, ctx);
-         Object newValue = (value == null || isTypeExcluded(value.getClass()) || !wrapValues) ? value : createMarshalledValue(value, ctx);
+         Object newValue = (value == null || isTypeExcluded(value.getClass()) || !wrapValues) ? value : createMarshalledValueForValue(value, ctx);
          if (newKey instanceof MarshalledValue) marshalledValues.add((MarshalledValue) newKey);
          if (newValue instanceof MarshalledValue) marshalledValues.add((MarshalledValue) newValue);
          copy.put(newKey, newValue);
@@ -273,4 +294,12 @@ protected Map<Object, Object> wrapMap(Map<Object, Object> m, Set<MarshalledValue
    protected MarshalledValue createMarshalledValue(Object toWrap, InvocationContext ctx) {
       return new MarshalledValue(toWrap, marshaller);
    }
+
+   /**
+    * Values, unlike keys, are compressed before being wrapped if the cache has compression enabled. The {@link
+    * MarshalledValue} decompresses them transparently.
+    */
+   private MarshalledValue createMarshalledValueForValue(Object toWrap, InvocationContext ctx) {
+      return createMarshalledValue(compressionManager.compress(toWrap), ctx);
+   }
 }
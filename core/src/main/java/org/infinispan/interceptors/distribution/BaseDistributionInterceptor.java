@@ -5,8 +5,11 @@
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.DistributionManager;
@@ -28,15 +31,19 @@
 import org.infinispan.statetransfer.OutdatedTopologyException;
 import org.infinispan.topology.CacheTopology;
 import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Base class for distribution of entries across a cluster.
@@ -151,6 +158,65 @@ private InternalCacheEntry invokeClusterGetCommandRemotely(List<Address> targets
       return null;
    }
 
+   /**
+    * Sends a {@link ClusteredGetCommand} to the primary owner of the key without waiting for its response: the caller
+    * gets a future that is completed with the value, or with the entry if {@code returnEntry} is {@code true}, by the
+    * thread receiving the response.
+    * <p/>
+    * Unlike {@link #retrieveFromRemoteSource(Object, InvocationContext, boolean, FlagAffectedCommand, boolean)}, only
+    * one owner is asked. If it can't give a definitive answer, e.g. because a rebalance is in progress or it left the
+    * cluster, the future fails with an {@link OutdatedTopologyException} and the caller has to retry with a blocking
+    * remote get.
+    */
+   protected final NotifyingFuture<Object> retrieveFromPrimaryOwnerAsync(final Object key, FlagAffectedCommand command,
+                                                                         final boolean returnEntry) {
+      final CompletableNotifyingFuture<Object> result = new CompletableNotifyingFuture<Object>();
+      final CacheTopology cacheTopology = stateTransferManager.getCacheTopology();
+      Address primaryOwner = cacheTopology.getReadConsistentHash().locatePrimaryOwner(key);
+      Set<Flag> flags = EnumSet.copyOf(command.getFlags());
+      flags.remove(Flag.FUTURE_RETURN_VALUE);
+      ClusteredGetCommand get = cf.buildClusteredGetCommand(key, flags, false, null);
+      if (trace) log.tracef("Perform async remote get for key %s on %s", key, primaryOwner);
+      rpcManager.invokeRemotelyAsync(primaryOwner, get, rpcManager.getDefaultRpcOptions(true))
+            .attachListener(new FutureListener<Response>() {
+               @Override
+               public void futureDone(Future<Response> future) {
+                  try {
+                     Response response = future.get();
+                     if (!(response instanceof SuccessfulResponse)) {
+                        throw new OutdatedTopologyException("Unexpected response to async remote get: " + response);
+                     }
+                     Object responseValue = ((SuccessfulResponse) response).getResponseValue();
+                     if (responseValue == null) {
+                        // the blocking remote get also asks the new owners while a rebalance is in progress
+                        if (!isSameTopology(cacheTopology, key)) {
+                           throw new OutdatedTopologyException("Topology changed during async remote get of " + key);
+                        }
+                        result.complete(null);
+                        return;
+                     }
+                     InternalCacheEntry ice = ((InternalCacheValue) responseValue).toInternalCacheEntry(key);
+                     if (rvrl != null) {
+                        rvrl.remoteValueFound(ice);
+                     }
+                     result.complete(returnEntry ? ice : ice.getValue());
+                  } catch (ExecutionException e) {
+                     result.completeExceptionally(e.getCause());
+                  } catch (Throwable t) {
+                     result.completeExceptionally(t);
+                  }
+               }
+            });
+      return result;
+   }
+
+   private boolean isSameTopology(CacheTopology sentTopology, Object key) {
+      CacheTopology currentTopology = stateTransferManager.getCacheTopology();
+      return currentTopology.getTopologyId() == sentTopology.getTopologyId()
+            && sentTopology.getReadConsistentHash().locateOwners(key)
+                  .equals(sentTopology.getWriteConsistentHash().locateOwners(key));
+   }
+
    protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteCommand command) throws Throwable {
       if (ctx.isInTxScope()) {
          throw new CacheException("Attempted execution of non-transactional write command in a transactional invocation context");
@@ -212,6 +278,9 @@ protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteC
             log.tracef("I'm not the primary owner, so sending the command to the primary owner(%s) in order to be forwarded", primaryOwner);
             Object localResult = invokeNextInterceptor(ctx, command);
             boolean isSyncForwarding = isSync || isNeedReliableReturnValues(command);
+            if (isSyncForwarding && command.hasFlag(Flag.FUTURE_RETURN_VALUE)) {
+               return forwardToPrimaryOwnerAsync(primaryOwner, command);
+            }
 
             Map<Address, Response> addressResponseMap;
             try {
@@ -236,8 +305,41 @@ protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteC
       }
    }
 
-   private Object getResponseFromPrimaryOwner(Address primaryOwner, Map<Address, Response> addressResponseMap) {
-      Response fromPrimaryOwner = addressResponseMap.get(primaryOwner);
+   /**
+    * Sends the command to the primary owner without waiting for its response: the caller gets a future that is
+    * completed with the return value of the command by the thread receiving the response.
+    */
+   private NotifyingFuture<Object> forwardToPrimaryOwnerAsync(final Address primaryOwner, final DataWriteCommand command) {
+      final CompletableNotifyingFuture<Object> result = new CompletableNotifyingFuture<Object>();
+      rpcManager.invokeRemotelyAsync(primaryOwner, command, rpcManager.getDefaultRpcOptions(true))
+            .attachListener(new FutureListener<Response>() {
+               @Override
+               public void futureDone(Future<Response> future) {
+                  try {
+                     result.complete(getResponseFromPrimaryOwner(primaryOwner, future.get()));
+                  } catch (ExecutionException e) {
+                     Throwable ce = e.getCause();
+                     while (ce instanceof RemoteException) {
+                        ce = ce.getCause();
+                     }
+                     if (ce instanceof OutdatedTopologyException) {
+                        // same as in the synchronous case, the command succeeded on the primary owner
+                        command.setIgnorePreviousValue(true);
+                     }
+                     result.completeExceptionally(e.getCause());
+                  } catch (Throwable t) {
+                     result.completeExceptionally(t);
+                  }
+               }
+            });
+      return result;
+   }
+
+   protected final Object getResponseFromPrimaryOwner(Address primaryOwner, Map<Address, Response> addressResponseMap) {
+      return getResponseFromPrimaryOwner(primaryOwner, addressResponseMap.get(primaryOwner));
+   }
+
+   private Object getResponseFromPrimaryOwner(Address primaryOwner, Response fromPrimaryOwner) {
       if (fromPrimaryOwner == null) {
          log.tracef("Primary owner %s returned null", primaryOwner);
          return null;
@@ -246,7 +348,7 @@ private Object getResponseFromPrimaryOwner(Address primaryOwner, Map<Address, Re
          return ((SuccessfulResponse) fromPrimaryOwner).getResponseValue();
       }
 
-      if (addressResponseMap.get(primaryOwner) instanceof CacheNotFoundResponse) {
+      if (fromPrimaryOwner instanceof CacheNotFoundResponse) {
          // This means the cache wasn't running on the primary owner, so the command wasn't executed.
          // We throw an OutdatedTopologyException, StateTransferInterceptor will catch the exception and
          // it will then retry the command.
@@ -2,6 +2,7 @@
 
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.write.ComputeCommand;
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -74,6 +75,11 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
       return visitDataWriteCommand(ctx, command, false);
    }
 
+   @Override
+   public Object visitComputeCommand(InvocationContext ctx, ComputeCommand command) throws Throwable {
+      return visitDataWriteCommand(ctx, command, true);
+   }
+
    public Object visitDataWriteCommand(InvocationContext ctx, DataWriteCommand command, boolean assumeOriginKeptEntryInL1) throws Throwable {
       Object returnValue = invokeNextInterceptor(ctx, command);
       Object key;
@@ -3,6 +3,7 @@
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.ComputeCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -11,6 +12,7 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
 import org.infinispan.util.logging.Log;
@@ -45,6 +47,9 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
          if (returnValue == null) {
             Object key = command.getKey();
             if (needsRemoteGet(ctx, command)) {
+               if (command.hasFlag(Flag.FUTURE_RETURN_VALUE)) {
+                  return retrieveFromPrimaryOwnerAsync(key, command, command.isReturnEntry());
+               }
                InternalCacheEntry remoteEntry = remoteGetCacheEntry(ctx, key, command);
                returnValue = computeGetReturn(remoteEntry, command);
             }
@@ -115,6 +120,27 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return handleNonTxWriteCommand(ctx, command);
    }
 
+   /**
+    * Unlike the other write commands, a compute command is not applied by the originator before being forwarded: the
+    * function only runs on the primary owner, which then sends its outcome to all the backup owners.
+    */
+   @Override
+   public Object visitComputeCommand(InvocationContext ctx, ComputeCommand command) throws Throwable {
+      Object key = command.getKey();
+      if (!ctx.isOriginLocal() || isLocalModeForced(command) || cdl.localNodeIsPrimaryOwner(key)) {
+         return handleNonTxWriteCommand(ctx, command);
+      }
+
+      Address primaryOwner = cdl.getPrimaryOwner(key);
+      if (trace) log.tracef("Sending %s to the primary owner %s", command, primaryOwner);
+      // the result of the function is needed, so the invocation is always synchronous
+      Map<Address, Response> responses = rpcManager.invokeRemotely(Collections.singletonList(primaryOwner), command,
+            rpcManager.getDefaultRpcOptions(true));
+      Object result = getResponseFromPrimaryOwner(primaryOwner, responses);
+      // already applied locally, before a topology change
+      return command.isComputed() ? command.getResult() : result;
+   }
+
    /**
     * Don't forward in the case of clear commands, just acquire local locks and broadcast.
     */
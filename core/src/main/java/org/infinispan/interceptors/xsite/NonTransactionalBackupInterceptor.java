@@ -1,6 +1,9 @@
 package org.infinispan.interceptors.xsite;
 
+import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.ComputeCommand;
+import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -8,6 +11,8 @@
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 import org.infinispan.remoting.transport.BackupResponse;
 
 /**
@@ -18,6 +23,16 @@
  */
 public class NonTransactionalBackupInterceptor extends BaseBackupInterceptor {
 
+   private ClusteringDependentLogic clusteringDependentLogic;
+   private CommandsFactory commandsFactory;
+
+   @Inject
+   void injectClusteringDependentLogic(ClusteringDependentLogic clusteringDependentLogic,
+                                       CommandsFactory commandsFactory) {
+      this.clusteringDependentLogic = clusteringDependentLogic;
+      this.commandsFactory = commandsFactory;
+   }
+
    @Override
    public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
       return handleWrite(ctx, command);
@@ -43,12 +58,43 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
       return handleWrite(ctx, command);
    }
 
+   /**
+    * The function is not sent to the backup sites, which would apply it to their own value: the primary owner, which
+    * applied it, backs up its outcome as a put or a remove, while the key is still locked.
+    */
+   @Override
+   public Object visitComputeCommand(InvocationContext ctx, ComputeCommand command) throws Throwable {
+      Object result = invokeNextInterceptor(ctx, command);
+      if (command.hasFlag(Flag.SKIP_XSITE_BACKUP) || !command.isSuccessful()
+            || !clusteringDependentLogic.localNodeIsPrimaryOwner(command.getKey()))
+         return result;
+      DataWriteCommand outcome;
+      if (command.isRemoval()) {
+         outcome = commandsFactory.buildRemoveCommand(command.getKey(), null, command.getFlags());
+      } else {
+         outcome = commandsFactory.buildPutKeyValueCommand(command.getKey(), command.getNewValue(),
+                                                           command.getMetadata(), command.getFlags());
+      }
+      BackupResponse backupResponse = backupSender.backupWrite(outcome);
+      backupSender.backupOwnedWrite(outcome);
+      backupSender.processResponses(backupResponse, outcome);
+      return result;
+   }
+
    private Object handleWrite(InvocationContext ctx, WriteCommand command) throws Throwable {
-      if (!ctx.isOriginLocal() || command.hasFlag(Flag.SKIP_XSITE_BACKUP))
+      if (command.hasFlag(Flag.SKIP_XSITE_BACKUP))
          return invokeNextInterceptor(ctx, command);
-      BackupResponse backupResponse = backupSender.backupWrite(command);
+      BackupResponse backupResponse = ctx.isOriginLocal() ? backupSender.backupWrite(command) : null;
       Object result = invokeNextInterceptor(ctx, command);
-      backupSender.processResponses(backupResponse, command);
+      if (command instanceof DataWriteCommand && command.isSuccessful()) {
+         Object key = ((DataWriteCommand) command).getKey();
+         // the key is still locked here, so its updates are queued in the order they were applied
+         if (clusteringDependentLogic.localNodeIsPrimaryOwner(key)) {
+            backupSender.backupOwnedWrite((DataWriteCommand) command);
+         }
+      }
+      if (backupResponse != null)
+         backupSender.processResponses(backupResponse, command);
       return result;
    }
 }
@@ -1,6 +1,8 @@
 package org.infinispan.io;
 
 import org.infinispan.Cache;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
+import org.infinispan.context.Flag;
 import org.jgroups.logging.Log;
 import org.jgroups.logging.LogFactory;
 
@@ -38,6 +40,16 @@ public byte[] fetchChunk(int chunkNumber) {
       return val;
    }
 
+   /**
+    * Fetches a chunk without waiting for it, so that several chunks can be fetched in parallel.
+    */
+   public NotifyingFuture<byte[]> fetchChunkAsync(int chunkNumber) {
+      String key = getChunkKey(chunkNumber);
+      if (log.isTraceEnabled())
+         log.trace("prefetching key=" + key);
+      return cache.getAsync(key);
+   }
+
    public void storeChunk(int chunkNumber, byte[] buffer, int length) {
       String key = getChunkKey(chunkNumber);
       byte[] val = trim(buffer, length);
@@ -46,6 +58,17 @@ public void storeChunk(int chunkNumber, byte[] buffer, int length) {
          log.trace("put(): key=" + key + ": " + val.length + " bytes");
    }
 
+   /**
+    * Stores a copy of the chunk without waiting for the write to complete.
+    */
+   public NotifyingFuture<byte[]> storeChunkAsync(int chunkNumber, byte[] buffer, int length) {
+      String key = getChunkKey(chunkNumber);
+      byte[] val = trim(buffer, length);
+      if (log.isTraceEnabled())
+         log.trace("putAsync(): key=" + key + ": " + val.length + " bytes");
+      return cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).putAsync(key, val);
+   }
+
    public void removeChunk(int chunkNumber) {
       cache.remove(getChunkKey(chunkNumber));
    }
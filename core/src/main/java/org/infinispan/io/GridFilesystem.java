@@ -24,6 +24,11 @@ public class GridFilesystem {
    protected final Cache<String, byte[]> data;
    protected final Cache<String, GridFile.Metadata> metadata;
    protected final int defaultChunkSize;
+   protected final int readAheadChunks;
+   protected final int writeBehindChunks;
+
+   private static final int DEFAULT_READ_AHEAD_CHUNKS = 4;
+   private static final int DEFAULT_WRITE_BEHIND_CHUNKS = 4;
 
    /**
     * Creates an instance. The data and metadata caches should already have been setup and started
@@ -33,6 +38,23 @@ public class GridFilesystem {
     * @param defaultChunkSize the default size of the file chunks
     */
    public GridFilesystem(Cache<String, byte[]> data, Cache<String, GridFile.Metadata> metadata, int defaultChunkSize) {
+      this(data, metadata, defaultChunkSize, DEFAULT_READ_AHEAD_CHUNKS, DEFAULT_WRITE_BEHIND_CHUNKS);
+   }
+
+   /**
+    * Creates an instance. The data and metadata caches should already have been setup and started
+    *
+    * @param data the cache where the actual file contents are stored
+    * @param metadata the cache where file meta-data is stored
+    * @param defaultChunkSize the default size of the file chunks
+    * @param readAheadChunks the number of chunks fetched in parallel ahead of the chunk being read by input streams
+    *                        and readable channels, or 0 to fetch each chunk only when it's read
+    * @param writeBehindChunks the maximum number of chunks being stored in parallel by output streams and writable
+    *                          channels, or 0 to store each chunk synchronously. Pending writes are always completed
+    *                          by flush() and close()
+    */
+   public GridFilesystem(Cache<String, byte[]> data, Cache<String, GridFile.Metadata> metadata, int defaultChunkSize,
+                         int readAheadChunks, int writeBehindChunks) {
       if(metadata.getCacheConfiguration().clustering().cacheMode().isClustered() &&
             !metadata.getCacheConfiguration().clustering().cacheMode().isSynchronous()){
          log.warnGridFSMetadataCacheRequiresSync();
@@ -40,6 +62,8 @@ public GridFilesystem(Cache<String, byte[]> data, Cache<String, GridFile.Metadat
       this.data = data;
       this.metadata = metadata;
       this.defaultChunkSize = ModularArithmetic.CANNOT_ASSUME_DENOM_IS_POWER_OF_TWO ? defaultChunkSize : Util.findNextHighestPowerOfTwo(defaultChunkSize);
+      this.readAheadChunks = readAheadChunks;
+      this.writeBehindChunks = writeBehindChunks;
    }
 
    public GridFilesystem(Cache<String, byte[]> data, Cache<String, GridFile.Metadata> metadata) {
@@ -120,7 +144,7 @@ public OutputStream getOutput(String pathname, boolean append, int chunkSize) th
       GridFile file = (GridFile) getFile(pathname, chunkSize);
       checkIsNotDirectory(file);
       createIfNeeded(file);
-      return new GridOutputStream(file, append, data);
+      return new GridOutputStream(file, append, data, writeBehindChunks);
    }
 
    /**
@@ -132,7 +156,7 @@ public OutputStream getOutput(String pathname, boolean append, int chunkSize) th
    public OutputStream getOutput(GridFile file) throws IOException {
       checkIsNotDirectory(file);
       createIfNeeded(file);
-      return new GridOutputStream(file, false, data);
+      return new GridOutputStream(file, false, data, writeBehindChunks);
    }
 
    private void checkIsNotDirectory(GridFile file) throws FileNotFoundException {
@@ -155,7 +179,7 @@ private void createIfNeeded(GridFile file) throws IOException {
    public InputStream getInput(String pathname) throws FileNotFoundException {
       GridFile file = (GridFile) getFile(pathname);
       checkFileIsReadable(file);
-      return new GridInputStream(file, data);
+      return new GridInputStream(file, data, readAheadChunks);
    }
 
    private void checkFileIsReadable(GridFile file) throws FileNotFoundException {
@@ -189,7 +213,7 @@ public InputStream getInput(File file) throws FileNotFoundException {
    public ReadableGridFileChannel getReadableChannel(String pathname) throws FileNotFoundException {
       GridFile file = (GridFile) getFile(pathname);
       checkFileIsReadable(file);
-      return new ReadableGridFileChannel(file, data);
+      return new ReadableGridFileChannel(file, data, readAheadChunks);
    }
 
    /**
@@ -229,7 +253,7 @@ public WritableGridFileChannel getWritableChannel(String pathname, boolean appen
       GridFile file = (GridFile) getFile(pathname, chunkSize);
       checkIsNotDirectory(file);
       createIfNeeded(file);
-      return new WritableGridFileChannel(file, data, append);
+      return new WritableGridFileChannel(file, data, append, writeBehindChunks);
    }
 
    /**
@@ -4,6 +4,11 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * @author Bela Ban
@@ -19,11 +24,14 @@ public class GridInputStream extends InputStream {
    private boolean streamClosed = false;
    private final FileChunkMapper fileChunkMapper;
    private final int chunkSize; // Guaranteed to be a power of 2
+   private final int readAheadChunks;
+   private final Map<Integer, Future<byte[]>> prefetchedChunks = new HashMap<Integer, Future<byte[]>>();
 
-   GridInputStream(GridFile file, Cache<String, byte[]> cache) {
+   GridInputStream(GridFile file, Cache<String, byte[]> cache, int readAheadChunks) {
       fileChunkMapper = new FileChunkMapper(file, cache);
       chunkSize = fileChunkMapper.getChunkSize();
       fSize = (int)file.length();
+      this.readAheadChunks = readAheadChunks;
    }
 
    @Override public int read() throws IOException {
@@ -102,7 +110,7 @@ void position(long newPosition) throws IOException {
       int newPos = (int) newPosition;
       int chunkNumberOfNewPosition = getChunkNumber(newPos);
       if (getChunkNumber(index - 1) != chunkNumberOfNewPosition) {
-         currentBuffer = fileChunkMapper.fetchChunk(chunkNumberOfNewPosition);
+         currentBuffer = fetchChunk(chunkNumberOfNewPosition);
       }
       index = newPos;
       localIndex = ModularArithmetic.mod(newPos, chunkSize);
@@ -117,6 +125,7 @@ public int available() throws IOException {
    @Override
    public void close() throws IOException {
       localIndex = index = 0;
+      prefetchedChunks.clear();
       streamClosed = true;
    }
 
@@ -137,10 +146,49 @@ private int getBytesRemainingInStream() {
    }
 
    private void getChunk() {
-      currentBuffer = fileChunkMapper.fetchChunk(getChunkNumber());
+      currentBuffer = fetchChunk(getChunkNumber());
       localIndex = 0;
    }
 
+   private byte[] fetchChunk(int chunkNumber) {
+      Future<byte[]> prefetched = prefetchedChunks.remove(chunkNumber);
+      byte[] chunk = prefetched != null ? getPrefetchedChunk(prefetched, chunkNumber) : fileChunkMapper.fetchChunk(chunkNumber);
+      prefetch(chunkNumber);
+      return chunk;
+   }
+
+   private byte[] getPrefetchedChunk(Future<byte[]> prefetched, int chunkNumber) {
+      try {
+         return prefetched.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+         // fetch it again below, so the failure is reported the same way as without read-ahead
+      }
+      return fileChunkMapper.fetchChunk(chunkNumber);
+   }
+
+   /**
+    * Starts fetching the chunks following the current one, so that they are fetched in parallel from their owners
+    * while the current one is being read.
+    */
+   private void prefetch(int currentChunkNumber) {
+      if (readAheadChunks <= 0)
+         return;
+
+      int lastChunkNumber = Math.min(currentChunkNumber + readAheadChunks, getChunkNumber(fSize - 1));
+      // the position may have changed, so forget about the chunks outside of the new window
+      for (Iterator<Integer> it = prefetchedChunks.keySet().iterator(); it.hasNext(); ) {
+         int chunkNumber = it.next();
+         if (chunkNumber <= currentChunkNumber || chunkNumber > lastChunkNumber)
+            it.remove();
+      }
+      for (int chunkNumber = currentChunkNumber + 1; chunkNumber <= lastChunkNumber; chunkNumber++) {
+         if (!prefetchedChunks.containsKey(chunkNumber))
+            prefetchedChunks.put(chunkNumber, fileChunkMapper.fetchChunkAsync(chunkNumber));
+      }
+   }
+
    private int getChunkNumber() {
       return getChunkNumber(index);
    }
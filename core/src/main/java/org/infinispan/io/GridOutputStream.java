@@ -3,7 +3,11 @@
 import org.infinispan.Cache;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * @author Bela Ban
@@ -21,11 +25,14 @@ public class GridOutputStream extends OutputStream {
    private final int chunkSize; // Guaranteed to be a power of 2
    private GridFile file;
    private boolean streamClosed;
+   private final int writeBehindChunks;
+   private final LinkedList<Future<byte[]>> pendingWrites = new LinkedList<Future<byte[]>>();
 
-   GridOutputStream(GridFile file, boolean append, Cache<String, byte[]> cache) {
+   GridOutputStream(GridFile file, boolean append, Cache<String, byte[]> cache, int writeBehindChunks) {
       fileChunkMapper = new FileChunkMapper(file, cache);
       chunkSize = fileChunkMapper.getChunkSize();
       this.file = file;
+      this.writeBehindChunks = writeBehindChunks;
 
       index = append ? (int) file.length() : 0;
       localIndex = append && isLastChunkFull() ? chunkSize : ModularArithmetic.mod(index, chunkSize);
@@ -65,7 +72,7 @@ public void write(int b) throws IOException {
       assertOpen();
       int remaining = getBytesRemainingInChunk();
       if (remaining == 0) {
-         flush();
+         storeFullChunk();
          localIndex = 0;
       }
       currentBuffer[localIndex] = (byte) b;
@@ -97,7 +104,7 @@ public void write(byte[] b, int off, int len) throws IOException {
    private int writeToChunk(byte[] b, int off, int len) throws IOException {
       int remaining = getBytesRemainingInChunk();
       if (remaining == 0) {
-         flush();
+         storeFullChunk();
          localIndex = 0;
          remaining = chunkSize;
       }
@@ -123,8 +130,12 @@ private void removeExcessChunks() {
       }
    }
 
+   /**
+    * Waits for all the chunks written so far to be stored, then updates the length of the file.
+    */
    @Override
    public void flush() throws IOException {
+      waitForPendingWrites(0);
       storeChunk();
       file.setLength(index);
    }
@@ -133,6 +144,34 @@ private void storeChunk() {
       fileChunkMapper.storeChunk(getChunkNumber(index - 1), currentBuffer, localIndex);
    }
 
+   /**
+    * Stores the current chunk once it's full, without waiting for the write to complete unless there are already
+    * writeBehindChunks writes in progress. Each chunk is only written once before the next flush, so the pending
+    * writes never target the same key.
+    */
+   private void storeFullChunk() throws IOException {
+      if (writeBehindChunks <= 0) {
+         storeChunk();
+         return;
+      }
+      waitForPendingWrites(writeBehindChunks - 1);
+      pendingWrites.addLast(fileChunkMapper.storeChunkAsync(getChunkNumber(index - 1), currentBuffer, localIndex));
+   }
+
+   private void waitForPendingWrites(int maxPendingWrites) throws IOException {
+      while (pendingWrites.size() > maxPendingWrites) {
+         Future<byte[]> write = pendingWrites.removeFirst();
+         try {
+            write.get();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while storing a chunk of " + file);
+         } catch (ExecutionException e) {
+            throw new IOException("Failed to store a chunk of " + file, e.getCause());
+         }
+      }
+   }
+
    private int getBytesRemainingInChunk() {
       return chunkSize - localIndex;
    }
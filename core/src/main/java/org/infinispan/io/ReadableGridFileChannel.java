@@ -16,8 +16,8 @@ public class ReadableGridFileChannel implements ReadableByteChannel {
    private final GridInputStream gridInputStream;
    private final ReadableByteChannel delegate;
 
-   ReadableGridFileChannel(GridFile file, Cache<String, byte[]> cache) {
-      this.gridInputStream = new GridInputStream(file, cache);
+   ReadableGridFileChannel(GridFile file, Cache<String, byte[]> cache, int readAheadChunks) {
+      this.gridInputStream = new GridInputStream(file, cache, readAheadChunks);
       this.delegate = Channels.newChannel(gridInputStream);
    }
 
@@ -16,8 +16,8 @@ public class WritableGridFileChannel implements WritableByteChannel {
    private final GridOutputStream gridOutputStream;
    private final WritableByteChannel delegate;
 
-   WritableGridFileChannel(GridFile file, Cache<String, byte[]> cache, boolean append) {
-      this.gridOutputStream = new GridOutputStream(file, append, cache);
+   WritableGridFileChannel(GridFile file, Cache<String, byte[]> cache, boolean append, int writeBehindChunks) {
+      this.gridOutputStream = new GridOutputStream(file, append, cache, writeBehindChunks);
       this.delegate = Channels.newChannel(gridOutputStream);
    }
 
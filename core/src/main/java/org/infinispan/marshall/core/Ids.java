@@ -114,4 +114,6 @@ public interface Ids extends org.infinispan.commons.marshall.Ids {
 
    /* 106 -120 reserved in org.infinispan.commons.marshall.Ids */
 
+   int COMPRESSED_VALUE = 121;
+
 }
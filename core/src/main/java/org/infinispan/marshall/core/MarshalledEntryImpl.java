@@ -4,6 +4,7 @@
 import org.infinispan.commons.marshall.AbstractExternalizer;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.Util;
+import org.infinispan.compression.CompressedValue;
 import org.infinispan.metadata.InternalMetadata;
 import org.infinispan.persistence.spi.PersistenceException;
 
@@ -56,10 +57,16 @@ public K getKey() {
    }
 
    @Override
+   @SuppressWarnings(value = "unchecked")
    public V getValue() {
       if (value == null) {
          value = unmarshall(valueBytes);
       }
+      if (value instanceof CompressedValue) {
+         // keep the compressed form for the value bytes
+         getValueBytes();
+         value = (V) ((CompressedValue) value).decompress(marshaller);
+      }
       return value;
    }
 
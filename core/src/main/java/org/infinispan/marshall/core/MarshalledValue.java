@@ -11,6 +11,7 @@
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.marshall.jboss.ExtendedRiverUnmarshaller;
 import org.infinispan.commons.util.Util;
+import org.infinispan.compression.CompressedValue;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.transaction.xa.GlobalTransaction;
 
@@ -100,7 +101,9 @@ private MarshalledValueByteStream serialize(Object instance) {
    private Object deserialize() {
       try {
          // StreamingMarshaller underneath deals with making sure the right classloader is set.
-         return marshaller.objectFromByteBuffer(raw.getRaw(), 0, raw.size());
+         Object value = marshaller.objectFromByteBuffer(raw.getRaw(), 0, raw.size());
+         // values are wrapped compressed when the cache has compression enabled
+         return value instanceof CompressedValue ? ((CompressedValue) value).decompress(marshaller) : value;
       }
       catch (Exception e) {
          throw new CacheException("Unable to unmarshall value", e);
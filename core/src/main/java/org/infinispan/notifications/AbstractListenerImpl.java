@@ -5,16 +5,13 @@
 import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
-import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.notifications.cachelistener.event.EventImpl;
-import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.Log;
 
 import javax.transaction.Transaction;
 import java.lang.annotation.Annotation;
 import java.lang.ref.WeakReference;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
@@ -36,9 +33,7 @@ public abstract class AbstractListenerImpl {
 
    protected final Map<Class<? extends Annotation>, List<ListenerInvocation>> listenersMap = new HashMap<Class<? extends Annotation>, List<ListenerInvocation>>(16, 0.99f);
 
-
-   // two separate executor services, one for sync and one for async listeners
-   protected ExecutorService syncProcessor;
+   // synchronous listeners are invoked directly on the notifying thread
    protected ExecutorService asyncProcessor;
 
 
@@ -47,11 +42,6 @@ void injectExecutor(@ComponentName(KnownComponentNames.ASYNC_NOTIFICATION_EXECUT
       this.asyncProcessor = executor;
    }
 
-   @Start (priority = 9)
-   public void start() {
-      syncProcessor = new WithinThreadExecutor();
-   }
-
    /**
     * Removes all listeners from the notifier
     */
@@ -60,8 +50,6 @@ void stop() {
       for (List<ListenerInvocation> list : listenersMap.values()) {
          if (list != null) list.clear();
       }
-
-      if (syncProcessor != null) syncProcessor.shutdownNow();
    }
 
    protected abstract Log getLog();
@@ -107,11 +95,16 @@ public Set<Object> getListeners() {
 
    /**
     * Loops through all valid methods on the object passed in, and caches the relevant methods as {@link
-    * ListenerInvocation} for invocation by reflection.
+    * ListenerInvocation} for invocation through a {@link ListenerInvoker}.
     *
     * @param listener object to be considered as a listener.
     */
    protected void validateAndAddListenerInvocation(Object listener, KeyFilter filter, ClassLoader classLoader) {
+      validateAndAddListenerInvocation(listener, filter, null, null, classLoader);
+   }
+
+   protected void validateAndAddListenerInvocation(Object listener, KeyFilter filter, KeyValueFilter<?, ?> keyValueFilter,
+                                                   Converter<?, ?, ?> converter, ClassLoader classLoader) {
       Listener l = testListenerClassValidity(listener.getClass());
       boolean foundMethods = false;
       Map<Class<? extends Annotation>, Class<?>> allowedListeners = getAllowedMethodAnnotations();
@@ -124,7 +117,8 @@ protected void validateAndAddListenerInvocation(Object listener, KeyFilter filte
             if (m.isAnnotationPresent(key)) {
                testListenerMethodValidity(m, value, key.getName());
                m.setAccessible(true);
-               addListenerInvocation(key, new ListenerInvocation(listener, m, l.sync(), l.primaryOnly(), filter, classLoader));
+               addListenerInvocation(key, new ListenerInvocation(listener, m, l.sync(), l.primaryOnly(), filter,
+                                                                 keyValueFilter, converter, classLoader));
                foundMethods = true;
             }
          }
@@ -165,7 +159,11 @@ protected static void testListenerMethodValidity(Method m, Class<?> allowedParam
 
    /**
     * Class that encapsulates a valid invocation for a given registered listener - containing a reference to the method
-    * to be invoked as well as the target object.
+    * to be invoked as well as the target object. The method is invoked through an invoker generated for it when possible,
+    * see {@link ListenerInvokers}.
+    * <p/>
+    * For keyed events, notifiers should first check {@link #shouldInvoke(Object, Object, boolean)} and only build the
+    * event when at least one listener accepts it, then deliver it with {@link #invokeNoChecks(Object)}.
     */
    protected class ListenerInvocation {
       public final Object target;
@@ -174,14 +172,26 @@ protected class ListenerInvocation {
       public final boolean onlyPrimary;
       public final WeakReference<ClassLoader> classLoader;
       public final KeyFilter filter;
+      public final KeyValueFilter<Object, Object> keyValueFilter;
+      public final Converter<Object, Object, Object> converter;
+      private final ListenerInvoker invoker;
 
       public ListenerInvocation(Object target, Method method, boolean sync, boolean onlyPrimary, KeyFilter filter, ClassLoader classLoader) {
+         this(target, method, sync, onlyPrimary, filter, null, null, classLoader);
+      }
+
+      @SuppressWarnings("unchecked")
+      public ListenerInvocation(Object target, Method method, boolean sync, boolean onlyPrimary, KeyFilter filter,
+                                KeyValueFilter<?, ?> keyValueFilter, Converter<?, ?, ?> converter, ClassLoader classLoader) {
          this.target = target;
          this.method = method;
          this.sync = sync;
          this.onlyPrimary = onlyPrimary;
          this.filter = filter;
+         this.keyValueFilter = (KeyValueFilter<Object, Object>) keyValueFilter;
+         this.converter = (Converter<Object, Object, Object>) converter;
          this.classLoader = new WeakReference<ClassLoader>(classLoader);
+         this.invoker = ListenerInvokers.getInvoker(method);
       }
 
       public void invoke(final Object event) {
@@ -194,48 +204,81 @@ public void invoke(final Object event, boolean isLocalNodePrimaryOwner) {
 
       private void invoke(final Object event, boolean isLocalNodePrimaryOwner, boolean unKeyed) {
          if (unKeyed || shouldInvoke(event, isLocalNodePrimaryOwner)) {
-            Runnable r = new Runnable() {
+            invokeNoChecks(event);
+         }
+      }
 
+      /**
+       * Checks whether an event about the given entry should be delivered to this listener, without having to build
+       * the event first.
+       */
+      public boolean shouldInvoke(Object key, Object value, boolean isLocalNodePrimaryOwner) {
+         if (onlyPrimary && !isLocalNodePrimaryOwner) return false;
+         if (filter != null && !filter.accept(key)) return false;
+         return keyValueFilter == null || keyValueFilter.accept(key, value);
+      }
+
+      /**
+       * Delivers the event, applying the converter if any. Filters must have already been checked by the caller.
+       */
+      public void invokeNoChecks(Object event) {
+         final Object toDeliver = convert(event);
+         if (sync) {
+            // no need to allocate a task for listeners invoked in the caller thread
+            doInvoke(toDeliver);
+         } else {
+            asyncProcessor.execute(new Runnable() {
                @Override
                public void run() {
-                  ClassLoader contextClassLoader = null;
-                  Transaction transaction = suspendIfNeeded();
-                  if (classLoader != null && classLoader.get() != null) {
-                     contextClassLoader = setContextClassLoader(classLoader.get());
-                  }
-                  try {
-                     method.invoke(target, event);
-                  } catch (InvocationTargetException exception) {
-                     Throwable cause = getRealException(exception);
-                     if (sync) {
-                        throw getLog().exceptionInvokingListener(
-                              cause.getClass().getName(), method, target, cause);
-                     } else {
-                        getLog().unableToInvokeListenerMethod(method, target, cause);
-                     }
-                  } catch (IllegalAccessException exception) {
-                     getLog().unableToInvokeListenerMethod(method, target, exception);
-                     removeListener(target);
-                  } finally {
-                     if (classLoader != null && classLoader.get() != null) {
-                        setContextClassLoader(contextClassLoader);
-                     }
-                     resumeIfNeeded(transaction);
-                  }
+                  doInvoke(toDeliver);
                }
-            };
+            });
+         }
+      }
+
+      @SuppressWarnings("unchecked")
+      private Object convert(Object event) {
+         if (converter == null || !(event instanceof EventImpl)) {
+            return event;
+         }
+         EventImpl<Object, Object> converted = ((EventImpl<Object, Object>) event).clone();
+         converted.setValue(converter.convert(converted.getKey(), converted.getValue()));
+         return converted;
+      }
 
-            if (sync)
-               syncProcessor.execute(r);
-            else
-               asyncProcessor.execute(r);
+      private void doInvoke(Object event) {
+         ClassLoader contextClassLoader = null;
+         Transaction transaction = suspendIfNeeded();
+         if (classLoader != null && classLoader.get() != null) {
+            contextClassLoader = setContextClassLoader(classLoader.get());
+         }
+         try {
+            invoker.invoke(target, event);
+         } catch (IllegalAccessException exception) {
+            getLog().unableToInvokeListenerMethod(method, target, exception);
+            removeListener(target);
+         } catch (Throwable exception) {
+            Throwable cause = getRealException(exception);
+            if (sync) {
+               throw getLog().exceptionInvokingListener(
+                     cause.getClass().getName(), method, target, cause);
+            } else {
+               getLog().unableToInvokeListenerMethod(method, target, cause);
+            }
+         } finally {
+            if (classLoader != null && classLoader.get() != null) {
+               setContextClassLoader(contextClassLoader);
+            }
+            resumeIfNeeded(transaction);
          }
       }
 
       private boolean shouldInvoke(Object event, boolean isLocalNodePrimaryOwner) {
          if (onlyPrimary && !isLocalNodePrimaryOwner) return false;
-         return filter == null ||
-               ((event instanceof EventImpl) && filter.accept(((EventImpl) event).getKey()));
+         if (!(event instanceof EventImpl)) return filter == null && keyValueFilter == null;
+         EventImpl e = (EventImpl) event;
+         return (filter == null || filter.accept(e.getKey()))
+               && (keyValueFilter == null || keyValueFilter.accept(e.getKey(), e.getValue()));
       }
    }
 
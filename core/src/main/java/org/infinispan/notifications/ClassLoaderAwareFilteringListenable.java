@@ -22,4 +22,15 @@ public interface ClassLoaderAwareFilteringListenable extends FilteringListenable
     * @param classLoader class loader
     */
    void addListener(Object listener, KeyFilter filter, ClassLoader classLoader);
+
+   /**
+    * Adds a listener along with a key/value filter and a value converter. See
+    * {@link FilteringListenable#addListener(Object, KeyValueFilter, Converter)}.
+    *
+    * @param listener must not be null.
+    * @param filter filter on the key and value of the event, may be null
+    * @param converter converter applied to the value of the event before delivering it, may be null
+    * @param classLoader class loader
+    */
+   void addListener(Object listener, KeyValueFilter<?, ?> filter, Converter<?, ?, ?> converter, ClassLoader classLoader);
 }
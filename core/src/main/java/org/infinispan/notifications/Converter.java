@@ -0,0 +1,17 @@
+package org.infinispan.notifications;
+
+/**
+ * Converts the value carried by a cache entry event before it is delivered to a listener, e.g. to extract only the
+ * part of the value the listener is interested in.
+ *
+ * @since 6.0
+ */
+public interface Converter<K, V, C> {
+
+   /**
+    * @param key key of the entry the event is about
+    * @param value value carried by the event, may be null
+    * @return the value to be exposed by the event delivered to the listener
+    */
+   C convert(K key, V value);
+}
@@ -17,4 +17,15 @@ public interface FilteringListenable extends Listenable {
     * @param listener must not be null.
     */
    void addListener(Object listener, KeyFilter filter);
+
+   /**
+    * Adds a listener which only receives the cache entry events accepted by the given filter, with their value
+    * transformed by the given converter. The filter is evaluated before the event is created, so events the listener
+    * is not interested in are never built.
+    *
+    * @param listener must not be null.
+    * @param filter filter on the key and value of the event, may be null
+    * @param converter converter applied to the value of the event before delivering it, may be null
+    */
+   void addListener(Object listener, KeyValueFilter<?, ?> filter, Converter<?, ?, ?> converter);
 }
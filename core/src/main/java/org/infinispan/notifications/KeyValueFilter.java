@@ -0,0 +1,18 @@
+package org.infinispan.notifications;
+
+/**
+ * A filter for cache entry events, which can inspect both the key and the value of the entry. It is evaluated before
+ * the event object is built, so events which are not accepted by any listener cost no allocation.
+ *
+ * @since 6.0
+ * @see KeyFilter
+ */
+public interface KeyValueFilter<K, V> {
+
+   /**
+    * @param key key of the entry the event is about
+    * @param value value carried by the event, may be null
+    * @return true if the event should be delivered to the listener.
+    */
+   boolean accept(K key, V value);
+}
@@ -0,0 +1,18 @@
+package org.infinispan.notifications;
+
+/**
+ * Invokes a listener method on a listener instance. Implementations are generated for each listener method by the
+ * notifiers, this interface is public only so that the generated classes can implement it, and is not meant to be used
+ * outside of Infinispan.
+ *
+ * @since 6.0
+ */
+public interface ListenerInvoker {
+
+   /**
+    * @param target the listener
+    * @param event the argument of the listener method
+    * @throws Throwable whatever the listener method throws, as is
+    */
+   void invoke(Object target, Object event) throws Throwable;
+}
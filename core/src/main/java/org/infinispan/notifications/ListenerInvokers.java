@@ -0,0 +1,250 @@
+package org.infinispan.notifications;
+
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the {@link ListenerInvoker}s of the listener methods.
+ * <p/>
+ * The methods declared by a public class and taking a public type are invoked through a generated class, which casts
+ * its arguments and calls the method directly, so that the notifications pay neither for the argument array nor for
+ * the access checks of {@link Method#invoke(Object, Object...)}. The generated class is defined by a class loader of
+ * its own, child of the class loader of the listener, so that it is unloaded along with the listener class. The other
+ * methods, and all of them if a class cannot be defined (e.g. under a security manager), are invoked by reflection.
+ * <p/>
+ * The invokers are stateless, so they are shared by all the listeners of a class.
+ *
+ * @since 6.0
+ */
+final class ListenerInvokers {
+
+   private static final Log log = LogFactory.getLog(ListenerInvokers.class);
+
+   private static final String INVOKER = ListenerInvoker.class.getName().replace('.', '/');
+   private static final String INVOKE_DESCRIPTOR = "(Ljava/lang/Object;Ljava/lang/Object;)V";
+   private static final AtomicInteger invokerId = new AtomicInteger();
+
+   // the invokers are only weakly referenced, as they strongly reference the listener classes
+   private static final Map<Class<?>, Map<String, WeakReference<ListenerInvoker>>> invokers =
+         new WeakHashMap<Class<?>, Map<String, WeakReference<ListenerInvoker>>>();
+
+   private ListenerInvokers() {
+   }
+
+   static ListenerInvoker getInvoker(Method method) {
+      Class<?> declaringClass = method.getDeclaringClass();
+      String signature = method.getName() + method.getParameterTypes()[0].getName();
+      synchronized (invokers) {
+         Map<String, WeakReference<ListenerInvoker>> classInvokers = invokers.get(declaringClass);
+         if (classInvokers == null) {
+            classInvokers = new HashMap<String, WeakReference<ListenerInvoker>>(4);
+            invokers.put(declaringClass, classInvokers);
+         }
+         WeakReference<ListenerInvoker> ref = classInvokers.get(signature);
+         ListenerInvoker invoker = ref != null ? ref.get() : null;
+         if (invoker == null) {
+            invoker = createInvoker(method);
+            classInvokers.put(signature, new WeakReference<ListenerInvoker>(invoker));
+         }
+         return invoker;
+      }
+   }
+
+   private static ListenerInvoker createInvoker(Method method) {
+      Class<?> declaringClass = method.getDeclaringClass();
+      Class<?> eventType = method.getParameterTypes()[0];
+      if (Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(declaringClass.getModifiers())
+            && Modifier.isPublic(eventType.getModifiers()) && declaringClass.getClassLoader() != null) {
+         try {
+            return generateInvoker(method);
+         } catch (Throwable t) {
+            log.debugf(t, "Unable to generate an invoker for listener method %s, it will be invoked by reflection", method);
+         }
+      }
+      return new ReflectiveInvoker(method);
+   }
+
+   private static ListenerInvoker generateInvoker(Method method) throws Exception {
+      final String className = method.getDeclaringClass().getName() + "$$ListenerInvoker$" + method.getName() + "$"
+            + invokerId.incrementAndGet();
+      final byte[] bytes = generateClass(className.replace('.', '/'), method);
+      final ClassLoader parent = method.getDeclaringClass().getClassLoader();
+      Class<?> invokerClass = AccessController.doPrivileged(new PrivilegedAction<Class<?>>() {
+         @Override
+         public Class<?> run() {
+            return new InvokerClassLoader(parent).define(className, bytes);
+         }
+      });
+      return (ListenerInvoker) invokerClass.newInstance();
+   }
+
+   /**
+    * Generates the class file of a {@link ListenerInvoker} calling the listener method, equivalent to:
+    * <pre>
+    * public final class className implements ListenerInvoker {
+    *    public void invoke(Object target, Object event) {
+    *       ((DeclaringClass) target).method((EventType) event);
+    *    }
+    * }
+    * </pre>
+    * There is no branch, so the class needs no stack map frames.
+    */
+   private static byte[] generateClass(String className, Method method) throws IOException {
+      Class<?> declaringClass = method.getDeclaringClass();
+      Class<?> eventType = method.getParameterTypes()[0];
+      boolean isInterface = declaringClass.isInterface();
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0); // minor version
+      out.writeShort(49); // Java 5 class file
+
+      // constant pool
+      out.writeShort(22);
+      utf8(out, className);                                        // #1
+      out.writeByte(7); out.writeShort(1);                         // #2 this class
+      utf8(out, "java/lang/Object");                               // #3
+      out.writeByte(7); out.writeShort(3);                         // #4 super class
+      utf8(out, INVOKER);                                          // #5
+      out.writeByte(7); out.writeShort(5);                         // #6 ListenerInvoker
+      utf8(out, "<init>");                                         // #7
+      utf8(out, "()V");                                            // #8
+      out.writeByte(12); out.writeShort(7); out.writeShort(8);     // #9 <init>()V
+      out.writeByte(10); out.writeShort(4); out.writeShort(9);     // #10 Object.<init>()V
+      utf8(out, "invoke");                                         // #11
+      utf8(out, INVOKE_DESCRIPTOR);                                // #12
+      utf8(out, "Code");                                           // #13
+      utf8(out, internalName(declaringClass));                     // #14
+      out.writeByte(7); out.writeShort(14);                        // #15 listener class
+      utf8(out, internalName(eventType));                          // #16
+      out.writeByte(7); out.writeShort(16);                        // #17 event type
+      utf8(out, method.getName());                                 // #18
+      utf8(out, "(" + descriptor(eventType) + ")V");               // #19
+      out.writeByte(12); out.writeShort(18); out.writeShort(19);   // #20 listener method name and type
+      out.writeByte(isInterface ? 11 : 10); out.writeShort(15); out.writeShort(20); // #21 listener method
+
+      out.writeShort(0x0031); // public final super
+      out.writeShort(2);
+      out.writeShort(4);
+      out.writeShort(1);
+      out.writeShort(6);
+      out.writeShort(0); // fields
+      out.writeShort(2); // methods
+
+      // public <init>() { super(); }
+      byte[] init = {
+            0x2a,                        // aload_0
+            (byte) 0xb7, 0, 10,          // invokespecial #10
+            (byte) 0xb1                  // return
+      };
+      method(out, 7, 8, 1, 1, init);
+
+      // public void invoke(Object target, Object event)
+      byte[] invoke = isInterface ? new byte[] {
+            0x2b,                        // aload_1
+            (byte) 0xc0, 0, 15,          // checkcast #15
+            0x2c,                        // aload_2
+            (byte) 0xc0, 0, 17,          // checkcast #17
+            (byte) 0xb9, 0, 21, 2, 0,    // invokeinterface #21
+            (byte) 0xb1                  // return
+      } : new byte[] {
+            0x2b,                        // aload_1
+            (byte) 0xc0, 0, 15,          // checkcast #15
+            0x2c,                        // aload_2
+            (byte) 0xc0, 0, 17,          // checkcast #17
+            (byte) 0xb6, 0, 21,          // invokevirtual #21
+            (byte) 0xb1                  // return
+      };
+      method(out, 11, 12, 2, 3, invoke);
+
+      out.writeShort(0); // attributes
+      out.flush();
+      return bytes.toByteArray();
+   }
+
+   private static void method(DataOutputStream out, int name, int descriptor, int maxStack, int maxLocals, byte[] code)
+         throws IOException {
+      out.writeShort(0x0001); // public
+      out.writeShort(name);
+      out.writeShort(descriptor);
+      out.writeShort(1); // attributes
+      out.writeShort(13); // Code
+      out.writeInt(12 + code.length);
+      out.writeShort(maxStack);
+      out.writeShort(maxLocals);
+      out.writeInt(code.length);
+      out.write(code);
+      out.writeShort(0); // exception table
+      out.writeShort(0); // attributes
+   }
+
+   private static void utf8(DataOutputStream out, String s) throws IOException {
+      out.writeByte(1);
+      // the modified UTF-8 of the class files
+      out.writeUTF(s);
+   }
+
+   private static String internalName(Class<?> clazz) {
+      return clazz.isArray() ? descriptor(clazz) : clazz.getName().replace('.', '/');
+   }
+
+   private static String descriptor(Class<?> clazz) {
+      return clazz.isArray() ? clazz.getName().replace('.', '/') : "L" + clazz.getName().replace('.', '/') + ";";
+   }
+
+   /**
+    * Resolves the classes referenced by a generated invoker from the class loader of the listener, except for
+    * {@link ListenerInvoker} which the listener class loader may not see.
+    */
+   private static final class InvokerClassLoader extends ClassLoader {
+
+      InvokerClassLoader(ClassLoader parent) {
+         super(parent);
+      }
+
+      @Override
+      protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+         if (name.equals(ListenerInvoker.class.getName())) {
+            return ListenerInvoker.class;
+         }
+         return super.loadClass(name, resolve);
+      }
+
+      Class<?> define(String name, byte[] bytes) {
+         return defineClass(name, bytes, 0, bytes.length);
+      }
+   }
+
+   private static final class ReflectiveInvoker implements ListenerInvoker {
+
+      private final Method method;
+
+      ReflectiveInvoker(Method method) {
+         this.method = method;
+      }
+
+      @Override
+      public void invoke(Object target, Object event) throws Throwable {
+         try {
+            method.invoke(target, event);
+         } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+         }
+      }
+   }
+}
@@ -11,7 +11,9 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 import org.infinispan.notifications.AbstractListenerImpl;
+import org.infinispan.notifications.Converter;
 import org.infinispan.notifications.KeyFilter;
+import org.infinispan.notifications.KeyValueFilter;
 import org.infinispan.notifications.cachelistener.annotation.*;
 import org.infinispan.notifications.cachelistener.event.*;
 import org.infinispan.transaction.xa.GlobalTransaction;
@@ -174,18 +176,10 @@ protected final void resumeIfNeeded(Transaction transaction) {
    public void notifyCacheEntryCreated(Object key, Object value, boolean pre,
          InvocationContext ctx, FlagAffectedCommand command) {
       if (!cacheEntryCreatedListeners.isEmpty()) {
-         boolean originLocal = ctx.isOriginLocal();
-         EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_CREATED);
-         e.setOriginLocal(originLocal);
          // Added capability to set cache entry created value in order
          // to avoid breaking behaviour of CacheEntryModifiedEvent.getValue()
          // when isPre=false.
-         e.setValue(value);
-         e.setPre(pre);
-         e.setKey(key);
-         setTx(ctx, e);
-         boolean isLocalNodePrimaryOwner = clusteringDependentLogic.localNodeIsPrimaryOwner(key);
-         for (ListenerInvocation listener : cacheEntryCreatedListeners) listener.invoke(e, isLocalNodePrimaryOwner);
+         notifyKeyedListeners(cacheEntryCreatedListeners, CACHE_ENTRY_CREATED, key, value, null, false, pre, ctx, true);
       }
    }
 
@@ -194,12 +188,6 @@ public void notifyCacheEntryModified(Object key, Object value,
          boolean created, boolean pre, InvocationContext ctx,
          FlagAffectedCommand command) {
       if (!cacheEntryModifiedListeners.isEmpty()) {
-         boolean originLocal = ctx.isOriginLocal();
-         EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_MODIFIED);
-         e.setOriginLocal(originLocal);
-         e.setValue(value);
-         e.setPre(pre);
-         e.setKey(key);
          // Even if CacheEntryCreatedEvent.getValue() has been added, to
          // avoid breaking old behaviour and make it easy to comply with
          // JSR-107 specification TCK, it's necessary to find out whether a
@@ -207,10 +195,7 @@ public void notifyCacheEntryModified(Object key, Object value,
          // This is needed because on JSR-107, a modification is only fired
          // when the entry is updated, and only one event is fired, so you
          // want to fire it when isPre=false.
-         e.setCreated(created);
-         setTx(ctx, e);
-         boolean isLocalNodePrimaryOwner = clusteringDependentLogic.localNodeIsPrimaryOwner(key);
-         for (ListenerInvocation listener : cacheEntryModifiedListeners) listener.invoke(e, isLocalNodePrimaryOwner);
+         notifyKeyedListeners(cacheEntryModifiedListeners, CACHE_ENTRY_MODIFIED, key, value, null, created, pre, ctx, true);
       }
    }
 
@@ -218,29 +203,14 @@ public void notifyCacheEntryModified(Object key, Object value,
    public void notifyCacheEntryRemoved(Object key, Object value, Object oldValue,
          boolean pre, InvocationContext ctx, FlagAffectedCommand command) {
       if (isNotificationAllowed(command, cacheEntryRemovedListeners)) {
-         boolean originLocal = ctx.isOriginLocal();
-         EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_REMOVED);
-         e.setOriginLocal(originLocal);
-         e.setValue(value);
-         e.setOldValue(oldValue);
-         e.setPre(pre);
-         e.setKey(key);
-         setTx(ctx, e);
-         boolean isLocalNodePrimaryOwner = clusteringDependentLogic.localNodeIsPrimaryOwner(key);
-         for (ListenerInvocation listener : cacheEntryRemovedListeners) listener.invoke(e, isLocalNodePrimaryOwner);
+         notifyKeyedListeners(cacheEntryRemovedListeners, CACHE_ENTRY_REMOVED, key, value, oldValue, false, pre, ctx, true);
       }
    }
 
    @Override
    public void notifyCacheEntryVisited(Object key, Object value, boolean pre, InvocationContext ctx, FlagAffectedCommand command) {
       if (isNotificationAllowed(command, cacheEntryVisitedListeners)) {
-         EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_VISITED);
-         e.setPre(pre);
-         e.setKey(key);
-         e.setValue(value);
-         setTx(ctx, e);
-         boolean isLocalNodePrimaryOwner = clusteringDependentLogic.localNodeIsPrimaryOwner(key);
-         for (ListenerInvocation listener : cacheEntryVisitedListeners) listener.invoke(e, isLocalNodePrimaryOwner);
+         notifyKeyedListeners(cacheEntryVisitedListeners, CACHE_ENTRY_VISITED, key, value, null, false, pre, ctx, false);
       }
    }
 
@@ -280,11 +250,8 @@ public Object setValue(Object value) {
          // For backward compat
          if (isNotificationAllowed(command, cacheEntryEvictedListeners)) {
             for (InternalCacheEntry ice : entries) {
-               EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_EVICTED);
-               e.setKey(ice.getKey());
-               e.setValue(ice.getValue());
-               boolean isLocalNodePrimaryOwner = clusteringDependentLogic.localNodeIsPrimaryOwner(ice.getKey());
-               for (ListenerInvocation listener : cacheEntryEvictedListeners) listener.invoke(e, isLocalNodePrimaryOwner);
+               notifyKeyedListeners(cacheEntryEvictedListeners, CACHE_ENTRY_EVICTED, ice.getKey(), ice.getValue(),
+                                    null, false, false, null, false);
             }
          }
       }
@@ -302,10 +269,8 @@ public void notifyCacheEntryEvicted(Object key, Object value,
 
       // For backward compat
       if (isNotificationAllowed(command, cacheEntryEvictedListeners)) {
-         EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_EVICTED);
-         e.setKey(key);
-         e.setValue(value);
-         for (ListenerInvocation listener : cacheEntryEvictedListeners) listener.invoke(e, isLocalNodePrimaryOwner);
+         notifyKeyedListeners(cacheEntryEvictedListeners, CACHE_ENTRY_EVICTED, key, value, null, false, false, null,
+                              false, isLocalNodePrimaryOwner);
       }
    }
 
@@ -313,15 +278,7 @@ public void notifyCacheEntryEvicted(Object key, Object value,
    public void notifyCacheEntryInvalidated(final Object key, Object value, final boolean pre,
          InvocationContext ctx, FlagAffectedCommand command) {
       if (isNotificationAllowed(command, cacheEntryInvalidatedListeners)) {
-         final boolean originLocal = ctx.isOriginLocal();
-         EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_INVALIDATED);
-         e.setOriginLocal(originLocal);
-         e.setPre(pre);
-         e.setKey(key);
-         e.setValue(value);
-         setTx(ctx, e);
-         boolean isLocalNodePrimaryOwner = clusteringDependentLogic.localNodeIsPrimaryOwner(key);
-         for (ListenerInvocation listener : cacheEntryInvalidatedListeners) listener.invoke(e, isLocalNodePrimaryOwner);
+         notifyKeyedListeners(cacheEntryInvalidatedListeners, CACHE_ENTRY_INVALIDATED, key, value, null, false, pre, ctx, true);
       }
    }
 
@@ -329,30 +286,47 @@ public void notifyCacheEntryInvalidated(final Object key, Object value, final bo
    public void notifyCacheEntryLoaded(Object key, Object value, boolean pre,
          InvocationContext ctx, FlagAffectedCommand command) {
       if (isNotificationAllowed(command, cacheEntryLoadedListeners)) {
-         boolean originLocal = ctx.isOriginLocal();
-         EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_LOADED);
-         e.setOriginLocal(originLocal);
-         e.setPre(pre);
-         e.setKey(key);
-         e.setValue(value);
-         setTx(ctx, e);
-         boolean isLocalNodePrimaryOwner = clusteringDependentLogic.localNodeIsPrimaryOwner(key);
-         for (ListenerInvocation listener : cacheEntryLoadedListeners) listener.invoke(e, isLocalNodePrimaryOwner);
+         notifyKeyedListeners(cacheEntryLoadedListeners, CACHE_ENTRY_LOADED, key, value, null, false, pre, ctx, true);
       }
    }
 
    @Override
    public void notifyCacheEntryActivated(Object key, Object value, boolean pre, InvocationContext ctx, FlagAffectedCommand command) {
       if (isNotificationAllowed(command, cacheEntryActivatedListeners)) {
-         boolean originLocal = ctx.isOriginLocal();
-         EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_ACTIVATED);
-         e.setOriginLocal(originLocal);
-         e.setPre(pre);
-         e.setKey(key);
-         e.setValue(value);
-         setTx(ctx, e);
-         boolean isLocalNodePrimaryOwner = clusteringDependentLogic.localNodeIsPrimaryOwner(key);
-         for (ListenerInvocation listener : cacheEntryActivatedListeners) listener.invoke(e, isLocalNodePrimaryOwner);
+         notifyKeyedListeners(cacheEntryActivatedListeners, CACHE_ENTRY_ACTIVATED, key, value, null, false, pre, ctx, true);
+      }
+   }
+
+   private void notifyKeyedListeners(List<ListenerInvocation> listeners, Event.Type type, Object key, Object value,
+                                     Object oldValue, boolean created, boolean pre, InvocationContext ctx,
+                                     boolean setOrigin) {
+      notifyKeyedListeners(listeners, type, key, value, oldValue, created, pre, ctx, setOrigin,
+                           clusteringDependentLogic.localNodeIsPrimaryOwner(key));
+   }
+
+   /**
+    * Invokes the listeners which accept the key and value, building the event only if at least one of them does.
+    *
+    * @param ctx the context to read the transaction from, or null if the event is not transactional
+    * @param setOrigin whether the event is marked with the origin of the context instead of always being local
+    */
+   private void notifyKeyedListeners(List<ListenerInvocation> listeners, Event.Type type, Object key, Object value,
+                                     Object oldValue, boolean created, boolean pre, InvocationContext ctx,
+                                     boolean setOrigin, boolean isLocalNodePrimaryOwner) {
+      EventImpl<Object, Object> e = null;
+      for (ListenerInvocation listener : listeners) {
+         if (!listener.shouldInvoke(key, value, isLocalNodePrimaryOwner)) continue;
+         if (e == null) {
+            e = EventImpl.createEvent(cache, type);
+            if (setOrigin) e.setOriginLocal(ctx.isOriginLocal());
+            e.setPre(pre);
+            e.setKey(key);
+            e.setValue(value);
+            if (oldValue != null) e.setOldValue(oldValue);
+            if (created) e.setCreated(true);
+            setTx(ctx, e);
+         }
+         listener.invokeNoChecks(e);
       }
    }
 
@@ -366,12 +340,7 @@ private void setTx(InvocationContext ctx, EventImpl<Object, Object> e) {
    @Override
    public void notifyCacheEntryPassivated(Object key, Object value, boolean pre, InvocationContext ctx, FlagAffectedCommand command) {
       if (isNotificationAllowed(command, cacheEntryPassivatedListeners)) {
-         EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_PASSIVATED);
-         e.setPre(pre);
-         e.setKey(key);
-         e.setValue(value);
-         boolean isLocalNodePrimaryOwner = clusteringDependentLogic.localNodeIsPrimaryOwner(key);
-         for (ListenerInvocation listener : cacheEntryPassivatedListeners) listener.invoke(e, isLocalNodePrimaryOwner);
+         notifyKeyedListeners(cacheEntryPassivatedListeners, CACHE_ENTRY_PASSIVATED, key, value, null, false, pre, null, false);
       }
    }
 
@@ -437,4 +406,14 @@ public void addListener(Object listener, KeyFilter filter, ClassLoader classLoad
    public void addListener(Object listener, KeyFilter filter) {
       validateAndAddListenerInvocation(listener, filter, null);
    }
+
+   @Override
+   public void addListener(Object listener, KeyValueFilter<?, ?> filter, Converter<?, ?, ?> converter, ClassLoader classLoader) {
+      validateAndAddListenerInvocation(listener, null, filter, converter, classLoader);
+   }
+
+   @Override
+   public void addListener(Object listener, KeyValueFilter<?, ?> filter, Converter<?, ?, ?> converter) {
+      validateAndAddListenerInvocation(listener, null, filter, converter, null);
+   }
 }
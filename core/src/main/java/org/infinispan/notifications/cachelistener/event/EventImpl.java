@@ -21,7 +21,7 @@
 @NotThreadSafe
 public class EventImpl<K, V> implements CacheEntryActivatedEvent, CacheEntryCreatedEvent, CacheEntriesEvictedEvent, CacheEntryLoadedEvent, CacheEntryModifiedEvent,
                                         CacheEntryPassivatedEvent, CacheEntryRemovedEvent, CacheEntryVisitedEvent, TransactionCompletedEvent, TransactionRegisteredEvent,
-                                  CacheEntryInvalidatedEvent, DataRehashedEvent, TopologyChangedEvent, CacheEntryEvictedEvent {
+                                  CacheEntryInvalidatedEvent, DataRehashedEvent, TopologyChangedEvent, CacheEntryEvictedEvent, Cloneable {
    private boolean pre = false; // by default events are after the fact
    private Cache<K, V> cache;
    private K key;
@@ -46,6 +46,16 @@ public static <K, V> EventImpl<K, V> createEvent(Cache<K, V> cache, Type type) {
       return e;
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public EventImpl<K, V> clone() {
+      try {
+         return (EventImpl<K, V>) super.clone();
+      } catch (CloneNotSupportedException e) {
+         throw new IllegalStateException("Should never happen!", e);
+      }
+   }
+
    @Override
    public Type getType() {
       return type;
@@ -3,6 +3,8 @@
 import org.infinispan.AdvancedCache;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commons.util.InfinispanCollections;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.configuration.cache.ClusterLoaderConfiguration;
 import org.infinispan.container.entries.InternalCacheValue;
 import org.infinispan.context.Flag;
@@ -20,17 +22,31 @@
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.topology.CacheTopology;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Cache loader that consults other members in the cluster for values. A <code>remoteCallTimeout</code> property is
  * required, a <code>long</code> that specifies in milliseconds how long to wait for results before returning a null.
+ * <p/>
+ * If a <code>staggerDelay</code> is configured, a key is first requested from its most likely owner only, and the other
+ * members are asked for it if that owner doesn't have it or doesn't respond in time, so that the cost of a lookup
+ * doesn't grow with the size of the cluster.
  *
  * @author Mircea.Markus@jboss.com
  */
@@ -38,7 +54,10 @@ public class ClusterLoader implements CacheLoader {
    private static final Log log = LogFactory.getLog(ClusterLoader.class);
 
    private RpcManager rpcManager;
+   private StateTransferManager stateTransferManager;
    private AdvancedCache<?, ?> cache;
+   private volatile Address lastResponder;
+   private volatile long averageResponseNanos;
 
    private ClusterLoaderConfiguration configuration;
    private InitializationContext ctx;
@@ -48,6 +67,7 @@ public void init(InitializationContext ctx) {
       this.ctx = ctx;
       cache = ctx.getCache().getAdvancedCache();
       rpcManager = cache.getRpcManager();
+      stateTransferManager = cache.getComponentRegistry().getComponent(StateTransferManager.class);
       this.configuration = ctx.getConfiguration();
    }
 
@@ -55,11 +75,55 @@ public void init(InitializationContext ctx) {
    public MarshalledEntry load(Object key) throws PersistenceException {
       if (!(isCacheReady() && isLocalCall())) return null;
 
-      ClusteredGetCommand clusteredGetCommand = new ClusteredGetCommand(
+      if (configuration.staggerDelay() > 0) {
+         StaggeredLookup lookup = new StaggeredLookup(key);
+         lookup.awaitLikelyOwner(System.nanoTime() + staggerDelayNanos());
+         return lookup.result();
+      }
+      return toMarshalledEntry(key, doRemoteCall(buildClusteredGetCommand(key)));
+   }
+
+   /**
+    * Loads several keys from the other members. If a stagger delay is configured, the keys are requested from their
+    * most likely owners concurrently, and the keys they didn't return are then requested from the other members.
+    *
+    * @return the entries that were found, by key
+    */
+   public Map<Object, MarshalledEntry> loadAll(Collection<?> keys) throws PersistenceException {
+      Map<Object, MarshalledEntry> entries = new HashMap<Object, MarshalledEntry>();
+      if (!(isCacheReady() && isLocalCall())) return entries;
+
+      if (configuration.staggerDelay() > 0) {
+         List<StaggeredLookup> lookups = new ArrayList<StaggeredLookup>(keys.size());
+         for (Object key : keys) {
+            lookups.add(new StaggeredLookup(key));
+         }
+         // all the lookups share the same deadline for their first phase
+         long deadline = System.nanoTime() + staggerDelayNanos();
+         for (StaggeredLookup lookup : lookups) {
+            lookup.awaitLikelyOwner(deadline);
+         }
+         for (StaggeredLookup lookup : lookups) {
+            MarshalledEntry entry = lookup.result();
+            if (entry != null) entries.put(lookup.key, entry);
+         }
+      } else {
+         for (Object key : keys) {
+            MarshalledEntry entry = toMarshalledEntry(key, doRemoteCall(buildClusteredGetCommand(key)));
+            if (entry != null) entries.put(key, entry);
+         }
+      }
+      return entries;
+   }
+
+   private ClusteredGetCommand buildClusteredGetCommand(Object key) {
+      return new ClusteredGetCommand(
             key, cache.getName(), InfinispanCollections.<Flag>emptySet(), false, null,
             cache.getCacheConfiguration().dataContainer().keyEquivalence());
+   }
 
-      Collection<Response> responses = doRemoteCall(clusteredGetCommand);
+   private MarshalledEntry toMarshalledEntry(Object key, Map<Address, Response> responseMap) {
+      Collection<Response> responses = responseMap.values();
       if (responses.isEmpty()) return null;
 
       Response response;
@@ -77,15 +141,18 @@ public MarshalledEntry load(Object key) throws PersistenceException {
 
       if (response.isSuccessful() && response instanceof SuccessfulResponse) {
          InternalCacheValue value = (InternalCacheValue) ((SuccessfulResponse) response).getResponseValue();
-         return value == null ? null :
-               ctx.getMarshalledEntryFactory().newMarshalledEntry(key, value.getValue(), null);
+         if (value == null) return null;
+         // remember who had the value, to ask it first next time
+         for (Map.Entry<Address, Response> e : responseMap.entrySet()) {
+            if (response.equals(e.getValue())) lastResponder = e.getKey();
+         }
+         return ctx.getMarshalledEntryFactory().newMarshalledEntry(key, value.getValue(), null);
       }
 
       log.unknownResponsesFromRemoteCache(responses);
       throw new PersistenceException("Unknown responses");
    }
 
-
    @Override
    public boolean contains(Object key) {
       return load(key) != null;
@@ -101,23 +168,154 @@ public void stop() {
       //nothing to do here
    }
 
-   private Collection<Response> doRemoteCall(ClusteredGetCommand clusteredGetCommand) throws PersistenceException {
+   private Map<Address, Response> doRemoteCall(ClusteredGetCommand clusteredGetCommand) throws PersistenceException {
+      return doRemoteCall(clusteredGetCommand, null);
+   }
+
+   /**
+    * Asks all the members, except the given one, for the value of a key.
+    */
+   private Map<Address, Response> doRemoteCall(ClusteredGetCommand clusteredGetCommand, Address excluded) throws PersistenceException {
       Set<Address> members = new HashSet<Address>(rpcManager.getTransport().getMembers());
       Address self = rpcManager.getTransport().getAddress();
+      Collection<Address> recipients = null;
+      if (excluded != null) {
+         members.remove(excluded);
+         members.remove(self);
+         if (members.isEmpty()) return InfinispanCollections.emptyMap();
+         recipients = members;
+      }
       ResponseFilter filter = new ClusteredGetResponseValidityFilter(members, self);
       try {
          RpcOptions options = rpcManager.getRpcOptionsBuilder(ResponseMode.WAIT_FOR_VALID_RESPONSE)
                .timeout(configuration.remoteCallTimeout(), TimeUnit.MILLISECONDS).responseFilter(filter).build();
-         return rpcManager.invokeRemotely(null, clusteredGetCommand, options).values();
+         return rpcManager.invokeRemotely(recipients, clusteredGetCommand, options);
       } catch (Exception e) {
          log.errorDoingRemoteCall(e);
          throw new PersistenceException(e);
       }
    }
 
+   /**
+    * @return the delay after which the other members are asked for a key, twice the average response time of the most
+    *         likely owners, but no more than the configured stagger delay
+    */
+   private long staggerDelayNanos() {
+      long maxDelay = TimeUnit.MILLISECONDS.toNanos(configuration.staggerDelay());
+      long average = averageResponseNanos;
+      return average == 0 ? maxDelay : Math.min(maxDelay, 2 * average);
+   }
+
+   private void recordResponseTime(long responseNanos) {
+      long average = averageResponseNanos;
+      // exponential moving average, concurrent updates may be lost
+      averageResponseNanos = average == 0 ? responseNanos : average + (responseNanos - average) / 8;
+   }
+
+   /**
+    * Finds the member most likely to have the value of a key: its primary owner if the cache has a consistent hash,
+    * otherwise the member that had the last value found.
+    *
+    * @return the member, or {@code null} if no member other than the local node is known to be likely to have it
+    */
+   private Address findLikelyOwner(Object key, Address self, List<Address> members) {
+      CacheTopology cacheTopology = stateTransferManager != null ? stateTransferManager.getCacheTopology() : null;
+      if (cacheTopology != null) {
+         for (Address owner : cacheTopology.getReadConsistentHash().locateOwners(key)) {
+            if (!owner.equals(self) && members.contains(owner)) return owner;
+         }
+      }
+      Address responder = lastResponder;
+      if (responder != null && !responder.equals(self) && members.contains(responder)) return responder;
+      return null;
+   }
+
+   /**
+    * @return {@code true} if the owners of the key have its value, so that it doesn't need to be requested from the
+    *         other members if the owner doesn't have it
+    */
+   private boolean isOwnerAuthoritative(Object key, Address owner) {
+      CacheTopology cacheTopology = stateTransferManager != null ? stateTransferManager.getCacheTopology() : null;
+      // while a rebalance is in progress, the new owners may not have received the value yet
+      return cacheTopology != null && cacheTopology.getPendingCH() == null
+            && cacheTopology.getReadConsistentHash().isKeyLocalToNode(owner, key);
+   }
+
+   /**
+    * Requests a key from its most likely owner, and from the other members only if that owner doesn't have it or
+    * doesn't respond before a deadline.
+    */
+   private class StaggeredLookup {
+      final Object key;
+      final ClusteredGetCommand command;
+      final Address likelyOwner;
+      final NotifyingFuture<Response> future;
+      MarshalledEntry entry;
+      boolean done;
+
+      StaggeredLookup(Object key) {
+         this.key = key;
+         this.command = buildClusteredGetCommand(key);
+         this.likelyOwner = findLikelyOwner(key, rpcManager.getAddress(), rpcManager.getTransport().getMembers());
+         if (likelyOwner != null) {
+            RpcOptions options = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS)
+                  .timeout(configuration.remoteCallTimeout(), TimeUnit.MILLISECONDS).build();
+            final long start = System.nanoTime();
+            future = rpcManager.invokeRemotelyAsync(likelyOwner, command, options);
+            future.attachListener(new FutureListener<Response>() {
+               @Override
+               public void futureDone(Future<Response> f) {
+                  recordResponseTime(System.nanoTime() - start);
+               }
+            });
+         } else {
+            future = null;
+         }
+      }
+
+      void awaitLikelyOwner(long deadline) {
+         if (future == null) return;
+         try {
+            Response response = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            // any other response means that the owner could not look up the key, e.g. because it is stopping
+            if (response instanceof SuccessfulResponse) {
+               entry = toMarshalledEntry(key, Collections.singletonMap(likelyOwner, response));
+               done = entry != null || isOwnerAuthoritative(key, likelyOwner);
+            }
+         } catch (TimeoutException e) {
+            // the owner is slower than usual, ask the other members as well
+            log.tracef("No response for key %s from %s before the stagger delay", key, likelyOwner);
+         } catch (ExecutionException e) {
+            log.tracef(e.getCause(), "Could not load key %s from %s", key, likelyOwner);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException(e);
+         }
+      }
+
+      MarshalledEntry result() {
+         if (done) return entry;
+         if (likelyOwner == null) return toMarshalledEntry(key, doRemoteCall(command));
+
+         entry = toMarshalledEntry(key, doRemoteCall(command, likelyOwner));
+         if (entry == null && future.isDone()) {
+            // the likely owner may have responded while the others were asked
+            try {
+               Response response = future.get();
+               if (response instanceof SuccessfulResponse)
+                  entry = toMarshalledEntry(key, Collections.singletonMap(likelyOwner, response));
+            } catch (Exception e) {
+               log.tracef(e, "Could not load key %s from %s", key, likelyOwner);
+            }
+         }
+         return entry;
+      }
+   }
+
    private boolean isLocalCall() {
-      InvocationContext invocationContext = cache.getInvocationContextContainer().getInvocationContext(false);
-      return invocationContext.isOriginLocal();
+      // a batch load may be requested outside of an invocation
+      InvocationContext invocationContext = cache.getInvocationContextContainer().getInvocationContext(true);
+      return invocationContext == null || invocationContext.isOriginLocal();
    }
 
    /**
@@ -0,0 +1,224 @@
+package org.infinispan.persistence.manager;
+
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.util.concurrent.WithinThreadExecutor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A counting Bloom filter of the keys of a store, which tells when a key is definitely not in the store.
+ * <p/>
+ * Each key is mapped to a few 4-bit counters, which are incremented when the key is added and decremented when it is
+ * removed, so the filter never reports a key as missing while at least one of its additions hasn't been matched by a
+ * removal. The filter can thus only be kept in sync with a store if a key is added before being written and removed
+ * only after it was actually deleted from the store. A counter that overflows is never decremented again.
+ * <p/>
+ * The writes and deletes of a key must hold its lock, so that the writer can check whether the key is already in the
+ * store and the filter counts every key only once. Once the filter counts more keys than it was sized for, it is
+ * rebuilt with twice as many counters from the keys of the store.
+ *
+ * @since 6.0
+ */
+class NegativeLookupFilter {
+
+   private static final int COUNTERS_PER_KEY = 10; // about 1% of false positives with 4 hash functions
+   private static final int NUM_HASHES = 4;
+   private static final int MIN_COUNTERS = 1 << 12;
+   private static final int MAX_COUNTERS = 1 << 27; // 64 MB
+   private static final long MAX_COUNT = 0xF;
+   private static final int NUM_KEY_LOCKS = 256;
+
+   private final Equivalence<Object> keyEquivalence;
+   private final ReentrantLock[] keyLocks = new ReentrantLock[NUM_KEY_LOCKS];
+   // the key locks are shared, and the rebuild lock is exclusive, while publishing and replacing the counters
+   private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+   private final AtomicBoolean rebuilding = new AtomicBoolean();
+   // the number of keys added and not removed
+   private final AtomicInteger keys = new AtomicInteger();
+   private volatile Counters counters;
+   // the counters being built from the store, which receive the additions as well
+   private volatile Counters nextCounters;
+
+   NegativeLookupFilter(Equivalence<Object> keyEquivalence, int expectedKeys) {
+      this.keyEquivalence = keyEquivalence;
+      this.counters = new Counters(expectedKeys);
+      for (int i = 0; i < NUM_KEY_LOCKS; i++) {
+         keyLocks[i] = new ReentrantLock();
+      }
+   }
+
+   void lock(Object key) {
+      rebuildLock.readLock().lock();
+      keyLock(key).lock();
+   }
+
+   void unlock(Object key) {
+      keyLock(key).unlock();
+      rebuildLock.readLock().unlock();
+   }
+
+   void add(Object key) {
+      int h1 = hash(keyEquivalence.hashCode(key));
+      counters.add(h1);
+      Counters next = nextCounters;
+      if (next != null)
+         next.add(h1);
+      keys.incrementAndGet();
+   }
+
+   /**
+    * The counters being built don't see the removals, as they may not have counted the key yet. The key may thus be
+    * reported as present until the next rebuild.
+    */
+   void remove(Object key) {
+      counters.remove(hash(keyEquivalence.hashCode(key)));
+      keys.decrementAndGet();
+   }
+
+   /**
+    * @return false if the key is definitely not in the store
+    */
+   boolean mightContain(Object key) {
+      return counters.mightContain(hash(keyEquivalence.hashCode(key)));
+   }
+
+   /**
+    * @return true if the filter counts more keys than it was sized for, and the caller is in charge of rebuilding it
+    */
+   boolean startRebuild() {
+      Counters current = counters;
+      return keys.get() > current.capacity() && current.numCounters() < MAX_COUNTERS && rebuilding.compareAndSet(false, true);
+   }
+
+   /**
+    * Replaces the counters with counters sized for twice the number of keys, built from the keys of the store.
+    */
+   void rebuild(AdvancedCacheLoader loader) {
+      try {
+         final Counters next = new Counters(2 * keys.get());
+         rebuildLock.writeLock().lock();
+         try {
+            // the writes in progress, which didn't add their key to the new counters, are complete: the store has it
+            nextCounters = next;
+         } finally {
+            rebuildLock.writeLock().unlock();
+         }
+         loader.process(null, new AdvancedCacheLoader.CacheLoaderTask() {
+            @Override
+            public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext taskContext) {
+               next.add(hash(keyEquivalence.hashCode(me.getKey())));
+            }
+         }, new WithinThreadExecutor(), false, false);
+         rebuildLock.writeLock().lock();
+         try {
+            counters = next;
+         } finally {
+            rebuildLock.writeLock().unlock();
+         }
+      } finally {
+         nextCounters = null;
+         rebuilding.set(false);
+      }
+   }
+
+   int numCounters() {
+      return counters.numCounters();
+   }
+
+   private ReentrantLock keyLock(Object key) {
+      return keyLocks[hash(keyEquivalence.hashCode(key)) >>> 24];
+   }
+
+   private static int hash(int h) {
+      // the finalizer of MurmurHash3, so that all the bits of the hash code affect the lower ones
+      h ^= h >>> 16;
+      h *= 0x85ebca6b;
+      h ^= h >>> 13;
+      h *= 0xc2b2ae35;
+      h ^= h >>> 16;
+      return h;
+   }
+
+   private static final class Counters {
+      // 16 counters per word
+      private final AtomicLongArray words;
+      private final int counterMask;
+
+      Counters(int expectedKeys) {
+         long counters = Math.min(Math.max((long) expectedKeys * COUNTERS_PER_KEY, MIN_COUNTERS), MAX_COUNTERS);
+         int numCounters = (int) Long.highestOneBit(counters - 1) << 1;
+         this.words = new AtomicLongArray(numCounters >>> 4);
+         this.counterMask = numCounters - 1;
+      }
+
+      int numCounters() {
+         return counterMask + 1;
+      }
+
+      int capacity() {
+         return numCounters() / COUNTERS_PER_KEY;
+      }
+
+      void add(int h1) {
+         // an odd stride visits distinct counters, as their number is a power of 2
+         int h2 = hash(h1) | 1;
+         for (int i = 0; i < NUM_HASHES; i++) {
+            increment((h1 + i * h2) & counterMask);
+         }
+      }
+
+      void remove(int h1) {
+         int h2 = hash(h1) | 1;
+         for (int i = 0; i < NUM_HASHES; i++) {
+            decrement((h1 + i * h2) & counterMask);
+         }
+      }
+
+      boolean mightContain(int h1) {
+         int h2 = hash(h1) | 1;
+         for (int i = 0; i < NUM_HASHES; i++) {
+            int counter = (h1 + i * h2) & counterMask;
+            if (((words.get(counter >>> 4) >>> shift(counter)) & MAX_COUNT) == 0)
+               return false;
+         }
+         return true;
+      }
+
+      private void increment(int counter) {
+         int word = counter >>> 4;
+         int shift = shift(counter);
+         while (true) {
+            long bits = words.get(word);
+            // an overflowing counter doesn't know how many keys it counts any more, so it stays at the maximum
+            if (((bits >>> shift) & MAX_COUNT) == MAX_COUNT)
+               return;
+            if (words.compareAndSet(word, bits, bits + (1L << shift)))
+               return;
+         }
+      }
+
+      private void decrement(int counter) {
+         int word = counter >>> 4;
+         int shift = shift(counter);
+         while (true) {
+            long bits = words.get(word);
+            long count = (bits >>> shift) & MAX_COUNT;
+            if (count == 0 || count == MAX_COUNT)
+               return;
+            if (words.compareAndSet(word, bits, bits - (1L << shift)))
+               return;
+         }
+      }
+
+      private static int shift(int counter) {
+         return (counter & 0xF) << 2;
+      }
+   }
+}
@@ -51,6 +51,11 @@ public interface PersistenceManager extends Lifecycle {
 
    void writeToAllStores(MarshalledEntry marshalledEntry, boolean skipSharedStores);
 
+   /**
+    * Writes all the given entries to each store in turn, acquiring the stores only once for the whole batch.
+    */
+   void writeBatchToAllStores(Collection<MarshalledEntry> marshalledEntries, boolean skipSharedStores);
+
    /**
     * Returns the store one configured with fetch persistent state, or null if none exist.
     */
@@ -3,14 +3,18 @@
 import org.infinispan.AdvancedCache;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.configuration.ConfigurationFor;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.commons.io.ByteBufferFactory;
 import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.container.entries.ImmortalCacheEntry;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
+import org.infinispan.context.InvocationContext;
 import org.infinispan.context.InvocationContextContainer;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
@@ -48,8 +52,13 @@
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -77,6 +86,12 @@ public class PersistenceManagerImpl implements PersistenceManager {
 
    private final ReadWriteLock storesMutex = new ReentrantReadWriteLock();
    private final Map<Object, StoreConfiguration> configMap = new HashMap<Object, StoreConfiguration>();
+   // the loader and the writer of a filtered store share its filter
+   private final Map<Object, NegativeLookupFilter> lookupFilters = new HashMap<Object, NegativeLookupFilter>();
+   private final Map<CacheWriter, AdvancedCacheLoader> lookupFilterLoaders = new HashMap<CacheWriter, AdvancedCacheLoader>();
+   // loaders may depend on the origin of the invocation, so local and remote loads are never coalesced
+   private ConcurrentMap<Object, FutureTask<MarshalledEntry>> pendingLocalLoads;
+   private ConcurrentMap<Object, FutureTask<MarshalledEntry>> pendingRemoteLoads;
 
 
    /**
@@ -106,6 +121,10 @@ public void inject(AdvancedCache<Object, Object> cache, @ComponentName(CACHE_MAR
    @Override
    @Start(priority = 10)
    public void start() {
+      pendingLocalLoads = CollectionFactory.makeConcurrentMap(configuration.dataContainer().keyEquivalence(),
+                                                              AnyEquivalence.<FutureTask<MarshalledEntry>>getInstance());
+      pendingRemoteLoads = CollectionFactory.makeConcurrentMap(configuration.dataContainer().keyEquivalence(),
+                                                               AnyEquivalence.<FutureTask<MarshalledEntry>>getInstance());
       enabled = configuration.persistence().usingStores();
       if (!enabled)
          return;
@@ -146,6 +165,9 @@ public void start() {
                   }
                }
             }
+
+            if (configuration.persistence().negativeLookupFilter())
+               createLookupFilters();
          } finally {
             if (xaTx != null) {
                transactionManager.resume(xaTx);
@@ -234,14 +256,19 @@ public void disableStore(String storeType) {
             Iterator<CacheLoader> clIt = loaders.iterator();
             while (clIt.hasNext()) {
                CacheLoader l = clIt.next();
-               if (undelegate(l).getClass().getName().equals(storeType))
+               if (undelegate(l).getClass().getName().equals(storeType)) {
                   clIt.remove();
+                  lookupFilters.remove(l);
+               }
             }
             Iterator<CacheWriter> cwIt = writers.iterator();
             while (cwIt.hasNext()) {
                CacheWriter w = cwIt.next();
-               if (undelegate(w).getClass().getName().equals(storeType))
+               if (undelegate(w).getClass().getName().equals(storeType)) {
                   cwIt.remove();
+                  lookupFilters.remove(w);
+                  lookupFilterLoaders.remove(w);
+               }
             }
          } finally {
             storesMutex.writeLock().unlock();
@@ -362,9 +389,10 @@ public boolean activate(Object key) {
          for (CacheWriter w : writers) {
             StoreConfiguration conf = configMap.get(w);
             if (!conf.shared()) {
-               activated = w.delete(key);
+               activated = deleteFromStore(w, key);
             }
          }
+         detachPendingLoads(key);
          return activated;
       } finally {
          storesMutex.readLock().unlock();
@@ -380,9 +408,13 @@ public void clearAllStores(boolean skipSharedStores) {
             if (w instanceof AdvancedCacheWriter) {
                if (skipSharedStores && configMap.get(w).shared())
                   continue;
+               // the filter keeps counting the cleared keys: a write racing with the clear may have added its key
+               // before the clear, so the filter can't be reset without possibly hiding that key
                ((AdvancedCacheWriter) w).clear();
             }
          }
+         pendingLocalLoads.clear();
+         pendingRemoteLoads.clear();
       } finally {
          storesMutex.readLock().unlock();
       }
@@ -396,8 +428,9 @@ public boolean deleteFromAllStores(Object key, boolean skipSharedStore) {
          for (CacheWriter w : writers) {
             if (skipSharedStore && configMap.get(w).shared())
                continue;
-            removed |= w.delete(key);
+            removed |= deleteFromStore(w, key);
          }
+         detachPendingLoads(key);
          return removed;
       } finally {
          storesMutex.readLock().unlock();
@@ -419,14 +452,72 @@ public void processOnAllStores(AdvancedCacheLoader.KeyFilter keyFilter, Advanced
       }
    }
 
+   /**
+    * Concurrent loads of the same key share a single read of the stores, if they have the same origin. Writes and
+    * deletes detach the read in progress, so that the loads starting after them read the stores again.
+    */
    @Override
-   public MarshalledEntry loadFromAllStores(Object key) {
+   public MarshalledEntry loadFromAllStores(final Object key) {
+      FutureTask<MarshalledEntry> load = new FutureTask<MarshalledEntry>(new Callable<MarshalledEntry>() {
+         @Override
+         public MarshalledEntry call() throws Exception {
+            return loadFromStores(key);
+         }
+      });
+      ConcurrentMap<Object, FutureTask<MarshalledEntry>> pendingLoads = pendingLoads();
+      FutureTask<MarshalledEntry> pendingLoad = pendingLoads.putIfAbsent(key, load);
+      if (pendingLoad == null) {
+         try {
+            load.run();
+         } finally {
+            pendingLoads.remove(key, load);
+         }
+         pendingLoad = load;
+      } else if (log.isTraceEnabled()) {
+         log.tracef("Waiting for the pending load of key %s", key);
+      }
+
+      try {
+         return pendingLoad.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new PersistenceException(e);
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof RuntimeException)
+            throw (RuntimeException) cause;
+         if (cause instanceof Error)
+            throw (Error) cause;
+         throw new PersistenceException(cause);
+      }
+   }
+
+   private ConcurrentMap<Object, FutureTask<MarshalledEntry>> pendingLoads() {
+      // a load may be requested outside of an invocation
+      InvocationContext ctx = icc.getInvocationContext(true);
+      return ctx == null || ctx.isOriginLocal() ? pendingLocalLoads : pendingRemoteLoads;
+   }
+
+   private void detachPendingLoads(Object key) {
+      pendingLocalLoads.remove(key);
+      pendingRemoteLoads.remove(key);
+   }
+
+   private MarshalledEntry loadFromStores(Object key) {
       storesMutex.readLock().lock();
       try {
          for (CacheLoader l : loaders) {
+            NegativeLookupFilter filter = lookupFilters.get(l);
+            if (filter != null && !filter.mightContain(key))
+               continue;
             MarshalledEntry load = l.load(key);
-            if (load != null)
+            if (load != null) {
+               // the entry may be shared by several loads: unmarshall it before publishing it, as it does that lazily
+               load.getKey();
+               load.getValue();
+               load.getMetadata();
                return load;
+            }
          }
          return null;
       } finally {
@@ -441,7 +532,29 @@ public void writeToAllStores(MarshalledEntry marshalledEntry, boolean skipShared
          for (CacheWriter w : writers) {
             if (skipSharedStores && configMap.get(w).shared())
                continue;
-            w.write(marshalledEntry);
+            writeToStore(w, marshalledEntry);
+         }
+         detachPendingLoads(marshalledEntry.getKey());
+      } finally {
+         storesMutex.readLock().unlock();
+      }
+   }
+
+   @Override
+   public void writeBatchToAllStores(Collection<MarshalledEntry> marshalledEntries, boolean skipSharedStores) {
+      if (marshalledEntries.isEmpty())
+         return;
+      storesMutex.readLock().lock();
+      try {
+         for (CacheWriter w : writers) {
+            if (skipSharedStores && configMap.get(w).shared())
+               continue;
+            for (MarshalledEntry marshalledEntry : marshalledEntries) {
+               writeToStore(w, marshalledEntry);
+            }
+         }
+         for (MarshalledEntry marshalledEntry : marshalledEntries) {
+            detachPendingLoads(marshalledEntry.getKey());
          }
       } finally {
          storesMutex.readLock().unlock();
@@ -540,6 +653,106 @@ private void createLoadersAndWriters() {
    }
 
 
+   private void createLookupFilters() {
+      Equivalence<Object> keyEquivalence = configuration.dataContainer().keyEquivalence();
+      int expectedKeys = configuration.eviction().strategy().isEnabled() ? configuration.eviction().maxEntries() : 0;
+      for (CacheLoader l : loaders) {
+         StoreConfiguration cfg = configMap.get(l);
+         // keys may be written to shared and singleton stores by other nodes, and read only stores aren't written at all
+         if (!(l instanceof AdvancedCacheLoader) || cfg.shared() || cfg.singletonStore().enabled() || cfg.ignoreModifications())
+            continue;
+         CacheWriter writer = null;
+         for (CacheWriter w : writers) {
+            if (configMap.get(w) == cfg)
+               writer = w;
+         }
+         if (writer == null)
+            continue;
+
+         long start = timeService.time();
+         AdvancedCacheLoader loader = (AdvancedCacheLoader) l;
+         final NegativeLookupFilter filter = new NegativeLookupFilter(keyEquivalence, Math.max(loader.size(), expectedKeys));
+         loader.process(null, new AdvancedCacheLoader.CacheLoaderTask() {
+            @Override
+            public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext taskContext) {
+               filter.add(me.getKey());
+            }
+         }, new WithinThreadExecutor(), false, false);
+         lookupFilters.put(l, filter);
+         lookupFilters.put(writer, filter);
+         lookupFilterLoaders.put(writer, loader);
+         log.debugf("Built the lookup filter of store %s in %s", undelegate(l).getClass().getName(),
+                    Util.prettyPrintTime(timeService.timeDuration(start, MILLISECONDS)));
+      }
+   }
+
+   /**
+    * Adds the key to the lookup filter of the store, if any, before writing it. An overwrite doesn't add the key again,
+    * so that a single delete makes it missing: this costs a read of the store when the filter already reports the key.
+    */
+   private void writeToStore(CacheWriter writer, MarshalledEntry marshalledEntry) {
+      NegativeLookupFilter filter = lookupFilters.get(writer);
+      if (filter == null) {
+         writer.write(marshalledEntry);
+         return;
+      }
+      AdvancedCacheLoader loader = lookupFilterLoaders.get(writer);
+      Object key = marshalledEntry.getKey();
+      filter.lock(key);
+      try {
+         if (!filter.mightContain(key) || !loader.contains(key))
+            filter.add(key);
+         writer.write(marshalledEntry);
+      } finally {
+         filter.unlock(key);
+      }
+      if (filter.startRebuild())
+         rebuildLookupFilter(filter, loader);
+   }
+
+   private boolean deleteFromStore(CacheWriter writer, Object key) {
+      NegativeLookupFilter filter = lookupFilters.get(writer);
+      if (filter == null)
+         return writer.delete(key);
+      filter.lock(key);
+      try {
+         boolean deleted = writer.delete(key);
+         // async writers report every delete as successful, even if the key wasn't in the store
+         if (deleted && !(writer instanceof AsyncCacheWriter))
+            filter.remove(key);
+         return deleted;
+      } finally {
+         filter.unlock(key);
+      }
+   }
+
+   /**
+    * Rebuilds a filter which counts more keys than it was sized for, in the background.
+    */
+   private void rebuildLookupFilter(final NegativeLookupFilter filter, final AdvancedCacheLoader loader) {
+      Runnable rebuild = new Runnable() {
+         @Override
+         public void run() {
+            storesMutex.readLock().lock();
+            try {
+               long start = timeService.time();
+               filter.rebuild(loader);
+               log.debugf("Rebuilt the lookup filter of store %s with %d counters in %s", undelegate(loader).getClass().getName(),
+                          filter.numCounters(), Util.prettyPrintTime(timeService.timeDuration(start, MILLISECONDS)));
+            } catch (RuntimeException e) {
+               log.debugf(e, "Failed to rebuild the lookup filter of store %s", undelegate(loader).getClass().getName());
+            } finally {
+               storesMutex.readLock().unlock();
+            }
+         }
+      };
+      try {
+         persistenceExecutor.execute(rebuild);
+      } catch (RejectedExecutionException e) {
+         rebuild.run();
+      }
+   }
+
    protected AsyncCacheWriter createAsyncWriter(CacheWriter writer) {
       return (writer instanceof AdvancedCacheWriter) ?
             new AdvancedAsyncCacheWriter(writer) : new AsyncCacheWriter(writer);
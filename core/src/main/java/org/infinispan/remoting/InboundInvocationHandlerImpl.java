@@ -4,6 +4,7 @@
 import org.infinispan.commands.CancellationService;
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.read.DistributedExecuteCommand;
 import org.infinispan.commands.TopologyAffectedCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
@@ -14,11 +15,13 @@
 import org.infinispan.commands.tx.totalorder.TotalOrderRollbackCommand;
 import org.infinispan.commands.tx.totalorder.TotalOrderVersionedCommitCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.concurrent.jdk8backported.ForkJoinPool;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Stop;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.interceptors.totalorder.RetryPrepareException;
@@ -38,6 +41,7 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -55,6 +59,7 @@ public class InboundInvocationHandlerImpl implements InboundInvocationHandler {
    private CancellationService cancelService;
    private BlockingTaskAwareExecutorService remoteCommandsExecutor;
    private BlockingTaskAwareExecutorService totalOrderExecutorService;
+   private volatile ExecutorService subtaskExecutor;
 
    @Inject
    public void inject(GlobalComponentRegistry gcr, Transport transport,
@@ -158,7 +163,41 @@ public void run() {
          final StateTransferLock stateTransferLock = cr.getStateTransferLock();
          final int commandTopologyId = extractCommandTopologyId(cmd);
 
-         if (!preserveOrder && cmd.canBlock()) {
+         if (!preserveOrder && cmd instanceof DistributedExecuteCommand) {
+            // distributed executor sub-tasks run user code: they must neither wait for, nor fall back to, the threads
+            // that remote gets and the other remote commands need
+            final Runnable subtask = new Runnable() {
+               @Override
+               public void run() {
+                  Response resp;
+                  try {
+                     resp = handleInternal(cmd, cr);
+                  } catch (Throwable throwable) {
+                     log.exceptionHandlingCommand(cmd, throwable);
+                     resp = new ExceptionResponse(new CacheException("Problems invoking command.", throwable));
+                  }
+                  reply(response, resp);
+                  afterResponseSent(cmd, resp);
+               }
+            };
+            if (stateTransferLock.transactionDataReceived(commandTopologyId)) {
+               subtaskExecutor().execute(subtask);
+            } else {
+               // wait along with the other remote commands, the remote commands executor only hands the sub-task over
+               // once the transaction data is received
+               remoteCommandsExecutor.execute(new BlockingRunnable() {
+                  @Override
+                  public boolean isReady() {
+                     return stateTransferLock.transactionDataReceived(commandTopologyId);
+                  }
+
+                  @Override
+                  public void run() {
+                     subtaskExecutor().execute(subtask);
+                  }
+               });
+            }
+         } else if (!preserveOrder && cmd.canBlock()) {
             remoteCommandsExecutor.execute(new BlockingRunnable() {
                @Override
                public boolean isReady() {
@@ -196,6 +235,40 @@ public void run() {
       }
    }
 
+   /**
+    * The pool executing the sub-tasks of distributed tasks that other nodes send out of order. It has one thread per
+    * local processor, whatever the number of sub-tasks the originators keep in progress on this node.
+    * <p/>
+    * The sub-tasks don't run as {@link ForkJoinPool.ManagedBlocker}s, so the pool doesn't start compensation threads
+    * when they block, e.g. on a remote get: a blocked sub-task keeps its thread, and the other sub-tasks queue up until
+    * it completes. This bounds the number of sub-tasks running concurrently, which is the point of the pool, at the
+    * expense of throughput when the sub-tasks mostly wait. Infinispan never makes a sub-task wait for another sub-task
+    * running on this node, so the pool can't deadlock unless the user code does.
+    */
+   private ExecutorService subtaskExecutor() {
+      ExecutorService executor = subtaskExecutor;
+      if (executor == null) {
+         synchronized (this) {
+            executor = subtaskExecutor;
+            if (executor == null) {
+               executor = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+               subtaskExecutor = executor;
+            }
+         }
+      }
+      return executor;
+   }
+
+   @Stop
+   public void stop() {
+      synchronized (this) {
+         if (subtaskExecutor != null) {
+            subtaskExecutor.shutdownNow();
+            subtaskExecutor = null;
+         }
+      }
+   }
+
    private int extractCommandTopologyId(CacheRpcCommand cmd) {
       int commandTopologyId = -1;
       if (cmd instanceof SingleRpcCommand) {
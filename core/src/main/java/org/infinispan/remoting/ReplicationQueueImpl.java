@@ -4,13 +4,25 @@
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
+import org.infinispan.commands.write.DataWriteCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.RemoveCommand;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.configuration.cache.AsyncConfiguration;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.context.Flag;
 import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.util.logging.Log;
@@ -18,18 +30,35 @@
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A default implementation of the ReplicationQueue interface.
+ * <p/>
+ * The commands are appended to a lock-free queue, so the threads adding them don't contend with each other or with
+ * the thread flushing the queue. An unconditional put or remove of a key supersedes the put or remove of the same key,
+ * with the same flags, still waiting in the queue: only the last one is replicated, as the state of the key on the
+ * other nodes is the same.
+ * <p/>
+ * The queue is flushed periodically, when a command has been waiting in it for the configured maximum latency, and when
+ * the number of queued commands or their estimated size in bytes reaches the configured threshold. All these flushes
+ * run on the replication queue executor, so the threads adding commands don't wait for the flushes, unless the queue
+ * grows to twice the threshold: the flushes don't keep up with them then, and they flush the queue themselves.
  *
  * @author Manik Surtani
  * @version 4.2
  */
+@MBean(objectName = "ReplicationQueue", description = "Batches the asynchronous replication of commands")
 public class ReplicationQueueImpl implements ReplicationQueue {
    private static final Log log = LogFactory.getLog(ReplicationQueue.class);
 
@@ -39,9 +68,44 @@ public class ReplicationQueueImpl implements ReplicationQueue {
    private long maxElements = 500;
 
    /**
-    * Holds the replication jobs.
+    * Flush when the estimated size of the queued commands reaches this many bytes, 0 if disabled
     */
-   private final BlockingQueue<ReplicableCommand> elements = new LinkedBlockingQueue<ReplicableCommand>();
+   private long maxBytes;
+
+   /**
+    * Flush when a command has been waiting in the queue for this many milliseconds, 0 if disabled
+    */
+   private long maxLatency;
+
+   /**
+    * Holds the replication jobs, including the superseded ones.
+    */
+   private final Queue<QueuedCommand> elements = new ConcurrentLinkedQueue<QueuedCommand>();
+
+   /**
+    * The last queued command for each key that can be superseded by a later command.
+    */
+   private volatile ConcurrentMap<Object, QueuedCommand> lastCommandByKey = CollectionFactory.makeConcurrentMap();
+
+   /**
+    * The number of queued commands not superseded, and their estimated size.
+    */
+   private final AtomicInteger pendingCommands = new AtomicInteger();
+   private final AtomicLong pendingBytes = new AtomicLong();
+
+   private final AtomicLong addedCommands = new AtomicLong();
+   private final AtomicLong coalescedCommands = new AtomicLong();
+   private final AtomicLong flushes = new AtomicLong();
+   private final AtomicLong flushedCommands = new AtomicLong();
+
+   /**
+    * Set while a flush triggered by a threshold, or by the latency of the queued commands, waits to run on the executor,
+    * so that the following commands don't submit another one.
+    */
+   private final AtomicBoolean thresholdFlushPending = new AtomicBoolean();
+   private final AtomicBoolean latencyFlushPending = new AtomicBoolean();
+   private final Runnable thresholdFlush = new FlushTask(thresholdFlushPending);
+   private final Runnable latencyFlush = new FlushTask(latencyFlushPending);
 
    /**
     * For periodical replication
@@ -51,6 +115,7 @@ public class ReplicationQueueImpl implements ReplicationQueue {
    private Configuration configuration;
    private boolean enabled;
    private CommandsFactory commandsFactory;
+   private StreamingMarshaller marshaller;
    private volatile ScheduledFuture<?> scheduledFuture;
    private boolean trace;
    private String cacheName;
@@ -65,8 +130,10 @@ public boolean isEnabled() {
 
    @Inject
    public void injectDependencies(@ComponentName(KnownComponentNames.ASYNC_REPLICATION_QUEUE_EXECUTOR) ScheduledExecutorService executor,
-              RpcManager rpcManager, Configuration configuration, CommandsFactory commandsFactory, Cache cache) {
+              RpcManager rpcManager, Configuration configuration, CommandsFactory commandsFactory, Cache cache,
+              @ComponentName(KnownComponentNames.GLOBAL_MARSHALLER) StreamingMarshaller marshaller) {
       injectDependencies(executor, rpcManager, configuration, commandsFactory, cache.getName());
+      this.marshaller = marshaller;
    }
 
    public void injectDependencies(ScheduledExecutorService executor,
@@ -92,20 +159,16 @@ public void start() {
          log.tracef("Starting replication queue, with interval %d and maxElements %s", interval, maxElements);
 
       this.maxElements = asyncCfg.replQueueMaxElements();
+      // the size of the commands can only be estimated with the marshaller
+      this.maxBytes = marshaller != null ? asyncCfg.replQueueMaxBytes() : 0;
+      this.maxLatency = asyncCfg.replQueueMaxLatency();
+      this.lastCommandByKey = CollectionFactory.makeConcurrentMap(configuration.dataContainer().keyEquivalence(),
+                                                                  AnyEquivalence.<QueuedCommand>getInstance());
       // check again
       enabled = asyncCfg.useReplQueue();
       if (enabled && interval > 0) {
-         scheduledFuture = scheduledExecutor.scheduleWithFixedDelay(new Runnable() {
-            @Override
-            public void run() {
-               LogFactory.pushNDC(cacheName, trace);
-               try {
-                  flush();
-               } finally {
-                  LogFactory.popNDC(trace);
-               }
-            }
-         }, interval, interval, TimeUnit.MILLISECONDS);
+         scheduledFuture = scheduledExecutor.scheduleWithFixedDelay(new FlushTask(null), interval, interval,
+                                                                    TimeUnit.MILLISECONDS);
       }
    }
 
@@ -129,12 +192,63 @@ public void stop() {
    public void add(ReplicableCommand job) {
       if (job == null)
          throw new NullPointerException("job is null");
-      try {
-         elements.put(job);
-         if (elements.size() >= maxElements) flush();
-      } catch (InterruptedException ie) {
-         Thread.interrupted();
+      QueuedCommand queued = new QueuedCommand(job, maxBytes > 0 ? marshaller.getBufferSizePredictor(job).nextSize(job) : 0);
+      addedCommands.incrementAndGet();
+      int commands = pendingCommands.incrementAndGet();
+      long bytes = pendingBytes.addAndGet(queued.estimatedSize);
+
+      Object key = getCoalescingKey(job);
+      if (key != null) {
+         QueuedCommand previous = lastCommandByKey.put(key, queued);
+         // writes to the same key are serialized by the key lock, so the previous command was queued before this one
+         if (previous != null && previous.getFlags().equals(queued.getFlags()) && previous.take()) {
+            if (trace) log.tracef("Command %s supersedes queued command %s", job, previous.command);
+            coalescedCommands.incrementAndGet();
+            commands = pendingCommands.decrementAndGet();
+            bytes = pendingBytes.addAndGet(-previous.estimatedSize);
+         }
+      }
+      elements.add(queued);
+
+      if (commands >= maxElements || (maxBytes > 0 && bytes >= maxBytes)) {
+         if (commands >= 2 * maxElements || (maxBytes > 0 && bytes >= 2 * maxBytes)) {
+            // the flushes don't keep up, slow down the producers
+            flush();
+         } else if (thresholdFlushPending.compareAndSet(false, true)) {
+            submitFlush(thresholdFlush, thresholdFlushPending, 0);
+         }
+      } else if (maxLatency > 0 && !latencyFlushPending.get() && latencyFlushPending.compareAndSet(false, true)) {
+         // the commands queued until the flush runs wait less than this one
+         submitFlush(latencyFlush, latencyFlushPending, maxLatency);
+      }
+   }
+
+   private void submitFlush(Runnable flushTask, AtomicBoolean pending, long delay) {
+      ScheduledExecutorService executor = scheduledExecutor;
+      if (executor != null) {
+         try {
+            executor.schedule(flushTask, delay, TimeUnit.MILLISECONDS);
+            return;
+         } catch (RejectedExecutionException e) {
+            log.tracef("Replication queue executor rejected the flush, flushing in the caller thread");
+         }
+      }
+      pending.set(false);
+      flush();
+   }
+
+   /**
+    * @return the key if the command can supersede and be superseded by other commands on the same key, or {@code null}
+    */
+   private Object getCoalescingKey(ReplicableCommand command) {
+      if (command instanceof PutKeyValueCommand || command instanceof RemoveCommand) {
+         DataWriteCommand writeCommand = (DataWriteCommand) command;
+         // conditional writes and deltas depend on the previous value of the key
+         if (!writeCommand.isConditional() && !writeCommand.hasFlag(Flag.DELTA_WRITE)) {
+            return writeCommand.getKey();
+         }
       }
+      return null;
    }
 
    @Override
@@ -144,6 +258,8 @@ public synchronized int flush() {
 
       int toReplicateSize = toReplicate.size();
       if (toReplicateSize > 0) {
+         flushes.incrementAndGet();
+         flushedCommands.addAndGet(toReplicateSize);
          try {
             log.tracef("Flushing %s elements", toReplicateSize);
             MultipleRpcCommand multipleRpcCommand = commandsFactory.buildReplicateCommand(toReplicate);
@@ -162,7 +278,19 @@ public synchronized int flush() {
 
    protected List<ReplicableCommand> drainReplQueue() {
       List<ReplicableCommand> toReplicate = new LinkedList<ReplicableCommand>();
-      elements.drainTo(toReplicate);
+      QueuedCommand queued;
+      while ((queued = elements.poll()) != null) {
+         Object key = getCoalescingKey(queued.command);
+         if (key != null) {
+            lastCommandByKey.remove(key, queued);
+         }
+         // skip the commands superseded by a later command
+         if (queued.take()) {
+            pendingCommands.decrementAndGet();
+            pendingBytes.addAndGet(-queued.estimatedSize);
+            toReplicate.add(queued.command);
+         }
+      }
       return toReplicate;
    }
 
@@ -172,11 +300,115 @@ protected Configuration getConfiguration() {
 
    @Override
    public int getElementsCount() {
-      return elements.size();
+      return pendingCommands.get();
    }
 
    @Override
    public void reset() {
       elements.clear();
+      lastCommandByKey.clear();
+      pendingCommands.set(0);
+      pendingBytes.set(0);
+   }
+
+   @ManagedAttribute(
+         description = "Average number of commands replicated by a flush of the queue",
+         displayName = "Average batch size"
+   )
+   public double getAverageBatchSize() {
+      long flushCount = flushes.get();
+      return flushCount == 0 ? 0 : (double) flushedCommands.get() / flushCount;
+   }
+
+   @ManagedAttribute(
+         description = "Ratio of the queued commands that were superseded by a later command on the same key, and not replicated",
+         displayName = "Coalescing ratio"
+   )
+   public double getCoalescingRatio() {
+      long added = addedCommands.get();
+      return added == 0 ? 0 : (double) coalescedCommands.get() / added;
+   }
+
+   @ManagedAttribute(
+         description = "Number of commands superseded by a later command on the same key, and not replicated",
+         displayName = "Number of coalesced commands",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCoalescedCommands() {
+      return coalescedCommands.get();
+   }
+
+   @ManagedAttribute(
+         description = "Number of flushes which replicated at least one command",
+         displayName = "Number of flushes",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getFlushes() {
+      return flushes.get();
+   }
+
+   @ManagedAttribute(
+         description = "Number of commands waiting in the queue",
+         displayName = "Number of queued commands"
+   )
+   public int getQueuedCommands() {
+      return getElementsCount();
+   }
+
+   @ManagedOperation(
+         description = "Resets statistics gathered by this component",
+         displayName = "Reset Statistics"
+   )
+   public void resetStatistics() {
+      addedCommands.set(0);
+      coalescedCommands.set(0);
+      flushes.set(0);
+      flushedCommands.set(0);
+   }
+
+   private class FlushTask implements Runnable {
+      private final AtomicBoolean pending;
+
+      /**
+       * @param pending cleared before flushing, so that the commands queued during the flush trigger another one, or
+       *                {@code null}
+       */
+      FlushTask(AtomicBoolean pending) {
+         this.pending = pending;
+      }
+
+      @Override
+      public void run() {
+         if (pending != null) pending.set(false);
+         LogFactory.pushNDC(cacheName, trace);
+         try {
+            flush();
+         } finally {
+            LogFactory.popNDC(trace);
+         }
+      }
+   }
+
+   private static class QueuedCommand {
+      final ReplicableCommand command;
+      final int estimatedSize;
+      /**
+       * Set when the command is either drained by a flush or superseded, whichever happens first.
+       */
+      private final AtomicBoolean taken = new AtomicBoolean();
+
+      QueuedCommand(ReplicableCommand command, int estimatedSize) {
+         this.command = command;
+         this.estimatedSize = estimatedSize;
+      }
+
+      boolean take() {
+         return taken.compareAndSet(false, true);
+      }
+
+      Set<Flag> getFlags() {
+         Set<Flag> flags = ((DataWriteCommand) command).getFlags();
+         return flags != null ? flags : InfinispanCollections.<Flag>emptySet();
+      }
    }
 }
@@ -5,6 +5,7 @@
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 
 import java.util.Collection;
@@ -230,6 +231,21 @@ void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rp
    void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rpc, RpcOptions options,
                                NotifyingNotifiableFuture<Object> future);
 
+   /**
+    * Invokes an RPC call on a single member of the cluster without blocking the caller until the response is
+    * received. Unlike {@link #invokeRemotelyInFuture(java.util.Collection, org.infinispan.commands.ReplicableCommand,
+    * RpcOptions, org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture)}, no thread of the transport executor
+    * is used: the returned future is completed by the thread receiving the response.
+    *
+    * @param recipient the member to invoke the call on.
+    * @param rpc       command to execute remotely.
+    * @param options   it configures the invocation. Only synchronous response modes are supported, the response
+    *                  filter and the total order options are ignored.
+    * @return a future completed with the response of the recipient, or with the exception that prevented it from being
+    *         received.
+    */
+   NotifyingFuture<Response> invokeRemotelyAsync(Address recipient, ReplicableCommand rpc, RpcOptions options);
+
    /**
     * @return a reference to the underlying transport.
     */
@@ -28,6 +28,8 @@
 import org.infinispan.topology.CacheTopology;
 import org.infinispan.topology.LocalTopologyManager;
 import org.infinispan.util.TimeService;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -39,6 +41,7 @@
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -329,6 +332,55 @@ public Object call() throws Exception {
       futureSet.countDown();
    }
 
+   @Override
+   public NotifyingFuture<Response> invokeRemotelyAsync(Address recipient, ReplicableCommand rpc, RpcOptions options) {
+      if (trace) log.tracef("%s invoking %s asynchronously on %s with options %s", t.getAddress(), rpc, recipient, options);
+
+      if (!options.responseMode().isSynchronous())
+         throw new IllegalArgumentException("Only synchronous response modes are supported: " + options.responseMode());
+      if (!configuration.clustering().cacheMode().isClustered())
+         throw new IllegalStateException("Trying to invoke a remote command but the cache is not clustered");
+      if (!(rpc instanceof CacheRpcCommand)) {
+         rpc = cf.buildSingleRpcCommand(rpc);
+      }
+      if (rpc instanceof TopologyAffectedCommand) {
+         TopologyAffectedCommand topologyAffectedCommand = (TopologyAffectedCommand) rpc;
+         if (topologyAffectedCommand.getTopologyId() == -1) {
+            topologyAffectedCommand.setTopologyId(stateTransferManager.getCacheTopology().getTopologyId());
+         }
+      }
+      final long startTimeNanos = statisticsEnabled ? timeService.time() : 0;
+      NotifyingFuture<Response> future;
+      try {
+         future = t.invokeRemotelyAsync(recipient, rpc, options.timeUnit().toMillis(options.timeout()),
+                                        !options.fifoOrder());
+      } catch (CacheException e) {
+         log.trace("replication exception: ", e);
+         if (statisticsEnabled) replicationFailures.incrementAndGet();
+         throw e;
+      } catch (Throwable th) {
+         log.unexpectedErrorReplicating(th);
+         if (statisticsEnabled) replicationFailures.incrementAndGet();
+         throw new CacheException(th);
+      }
+      if (statisticsEnabled) {
+         future.attachListener(new FutureListener<Response>() {
+            @Override
+            public void futureDone(Future<Response> future) {
+               try {
+                  future.get();
+                  replicationCount.incrementAndGet();
+               } catch (Exception e) {
+                  replicationFailures.incrementAndGet();
+               } finally {
+                  totalReplicationTime.getAndAdd(timeService.timeDuration(startTimeNanos, TimeUnit.MILLISECONDS));
+               }
+            }
+         });
+      }
+      return future;
+   }
+
    @Override
    public Transport getTransport() {
       return t;
@@ -1,6 +1,7 @@
 package org.infinispan.remoting.transport;
 
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.rpc.ResponseFilter;
 import org.infinispan.remoting.rpc.ResponseMode;
@@ -30,6 +31,11 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
       return actual.invokeRemotely(recipients, rpcCommand, mode, timeout, usePriorityQueue, responseFilter, totalOrder, anycast);
    }
 
+   @Override
+   public NotifyingFuture<Response> invokeRemotelyAsync(Address recipient, ReplicableCommand rpcCommand, long timeout, boolean usePriorityQueue) throws Exception {
+      return actual.invokeRemotelyAsync(recipient, rpcCommand, timeout, usePriorityQueue);
+   }
+
    @Override
    public BackupResponse backupRemotely(Collection<XSiteBackup> backups, ReplicableCommand rpcCommand) throws Exception {
       return actual.backupRemotely(backups, rpcCommand);
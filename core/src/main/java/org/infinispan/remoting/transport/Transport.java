@@ -1,6 +1,7 @@
 package org.infinispan.remoting.transport;
 
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.factories.scopes.Scope;
@@ -49,6 +50,22 @@ Map<Address, Response> invokeRemotely(Collection<Address> recipients, Replicable
                                  boolean usePriorityQueue, ResponseFilter responseFilter, boolean totalOrder,
                                  boolean anycast) throws Exception;
 
+   /**
+    * Invokes an RPC call on a single remote cache, without waiting for its response. The returned future is completed
+    * by the thread receiving the response, or when the timeout expires, so no thread is blocked while the command
+    * executes remotely.
+    *
+    * @param recipient        the address to invoke the call on
+    * @param rpcCommand       the cache command to invoke
+    * @param timeout          a timeout after which the future is completed with a replication exception.
+    * @param usePriorityQueue if true, a priority queue is used to deliver messages.  May not be supported by all
+    *                         implementations.
+    * @return a future completed with the response of the recipient, which may be {@code null}.
+    * @throws Exception in the event of problems sending the command.
+    */
+   NotifyingFuture<Response> invokeRemotelyAsync(Address recipient, ReplicableCommand rpcCommand, long timeout,
+                                                 boolean usePriorityQueue) throws Exception;
+
 
    BackupResponse backupRemotely(Collection<XSiteBackup> backups, ReplicableCommand rpcCommand) throws Exception;
 
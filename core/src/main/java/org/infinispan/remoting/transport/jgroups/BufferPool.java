@@ -0,0 +1,129 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of byte arrays used to marshall commands, in size classes which are powers of 2. Arrays larger than the
+ * largest size class are not pooled.
+ *
+ * @since 6.0
+ */
+class BufferPool {
+
+   private static final int MIN_SIZE_CLASS_BITS = 9; // 512 bytes
+   private static final int MAX_SIZE_CLASS_BITS = 16; // 64 KB
+   private static final int MAX_BUFFERS_PER_SIZE_CLASS = 32;
+
+   private final SizeClass[] sizeClasses = new SizeClass[MAX_SIZE_CLASS_BITS - MIN_SIZE_CLASS_BITS + 1];
+
+   BufferPool() {
+      for (int i = 0; i < sizeClasses.length; i++) {
+         sizeClasses[i] = new SizeClass(1 << (MIN_SIZE_CLASS_BITS + i));
+      }
+   }
+
+   /**
+    * @return an array of at least the given size, pooled if it's not larger than the largest size class
+    */
+   byte[] acquire(int minSize) {
+      SizeClass sizeClass = sizeClassFor(minSize);
+      if (sizeClass == null)
+         return new byte[minSize];
+
+      byte[] buffer = sizeClass.buffers.poll();
+      if (buffer != null) {
+         sizeClass.count.decrementAndGet();
+         return buffer;
+      }
+      return new byte[sizeClass.size];
+   }
+
+   /**
+    * Returns an array to the pool. The caller must not use it afterwards.
+    */
+   void release(byte[] buffer) {
+      SizeClass sizeClass = sizeClassFor(buffer.length);
+      // only arrays acquired from the pool have exactly the size of a size class
+      if (sizeClass == null || sizeClass.size != buffer.length)
+         return;
+
+      if (sizeClass.count.incrementAndGet() <= MAX_BUFFERS_PER_SIZE_CLASS) {
+         sizeClass.buffers.offer(buffer);
+      } else {
+         sizeClass.count.decrementAndGet();
+      }
+   }
+
+   PooledOutputStream newOutputStream(int estimatedSize) {
+      return new PooledOutputStream(this, acquire(estimatedSize));
+   }
+
+   private SizeClass sizeClassFor(int size) {
+      if (size > 1 << MAX_SIZE_CLASS_BITS)
+         return null;
+      int bits = 32 - Integer.numberOfLeadingZeros(Math.max(size, 1) - 1);
+      return sizeClasses[Math.max(bits, MIN_SIZE_CLASS_BITS) - MIN_SIZE_CLASS_BITS];
+   }
+
+   private static class SizeClass {
+      final int size;
+      final Queue<byte[]> buffers = new ConcurrentLinkedQueue<byte[]>();
+      final AtomicInteger count = new AtomicInteger();
+
+      SizeClass(int size) {
+         this.size = size;
+      }
+   }
+
+   /**
+    * An output stream writing to arrays acquired from the pool: when it needs more capacity, it acquires a larger one and
+    * releases the previous one.
+    */
+   static class PooledOutputStream extends OutputStream {
+      private final BufferPool pool;
+      private byte[] buf;
+      private int count;
+
+      PooledOutputStream(BufferPool pool, byte[] buf) {
+         this.pool = pool;
+         this.buf = buf;
+      }
+
+      @Override
+      public void write(int b) {
+         ensureCapacity(count + 1);
+         buf[count++] = (byte) b;
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+         if ((off < 0) || (off > b.length) || (len < 0) ||
+               ((off + len) > b.length) || ((off + len) < 0)) {
+            throw new IndexOutOfBoundsException();
+         }
+         ensureCapacity(count + len);
+         System.arraycopy(b, off, buf, count, len);
+         count += len;
+      }
+
+      private void ensureCapacity(int minCapacity) {
+         if (minCapacity > buf.length) {
+            byte[] newBuf = pool.acquire(Math.max(minCapacity, buf.length << 1));
+            System.arraycopy(buf, 0, newBuf, 0, count);
+            pool.release(buf);
+            buf = newBuf;
+         }
+      }
+
+      byte[] getRawBuffer() {
+         return buf;
+      }
+
+      int size() {
+         return count;
+      }
+   }
+}
@@ -18,6 +18,7 @@
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.topology.CacheTopologyControlCommand;
 import org.infinispan.util.TimeService;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -48,7 +49,10 @@
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -73,6 +77,8 @@ public class CommandAwareRpcDispatcher extends RpcDispatcher {
    private final JGroupsTransport transport;
    private final GlobalComponentRegistry gcr;
    private final BackupReceiverRepository backupReceiverRepository;
+   @GuardedBy("this")
+   private ScheduledExecutorService timeoutExecutor;
 
    public CommandAwareRpcDispatcher(Channel channel,
                                     JGroupsTransport transport,
@@ -180,6 +186,64 @@ public Response call() throws Exception {
       }
    }
 
+   /**
+    * Sends the command to a single recipient, without waiting for the response. The returned future is completed by
+    * the JGroups thread receiving the response, or by the timeout task if no response is received in time.
+    */
+   public org.infinispan.commons.util.concurrent.NotifyingFuture<Response> invokeRemoteCommandAsync(
+         final Address recipient, final ReplicableCommand command, final long timeout, boolean oob) throws Exception {
+      if (trace) log.tracef("Replication task sending %s to single recipient %s asynchronously", command, recipient);
+
+      final CompletableNotifyingFuture<Response> result = new CompletableNotifyingFuture<Response>();
+      final Buffer buf = marshallCall(req_marshaller, command, true);
+      RequestOptions opts = new RequestOptions(ResponseMode.GET_ALL, timeout);
+      final NotifyingFuture<Object> request;
+      try {
+         request = sendMessageWithFuture(constructMessage(buf, recipient, oob, ResponseMode.GET_ALL,
+                                                          isRsvpCommand(command), false), opts);
+      } catch (Exception e) {
+         throw rewrapAsCacheException(e);
+      }
+      // the JGroups future only times out when someone waits on it
+      final Future<?> timeoutTask = getTimeoutExecutor().schedule(new Runnable() {
+         @Override
+         public void run() {
+            if (result.completeExceptionally(new TimeoutException(formatString("Timed out after %s waiting for a response from %s",
+                                                                              prettyPrintTime(timeout), recipient)))) {
+               request.cancel(false);
+            }
+         }
+      }, timeout, MILLISECONDS);
+      request.setListener(new FutureListener<Object>() {
+         @Override
+         public void futureDone(Future<Object> future) {
+            timeoutTask.cancel(false);
+            try {
+               Object response = future.get();
+               releaseBuffer(req_marshaller, buf);
+               if (trace) log.tracef("Response: %s", response);
+               if (response == null || transport.checkResponse(response, fromJGroupsAddress(recipient))) {
+                  result.complete((Response) response);
+               } else {
+                  result.completeExceptionally(new TimeoutException("Received an invalid response " + response + " from " + recipient));
+               }
+            } catch (ExecutionException e) {
+               Throwable cause = e.getCause();
+               if (cause instanceof SuspectedException) {
+                  result.completeExceptionally(new SuspectException("Node " + recipient + " was suspected", cause));
+               } else if (cause instanceof org.jgroups.TimeoutException) {
+                  result.completeExceptionally(new TimeoutException("Node " + recipient + " timed out", cause));
+               } else {
+                  result.completeExceptionally(rewrapAsCacheException(cause));
+               }
+            } catch (Throwable t) {
+               result.completeExceptionally(t);
+            }
+         }
+      });
+      return result;
+   }
+
    public RspList<Object> broadcastRemoteCommands(ReplicableCommand command, ResponseMode mode, long timeout,
                                                   boolean oob, RspFilter filter,
                                                   boolean asyncMarshalling, boolean ignoreLeavers, boolean totalOrder)
@@ -187,6 +251,32 @@ public RspList<Object> broadcastRemoteCommands(ReplicableCommand command, Respon
       return invokeRemoteCommands(null, command, mode, timeout, oob, filter, asyncMarshalling, ignoreLeavers, totalOrder);
    }
 
+   private synchronized ScheduledExecutorService getTimeoutExecutor() {
+      if (timeoutExecutor == null) {
+         final String threadName = "AsyncRpcTimeout," + transport.getAddress();
+         timeoutExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+               Thread th = new Thread(r, threadName);
+               th.setDaemon(true);
+               return th;
+            }
+         });
+      }
+      return timeoutExecutor;
+   }
+
+   @Override
+   public void stop() {
+      super.stop();
+      synchronized (this) {
+         if (timeoutExecutor != null) {
+            timeoutExecutor.shutdownNow();
+            timeoutExecutor = null;
+         }
+      }
+   }
+
    private boolean containsOnlyNulls(RspList<Object> l) {
       for (Rsp<Object> r : l.values()) {
          if (r.getValue() != null || !r.wasReceived() || r.wasSuspected()) return false;
@@ -326,15 +416,38 @@ protected static Message constructMessage(Buffer buf, Address recipient, boolean
    }
 
    static Buffer marshallCall(Marshaller marshaller, ReplicableCommand command) {
+      return marshallCall(marshaller, command, false);
+   }
+
+   /**
+    * @param pooled whether the command should be marshalled into a pooled buffer, to be released with {@link
+    *               #releaseBuffer(Marshaller, Buffer)} once a response is received
+    */
+   static Buffer marshallCall(Marshaller marshaller, ReplicableCommand command, boolean pooled) {
       Buffer buf;
       try {
-         buf = marshaller.objectToBuffer(command);
+         if (pooled && marshaller instanceof MarshallerAdapter) {
+            buf = ((MarshallerAdapter) marshaller).objectToPooledBuffer(command);
+         } else {
+            buf = marshaller.objectToBuffer(command);
+         }
       } catch (Exception e) {
          throw new RuntimeException("Failure to marshal argument(s)", e);
       }
       return buf;
    }
 
+   /**
+    * Releases the buffer of a message sent to a single recipient after receiving its response: the recipient has
+    * received the message, so JGroups won't need to retransmit it. If no response is received, the buffer is simply not
+    * reused.
+    */
+   static void releaseBuffer(Marshaller marshaller, Buffer buf) {
+      if (marshaller instanceof MarshallerAdapter) {
+         ((MarshallerAdapter) marshaller).releaseBuffer(buf);
+      }
+   }
+
    private static Response processSingleCall(ReplicableCommand command, long timeout,
                                              Address destination, ResponseMode mode,
                                              Marshaller marshaller, CommandAwareRpcDispatcher card, boolean oob,
@@ -349,9 +462,14 @@ private static Response processSingleCall(ReplicableCommand command, long timeou
 
       Response retval;
       Buffer buf;
-      buf = marshallCall(marshaller, command);
+      // the buffer can only be reused if we wait for the response
+      boolean pooled = mode != ResponseMode.GET_NONE;
+      buf = marshallCall(marshaller, command, pooled);
       retval = card.sendMessage(constructMessage(buf, destination, oob, mode, rsvp, false),
                                 new RequestOptions(mode, timeout));
+      if (pooled) {
+         releaseBuffer(marshaller, buf);
+      }
 
       // we only bother parsing responses if we are not in ASYNC mode.
       if (trace) log.tracef("Response: %s", retval);
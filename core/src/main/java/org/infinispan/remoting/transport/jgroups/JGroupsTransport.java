@@ -15,6 +15,7 @@
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.TypedProperties;
 import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifier;
 import org.infinispan.remoting.InboundInvocationHandler;
 import org.infinispan.remoting.responses.Response;
@@ -555,6 +556,17 @@ usePriorityQueue, toJGroupsFilter(responseFilter),
       return responses;
    }
 
+   @Override
+   public NotifyingFuture<Response> invokeRemotelyAsync(Address recipient, ReplicableCommand rpcCommand, long timeout,
+                                                        boolean usePriorityQueue) throws Exception {
+      if (trace)
+         log.tracef("dest=%s, command=%s, timeout=%s, async response", recipient, rpcCommand, timeout);
+      if (!getMembers().contains(recipient)) {
+         throw new SuspectException("Node " + recipient + " has left the cluster while replicating command " + rpcCommand, recipient);
+      }
+      return dispatcher.invokeRemoteCommandAsync(toJGroupsAddress(recipient), rpcCommand, timeout, usePriorityQueue);
+   }
+
    @Override
    public BackupResponse backupRemotely(Collection<XSiteBackup> backups, ReplicableCommand rpcCommand) throws Exception {
       log.tracef("About to send to backups %s, command %s", backups, rpcCommand);
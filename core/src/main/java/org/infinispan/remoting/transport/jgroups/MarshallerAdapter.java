@@ -1,10 +1,13 @@
 package org.infinispan.remoting.transport.jgroups;
 
 import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.marshall.BufferSizePredictor;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.jgroups.blocks.RpcDispatcher;
 import org.jgroups.util.Buffer;
 
+import java.io.ObjectOutput;
+
 /**
  * Bridge between JGroups and Infinispan marshallers
  *
@@ -13,6 +16,7 @@
  */
 public class MarshallerAdapter implements RpcDispatcher.Marshaller {
    StreamingMarshaller m;
+   private final BufferPool bufferPool = new BufferPool();
 
    public MarshallerAdapter(StreamingMarshaller m) {
       this.m = m;
@@ -23,8 +27,38 @@ public Buffer objectToBuffer(Object obj) throws Exception {
       return toBuffer(m.objectToBuffer(obj));
    }
 
+   /**
+    * Marshalls the object into a buffer from a pool, to be released with {@link #releaseBuffer(Buffer)}. JGroups keeps
+    * a reference to the buffer of a message until it is acknowledged, so the buffer can only be released once the
+    * recipient of the message has responded to it.
+    */
+   public Buffer objectToPooledBuffer(Object obj) throws Exception {
+      if (obj == null)
+         return objectToBuffer(null);
+
+      BufferSizePredictor sizePredictor = m.getBufferSizePredictor(obj);
+      int estimatedSize = sizePredictor.nextSize(obj);
+      BufferPool.PooledOutputStream os = bufferPool.newOutputStream(estimatedSize);
+      ObjectOutput out = m.startObjectOutput(os, false, estimatedSize);
+      try {
+         m.objectToObjectStream(obj, out);
+      } finally {
+         m.finishObjectOutput(out);
+      }
+      sizePredictor.recordSize(os.size());
+      return new Buffer(os.getRawBuffer(), 0, os.size());
+   }
+
+   /**
+    * Returns a buffer obtained from {@link #objectToPooledBuffer(Object)} to the pool.
+    */
+   public void releaseBuffer(Buffer buffer) {
+      bufferPool.release(buffer.getBuf());
+   }
+
    @Override
    public Object objectFromBuffer(byte[] buf, int offset, int length) throws Exception {
+      // reads directly from the buffer of the message
       return m.objectFromByteBuffer(buf, offset, length);
    }
 
@@ -65,6 +65,11 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return command.getAffectedKeys();
    }
 
+   @Override
+   public Object visitComputeCommand(InvocationContext ctx, ComputeCommand command) {
+      return command.getAffectedKeys();
+   }
+
    @Override
    public Object visitClearCommand(InvocationContext ctx, ClearCommand command) {
       return command.getAffectedKeys();
@@ -0,0 +1,60 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces the outbound state transfers of all the caches of a node so that, on average, they don't send more than a given
+ * number of bytes per second. Each caller reserves the time needed to send its bytes at the configured rate, after the
+ * time reserved by the previous callers, and sleeps until its reservation starts.
+ * <p/>
+ * Only the caches configuring a {@link org.infinispan.configuration.cache.StateTransferConfiguration#maxBandwidth()}
+ * use the limiter, and when they configure different values the lowest one applies to all of them.
+ *
+ * @since 6.0
+ */
+@Scope(Scopes.GLOBAL)
+public class BandwidthLimiter {
+
+   /**
+    * The bandwidth, or 0 if no cache limited it yet.
+    */
+   private long bytesPerSecond;
+
+   /**
+    * The time, in nanoseconds, when the bytes reserved so far will have been sent at the configured rate.
+    */
+   private long nextFreeNanos = System.nanoTime();
+
+   /**
+    * Lowers the bandwidth to the given value, unless a lower one was already configured.
+    */
+   public synchronized void limitTo(long bytesPerSecond) {
+      if (bytesPerSecond <= 0)
+         throw new IllegalArgumentException("The bandwidth must be positive: " + bytesPerSecond);
+      if (this.bytesPerSecond == 0 || bytesPerSecond < this.bytesPerSecond) {
+         this.bytesPerSecond = bytesPerSecond;
+      }
+   }
+
+   /**
+    * Waits until the given number of bytes can be sent without exceeding the bandwidth.
+    */
+   void acquire(long bytes) throws InterruptedException {
+      long waitNanos;
+      synchronized (this) {
+         if (bytesPerSecond == 0)
+            return;
+         long now = System.nanoTime();
+         // an idle period doesn't allow sending a burst afterwards
+         long start = Math.max(now, nextFreeNanos);
+         nextFreeNanos = start + TimeUnit.SECONDS.toNanos(bytes) / bytesPerSecond;
+         waitNanos = start - now;
+      }
+      if (waitNanos > 0) {
+         TimeUnit.NANOSECONDS.sleep(waitNanos);
+      }
+   }
+}
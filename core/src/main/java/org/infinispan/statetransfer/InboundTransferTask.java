@@ -2,6 +2,7 @@
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.rpc.ResponseMode;
@@ -15,10 +16,12 @@
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Inbound state transfer task. Fetches multiple data segments from a remote source node and applies them to local
@@ -37,6 +40,11 @@ public class InboundTransferTask {
 
    private final Set<Integer> finishedSegments = new CopyOnWriteArraySet<Integer>();
 
+   /**
+    * The number of cache entries received so far for each segment, to report the progress of the transfer.
+    */
+   private final ConcurrentMap<Integer, AtomicInteger> receivedEntries = CollectionFactory.makeConcurrentMap();
+
    private final Address source;
 
    private volatile boolean isCancelled = false;
@@ -193,8 +201,11 @@ private void sendCancelCommand(Set<Integer> cancelledSegments) {
       rpcManager.invokeRemotely(Collections.singleton(source), cmd, rpcManager.getDefaultRpcOptions(false));
    }
 
-   public void onStateReceived(int segmentId, boolean isLastChunk) {
+   public void onStateReceived(int segmentId, int numEntries, boolean isLastChunk) {
+      int received = addReceivedEntries(segmentId, numEntries);
       if (!isCancelled && isLastChunk && segments.contains(segmentId)) {
+         log.debugf("Finished receiving state for segment %d of cache %s from node %s: %d cache entries in total",
+                    segmentId, cacheName, source, received);
          finishedSegments.add(segmentId);
          if (finishedSegments.containsAll(segments)) {
             if (trace) {
@@ -205,6 +216,26 @@ public void onStateReceived(int segmentId, boolean isLastChunk) {
       }
    }
 
+   /**
+    * @return the number of cache entries received so far for the given segment.
+    */
+   public int getReceivedEntries(int segmentId) {
+      AtomicInteger counter = receivedEntries.get(segmentId);
+      return counter == null ? 0 : counter.get();
+   }
+
+   private int addReceivedEntries(int segmentId, int numEntries) {
+      AtomicInteger counter = receivedEntries.get(segmentId);
+      if (counter == null) {
+         AtomicInteger newCounter = new AtomicInteger();
+         counter = receivedEntries.putIfAbsent(segmentId, newCounter);
+         if (counter == null) {
+            counter = newCounter;
+         }
+      }
+      return counter.addAndGet(numEntries);
+   }
+
    private void notifyCompletion() {
       isCompletedSuccessfully = true;
       stateConsumer.onTaskCompletion(this);
@@ -238,6 +269,7 @@ public String toString() {
       return "InboundTransferTask{" +
             "segments=" + segments +
             ", finishedSegments=" + finishedSegments +
+            ", receivedEntries=" + receivedEntries +
             ", unfinishedSegments=" + getUnfinishedSegments() +
             ", source=" + source +
             ", isCancelled=" + isCancelled +
@@ -4,34 +4,50 @@
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.InfinispanCollections;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
+import org.infinispan.compression.CompressionManager;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.InternalEntryFactory;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.eviction.PassivationManager;
 import org.infinispan.persistence.CollectionKeyFilter;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
 import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
 import org.infinispan.util.ReadOnlyDataContainerBackedKeySet;
+import org.infinispan.util.concurrent.ConcurrentHashSet;
 import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Outbound state transfer task. Pushes data segments to another cluster member on request. Instances of
  * OutboundTransferTask are created and managed by StateTransferManagerImpl. There should be at most
  * one such task per destination at any time.
+ * <p/>
+ * The destination grants the task credits for the number of chunks it may send without waiting for them to be applied,
+ * up to {@link org.infinispan.configuration.cache.StateTransferConfiguration#maxChunksInFlight()}. The segments the
+ * destination is waiting for (because it needs one of their keys) are sent ahead of the others: the in-memory entries
+ * of these segments are sent by an extra pass over the data container, at most {@link #MAX_PRIORITY_PASSES} times per
+ * task, and the main pass skips them. The stores are only iterated once, after the data container, for all the
+ * segments.
  *
  * @author anistor@redhat.com
  * @since 5.2
@@ -40,6 +56,12 @@ public class OutboundTransferTask implements Runnable {
 
    private static final Log log = LogFactory.getLog(OutboundTransferTask.class);
 
+   /**
+    * Each prioritization iterates over the whole data container, so the segments requested after this many passes are
+    * only sent by the main pass.
+    */
+   static final int MAX_PRIORITY_PASSES = 4;
+
    private final boolean trace = log.isTraceEnabled();
 
    private final StateProviderImpl stateProvider;
@@ -52,12 +74,41 @@ public class OutboundTransferTask implements Runnable {
 
    private final int stateTransferChunkSize;
 
+   private final int maxChunksInFlight;
+
+   /**
+    * The number of chunks the destination allows to be sent without waiting for them to be applied.
+    */
+   private int credits = 1;
+
+   /**
+    * The responses to the chunks sent but not yet applied by the destination, in the order the chunks were sent.
+    */
+   private final Queue<NotifyingFuture<Response>> inFlightChunks = new LinkedList<NotifyingFuture<Response>>();
+
+   /**
+    * The segments the destination is waiting for, not yet sent ahead of the others.
+    */
+   private final Queue<Integer> prioritySegments = new ConcurrentLinkedQueue<Integer>();
+
+   private final Set<Integer> prioritizedSegments = new ConcurrentHashSet<Integer>();
+
+   /**
+    * The segments whose in-memory entries were already sent ahead of the others. Only accessed by the thread running
+    * the task.
+    */
+   private final Set<Integer> sentAhead = new HashSet<Integer>();
+
+   private int priorityPasses;
+
    private final ConsistentHash readCh;
 
    private final DataContainer dataContainer;
 
    private final PersistenceManager persistenceManager;
 
+   private final PassivationManager passivationManager;
+
    private final RpcManager rpcManager;
 
    private final CommandsFactory commandsFactory;
@@ -82,10 +133,13 @@ public class OutboundTransferTask implements Runnable {
 
    private InternalEntryFactory entryFactory;
 
+   private final CompressionManager compressionManager;
+
    public OutboundTransferTask(Address destination, Set<Integer> segments, int stateTransferChunkSize,
-                               int topologyId, ConsistentHash readCh, StateProviderImpl stateProvider, DataContainer dataContainer,
-                               PersistenceManager persistenceManager, RpcManager rpcManager,
-                               CommandsFactory commandsFactory, InternalEntryFactory ef, long timeout, String cacheName) {
+                               int maxChunksInFlight, int topologyId, ConsistentHash readCh, StateProviderImpl stateProvider, DataContainer dataContainer,
+                               PersistenceManager persistenceManager, PassivationManager passivationManager, RpcManager rpcManager,
+                               CommandsFactory commandsFactory, InternalEntryFactory ef, CompressionManager compressionManager,
+                               long timeout, String cacheName) {
       if (segments == null || segments.isEmpty()) {
          throw new IllegalArgumentException("Segments must not be null or empty");
       }
@@ -99,11 +153,14 @@ public OutboundTransferTask(Address destination, Set<Integer> segments, int stat
       this.destination = destination;
       this.segments.addAll(segments);
       this.stateTransferChunkSize = stateTransferChunkSize;
+      this.maxChunksInFlight = maxChunksInFlight;
       this.topologyId = topologyId;
       this.readCh = readCh;
       this.dataContainer = dataContainer;
       this.persistenceManager = persistenceManager;
+      this.passivationManager = passivationManager;
       this.entryFactory = ef;
+      this.compressionManager = compressionManager;
       this.rpcManager = rpcManager;
       this.commandsFactory = commandsFactory;
       this.timeout = timeout;
@@ -139,39 +196,20 @@ public void run() {
       try {
          // send data container entries
          for (InternalCacheEntry ice : dataContainer) {
+            sendPrioritySegments();
             Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
             int segmentId = readCh.getSegment(key);
-            if (segments.contains(segmentId)) {
+            if (segments.contains(segmentId) && !sentAhead.contains(segmentId)) {
                sendEntry(ice, segmentId);
             }
          }
 
-         AdvancedCacheLoader stProvider = persistenceManager.getStateTransferProvider();
-         if (stProvider != null) {
-            try {
-               CollectionKeyFilter filter = new CollectionKeyFilter(new ReadOnlyDataContainerBackedKeySet(dataContainer));
-               AdvancedCacheLoader.CacheLoaderTask task = new AdvancedCacheLoader.CacheLoaderTask() {
-                  @Override
-                  public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext taskContext) throws InterruptedException {
-                        int segmentId = readCh.getSegment(me.getKey());
-                        if (segments.contains(segmentId)) {
-                           try {
-                              InternalCacheEntry icv = entryFactory.create(me.getKey(), me.getValue(), me.getMetadata());
-                              sendEntry(icv, segmentId);
-                           } catch (CacheException e) {
-                              log.failedLoadingValueFromCacheStore(me.getKey(), e);
-                           }
-                        }
-                     }
-                  };
-               stProvider.process(filter, task, new WithinThreadExecutor(), true, true);
-            } catch (CacheException e) {
-               log.failedLoadingKeysFromCacheStore(e);
-            }
-         }
+         // also covers the segments sent ahead, whose last chunk is only sent after their stored entries
+         sendStoreEntries(segments);
 
          // send the last chunk of all segments
-         sendEntries(true);
+         sendEntries(segments);
+         awaitInFlightChunks(0);
       } catch (Throwable t) {
          // ignore eventual exceptions caused by cancellation (have InterruptedException as the root cause)
          if (!runnableFuture.isCancelled()) {
@@ -183,11 +221,77 @@ public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext tas
       }
    }
 
+   private void sendStoreEntries(final Set<Integer> segmentsToSend) {
+      AdvancedCacheLoader stProvider = persistenceManager.getStateTransferProvider();
+      if (stProvider != null) {
+         try {
+            // the entries evicted after the data container was iterated may still be staged for passivation
+            passivationManager.flushStagedEntries();
+            CollectionKeyFilter filter = new CollectionKeyFilter(new ReadOnlyDataContainerBackedKeySet(dataContainer));
+            AdvancedCacheLoader.CacheLoaderTask task = new AdvancedCacheLoader.CacheLoaderTask() {
+               @Override
+               public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext taskContext) throws InterruptedException {
+                     int segmentId = readCh.getSegment(me.getKey());
+                     if (segmentsToSend.contains(segmentId)) {
+                        try {
+                           InternalCacheEntry icv = entryFactory.create(me.getKey(), me.getValue(), me.getMetadata());
+                           sendEntry(icv, segmentId);
+                        } catch (CacheException e) {
+                           log.failedLoadingValueFromCacheStore(me.getKey(), e);
+                        }
+                     }
+                  }
+               };
+            stProvider.process(filter, task, new WithinThreadExecutor(), true, true);
+         } catch (CacheException e) {
+            log.failedLoadingKeysFromCacheStore(e);
+         }
+      }
+   }
+
+   /**
+    * Sends the in-memory entries of the segments the destination is waiting for, before continuing with the other
+    * segments. All the segments requested since the previous pass are sent by a single pass over the data container.
+    * <p/>
+    * Without a store to transfer, the segments are complete and the main pass skips them. Otherwise their entries in
+    * the store are sent by the single pass over the stores, followed by their last chunk.
+    */
+   private void sendPrioritySegments() {
+      if (prioritySegments.isEmpty())
+         return;
+
+      Set<Integer> priority = new HashSet<Integer>();
+      Integer segmentId;
+      while ((segmentId = prioritySegments.poll()) != null) {
+         if (segments.contains(segmentId) && !sentAhead.contains(segmentId)) {
+            priority.add(segmentId);
+         }
+      }
+      if (priority.isEmpty() || priorityPasses >= MAX_PRIORITY_PASSES)
+         return;
+
+      priorityPasses++;
+      log.debugf("Sending segments %s of cache %s to node %s ahead of the other segments", priority, cacheName, destination);
+      // the main pass skips them from now on
+      sentAhead.addAll(priority);
+      for (InternalCacheEntry ice : dataContainer) {
+         int iceSegmentId = readCh.getSegment(ice.getKey());
+         if (priority.contains(iceSegmentId)) {
+            sendEntry(ice, iceSegmentId);
+         }
+      }
+      if (persistenceManager.getStateTransferProvider() == null) {
+         segments.removeAll(priority);
+         sendEntries(priority);
+      } else {
+         sendEntries(InfinispanCollections.<Integer>emptySet());
+      }
+   }
+
    private void sendEntry(InternalCacheEntry ice, int segmentId) {
       // send if we have a full chunk
       if (accumulatedEntries >= stateTransferChunkSize) {
-         sendEntries(false);
-         accumulatedEntries = 0;
+         sendEntries(InfinispanCollections.<Integer>emptySet());
       }
 
       List<InternalCacheEntry> entries = entriesBySegment.get(segmentId);
@@ -195,42 +299,70 @@ private void sendEntry(InternalCacheEntry ice, int segmentId) {
          entries = new ArrayList<InternalCacheEntry>();
          entriesBySegment.put(segmentId, entries);
       }
-      entries.add(ice);
+      entries.add(compress(ice));
       accumulatedEntries++;
    }
 
-   private void sendEntries(boolean isLast) {
+   /**
+    * The receiver decompresses the values before applying them, see {@link StateConsumerImpl}.
+    */
+   private InternalCacheEntry compress(InternalCacheEntry ice) {
+      if (!compressionManager.isEnabled()) {
+         return ice;
+      }
+      Object value = ice.getValue();
+      Object compressed = compressionManager.compress(value);
+      return compressed == value ? ice : entryFactory.create(ice.getKey(), compressed, ice);
+   }
+
+   /**
+    * Sends the entries accumulated for all the segments, and the last chunk of the given segments.
+    */
+   private void sendEntries(Set<Integer> completedSegments) {
       List<StateChunk> chunks = new ArrayList<StateChunk>();
+      int numEntries = 0;
+      for (int segmentId : completedSegments) {
+         List<InternalCacheEntry> entries = entriesBySegment.remove(segmentId);
+         if (entries == null) {
+            entries = InfinispanCollections.emptyList();
+         }
+         chunks.add(new StateChunk(segmentId, entries, true));
+         numEntries += entries.size();
+      }
       for (Map.Entry<Integer, List<InternalCacheEntry>> e : entriesBySegment.entrySet()) {
          List<InternalCacheEntry> entries = e.getValue();
-         if (!entries.isEmpty() || isLast) {
-            chunks.add(new StateChunk(e.getKey(), new ArrayList<InternalCacheEntry>(entries), isLast));
+         if (!entries.isEmpty()) {
+            chunks.add(new StateChunk(e.getKey(), new ArrayList<InternalCacheEntry>(entries), false));
+            numEntries += entries.size();
             entries.clear();
          }
       }
-
-      if (isLast) {
-         for (int segmentId : segments) {
-            List<InternalCacheEntry> entries = entriesBySegment.get(segmentId);
-            if (entries == null) {
-               chunks.add(new StateChunk(segmentId, InfinispanCollections.<InternalCacheEntry>emptyList(), true));
-            }
-         }
-      }
+      accumulatedEntries = 0;
 
       if (!chunks.isEmpty()) {
          if (trace) {
-            if (isLast) {
-               log.tracef("Sending last chunk containing %d cache entries from segments %s of cache %s to node %s", accumulatedEntries, segments, cacheName, destination);
+            if (!completedSegments.isEmpty()) {
+               log.tracef("Sending last chunk of segments %s containing %d cache entries of cache %s to node %s", completedSegments, numEntries, cacheName, destination);
             } else {
-               log.tracef("Sending %d cache entries from segments %s of cache %s to node %s", accumulatedEntries, entriesBySegment.keySet(), cacheName, destination);
+               log.tracef("Sending %d cache entries from segments %s of cache %s to node %s", numEntries, entriesBySegment.keySet(), cacheName, destination);
             }
          }
 
          StateResponseCommand cmd = commandsFactory.buildStateResponseCommand(rpcManager.getAddress(), topologyId, chunks);
-         // send synchronously, in order. it is important that the last chunk is received last in order to correctly detect completion of the stream of chunks
          try {
-            rpcManager.invokeRemotely(Collections.singleton(destination), cmd, rpcOptions);
+            // it is important that the last chunk of a segment is received last in order to correctly detect
+            // completion of the stream of chunks
+            awaitInFlightChunks(completedSegments.isEmpty() ? credits - 1 : 0);
+            stateProvider.throttle(cmd);
+            if (maxChunksInFlight > 1) {
+               inFlightChunks.add(rpcManager.invokeRemotelyAsync(destination, cmd, rpcOptions));
+            } else {
+               // send synchronously, in order
+               rpcManager.invokeRemotely(Collections.singleton(destination), cmd, rpcOptions);
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException("Interrupted while sending state to node " + destination, e);
          } catch (SuspectException e) {
             log.errorf(e, "Node %s left cache %s: %s", destination, cacheName, e.getMessage());
             cancel();
@@ -240,6 +372,45 @@ private void sendEntries(boolean isLast) {
       }
    }
 
+   /**
+    * Waits for the destination to apply the oldest chunks in flight, until at most {@code maxInFlight} remain, and
+    * updates the credits with the ones granted in the responses.
+    */
+   private void awaitInFlightChunks(int maxInFlight) throws InterruptedException {
+      while (inFlightChunks.size() > maxInFlight) {
+         NotifyingFuture<Response> future = inFlightChunks.poll();
+         try {
+            Response response = future.get(timeout, TimeUnit.MILLISECONDS);
+            if (response instanceof SuccessfulResponse) {
+               Object grantedCredits = ((SuccessfulResponse) response).getResponseValue();
+               if (grantedCredits instanceof Integer) {
+                  credits = Math.max(1, Math.min(maxChunksInFlight, (Integer) grantedCredits));
+               }
+            } else if (response != null && !response.isSuccessful()) {
+               log.errorf("Failed to send entries to node %s : %s", destination, response);
+            }
+         } catch (ExecutionException e) {
+            if (e.getCause() instanceof SuspectException) {
+               log.errorf(e.getCause(), "Node %s left cache %s: %s", destination, cacheName, e.getCause().getMessage());
+               cancel();
+            } else {
+               log.errorf(e.getCause(), "Failed to send entries to node %s : %s", destination, e.getCause().getMessage());
+            }
+         } catch (TimeoutException e) {
+            log.errorf(e, "Failed to send entries to node %s : %s", destination, e.getMessage());
+         }
+      }
+   }
+
+   /**
+    * Sends the given segment ahead of the others, because the destination is waiting for one of its keys.
+    */
+   public void prioritizeSegment(int segmentId) {
+      if (segments.contains(segmentId) && prioritizedSegments.add(segmentId)) {
+         prioritySegments.offer(segmentId);
+      }
+   }
+
    /**
     * Cancel some of the segments. If all segments get cancelled then the whole task will be cancelled.
     *
@@ -277,6 +448,7 @@ public String toString() {
             ", destination=" + destination +
             ", segments=" + segments +
             ", stateTransferChunkSize=" + stateTransferChunkSize +
+            ", maxChunksInFlight=" + maxChunksInFlight +
             ", timeout=" + timeout +
             ", cacheName='" + cacheName + '\'' +
             '}';
@@ -33,6 +33,12 @@ public interface StateConsumer {
 
    void applyState(Address sender, int topologyId, Collection<StateChunk> stateChunks);
 
+   /**
+    * Returns the number of chunks a state provider may send without waiting for them to be applied, depending on how
+    * busy this node is applying state. It is never less than 1.
+    */
+   int getStateTransferCredits();
+
    /**
     * Cancels all incoming state transfers. The already received data is not discarded.
     * This is executed when the cache is shutting down.
@@ -7,6 +7,7 @@
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.concurrent.jdk8backported.EquivalentConcurrentHashMapV8;
+import org.infinispan.compression.CompressionManager;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -22,10 +23,13 @@
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.eviction.PassivationManager;
 import org.infinispan.persistence.CollectionKeyFilter;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
 import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryFactory;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.responses.SuccessfulResponse;
@@ -43,6 +47,7 @@
 import org.infinispan.util.ReadOnlyDataContainerBackedKeySet;
 import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
 import org.infinispan.util.concurrent.ConcurrentHashSet;
+import org.infinispan.util.concurrent.locks.LockManager;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -58,15 +63,20 @@
 import java.util.Set;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
 
 import static org.infinispan.context.Flag.*;
 import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
+import static org.infinispan.persistence.PersistenceUtil.internalMetadata;
 
 /**
  * {@link StateConsumer} implementation.
@@ -90,6 +100,7 @@ public class StateConsumerImpl implements StateConsumer {
    private TransactionTable transactionTable;       // optional
    private DataContainer dataContainer;
    private PersistenceManager persistenceManager;
+   private PassivationManager passivationManager;
    private InterceptorChain interceptorChain;
    private InvocationContextContainer icc;
    private StateTransferLock stateTransferLock;
@@ -97,12 +108,27 @@ public class StateConsumerImpl implements StateConsumer {
    private TotalOrderManager totalOrderManager;
    private BlockingTaskAwareExecutorService remoteCommandsExecutor;
    private L1Manager l1Manager;
+   private CompressionManager compressionManager;
+   private MarshalledEntryFactory marshalledEntryFactory;
+   private LockManager lockManager;
    private long timeout;
    private boolean isFetchEnabled;
    private boolean isTransactional;
    private boolean isInvalidationMode;
    private boolean isTotalOrder;
    private boolean isL1OnRehash;
+   private boolean isUsingStores;
+   private int maxChunksInFlight;
+   /**
+    * Whether the received entries can be written directly to the data container, instead of invoking a put command for
+    * each of them: the interceptor chain must not have anything else to do with a state transfer put.
+    */
+   private boolean isBulkApplyAllowed;
+   /**
+    * The interceptors of the chain when the cache started. Interceptors added programmatically later may need the put
+    * commands as well.
+    */
+   private List<CommandInterceptor> defaultInterceptors;
    private volatile KeyInvalidationListener keyInvalidationListener; //for test purpose only!
 
    private volatile CacheTopology cacheTopology;
@@ -127,6 +153,11 @@ public class StateConsumerImpl implements StateConsumer {
     */
    private final AtomicBoolean waitingForState = new AtomicBoolean(false);
 
+   /**
+    * The number of state responses being applied at the moment, the fewer the more credits the senders are granted.
+    */
+   private final AtomicInteger applyingResponses = new AtomicInteger();
+
    /**
     * A map that keeps track of current inbound state transfers by source address. There could be multiple transfers
     * flowing in from the same source (but for different segments) so the values are lists. This works in tandem with
@@ -229,7 +260,11 @@ public void init(Cache cache,
                     CacheNotifier cacheNotifier,
                     TotalOrderManager totalOrderManager,
                     @ComponentName(KnownComponentNames.REMOTE_COMMAND_EXECUTOR) BlockingTaskAwareExecutorService remoteCommandsExecutor,
-                    L1Manager l1Manager) {
+                    L1Manager l1Manager,
+                    CompressionManager compressionManager,
+                    MarshalledEntryFactory marshalledEntryFactory,
+                    LockManager lockManager,
+                    PassivationManager passivationManager) {
       this.cacheName = cache.getName();
       this.executorService = executorService;
       this.stateTransferManager = stateTransferManager;
@@ -247,12 +282,25 @@ public void init(Cache cache,
       this.totalOrderManager = totalOrderManager;
       this.remoteCommandsExecutor = remoteCommandsExecutor;
       this.l1Manager = l1Manager;
+      this.compressionManager = compressionManager;
+      this.marshalledEntryFactory = marshalledEntryFactory;
+      this.lockManager = lockManager;
+      this.passivationManager = passivationManager;
 
       isInvalidationMode = configuration.clustering().cacheMode().isInvalidation();
 
       isTransactional = configuration.transaction().transactionMode().isTransactional();
       isTotalOrder = configuration.transaction().transactionProtocol().isTotalOrder();
       isL1OnRehash = configuration.clustering().l1().onRehash();
+      isUsingStores = configuration.persistence().usingStores();
+      maxChunksInFlight = configuration.clustering().stateTransfer().maxChunksInFlight();
+      // transactions, passivation, indexing, type conversions and custom interceptors all need the put commands
+      isBulkApplyAllowed = !isTransactional && !isInvalidationMode
+            && !configuration.persistence().passivation()
+            && !configuration.indexing().enabled()
+            && !configuration.compatibility().enabled()
+            && !configuration.storeAsBinary().enabled()
+            && configuration.customInterceptors().interceptors().isEmpty();
 
       timeout = configuration.clustering().stateTransfer().timeout();
    }
@@ -474,6 +522,8 @@ public void applyState(Address sender, int topologyId, Collection<StateChunk> st
          log.tracef("Before applying the received state the data container of cache %s has %d keys", cacheName, dataContainer.size());
       }
 
+      List<StateChunk> receivedChunks = new ArrayList<StateChunk>(stateChunks.size());
+      List<InboundTransferTask> inboundTransfers = new ArrayList<InboundTransferTask>(stateChunks.size());
       for (StateChunk stateChunk : stateChunks) {
          // it's possible to receive a late message so we must be prepared to ignore segments we no longer own
          //todo [anistor] this check should be based on topologyId
@@ -482,22 +532,32 @@ public void applyState(Address sender, int topologyId, Collection<StateChunk> st
             continue;
          }
 
-         // notify the inbound task that a chunk of cache entries was received
          InboundTransferTask inboundTransfer;
          synchronized (this) {
             inboundTransfer = transfersBySegment.get(stateChunk.getSegmentId());
          }
          if (inboundTransfer != null) {
-            if (stateChunk.getCacheEntries() != null) {
-               doApplyState(sender, stateChunk.getSegmentId(), stateChunk.getCacheEntries());
-            }
-
-            inboundTransfer.onStateReceived(stateChunk.getSegmentId(), stateChunk.isLastChunk());
+            receivedChunks.add(stateChunk);
+            inboundTransfers.add(inboundTransfer);
          } else {
             log.warnf("Received unsolicited state from node %s for segment %d of cache %s", sender, stateChunk.getSegmentId(), cacheName);
          }
       }
 
+      applyingResponses.incrementAndGet();
+      try {
+         applyChunks(sender, receivedChunks);
+      } finally {
+         applyingResponses.decrementAndGet();
+      }
+
+      // notify the inbound tasks that the chunks of cache entries were received, only after all of them were applied
+      for (int i = 0; i < receivedChunks.size(); i++) {
+         StateChunk stateChunk = receivedChunks.get(i);
+         int numEntries = stateChunk.getCacheEntries() != null ? stateChunk.getCacheEntries().size() : 0;
+         inboundTransfers.get(i).onStateReceived(stateChunk.getSegmentId(), numEntries, stateChunk.isLastChunk());
+      }
+
       if (trace) {
          log.tracef("After applying the received state the data container of cache %s has %d keys", cacheName, dataContainer.size());
          synchronized (this) {
@@ -506,6 +566,72 @@ public void applyState(Address sender, int topologyId, Collection<StateChunk> st
       }
    }
 
+   @Override
+   public int getStateTransferCredits() {
+      // a sender is always granted a chunk, otherwise it would never get another response granting it more credits
+      return Math.max(1, maxChunksInFlight - applyingResponses.get());
+   }
+
+   /**
+    * Applies the given chunks in parallel. The chunks belong to different segments (or to different parts of the same
+    * segment), so they don't have any keys in common. The current thread applies a chunk itself and then runs all the
+    * chunks not picked up by the executor yet, so the state is applied even when all the executor threads are busy.
+    */
+   private void applyChunks(final Address sender, List<StateChunk> stateChunks) {
+      List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>(stateChunks.size());
+      StateChunk ownChunk = null;
+      for (final StateChunk stateChunk : stateChunks) {
+         if (stateChunk.getCacheEntries() == null || stateChunk.getCacheEntries().isEmpty())
+            continue;
+
+         if (ownChunk == null) {
+            ownChunk = stateChunk;
+            continue;
+         }
+         FutureTask<Void> task = new FutureTask<Void>(new Runnable() {
+            @Override
+            public void run() {
+               doApplyState(sender, stateChunk.getSegmentId(), stateChunk.getCacheEntries());
+            }
+         }, null);
+         tasks.add(task);
+         try {
+            executorService.execute(task);
+         } catch (RejectedExecutionException e) {
+            if (trace) log.tracef("Could not apply the state of segment %d in parallel, it will be applied by the current thread", stateChunk.getSegmentId());
+         }
+      }
+      if (ownChunk == null)
+         return;
+
+      doApplyState(sender, ownChunk.getSegmentId(), ownChunk.getCacheEntries());
+      for (FutureTask<Void> task : tasks) {
+         // does nothing if the task was already started by an executor thread
+         task.run();
+      }
+
+      boolean interrupted = false;
+      try {
+         for (FutureTask<Void> task : tasks) {
+            while (true) {
+               try {
+                  task.get();
+                  break;
+               } catch (InterruptedException e) {
+                  // the inbound transfers must not be notified before all the chunks are applied
+                  interrupted = true;
+               } catch (ExecutionException e) {
+                  throw new CacheException(e.getCause());
+               }
+            }
+         }
+      } finally {
+         if (interrupted) {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+
    private void doApplyState(Address sender, int segmentId, Collection<InternalCacheEntry> cacheEntries) {
       log.debugf("Applying new state for segment %d of cache %s from node %s: received %d cache entries", segmentId, cacheName, sender, cacheEntries.size());
       if (trace) {
@@ -516,6 +642,83 @@ private void doApplyState(Address sender, int segmentId, Collection<InternalCach
          log.tracef("Received keys %s for segment %d of cache %s from node %s", keys, segmentId, cacheName, sender);
       }
 
+      if (isBulkApplyAllowed && cacheNotifier.getListeners().isEmpty()
+            && interceptorChain.asList().equals(defaultInterceptors)) {
+         int applied = doApplyStateInBulk(cacheEntries);
+         log.debugf("Finished applying state for segment %d of cache %s: %d cache entries applied, %d skipped because they were updated during state transfer",
+                    segmentId, cacheName, applied, cacheEntries.size() - applied);
+      } else {
+         doApplyStateThroughInterceptorChain(cacheEntries);
+         log.debugf("Finished applying state for segment %d of cache %s", segmentId, cacheName);
+      }
+   }
+
+   /**
+    * Writes the entries directly to the data container and to the non-shared stores, which is what the interceptor
+    * chain does with a state transfer put when {@link #isBulkApplyAllowed} is true, there are no listeners to notify
+    * and no interceptor was added after the cache started. Like in the chain, the lock of each key is held while its
+    * entry is written, and the keys updated by user code during state transfer are left untouched.
+    * <p/>
+    * The locks are acquired in the same order as in the chain: the lock of the key first, then the shared topology
+    * lock, which is only held while the entry is written, like ClusteringDependentLogic does when committing an entry.
+    * The entries are written to the stores one by one, as writing them in batches would mean either holding the locks
+    * of all the keys of a batch or letting a user write to a key between its check and its store write.
+    *
+    * @return the number of entries written
+    */
+   private int doApplyStateInBulk(Collection<InternalCacheEntry> cacheEntries) {
+      long lockTimeout = configuration.locking().lockAcquisitionTimeout();
+      int applied = 0;
+      for (InternalCacheEntry e : cacheEntries) {
+         InvocationContext ctx = icc.createSingleKeyNonTxInvocationContext();
+         try {
+            lockManager.acquireLockNoCheck(ctx, e.getKey(), lockTimeout, false);
+            boolean written;
+            // don't allow the CH to change while the entry is written
+            stateTransferLock.acquireSharedTopologyLock();
+            try {
+               written = applyEntry(e);
+            } finally {
+               stateTransferLock.releaseSharedTopologyLock();
+            }
+            if (written) {
+               applied++;
+            } else if (trace) {
+               log.tracef("Key %s was updated during state transfer, ignoring the received value", e.getKey());
+            }
+         } catch (Exception ex) {
+            log.problemApplyingStateForKey(ex.getMessage(), e.getKey(), ex);
+         } finally {
+            lockManager.unlockAll(ctx);
+         }
+      }
+      return applied;
+   }
+
+   /**
+    * Must be called with the lock of the key held: a user write to the same key can't write its own value to the stores
+    * between the check of the updated keys and the write of the received entry.
+    */
+   private boolean applyEntry(final InternalCacheEntry e) {
+      final Object key = e.getKey();
+      boolean written = executeIfKeyIsNotUpdated(key, new Runnable() {
+         @Override
+         public void run() {
+            dataContainer.put(key, compressionManager.decompress(e.getValue()), e.getMetadata());
+         }
+      });
+      if (written && isUsingStores) {
+         InternalCacheEntry stored = dataContainer.peek(key);
+         if (stored != null) {
+            // the received value is already compressed the same way the stores expect it
+            persistenceManager.writeToAllStores(marshalledEntryFactory.newMarshalledEntry(key, e.getValue(),
+                                                                                          internalMetadata(stored)), true);
+         }
+      }
+      return written;
+   }
+
+   private void doApplyStateThroughInterceptorChain(Collection<InternalCacheEntry> cacheEntries) {
       // CACHE_MODE_LOCAL avoids handling by StateTransferInterceptor and any potential locks in StateTransferLock
       EnumSet<Flag> flags = EnumSet.of(PUT_FOR_STATE_TRANSFER, CACHE_MODE_LOCAL, IGNORE_RETURN_VALUES, SKIP_REMOTE_LOOKUP, SKIP_SHARED_CACHE_STORE, SKIP_OWNERSHIP_CHECK, SKIP_XSITE_BACKUP);
       for (InternalCacheEntry e : cacheEntries) {
@@ -533,7 +736,7 @@ private void doApplyState(Address sender, int segmentId, Collection<InternalCach
             }
 
             PutKeyValueCommand put = commandsFactory.buildPutKeyValueCommand(
-                  e.getKey(), e.getValue(), e.getMetadata(), flags);
+                  e.getKey(), compressionManager.decompress(e.getValue()), e.getMetadata(), flags);
 
             boolean success = false;
             try {
@@ -559,7 +762,6 @@ private void doApplyState(Address sender, int segmentId, Collection<InternalCach
             log.problemApplyingStateForKey(ex.getMessage(), e.getKey(), ex);
          }
       }
-      log.debugf("Finished applying state for segment %d of cache %s", segmentId, cacheName);
    }
 
    private void applyTransactions(Address sender, Collection<TransactionInfo> transactions, int topologyId) {
@@ -593,6 +795,7 @@ public void start() {
       //rpc options does not changes in runtime. we can use always the same instance.
       rpcOptions = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS)
             .timeout(timeout, TimeUnit.MILLISECONDS).build();
+      defaultInterceptors = interceptorChain.asList();
    }
 
    @Stop(priority = 20)
@@ -906,6 +1109,8 @@ private void invalidateSegments(final Set<Integer> newSegments, final Set<Intege
       // gather all keys from cache store that belong to the segments that are being removed/moved to L1
       //todo [anistor] extend CacheStore interface to be able to specify a filter when loading keys (ie. keys should belong to desired segments)
       try {
+         // the staged entries of the removed segments would otherwise be written to the stores after the cleanup
+         passivationManager.flushStagedEntries();
          CollectionKeyFilter filter = new CollectionKeyFilter(new ReadOnlyDataContainerBackedKeySet(dataContainer));
          persistenceManager.processOnAllStores(filter, new AdvancedCacheLoader.CacheLoaderTask() {
             @Override
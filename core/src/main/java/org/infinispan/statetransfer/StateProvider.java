@@ -59,6 +59,15 @@ public interface StateProvider {
     */
    void cancelOutboundTransfer(Address destination, int topologyId, Set<Integer> segments);
 
+   /**
+    * Receive notification that a node needs the value of a key. If the segment of the key is being transferred to that
+    * node, it is sent ahead of the other segments.
+    *
+    * @param requester the address of the node reading the key
+    * @param key       the key being read
+    */
+   void onKeyRequested(Address requester, Object key);
+
    void start();
 
    /**
@@ -3,6 +3,8 @@
 import org.infinispan.Cache;
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.compression.CompressionManager;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.InternalEntryFactory;
@@ -11,6 +13,7 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
+import org.infinispan.eviction.PassivationManager;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.notifications.Listener;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
@@ -25,11 +28,13 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
 
 /**
  * {@link StateProvider} implementation.
@@ -51,11 +56,20 @@ public class StateProviderImpl implements StateProvider {
    private TransactionTable transactionTable;     // optional
    private DataContainer dataContainer;
    private PersistenceManager persistenceManager; // optional
+   private PassivationManager passivationManager;
    private ExecutorService executorService;
    private StateTransferLock stateTransferLock;
    private InternalEntryFactory entryFactory;
+   private CompressionManager compressionManager;
+   private StreamingMarshaller marshaller;
    private long timeout;
    private int chunkSize;
+   private int maxChunksInFlight;
+
+   /**
+    * Limits the rate at which the outbound transfers of all the caches send state, or null if this cache doesn't limit it.
+    */
+   private BandwidthLimiter bandwidthLimiter;
 
    private StateConsumer stateConsumer;
 
@@ -79,7 +93,11 @@ public void init(Cache cache,
                     DataContainer dataContainer,
                     TransactionTable transactionTable,
                     StateTransferLock stateTransferLock,
-                    StateConsumer stateConsumer, InternalEntryFactory entryFactory) {
+                    StateConsumer stateConsumer, InternalEntryFactory entryFactory,
+                    CompressionManager compressionManager,
+                    @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller,
+                    PassivationManager passivationManager,
+                    BandwidthLimiter bandwidthLimiter) {
       this.cacheName = cache.getName();
       this.executorService = executorService;
       this.configuration = configuration;
@@ -92,12 +110,25 @@ public void init(Cache cache,
       this.stateTransferLock = stateTransferLock;
       this.stateConsumer = stateConsumer;
       this.entryFactory = entryFactory;
+      this.compressionManager = compressionManager;
+      this.marshaller = marshaller;
+      this.passivationManager = passivationManager;
 
       timeout = configuration.clustering().stateTransfer().timeout();
 
       // ignore chunk sizes <= 0
       int chunkSize = configuration.clustering().stateTransfer().chunkSize();
       this.chunkSize = chunkSize > 0 ? chunkSize : Integer.MAX_VALUE;
+
+      maxChunksInFlight = configuration.clustering().stateTransfer().maxChunksInFlight();
+      long maxBandwidth = configuration.clustering().stateTransfer().maxBandwidth();
+      if (maxBandwidth > 0) {
+         // the limiter is shared by all the caches, so that their transfers together don't exceed the bandwidth
+         bandwidthLimiter.limitTo(maxBandwidth);
+         this.bandwidthLimiter = bandwidthLimiter;
+      } else {
+         this.bandwidthLimiter = null;
+      }
    }
 
    public boolean isStateTransferInProgress() {
@@ -278,12 +309,41 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, Se
       final CacheTopology cacheTopology = getCacheTopology(requestTopologyId, destination, false);
 
       // the destination node must already have an InboundTransferTask waiting for these segments
-      OutboundTransferTask outboundTransfer = new OutboundTransferTask(destination, segments, chunkSize, cacheTopology.getTopologyId(),
-            cacheTopology.getReadConsistentHash(), this, dataContainer, persistenceManager, rpcManager, commandsFactory, entryFactory, timeout, cacheName);
+      OutboundTransferTask outboundTransfer = new OutboundTransferTask(destination, segments, chunkSize, maxChunksInFlight, cacheTopology.getTopologyId(),
+            cacheTopology.getReadConsistentHash(), this, dataContainer, persistenceManager, passivationManager, rpcManager, commandsFactory, entryFactory, compressionManager, timeout, cacheName);
       addTransfer(outboundTransfer);
       outboundTransfer.execute(executorService);
    }
 
+   @Override
+   public void onKeyRequested(Address requester, Object key) {
+      CacheTopology cacheTopology = stateConsumer.getCacheTopology();
+      // segments are only transferred during a rebalance
+      if (cacheTopology == null || cacheTopology.getPendingCH() == null)
+         return;
+
+      int segmentId = cacheTopology.getReadConsistentHash().getSegment(key);
+      synchronized (transfersByDestination) {
+         List<OutboundTransferTask> transferTasks = transfersByDestination.get(requester);
+         if (transferTasks != null) {
+            for (OutboundTransferTask transferTask : transferTasks) {
+               transferTask.prioritizeSegment(segmentId);
+            }
+         }
+      }
+   }
+
+   /**
+    * Waits until the given command can be sent without exceeding the configured bandwidth. The state chunks of the
+    * command are marshalled to find out their actual size, and the command then sends the marshalled chunks as they
+    * are, so they are marshalled only once.
+    */
+   void throttle(StateResponseCommand command) throws InterruptedException, IOException {
+      if (bandwidthLimiter != null) {
+         bandwidthLimiter.acquire(command.marshallChunks(marshaller));
+      }
+   }
+
    private void addTransfer(OutboundTransferTask transferTask) {
       if (trace) {
          log.tracef("Adding outbound transfer of segments %s to %s", transferTask.getSegments(), transferTask.getDestination());
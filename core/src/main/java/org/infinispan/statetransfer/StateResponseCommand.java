@@ -1,11 +1,13 @@
 package org.infinispan.statetransfer;
 
 import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.io.IOException;
 import java.util.Collection;
 
 /**
@@ -30,11 +32,19 @@ public class StateResponseCommand extends BaseRpcCommand {
     */
    private Collection<StateChunk> stateChunks;
 
+   /**
+    * The state chunks marshalled by the sender to measure their size, sent as they are instead of being marshalled
+    * again along with the command.
+    */
+   private byte[] marshalledChunks;
+
    /**
     * This is injected on target node via init() method before the command is performed.
     */
    private StateConsumer stateConsumer;
 
+   private StreamingMarshaller marshaller;
+
    private StateResponseCommand() {
       super(null);  // for command id uniqueness test
    }
@@ -50,8 +60,19 @@ public StateResponseCommand(String cacheName, Address origin, int topologyId, Co
       this.stateChunks = stateChunks;
    }
 
-   public void init(StateConsumer stateConsumer) {
+   public void init(StateConsumer stateConsumer, StreamingMarshaller marshaller) {
       this.stateConsumer = stateConsumer;
+      this.marshaller = marshaller;
+   }
+
+   /**
+    * Marshalls the state chunks ahead of sending the command.
+    *
+    * @return the size of the marshalled chunks, in bytes
+    */
+   public int marshallChunks(StreamingMarshaller marshaller) throws IOException, InterruptedException {
+      marshalledChunks = marshaller.objectToByteBuffer(stateChunks);
+      return marshalledChunks.length;
    }
 
    @Override
@@ -59,8 +80,13 @@ public Object perform(InvocationContext ctx) throws Throwable {
       final boolean trace = log.isTraceEnabled();
       LogFactory.pushNDC(cacheName, trace);
       try {
+         if (stateChunks == null && marshalledChunks != null) {
+            stateChunks = (Collection<StateChunk>) marshaller.objectFromByteBuffer(marshalledChunks);
+            marshalledChunks = null;
+         }
          stateConsumer.applyState(getOrigin(), topologyId, stateChunks);
-         return null;
+         // grant the sender credits for the next chunks
+         return stateConsumer.getStateTransferCredits();
       } finally {
          LogFactory.popNDC(trace);
       }
@@ -68,7 +94,7 @@ public Object perform(InvocationContext ctx) throws Throwable {
 
    @Override
    public boolean isReturnValueExpected() {
-      return false;
+      return true;
    }
 
    @Override
@@ -83,7 +109,7 @@ public byte getCommandId() {
 
    @Override
    public Object[] getParameters() {
-      return new Object[]{getOrigin(), topologyId, stateChunks};
+      return new Object[]{getOrigin(), topologyId, marshalledChunks != null ? marshalledChunks : stateChunks};
    }
 
    @Override
@@ -91,7 +117,11 @@ public void setParameters(int commandId, Object[] parameters) {
       int i = 0;
       setOrigin((Address) parameters[i++]);
       topologyId = (Integer) parameters[i++];
-      stateChunks = (Collection<StateChunk>) parameters[i];
+      if (parameters[i] instanceof byte[]) {
+         marshalledChunks = (byte[]) parameters[i];
+      } else {
+         stateChunks = (Collection<StateChunk>) parameters[i];
+      }
    }
 
    @Override
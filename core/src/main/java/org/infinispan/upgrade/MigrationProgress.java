@@ -0,0 +1,217 @@
+package org.infinispan.upgrade;
+
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.commons.util.Util;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The progress of the synchronization of data performed by a {@link TargetMigrator}. The keys to migrate are split in
+ * segments, and the segments that were migrated completely are recorded as a checkpoint: if the synchronization fails
+ * or is interrupted, the next one skips them.
+ * <p/>
+ * The checkpoint can be saved to a file after each completed segment, so that a synchronization resumes from it even
+ * after a restart of the node. Otherwise it is only kept in memory.
+ *
+ * @since 6.0
+ */
+public class MigrationProgress {
+
+   private static final Log log = LogFactory.getLog(MigrationProgress.class);
+   private static final String TOTAL_SEGMENTS = "totalSegments";
+   private static final String SEGMENT_PREFIX = "segment.";
+
+   /**
+    * The number of keys migrated for each completed segment.
+    */
+   private final ConcurrentMap<Integer, Long> completedSegments = CollectionFactory.makeConcurrentMap();
+   private final AtomicLong migratedKeys = new AtomicLong();
+   private final AtomicLong failedKeys = new AtomicLong();
+   private volatile int totalSegments;
+   private volatile long totalKeys;
+   private final File checkpointFile;
+
+   /**
+    * Creates a progress whose checkpoint is only kept in memory.
+    */
+   public MigrationProgress() {
+      this(null);
+   }
+
+   /**
+    * Creates a progress whose checkpoint is saved to the given file, resuming from the checkpoint already saved there if
+    * any.
+    *
+    * @param checkpointFile the file of the checkpoint, or null to keep it in memory only
+    */
+   public MigrationProgress(File checkpointFile) {
+      this.checkpointFile = checkpointFile;
+      if (checkpointFile != null && checkpointFile.exists()) {
+         loadCheckpoint();
+      }
+   }
+
+   /**
+    * Starts or resumes a synchronization. The checkpoint is discarded if the keys were split in a different number of
+    * segments by the previous synchronization.
+    */
+   public synchronized void start(int totalSegments, long totalKeys) {
+      if (totalSegments != this.totalSegments) {
+         completedSegments.clear();
+      }
+      this.totalSegments = totalSegments;
+      this.totalKeys = totalKeys;
+      long checkpointedKeys = 0;
+      for (Long segmentKeys : completedSegments.values()) {
+         checkpointedKeys += segmentKeys;
+      }
+      migratedKeys.set(checkpointedKeys);
+      failedKeys.set(0);
+   }
+
+   /**
+    * Discards the checkpoint, so that the next synchronization migrates all the segments.
+    */
+   public synchronized void reset() {
+      completedSegments.clear();
+      totalSegments = 0;
+      totalKeys = 0;
+      migratedKeys.set(0);
+      failedKeys.set(0);
+      discardCheckpoint();
+   }
+
+   /**
+    * Deletes the saved checkpoint, keeping the progress in memory.
+    */
+   public synchronized void discardCheckpoint() {
+      if (checkpointFile != null && checkpointFile.exists() && !checkpointFile.delete()) {
+         log.migrationCheckpointNotSaved(checkpointFile.getPath(), new IOException("Cannot delete " + checkpointFile));
+      }
+   }
+
+   public boolean isSegmentCompleted(int segmentId) {
+      return completedSegments.containsKey(segmentId);
+   }
+
+   /**
+    * Records that all the keys of a segment were migrated.
+    */
+   public void segmentCompleted(int segmentId, long numKeys) {
+      completedSegments.put(segmentId, numKeys);
+      if (checkpointFile != null) {
+         saveCheckpoint();
+      }
+   }
+
+   public void keyMigrated() {
+      migratedKeys.incrementAndGet();
+   }
+
+   public void keyFailed() {
+      failedKeys.incrementAndGet();
+   }
+
+   public boolean isComplete() {
+      return totalSegments > 0 && completedSegments.size() >= totalSegments;
+   }
+
+   public int getCompletedSegments() {
+      return completedSegments.size();
+   }
+
+   public int getTotalSegments() {
+      return totalSegments;
+   }
+
+   public long getMigratedKeys() {
+      return migratedKeys.get();
+   }
+
+   public long getFailedKeys() {
+      return failedKeys.get();
+   }
+
+   public long getTotalKeys() {
+      return totalKeys;
+   }
+
+   private void loadCheckpoint() {
+      Properties checkpoint = new Properties();
+      InputStream in = null;
+      try {
+         in = new FileInputStream(checkpointFile);
+         checkpoint.load(in);
+         totalSegments = Integer.parseInt(checkpoint.getProperty(TOTAL_SEGMENTS));
+         for (String name : checkpoint.stringPropertyNames()) {
+            if (name.startsWith(SEGMENT_PREFIX)) {
+               completedSegments.put(Integer.valueOf(name.substring(SEGMENT_PREFIX.length())),
+                     Long.valueOf(checkpoint.getProperty(name)));
+            }
+         }
+      } catch (Exception e) {
+         // a checkpoint that cannot be read is ignored, the synchronization migrates all the segments
+         log.migrationCheckpointNotRead(checkpointFile.getPath(), e);
+         completedSegments.clear();
+         totalSegments = 0;
+      } finally {
+         Util.close(in);
+      }
+   }
+
+   /**
+    * Saves the checkpoint to a temporary file first, so that a failure while writing it doesn't lose the previous one.
+    * The segments are completed by concurrent threads, so the checkpoint is saved under the lock to never overwrite a
+    * checkpoint with an older one.
+    */
+   private synchronized void saveCheckpoint() {
+      Properties checkpoint = new Properties();
+      checkpoint.setProperty(TOTAL_SEGMENTS, String.valueOf(totalSegments));
+      for (Map.Entry<Integer, Long> e : completedSegments.entrySet()) {
+         checkpoint.setProperty(SEGMENT_PREFIX + e.getKey(), String.valueOf(e.getValue()));
+      }
+      File tmpFile = new File(checkpointFile.getPath() + ".tmp");
+      OutputStream out = null;
+      try {
+         File dir = checkpointFile.getAbsoluteFile().getParentFile();
+         if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+         }
+         out = new FileOutputStream(tmpFile);
+         checkpoint.store(out, null);
+         out.close();
+         out = null;
+         // File.renameTo() doesn't replace an existing file on all platforms
+         if (!tmpFile.renameTo(checkpointFile) && !(checkpointFile.delete() && tmpFile.renameTo(checkpointFile))) {
+            throw new IOException("Cannot rename " + tmpFile + " to " + checkpointFile);
+         }
+      } catch (IOException e) {
+         // the migration goes on, only its resumption after a restart of the node is affected
+         log.migrationCheckpointNotSaved(checkpointFile.getPath(), e);
+      } finally {
+         Util.close(out);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "MigrationProgress{" +
+            "completedSegments=" + completedSegments.size() +
+            ", totalSegments=" + totalSegments +
+            ", migratedKeys=" + migratedKeys +
+            ", failedKeys=" + failedKeys +
+            ", totalKeys=" + totalKeys +
+            '}';
+   }
+}
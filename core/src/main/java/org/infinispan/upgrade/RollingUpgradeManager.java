@@ -1,20 +1,25 @@
 package org.infinispan.upgrade;
 
 import org.infinispan.Cache;
+import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Util;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.SurvivesRestarts;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.Parameter;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
+
+import java.io.File;
 import java.util.HashSet;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -30,7 +35,15 @@
 @SurvivesRestarts
 public class RollingUpgradeManager {
    private static final Log log = LogFactory.getLog(RollingUpgradeManager.class);
+   /**
+    * The system property setting the directory where the checkpoints of the synchronizations are saved. Nodes sharing
+    * a working directory must set different ones.
+    */
+   public static final String CHECKPOINT_DIR_PROPERTY = "infinispan.upgrade.checkpoint.dir";
+   private static final String DEFAULT_CHECKPOINT_DIR = "Infinispan-RollingUpgrade";
    private final Set<SourceMigrator> sourceMigrators = new HashSet<SourceMigrator>(2);
+   private final ConcurrentMap<String, MigrationProgress> progressByMigrator = CollectionFactory.makeConcurrentMap();
+   private volatile MigrationProgress lastProgress;
    private Cache<Object, Object> cache;
    private TimeService timeService;
 
@@ -54,14 +67,98 @@ public void recordKnownGlobalKeyset() {
          displayName = "Synchronizes data from the old cluster to this using the specified migrator"
    )
    public long synchronizeData(@Parameter(name="migratorName", description="The name of the migrator to use") String migratorName) throws Exception {
+      return synchronizeData(migratorName, Runtime.getRuntime().availableProcessors());
+   }
+
+   @ManagedOperation(
+         description = "Synchronizes data from the old cluster to this using the specified migrator and number of threads",
+         displayName = "Synchronizes data from the old cluster to this using the specified migrator and number of threads"
+   )
+   public long synchronizeData(@Parameter(name="migratorName", description="The name of the migrator to use") String migratorName,
+                               @Parameter(name="threads", description="The number of concurrent threads fetching data") int threads) throws Exception {
       TargetMigrator migrator = getMigrator(migratorName);
+      MigrationProgress progress = getProgress(migrator.getName());
+      // resume from the checkpoint of a failed synchronization, but start a new one after a successful one
+      if (progress.isComplete()) {
+         progress.reset();
+      }
+      lastProgress = progress;
       long start = timeService.time();
-      long count = migrator.synchronizeData(cache);
+      long count = migrator.synchronizeData(cache, progress, Math.max(1, threads));
+      if (progress.isComplete()) {
+         // the next synchronization starts over, even after a restart of the node
+         progress.discardCheckpoint();
+      }
       log.entriesMigrated(count, cache.getName(), Util.prettyPrintTime(timeService.timeDuration(start, TimeUnit.MILLISECONDS)));
       return count;
 
    }
 
+   @ManagedOperation(
+         description = "Discards the checkpoint of the synchronization performed with the specified migrator, so that the next synchronization migrates all the data",
+         displayName = "Discards the checkpoint of the synchronization"
+   )
+   public void resetSynchronization(@Parameter(name="migratorName", description="The name of the migrator to use") String migratorName) throws Exception {
+      getProgress(getMigrator(migratorName).getName()).reset();
+   }
+
+   @ManagedAttribute(
+         description = "Number of keys migrated by the last synchronization, including the ones migrated before its checkpoint",
+         displayName = "Number of migrated keys"
+   )
+   public long getMigratedKeys() {
+      MigrationProgress progress = lastProgress;
+      return progress != null ? progress.getMigratedKeys() : 0;
+   }
+
+   @ManagedAttribute(
+         description = "Number of keys the last synchronization failed to migrate",
+         displayName = "Number of keys failed to migrate"
+   )
+   public long getFailedKeys() {
+      MigrationProgress progress = lastProgress;
+      return progress != null ? progress.getFailedKeys() : 0;
+   }
+
+   @ManagedAttribute(
+         description = "Number of keys to migrate by the last synchronization",
+         displayName = "Number of keys to migrate"
+   )
+   public long getTotalKeys() {
+      MigrationProgress progress = lastProgress;
+      return progress != null ? progress.getTotalKeys() : 0;
+   }
+
+   @ManagedAttribute(
+         description = "Percentage of the segments of keys completely migrated by the last synchronization",
+         displayName = "Synchronization progress"
+   )
+   public double getSynchronizationProgress() {
+      MigrationProgress progress = lastProgress;
+      if (progress == null || progress.getTotalSegments() == 0)
+         return 0;
+      return 100.0 * progress.getCompletedSegments() / progress.getTotalSegments();
+   }
+
+   private MigrationProgress getProgress(String migratorName) {
+      String name = migratorName.toLowerCase();
+      MigrationProgress progress = progressByMigrator.get(name);
+      if (progress == null) {
+         progress = new MigrationProgress(getCheckpointFile(name));
+         MigrationProgress existing = progressByMigrator.putIfAbsent(name, progress);
+         if (existing != null) {
+            progress = existing;
+         }
+      }
+      return progress;
+   }
+
+   private File getCheckpointFile(String migratorName) {
+      String dir = System.getProperty(CHECKPOINT_DIR_PROPERTY, DEFAULT_CHECKPOINT_DIR);
+      String fileName = (cache.getName() + "-" + migratorName).replaceAll("[^\\w.-]", "_") + ".checkpoint";
+      return new File(dir, fileName);
+   }
+
    @ManagedOperation(
          description = "Disconnects the target cluster from the source cluster according to the specified migrator",
          displayName = "Disconnects the target cluster from the source cluster"
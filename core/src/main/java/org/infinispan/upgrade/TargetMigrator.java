@@ -15,10 +15,21 @@ public interface TargetMigrator {
     */
    String getName();
    /**
-    * Performs the synchronization of data between source and target by retrieving the set of known keys and fetching each key in turn
+    * Performs the synchronization of data between source and target by retrieving the set of known keys and fetching
+    * them with as many threads as there are processors. Equivalent to
+    * {@link #synchronizeData(Cache, MigrationProgress, int)} with a new progress, so all the keys are migrated.
     */
    long synchronizeData(Cache<Object, Object> cache) throws CacheException;
 
+   /**
+    * Performs the synchronization of data between source and target by retrieving the set of known keys and fetching
+    * them with the given number of concurrent threads. The keys are migrated segment by segment, skipping the segments
+    * already recorded as completed in the progress by a previous synchronization.
+    *
+    * @return the number of keys migrated by this synchronization
+    */
+   long synchronizeData(Cache<Object, Object> cache, MigrationProgress progress, int threads) throws CacheException;
+
    /**
     * Disconnects the target from the source. This operation is the last step that must be performed after a rolling upgrade.
     */
@@ -131,6 +131,12 @@
     */
    static final int MAXIMUM_CAPACITY = 1 << 30;
 
+   /**
+    * The average weight assumed to size the segments of a map bounded only by the weight of its entries. A poor
+    * estimate doesn't change what is evicted, only the length of the hash chains.
+    */
+   static final int ESTIMATED_ENTRY_WEIGHT = 256;
+
    /**
     * The maximum number of segments to allow; used to bound
     * constructor arguments.
@@ -172,6 +178,17 @@
    private transient final EvictionListener<K, V> evictionListener;
    private final int evictCap;
 
+   /**
+    * The number of entries each segment is sized for.
+    */
+   private final int expectedSegmentSize;
+
+   /**
+    * The weight budget of each segment, or a negative value if the map is only bounded by the number of entries.
+    */
+   private final long evictWeightCap;
+   private transient final Weigher<? super K, ? super V> weigher;
+
    /* ---------------- Small Utilities -------------- */
 
    /**
@@ -220,6 +237,8 @@ final Segment<K,V> segmentFor(int hash) {
       final int hash;
       volatile V value;
       final HashEntry<K, V> next;
+      /** The weight of the current value, see {@link Weigher}. Guarded by the segment lock. */
+      int weight;
 
       HashEntry(K key, int hash, HashEntry<K, V> next, V value) {
          this.key = key;
@@ -262,29 +281,61 @@ private enum Recency {
    public enum Eviction {
       NONE {
          @Override
-         public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
+         public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, int expectedSize, float lf) {
             return new NullEvictionPolicy<K, V>();
          }
       },
       LRU {
          @Override
-         public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
+         public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, int expectedSize, float lf) {
             boolean isIBMJavaVendor = Util.isIBMJavaVendor();
             if (isIBMJavaVendor) {
-               return new IBMLRU<K, V>(s,capacity,lf,capacity*10,lf);
+               return new IBMLRU<K, V>(s,capacity,expectedSize,lf,maxBatchSize(expectedSize),lf);
             } else {
-               return new LRU<K, V>(s,capacity,lf,capacity*10,lf);
+               return new LRU<K, V>(s,capacity,expectedSize,lf,maxBatchSize(expectedSize),lf);
             }
          }
       },
       LIRS {
          @Override
-         public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
-            return new LIRS<K,V>(s,capacity,capacity*10,lf);
+         public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, int expectedSize, float lf) {
+            return new LIRS<K,V>(s,capacity,expectedSize,maxBatchSize(expectedSize),lf);
+         }
+      },
+      TINY_LFU {
+         @Override
+         public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, int expectedSize, float lf) {
+            return new TinyLFU<K,V>(s,capacity,expectedSize,maxBatchSize(expectedSize),lf);
          }
       };
 
-      abstract <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf);
+      /**
+       * @param capacity the maximum number of entries in the segment
+       * @param expectedSize the number of entries the segment is sized for: the capacity, unless the map is only
+       *                     bounded by weight
+       */
+      abstract <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, int expectedSize, float lf);
+
+      private static int maxBatchSize(int expectedSize) {
+         return (int) Math.min(10L * expectedSize, Integer.MAX_VALUE);
+      }
+   }
+
+   /**
+    * Computes the weight of map entries, used to bound the map by the total weight of its entries (typically an
+    * estimate of their memory footprint in bytes) rather than just by their number.
+    * <p>
+    * Implementations are invoked while holding a segment lock, so they must be fast and must not access the map.
+    */
+   public interface Weigher<K, V> {
+
+      /**
+       * Returns the weight of an entry. The weight of an entry is computed when it is written and doesn't change
+       * until the next write.
+       *
+       * @return a non-negative weight
+       */
+      int weigh(K key, V value);
    }
 
    public interface EvictionListener<K, V> {
@@ -388,6 +439,14 @@ public void onEntryRemoved(Object key) {
        * @return true if batching threshold has expired, false otherwise.
        */
       boolean thresholdExpired();
+
+      /**
+       * Evicts entries, in the order this algorithm would choose them, until the total weight of the Segment
+       * entries is back within the Segment weight budget. Invoked while holding a lock on Segment.
+       *
+       * @return non null set of evicted entries.
+       */
+      Set<HashEntry<K, V>> trimToWeight();
    }
 
    static class NullEvictionPolicy<K, V> implements EvictionPolicy<K, V> {
@@ -426,6 +485,11 @@ public boolean thresholdExpired() {
       public Eviction strategy() {
          return Eviction.NONE;
       }
+
+      @Override
+      public Set<HashEntry<K, V>> trimToWeight() {
+         return InfinispanCollections.emptySet();
+      }
       
       @Override
       public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V value) {
@@ -446,8 +510,8 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       private final Set<HashEntry<K, V>> evicted;
       private final AtomicInteger accessQueueSize = new AtomicInteger(0);
 
-      public LRU(Segment<K,V> s, int capacity, float lf, int maxBatchSize, float batchThresholdFactor) {
-         super(capacity, lf, true);
+      public LRU(Segment<K,V> s, int capacity, int expectedSize, float lf, int maxBatchSize, float batchThresholdFactor) {
+         super(expectedSize, lf, true);
          this.segment = s;
          this.trimDownSize = capacity;
          this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
@@ -525,6 +589,21 @@ protected boolean isAboveThreshold(){
          return size() > trimDownSize;
       }
 
+      @Override
+      public Set<HashEntry<K, V>> trimToWeight() {
+         Set<HashEntry<K, V>> trimmed = new HashSet<HashEntry<K, V>>();
+         while (segment.isOverweight() && !isEmpty()) {
+            // the iteration order is the access order, so the first entry is the least recently used one
+            HashEntry<K, V> eldest = keySet().iterator().next();
+            if (segment.remove(eldest.key, eldest.hash, null, true) != null) {
+               trimmed.add(eldest);
+            } else {
+               remove(eldest);
+            }
+         }
+         return trimmed;
+      }
+
       @Override
       protected boolean removeEldestEntry(Map.Entry<HashEntry<K,V>,V> eldest){
          boolean aboveThreshold = isAboveThreshold();
@@ -560,8 +639,8 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       private LRUHashEntry<K, V> head;
       private final AtomicInteger accessQueueSize = new AtomicInteger(0);
 
-      public IBMLRU(Segment<K,V> s, int capacity, float lf, int maxBatchSize, float batchThresholdFactor) {
-         super(capacity, lf);
+      public IBMLRU(Segment<K,V> s, int capacity, int expectedSize, float lf, int maxBatchSize, float batchThresholdFactor) {
+         super(expectedSize, lf);
          this.segment = s;
          this.trimDownSize = capacity;
          this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
@@ -658,6 +737,21 @@ protected boolean isAboveThreshold(){
          return size() > trimDownSize;
       }
 
+      @Override
+      public Set<HashEntry<K, V>> trimToWeight() {
+         Set<HashEntry<K, V>> trimmed = new HashSet<HashEntry<K, V>>();
+         while (segment.isOverweight() && head.nextEntry != head) {
+            LRUHashEntry<K, V> eldest = head.nextEntry;
+            if (segment.remove(eldest.key, eldest.hash, null, true) != null) {
+               trimmed.add(eldest);
+            } else {
+               remove(eldest);
+               eldest.remove();
+            }
+         }
+         return trimmed;
+      }
+
       public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V value) {
          return new LRUHashEntry<K, V>(key, hash, next, value);
       }
@@ -701,6 +795,224 @@ public boolean equals(Object o) {
       }
    }
 
+   /**
+    * A W-TinyLFU eviction policy, see "TinyLFU: A Highly Efficient Cache Admission Policy" by Einziger and Friedman.
+    * <p>
+    * New entries are added to a small LRU window. When the segment is full, the least recently used entry of the
+    * window competes with the least recently used entry of the main LRU region, and the one with the lower access
+    * frequency, as estimated by a {@link FrequencySketch}, is evicted. Entries which are accessed only once, e.g. by a
+    * full scan, thus can't flush out the frequently accessed ones.
+    * <p>
+    * Accesses are recorded in the access queue and applied in batches, like with {@link LRU}.
+    */
+   static final class TinyLFU<K, V> implements EvictionPolicy<K, V> {
+
+      /** The percentage of the capacity dedicated to the admission window. */
+      private static final float WINDOW_RATIO = 0.01f;
+
+      private final ConcurrentLinkedQueue<TinyLFUHashEntry<K, V>> accessQueue;
+      private final AtomicInteger accessQueueSize = new AtomicInteger(0);
+      private final Segment<K,V> segment;
+      private final int maxBatchQueueSize;
+      private final float batchQueueSizeThreshold;
+      private final int maximumSize;
+      private final int maximumWindowSize;
+      private final FrequencySketch sketch;
+
+      /** The sentinels of the window and main LRU lists, least recently used entries first */
+      private final TinyLFUHashEntry<K, V> window = TinyLFUHashEntry.sentinel();
+      private final TinyLFUHashEntry<K, V> main = TinyLFUHashEntry.sentinel();
+      private int windowSize;
+      private int mainSize;
+
+      public TinyLFU(Segment<K,V> s, int capacity, int expectedSize, int maxBatchSize, float batchThresholdFactor) {
+         this.segment = s;
+         this.maximumSize = capacity;
+         this.maximumWindowSize = Math.max(1, (int) (expectedSize * WINDOW_RATIO));
+         this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
+         this.batchQueueSizeThreshold = batchThresholdFactor * this.maxBatchQueueSize;
+         this.accessQueue = new ConcurrentLinkedQueue<TinyLFUHashEntry<K, V>>();
+         this.sketch = new FrequencySketch(expectedSize);
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> execute() {
+         try {
+            for (TinyLFUHashEntry<K, V> e : accessQueue) {
+               TinyLFUHashEntry<K, V> list = e.list;
+               if (list != null) {
+                  sketch.increment(e.hash);
+                  e.unlink();
+                  e.linkLast(list);
+               }
+            }
+         } finally {
+            accessQueue.clear();
+            accessQueueSize.set(0);
+         }
+         return evict();
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> onEntryMiss(HashEntry<K, V> en) {
+         TinyLFUHashEntry<K, V> e = (TinyLFUHashEntry<K, V>) en;
+         sketch.increment(e.hash);
+         e.linkLast(window);
+         windowSize++;
+         return evict();
+      }
+
+      /**
+       * Moves the entries overflowing the window to the main region and, if the segment is full, evicts the entries
+       * losing the frequency comparison.
+       */
+      private Set<HashEntry<K, V>> evict() {
+         Set<HashEntry<K, V>> evicted = null;
+         while (windowSize + mainSize > maximumSize) {
+            TinyLFUHashEntry<K, V> candidate = windowSize > 0 ? window.nextEntry : null;
+            TinyLFUHashEntry<K, V> victim = mainSize > 0 ? main.nextEntry : null;
+            TinyLFUHashEntry<K, V> loser;
+            if (candidate == null || (windowSize <= maximumWindowSize && victim != null)) {
+               loser = victim;
+            } else if (victim == null || sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash)) {
+               loser = candidate;
+            } else {
+               loser = victim;
+            }
+            if (evicted == null) {
+               evicted = new HashSet<HashEntry<K, V>>();
+            }
+            evict(loser, evicted);
+         }
+         while (windowSize > maximumWindowSize) {
+            TinyLFUHashEntry<K, V> candidate = window.nextEntry;
+            candidate.unlink();
+            windowSize--;
+            candidate.linkLast(main);
+            mainSize++;
+         }
+         return evicted == null ? InfinispanCollections.<HashEntry<K, V>>emptySet() : evicted;
+      }
+
+      private void evict(TinyLFUHashEntry<K, V> e, Set<HashEntry<K, V>> evicted) {
+         if (segment.remove(e.key, e.hash, null, true) != null) {
+            evicted.add(e);
+         } else {
+            onEntryRemove(e);
+         }
+      }
+
+      /*
+       * Invoked without holding a lock on Segment
+       */
+      @Override
+      public boolean onEntryHit(HashEntry<K, V> e) {
+         accessQueue.add((TinyLFUHashEntry<K, V>) e);
+         int sz = accessQueueSize.incrementAndGet();
+         return sz >= batchQueueSizeThreshold;
+      }
+
+      /*
+       * Invoked without holding a lock on Segment
+       */
+      @Override
+      public boolean thresholdExpired() {
+         return accessQueueSize.get() >= maxBatchQueueSize;
+      }
+
+      @Override
+      public void onEntryRemove(HashEntry<K, V> en) {
+         TinyLFUHashEntry<K, V> e = (TinyLFUHashEntry<K, V>) en;
+         if (e.list == window) {
+            windowSize--;
+         } else if (e.list == main) {
+            mainSize--;
+         }
+         e.unlink();
+         // we could have multiple instances of e in accessQueue; remove them all
+         while (accessQueue.remove(e)) {
+            accessQueueSize.decrementAndGet();
+         }
+      }
+
+      @Override
+      public void clear() {
+         window.previousEntry = window.nextEntry = window;
+         main.previousEntry = main.nextEntry = main;
+         windowSize = 0;
+         mainSize = 0;
+         sketch.clear();
+         accessQueue.clear();
+         accessQueueSize.set(0);
+      }
+
+      @Override
+      public Eviction strategy() {
+         return Eviction.TINY_LFU;
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> trimToWeight() {
+         Set<HashEntry<K, V>> trimmed = new HashSet<HashEntry<K, V>>();
+         while (segment.isOverweight() && windowSize + mainSize > 0) {
+            evict(mainSize > 0 ? main.nextEntry : window.nextEntry, trimmed);
+         }
+         return trimmed;
+      }
+
+      @Override
+      public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V value) {
+         return new TinyLFUHashEntry<K, V>(key, hash, next, value);
+      }
+   }
+
+   private static final class TinyLFUHashEntry<K,V> extends HashEntry<K,V> {
+
+      TinyLFUHashEntry<K,V> previousEntry, nextEntry;
+
+      /** The sentinel of the list the entry is linked in, or null if it isn't linked */
+      TinyLFUHashEntry<K,V> list;
+
+      TinyLFUHashEntry(K key, int hash, HashEntry<K,V> next, V value) {
+         super(key, hash, next, value);
+      }
+
+      static <K, V> TinyLFUHashEntry<K, V> sentinel() {
+         TinyLFUHashEntry<K, V> sentinel = new TinyLFUHashEntry<K, V>(null, -1, null, null);
+         sentinel.previousEntry = sentinel.nextEntry = sentinel;
+         return sentinel;
+      }
+
+      void linkLast(TinyLFUHashEntry<K,V> sentinel) {
+         list = sentinel;
+         nextEntry = sentinel;
+         previousEntry = sentinel.previousEntry;
+         previousEntry.nextEntry = this;
+         sentinel.previousEntry = this;
+      }
+
+      void unlink() {
+         if (list != null) {
+            previousEntry.nextEntry = nextEntry;
+            nextEntry.previousEntry = previousEntry;
+            previousEntry = nextEntry = null;
+            list = null;
+         }
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) {
+            return true;
+         }
+         if (!(o instanceof HashEntry)) {
+            return false;
+         }
+         HashEntry<?, ?> other = (HashEntry<?, ?>) o;
+         return hash == other.hash && key.equals(other.key);
+      }
+   }
+
    /**
     * Adapted to Infinispan BoundedConcurrentHashMap using LIRS implementation ideas from Charles Fry (fry@google.com)   
     * See http://code.google.com/p/concurrentlinkedhashmap/source/browse/trunk/src/test/java/com/googlecode/concurrentlinkedhashmap/caches/LirsMap.java
@@ -1163,10 +1475,11 @@ private V remove() {
 
             
 
-      public LIRS(Segment<K,V> s, int capacity, int maxBatchSize, float batchThresholdFactor) {
+      public LIRS(Segment<K,V> s, int capacity, int expectedSize, int maxBatchSize, float batchThresholdFactor) {
          this.segment = s;
          this.maximumSize = capacity;
-         this.maximumHotSize = calculateLIRSize(capacity);
+         // a map bounded only by weight keeps the cold entries in excess of its expected size in the queue
+         this.maximumHotSize = calculateLIRSize(expectedSize);
          this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
          this.batchQueueSizeThreshold = batchThresholdFactor * this.maxBatchQueueSize;
          this.accessQueue = new ConcurrentLinkedQueue<LIRSHashEntry<K, V>>();                         
@@ -1275,6 +1588,31 @@ public Eviction strategy() {
          return Eviction.LIRS;
       }
 
+      @Override
+      public Set<HashEntry<K, V>> trimToWeight() {
+         Set<HashEntry<K, V>> trimmed = new HashSet<HashEntry<K, V>>();
+         while (segment.isOverweight()) {
+            // cold entries go first, then the least recently used hot entries
+            LIRSHashEntry<K, V> victim = queueFront();
+            if (victim == null) {
+               victim = stackBottom();
+               if (victim == null) {
+                  break;
+               }
+            }
+            victim.evict();
+            if (segment.remove(victim.key, victim.hash, null, true) != null) {
+               trimmed.add(victim);
+            }
+            // evicting the stack bottom may leave cold entries at the bottom, which must be pruned like after a miss
+            Set<HashEntry<K, V>> pruned = new HashSet<HashEntry<K, V>>();
+            pruneStack(pruned);
+            removeFromSegment(pruned);
+            trimmed.addAll(pruned);
+         }
+         return trimmed;
+      }
+
       /**
        * Returns the entry at the bottom of the stack.
        */
@@ -1356,6 +1694,11 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
        */
       transient volatile int count;
 
+      /**
+       * The total weight of the entries in this segment's region, see {@link Weigher}.
+       */
+      transient volatile long weight;
+
       /**
        * Number of updates that alter the size of the table. This is
        * used during bulk-read methods to make sure they see a
@@ -1393,7 +1736,7 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       Segment(int cap, float lf, Eviction es, BoundedConcurrentHashMap map) {
          this.map = map;
          loadFactor = lf;
-         eviction = es.make(this, map.evictCap, lf);
+         eviction = es.make(this, map.evictCap, map.expectedSegmentSize, lf);
          setTable(HashEntry.<K, V> newArray(cap));
       }
 
@@ -1406,6 +1749,46 @@ EvictionListener<K, V> getEvictionListener() {
          return map.evictionListener;
       }
 
+      @SuppressWarnings("unchecked")
+      int weigh(K key, V value) {
+         Weigher<? super K, ? super V> weigher = map.weigher;
+         return weigher == null ? 0 : weigher.weigh(key, value);
+      }
+
+      /**
+       * Returns true if the entries of this segment exceed the segment weight budget.
+       * Call only while holding lock.
+       */
+      boolean isOverweight() {
+         return map.evictWeightCap >= 0 && weight > map.evictWeightCap;
+      }
+
+      /**
+       * Evicts entries until the segment is within its weight budget, if necessary.
+       * Call only while holding lock.
+       */
+      Set<HashEntry<K, V>> trimToWeight(Set<HashEntry<K, V>> evicted) {
+         if (!isOverweight()) {
+            return evicted;
+         }
+         Set<HashEntry<K, V>> trimmed = eviction.trimToWeight();
+         if (evicted == null || evicted.isEmpty()) {
+            return trimmed;
+         }
+         evicted.addAll(trimmed);
+         return evicted;
+      }
+
+      /**
+       * Updates the weight of an existing entry after its value has changed.
+       * Call only while holding lock.
+       */
+      void reweigh(HashEntry<K, V> e) {
+         int w = weigh(e.key, e.value);
+         weight += w - e.weight;
+         e.weight = w;
+      }
+
       /**
        * Sets table to new HashEntry array.
        * Call only while holding lock or in constructor.
@@ -1516,9 +1899,11 @@ boolean replace(K key, int hash, V oldValue, V newValue) {
             if (e != null && map.valueEquivalence.equals(oldValue, e.value)) {
                replaced = true;
                e.value = newValue;
+               reweigh(e);
                if (eviction.onEntryHit(e)) {
                   evicted = attemptEviction(true);
                }
+               evicted = trimToWeight(evicted);
             }
             return replaced;
          } finally {
@@ -1540,9 +1925,11 @@ V replace(K key, int hash, V newValue) {
             if (e != null) {
                oldValue = e.value;
                e.value = newValue;
+               reweigh(e);
                if (eviction.onEntryHit(e)) {
                   evicted = attemptEviction(true);
                }
+               evicted = trimToWeight(evicted);
             }
             return oldValue;
          } finally {
@@ -1572,7 +1959,9 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                oldValue = e.value;
                if (!onlyIfAbsent) {
                   e.value = value;
+                  reweigh(e);
                   eviction.onEntryHit(e);
+                  evicted = trimToWeight(null);
                }
             } else {
                oldValue = null;
@@ -1587,6 +1976,8 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                   }
                   // add a new entry
                   tab[index] = eviction.createNewEntry(key, hash, first, value);
+                  tab[index].weight = weigh(key, value);
+                  weight += tab[index].weight;
                   // notify a miss
                   Set<HashEntry<K, V>> newlyEvicted = eviction.onEntryMiss(tab[index]);
                   if (!newlyEvicted.isEmpty()) {
@@ -1596,8 +1987,11 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                         evicted = newlyEvicted;
                      }
                   }
+                  evicted = trimToWeight(evicted);
                } else {
                   tab[index] = eviction.createNewEntry(key, hash, first, value);
+                  tab[index].weight = weigh(key, value);
+                  weight += tab[index].weight;
                }
                // When entry not present, attempt to activate if necessary
                map.evictionListener.onEntryActivated(key);
@@ -1665,6 +2059,7 @@ void rehash() {
                      int k = p.hash & sizeMask;
                      HashEntry<K,V> n = newTable[k];
                      newTable[k] = eviction.createNewEntry(p.key, p.hash, n, p.value);
+                     newTable[k].weight = p.weight;
                   }
                }
             }
@@ -1705,6 +2100,7 @@ V remove(Object key, int hash, Object value, boolean isEvict) {
 
                   // e was removed
                   eviction.onEntryRemove(e);
+                  weight -= e.weight;
 
                   HashEntry<K, V> newFirst = e.next;
                   for (HashEntry<K, V> p = first; p != e; p = p.next) {
@@ -1712,6 +2108,7 @@ V remove(Object key, int hash, Object value, boolean isEvict) {
                      // allow p to be GC-ed
                      eviction.onEntryRemove(p);
                      newFirst = eviction.createNewEntry(p.key, p.hash, newFirst, p.value);
+                     newFirst.weight = p.weight;
                      // and notify eviction algorithm about new hash entries
                      eviction.onEntryMiss(newFirst);
                   }
@@ -1750,6 +2147,7 @@ void clear() {
                }
                ++modCount;
                eviction.clear();
+               weight = 0;
                count = 0; // write-volatile
             } finally {
                unlock();
@@ -1832,6 +2230,42 @@ private void notifyEvictionListener(Set<HashEntry<K, V>> evicted) {
    public BoundedConcurrentHashMap(int capacity, int concurrencyLevel,
          Eviction evictionStrategy, EvictionListener<K, V> evictionListener,
          Equivalence<K> keyEquivalence, Equivalence<V> valueEquivalence) {
+      this(capacity, concurrencyLevel, evictionStrategy, evictionListener, keyEquivalence, valueEquivalence, -1, null);
+   }
+
+   /**
+    * Creates a new, empty map bounded both by the number of its entries and by their total weight, with the specified
+    * concurrency level, eviction strategy and eviction listener.
+    *
+    * @param capacity
+    *            is the upper bound capacity for the number of elements in this map, or 0 if the map should only be
+    *            bounded by the total weight of its elements
+    *
+    * @param concurrencyLevel
+    *            the estimated number of concurrently updating threads. The implementation performs
+    *            internal sizing to try to accommodate this many threads.
+    *
+    * @param evictionStrategy
+    *            the algorithm used to evict elements from this map
+    *
+    * @param evictionListener
+    *            the evicton listener callback to be notified about evicted elements
+    *
+    * @param maxWeight
+    *            the upper bound for the total weight of the elements in this map, or a negative value if the
+    *            map should only be bounded by the number of elements. The budget is split evenly between segments.
+    *
+    * @param weigher
+    *            computes the weight of the elements, cannot be null if maxWeight is not negative
+    *
+    * @throws IllegalArgumentException
+    *             if the initial capacity is negative or the load factor or concurrencyLevel are
+    *             nonpositive.
+    */
+   public BoundedConcurrentHashMap(int capacity, int concurrencyLevel,
+         Eviction evictionStrategy, EvictionListener<K, V> evictionListener,
+         Equivalence<K> keyEquivalence, Equivalence<V> valueEquivalence,
+         long maxWeight, Weigher<? super K, ? super V> weigher) {
       this.keyEquivalence = keyEquivalence;
       this.valueEquivalence = valueEquivalence;
 
@@ -1839,6 +2273,16 @@ public BoundedConcurrentHashMap(int capacity, int concurrencyLevel,
          throw new IllegalArgumentException();
       }
 
+      if (maxWeight >= 0 && weigher == null) {
+         throw new IllegalArgumentException("A weigher is required to bound the map by weight");
+      }
+
+      // a map bounded only by weight can't rehash its segments either, so they are sized for entries of average weight
+      boolean weightOnly = capacity == 0 && maxWeight >= 0;
+      if (weightOnly) {
+         capacity = (int) Math.max(2, Math.min(maxWeight / ESTIMATED_ENTRY_WEIGHT, MAXIMUM_CAPACITY));
+      }
+
       concurrencyLevel = Math.min(capacity / 2, concurrencyLevel); // concurrencyLevel cannot be > capacity/2
       concurrencyLevel = Math.max(concurrencyLevel, 1); // concurrencyLevel cannot be less than 1
 
@@ -1877,7 +2321,10 @@ public BoundedConcurrentHashMap(int capacity, int concurrencyLevel,
          cap <<= 1;
       }
 
-      this.evictCap = c;
+      this.evictCap = weightOnly ? Integer.MAX_VALUE : c;
+      this.expectedSegmentSize = c;
+      this.evictWeightCap = maxWeight < 0 ? -1 : maxWeight / ssize;
+      this.weigher = weigher;
 
       for (int i = 0; i < this.segments.length; ++i) {
          this.segments[i] = new Segment<K, V>(cap, DEFAULT_LOAD_FACTOR, evictionStrategy, this);
@@ -1951,6 +2398,20 @@ public BoundedConcurrentHashMap(Equivalence<K> keyEquivalence, Equivalence<V> va
       this(DEFAULT_MAXIMUM_CAPACITY, DEFAULT_CONCURRENCY_LEVEL, keyEquivalence, valueEquivalence);
    }
 
+   /**
+    * Returns the total weight of the entries in this map, as computed by the {@link Weigher} the map was created with.
+    * The result is an estimate if the map is concurrently modified.
+    *
+    * @return the total weight of the entries, or 0 if the map has no weigher
+    */
+   public long getWeight() {
+      long weight = 0;
+      for (Segment<K, V> segment : segments) {
+         weight += segment.weight;
+      }
+      return weight;
+   }
+
    /**
     * Returns <tt>true</tt> if this map contains no key-value mappings.
     *
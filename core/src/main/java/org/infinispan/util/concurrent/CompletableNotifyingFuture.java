@@ -0,0 +1,103 @@
+package org.infinispan.util.concurrent;
+
+import org.infinispan.commons.util.concurrent.BaseNotifyingFuture;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link NotifyingFuture} which is explicitly completed by whoever produces its result, e.g. the thread receiving a
+ * response from a remote node. Unlike the futures returned by an executor, no thread is blocked while the result is
+ * being computed.
+ * <p/>
+ * Only the first call to {@link #complete(Object)}, {@link #completeExceptionally(Throwable)} or
+ * {@link #cancel(boolean)} has any effect. The listeners are invoked by the thread completing the future, so they
+ * must not block.
+ *
+ * @since 6.0
+ */
+public class CompletableNotifyingFuture<T> extends BaseNotifyingFuture<T> implements NotifyingFuture<T> {
+
+   private final CountDownLatch done = new CountDownLatch(1);
+   private final AtomicBoolean completing = new AtomicBoolean();
+   private volatile T value;
+   private volatile Throwable failure;
+   private volatile boolean cancelled;
+
+   /**
+    * @return {@code true} if the future was completed by this call.
+    */
+   public boolean complete(T value) {
+      if (!completing.compareAndSet(false, true))
+         return false;
+      this.value = value;
+      finish();
+      return true;
+   }
+
+   /**
+    * @return {@code true} if the future was completed by this call.
+    */
+   public boolean completeExceptionally(Throwable failure) {
+      if (!completing.compareAndSet(false, true))
+         return false;
+      this.failure = failure;
+      finish();
+      return true;
+   }
+
+   @Override
+   public boolean cancel(boolean mayInterruptIfRunning) {
+      if (!completing.compareAndSet(false, true))
+         return false;
+      cancelled = true;
+      finish();
+      return true;
+   }
+
+   @Override
+   public boolean isCancelled() {
+      return cancelled;
+   }
+
+   @Override
+   public boolean isDone() {
+      return done.getCount() == 0;
+   }
+
+   @Override
+   public T get() throws InterruptedException, ExecutionException {
+      done.await();
+      return report();
+   }
+
+   @Override
+   public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+                                                     java.util.concurrent.TimeoutException {
+      if (!done.await(timeout, unit))
+         throw new java.util.concurrent.TimeoutException();
+      return report();
+   }
+
+   @Override
+   public NotifyingFuture<T> attachListener(FutureListener<T> listener) {
+      attachListener((org.infinispan.commons.util.concurrent.FutureListener<T>) listener);
+      return this;
+   }
+
+   private void finish() {
+      done.countDown();
+      notifyDone();
+   }
+
+   private T report() throws ExecutionException {
+      if (cancelled)
+         throw new CancellationException();
+      if (failure != null)
+         throw new ExecutionException(failure);
+      return value;
+   }
+}
@@ -0,0 +1,87 @@
+package org.infinispan.util.concurrent;
+
+/**
+ * A count-min sketch estimating the access frequency of the entries of a {@link BoundedConcurrentHashMap} segment,
+ * used by the TinyLFU admission policy.
+ * <p>
+ * Each key hash is mapped to four 4-bit counters (saturating at 15) and its frequency is the minimum of them. To keep
+ * the estimate representative of recent history, all the counters are halved once the number of recorded accesses
+ * reaches the sample size ("aging", see "TinyLFU: A Highly Efficient Cache Admission Policy" by Einziger and Friedman).
+ * <p>
+ * Not thread safe: the owning segment only uses it while holding its lock.
+ *
+ * @since 6.0
+ */
+final class FrequencySketch {
+
+   private static final int[] SEEDS = {0x97cb3127, 0xb7b2d4a1, 0xc2b2ae35, 0x27d4eb2f};
+
+   static final int MAX_FREQUENCY = 15;
+
+   private final byte[] table;
+   private final int mask;
+   private final int sampleSize;
+   private int additions;
+
+   /**
+    * @param capacity the maximum number of entries whose frequency must be tracked
+    */
+   FrequencySketch(int capacity) {
+      int length = 64;
+      while (length < capacity && length < (1 << 28)) {
+         length <<= 1;
+      }
+      // four counters per entry
+      table = new byte[length << 2];
+      mask = table.length - 1;
+      sampleSize = capacity <= 0 ? 10 : (int) Math.min(10L * capacity, Integer.MAX_VALUE);
+   }
+
+   /**
+    * Records an access to the key with the given hash.
+    */
+   void increment(int hash) {
+      boolean added = false;
+      for (int i = 0; i < SEEDS.length; i++) {
+         int index = indexOf(hash, i);
+         if (table[index] < MAX_FREQUENCY) {
+            table[index]++;
+            added = true;
+         }
+      }
+      if (added && ++additions >= sampleSize) {
+         age();
+      }
+   }
+
+   /**
+    * Returns the estimated number of accesses to the key with the given hash, capped at {@link #MAX_FREQUENCY}.
+    */
+   int frequency(int hash) {
+      int frequency = MAX_FREQUENCY;
+      for (int i = 0; i < SEEDS.length; i++) {
+         frequency = Math.min(frequency, table[indexOf(hash, i)]);
+      }
+      return frequency;
+   }
+
+   void clear() {
+      for (int i = 0; i < table.length; i++) {
+         table[i] = 0;
+      }
+      additions = 0;
+   }
+
+   private void age() {
+      for (int i = 0; i < table.length; i++) {
+         table[i] >>= 1;
+      }
+      additions >>= 1;
+   }
+
+   private int indexOf(int hash, int i) {
+      int h = (hash + SEEDS[i]) * SEEDS[i];
+      h ^= h >>> 16;
+      return h & mask;
+   }
+}
@@ -109,6 +109,8 @@ public Object getOwner(Object key) {
 
          if (l instanceof OwnableReentrantLock) {
             return ((OwnableReentrantLock) l).getOwner();
+         } else if (l instanceof InlineLockContainer.InlineLock) {
+            return ((InlineLockContainer.InlineLock) l).getOwner();
          } else if (l instanceof VisibleOwnerReentrantLock) {
             Thread owner = ((VisibleOwnerReentrantLock) l).getOwner();
             // Don't assume the key is unlocked if getOwner() returned null.
@@ -0,0 +1,394 @@
+package org.infinispan.util.concurrent.locks.containers;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.commons.util.Util;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.infinispan.commons.util.Util.toStr;
+
+/**
+ * A per-entry lock container which doesn't allocate while acquiring and releasing locks.
+ * <p/>
+ * The lock state is kept inline in a pre-sized table of reusable {@link InlineLock}s, indexed by the hash of the key.
+ * A slot is bound to a key while the key is locked or waited for, and is freed (but not discarded) when the last owner
+ * releases it. Overflow slots are only chained to a bucket when several keys mapping to it are locked at the same time,
+ * and are then kept for reuse. Each thread reuses the same waiter node for all its waits, so only contended
+ * acquisitions ever park, and they don't allocate either.
+ * <p/>
+ * Unlike lock striping, two keys mapping to the same bucket never wait for each other: the bucket's monitor is only
+ * held while updating the lock state, never while the lock is held. Locks are reentrant for the same owner, and are
+ * handed over to waiters in FIFO order.
+ *
+ * @since 6.0
+ */
+@ThreadSafe
+public class InlineLockContainer implements LockContainer<InlineLockContainer.InlineLock> {
+
+   private static final Log log = LogFactory.getLog(InlineLockContainer.class);
+   private static final int MAX_BUCKETS = 1 << 16;
+   // waits at least this long are never timed out
+   private static final long FOREVER = Long.MAX_VALUE >> 1;
+
+   private final InlineLock[] buckets;
+   private final int mask;
+   private final AtomicInteger lockIds = new AtomicInteger();
+   private final ThreadLocal<Waiter> waiters = new ThreadLocal<Waiter>() {
+      @Override
+      protected Waiter initialValue() {
+         return new Waiter();
+      }
+   };
+
+   /**
+    * @param concurrencyLevel the expected number of keys locked at the same time. The table has at least 4 buckets per
+    *                         concurrently locked key, so that collisions are rare.
+    */
+   public InlineLockContainer(int concurrencyLevel) {
+      int numBuckets = 16;
+      while (numBuckets < MAX_BUCKETS && numBuckets < concurrencyLevel * 4) numBuckets <<= 1;
+      buckets = new InlineLock[numBuckets];
+      for (int i = 0; i < numBuckets; i++) buckets[i] = new InlineLock(this);
+      mask = numBuckets - 1;
+   }
+
+   @Override
+   public boolean ownsLock(Object key, Object owner) {
+      InlineLock bucket = bucketFor(key);
+      synchronized (bucket) {
+         InlineLock lock = find(bucket, key);
+         return lock != null && owner.equals(lock.owner);
+      }
+   }
+
+   @Override
+   public boolean isLocked(Object key) {
+      InlineLock bucket = bucketFor(key);
+      synchronized (bucket) {
+         InlineLock lock = find(bucket, key);
+         return lock != null && lock.owner != null;
+      }
+   }
+
+   /**
+    * Slots are reused, so the returned lock only reflects the state of the key as long as it is locked.
+    */
+   @Override
+   public InlineLock getLock(Object key) {
+      InlineLock bucket = bucketFor(key);
+      synchronized (bucket) {
+         return find(bucket, key);
+      }
+   }
+
+   @Override
+   public int getNumLocksHeld() {
+      int held = 0;
+      for (InlineLock bucket : buckets) {
+         synchronized (bucket) {
+            for (InlineLock lock = bucket; lock != null; lock = lock.next) {
+               if (lock.owner != null) held++;
+            }
+         }
+      }
+      return held;
+   }
+
+   @Override
+   public int size() {
+      return buckets.length;
+   }
+
+   @Override
+   public InlineLock acquireLock(Object lockOwner, Object key, long timeout, TimeUnit unit) throws InterruptedException {
+      InlineLock bucket = bucketFor(key);
+      InlineLock lock;
+      Waiter waiter;
+      synchronized (bucket) {
+         lock = bind(bucket, key);
+         if (lock.owner == null) {
+            lock.owner = lockOwner;
+            lock.holds = 1;
+            return lock;
+         }
+         if (lock.owner.equals(lockOwner)) {
+            lock.holds++;
+            return lock;
+         }
+         if (timeout <= 0) {
+            traceTimeout(key, timeout, unit);
+            return null;
+         }
+         waiter = waiters.get();
+         waiter.thread = Thread.currentThread();
+         waiter.owner = lockOwner;
+         lock.enqueue(waiter);
+      }
+
+      long nanos = unit.toNanos(timeout);
+      long deadline = System.nanoTime() + nanos;
+      boolean interrupted = false;
+      while (!waiter.granted) {
+         if (nanos >= FOREVER) {
+            LockSupport.park(this);
+         } else {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) break;
+            LockSupport.parkNanos(this, remaining);
+         }
+         if (Thread.interrupted()) {
+            interrupted = true;
+            break;
+         }
+      }
+
+      synchronized (bucket) {
+         boolean granted = waiter.granted;
+         if (!granted) {
+            // the lock is still owned by someone else, so it stays bound to the key
+            lock.dequeue(waiter);
+         }
+         waiter.reset();
+         if (granted) {
+            if (interrupted) Thread.currentThread().interrupt();
+            return lock;
+         }
+      }
+      if (interrupted) throw new InterruptedException();
+      traceTimeout(key, timeout, unit);
+      return null;
+   }
+
+   @Override
+   public void releaseLock(Object lockOwner, Object key) {
+      InlineLock bucket = bucketFor(key);
+      synchronized (bucket) {
+         InlineLock lock = find(bucket, key);
+         if (lock == null) return;
+         if (!lockOwner.equals(lock.owner)) {
+            throw new IllegalMonitorStateException(lock + "[Requestor is " + lockOwner + "]");
+         }
+         if (log.isTraceEnabled()) log.tracef("Unlocking lock instance for key %s", toStr(key));
+
+         if (--lock.holds > 0) return;
+         Waiter next = lock.firstWaiter;
+         if (next == null) {
+            lock.owner = null;
+            lock.key = null;
+         } else {
+            // hand the lock over, so that it can't be barged by a new owner before the waiter wakes up
+            lock.dequeue(next);
+            lock.owner = next.owner;
+            lock.holds = 1;
+            Thread thread = next.thread;
+            next.granted = true;
+            LockSupport.unpark(thread);
+         }
+      }
+   }
+
+   /**
+    * Slots are reused, so the id identifies the binding of a slot to the key rather than the slot: it doesn't change
+    * while the key stays locked, and different keys get different ids.
+    */
+   @Override
+   public int getLockId(Object key) {
+      InlineLock bucket = bucketFor(key);
+      synchronized (bucket) {
+         InlineLock lock = find(bucket, key);
+         return lock == null ? -1 : lock.lockId;
+      }
+   }
+
+   private InlineLock bucketFor(Object key) {
+      return buckets[AbstractStripedLockContainer.hash(key) & mask];
+   }
+
+   /**
+    * Must be called while holding the monitor of the bucket.
+    */
+   private static InlineLock find(InlineLock bucket, Object key) {
+      for (InlineLock lock = bucket; lock != null; lock = lock.next) {
+         Object boundKey = lock.key;
+         if (boundKey != null && boundKey.equals(key)) return lock;
+      }
+      return null;
+   }
+
+   /**
+    * Must be called while holding the monitor of the bucket.
+    */
+   private InlineLock bind(InlineLock bucket, Object key) {
+      InlineLock free = null;
+      for (InlineLock lock = bucket; lock != null; lock = lock.next) {
+         Object boundKey = lock.key;
+         if (boundKey == null) {
+            if (free == null) free = lock;
+         } else if (boundKey.equals(key)) {
+            return lock;
+         }
+      }
+      if (free == null) {
+         // another key mapping to this bucket is locked
+         free = new InlineLock(this);
+         free.next = bucket.next;
+         bucket.next = free;
+      }
+      free.key = key;
+      free.lockId = lockIds.incrementAndGet() & Integer.MAX_VALUE;
+      return free;
+   }
+
+   private static void traceTimeout(Object key, long timeout, TimeUnit unit) {
+      if (log.isTraceEnabled())
+         log.tracef("Timed out attempting to acquire lock for key %s after %s", toStr(key), Util.prettyPrintTime(timeout, unit));
+   }
+
+   @Override
+   public String toString() {
+      return "InlineLockContainer{" +
+            "buckets=" + buckets.length +
+            ", locksHeld=" + getNumLocksHeld() +
+            '}';
+   }
+
+   /**
+    * The state of a lock, reused for different keys. All the fields are guarded by the monitor of the bucket, the key
+    * and the owner are also volatile so that they can be read without it.
+    * <p/>
+    * The {@link Lock} methods lock and unlock the key the slot is bound to when they are invoked, on behalf of the
+    * current thread, which is the lock owner of non-transactional caches. The slot stays bound to the key as long as
+    * the key is locked or waited for: once the key is released, the methods fail with an {@link
+    * IllegalStateException} until the slot is bound to another key.
+    */
+   public static final class InlineLock implements Lock {
+      private final InlineLockContainer container;
+      private volatile Object key;
+      private volatile Object owner;
+      private int holds;
+      private int lockId;
+      private Waiter firstWaiter;
+      private Waiter lastWaiter;
+      private InlineLock next;
+
+      private InlineLock(InlineLockContainer container) {
+         this.container = container;
+      }
+
+      /**
+       * @return the owner of the lock, or null if it is currently unlocked.
+       */
+      public Object getOwner() {
+         return owner;
+      }
+
+      private void enqueue(Waiter waiter) {
+         if (lastWaiter == null) {
+            firstWaiter = waiter;
+         } else {
+            lastWaiter.next = waiter;
+         }
+         lastWaiter = waiter;
+      }
+
+      private void dequeue(Waiter waiter) {
+         Waiter previous = null;
+         for (Waiter w = firstWaiter; w != null; previous = w, w = w.next) {
+            if (w == waiter) {
+               if (previous == null) {
+                  firstWaiter = w.next;
+               } else {
+                  previous.next = w.next;
+               }
+               if (lastWaiter == w) lastWaiter = previous;
+               w.next = null;
+               return;
+            }
+         }
+      }
+
+      private Object boundKey() {
+         Object k = key;
+         if (k == null) throw new IllegalStateException(this + " is not bound to a key");
+         return k;
+      }
+
+      @Override
+      public void lock() {
+         boolean interrupted = false;
+         while (true) {
+            try {
+               lockInterruptibly();
+               break;
+            } catch (InterruptedException e) {
+               interrupted = true;
+            }
+         }
+         if (interrupted) Thread.currentThread().interrupt();
+      }
+
+      @Override
+      public void lockInterruptibly() throws InterruptedException {
+         container.acquireLock(Thread.currentThread(), boundKey(), Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      }
+
+      @Override
+      public boolean tryLock() {
+         try {
+            return container.acquireLock(Thread.currentThread(), boundKey(), 0, TimeUnit.NANOSECONDS) != null;
+         } catch (InterruptedException e) {
+            // a lock acquisition without timeout never waits
+            throw new IllegalStateException(e);
+         }
+      }
+
+      @Override
+      public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+         return container.acquireLock(Thread.currentThread(), boundKey(), time, unit) != null;
+      }
+
+      @Override
+      public void unlock() {
+         Object k = key;
+         if (k == null || owner != Thread.currentThread()) {
+            throw new IllegalMonitorStateException(this + "[Requestor is " + Thread.currentThread() + "]");
+         }
+         container.releaseLock(Thread.currentThread(), k);
+      }
+
+      @Override
+      public Condition newCondition() {
+         throw new UnsupportedOperationException("Not supported in this implementation!");
+      }
+
+      @Override
+      public String toString() {
+         Object o = owner;
+         return "InlineLock@" + Integer.toHexString(System.identityHashCode(this)) +
+               (o == null ? "[Unlocked]" : "[Locked by " + o + "]");
+      }
+   }
+
+   /**
+    * A thread waiting for a lock. Each thread waits for a single lock at a time, so it always reuses the same node.
+    */
+   private static final class Waiter {
+      private Thread thread;
+      private Object owner;
+      private Waiter next;
+      private volatile boolean granted;
+
+      private void reset() {
+         thread = null;
+         owner = null;
+         next = null;
+         granted = false;
+      }
+   }
+}
@@ -1041,4 +1041,20 @@ void asyncStoreShutdownTimeoutTooHigh(long configuredAsyncStopTimeout,
    @Message(value = "%s reported that a third node was suspected, see cause for info on the node that was suspected", id = 281)
    SuspectException thirdPartySuspected(Address sender, @Cause SuspectException e);
 
+   @LogMessage(level = WARN)
+   @Message(value = "Failed to apply modification %s received in a cross-site batch for cache '%s'", id = 282)
+   void failedApplyingBackupBatchEntry(Object command, String cacheName, @Cause Throwable cause);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Failed to send %d modifications of cache '%s' to site '%s'", id = 283)
+   void failedSendingBackupBatch(int count, String cacheName, String siteName, @Cause Throwable cause);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Could not save the checkpoint of the rolling upgrade to %s", id = 284)
+   void migrationCheckpointNotSaved(String path, @Cause Throwable cause);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Could not read the checkpoint of the rolling upgrade from %s, all the keys will be migrated", id = 285)
+   void migrationCheckpointNotRead(String path, @Cause Throwable cause);
+
 }
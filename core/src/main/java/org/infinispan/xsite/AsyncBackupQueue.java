@@ -0,0 +1,179 @@
+package org.infinispan.xsite;
+
+import org.infinispan.atomic.Delta;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.PutMapCommand;
+import org.infinispan.commands.write.RemoveCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.util.TimeService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates the modifications to be backed up asynchronously to a remote site, so that they can be shipped in a
+ * single {@link XSiteBatchCommand}.
+ * <p/>
+ * Modifications to the same key are coalesced when the outcome doesn't depend on the previous ones: an unconditional
+ * put or remove discards the modifications queued before it for that key, and a clear discards everything queued
+ * before it. Conditional operations, deltas and transactions are always kept and sent in the order they were queued.
+ *
+ * @since 6.0
+ */
+public class AsyncBackupQueue {
+
+   private final String siteName;
+   private final int maxElements;
+   private final TimeService timeService;
+   private final Object flushLock = new Object();
+
+   private List<Pending> pending = new ArrayList<Pending>();
+   private final Map<Object, Pending> lastByKey = new HashMap<Object, Pending>();
+   private int size;
+   private long oldestEnqueueTime;
+
+   public AsyncBackupQueue(String siteName, int maxElements, TimeService timeService) {
+      this.siteName = siteName;
+      this.maxElements = maxElements;
+      this.timeService = timeService;
+   }
+
+   public String getSiteName() {
+      return siteName;
+   }
+
+   /**
+    * Must be held while draining and sending a batch, so that batches reach the remote site in order.
+    */
+   public Object getFlushLock() {
+      return flushLock;
+   }
+
+   /**
+    * Queues the command.
+    *
+    * @return true if the queue reached its maximum size and should be flushed
+    */
+   public synchronized boolean add(ReplicableCommand command) {
+      if (size == 0) {
+         oldestEnqueueTime = timeService.time();
+      }
+      if (command instanceof ClearCommand) {
+         discardAll();
+         append(command, null);
+      } else if (command instanceof PutMapCommand) {
+         for (Object key : ((PutMapCommand) command).getMap().keySet()) {
+            discard(lastByKey.remove(key));
+         }
+         append(command, null);
+      } else if (command instanceof WriteCommand && ((WriteCommand) command).getAffectedKeys().size() == 1) {
+         Object key = ((WriteCommand) command).getAffectedKeys().iterator().next();
+         Pending previous = lastByKey.get(key);
+         if (isOverwrite((WriteCommand) command)) {
+            discard(previous);
+            previous = null;
+         }
+         lastByKey.put(key, append(command, previous));
+      } else {
+         // e.g. a transaction: it may depend on anything queued before, so nothing before it can be coalesced
+         lastByKey.clear();
+         append(command, null);
+      }
+      return size >= maxElements;
+   }
+
+   /**
+    * Removes all the queued commands, in the order they should be applied on the remote site.
+    */
+   public synchronized List<ReplicableCommand> drain() {
+      if (size == 0) {
+         if (!pending.isEmpty()) {
+            pending = new ArrayList<Pending>();
+         }
+         return Collections.emptyList();
+      }
+      List<ReplicableCommand> commands = new ArrayList<ReplicableCommand>(size);
+      for (Pending p : pending) {
+         if (p.command != null) {
+            commands.add(p.command);
+         }
+      }
+      pending = new ArrayList<Pending>();
+      lastByKey.clear();
+      size = 0;
+      return commands;
+   }
+
+   /**
+    * @return the number of modifications waiting to be sent
+    */
+   public synchronized int size() {
+      return size;
+   }
+
+   /**
+    * @return how long the oldest modification waiting to be sent has been queued for, in milliseconds
+    */
+   public synchronized long getReplicationLag() {
+      return size == 0 ? 0 : timeService.timeDuration(oldestEnqueueTime, TimeUnit.MILLISECONDS);
+   }
+
+   private static boolean isOverwrite(WriteCommand command) {
+      if (command.isConditional()) {
+         return false;
+      }
+      if (command instanceof PutKeyValueCommand) {
+         // deltas are merged with the existing value
+         return !(((PutKeyValueCommand) command).getValue() instanceof Delta);
+      }
+      return command instanceof RemoveCommand;
+   }
+
+   private Pending append(ReplicableCommand command, Pending previousForKey) {
+      Pending p = new Pending(command, previousForKey);
+      pending.add(p);
+      size++;
+      return p;
+   }
+
+   private void discard(Pending p) {
+      while (p != null) {
+         if (p.command != null) {
+            p.command = null;
+            size--;
+         }
+         p = p.previousForKey;
+      }
+   }
+
+   private void discardAll() {
+      pending = new ArrayList<Pending>();
+      lastByKey.clear();
+      size = 0;
+      oldestEnqueueTime = timeService.time();
+   }
+
+   private static class Pending {
+      ReplicableCommand command;
+      final Pending previousForKey;
+
+      Pending(ReplicableCommand command, Pending previousForKey) {
+         this.command = command;
+         this.previousForKey = previousForKey;
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "AsyncBackupQueue{" +
+            "siteName='" + siteName + '\'' +
+            ", size=" + size +
+            '}';
+   }
+}
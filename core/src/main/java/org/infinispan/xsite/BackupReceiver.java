@@ -15,4 +15,9 @@ public interface BackupReceiver {
    Cache getCache();
 
    Object handleRemoteCommand(VisitableCommand command) throws Throwable;
+
+   /**
+    * Applies, in order, the modifications of a batch sent by an asynchronous backup.
+    */
+   Object handleRemoteBatch(XSiteBatchCommand batch) throws Throwable;
 }
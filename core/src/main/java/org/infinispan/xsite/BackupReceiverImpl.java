@@ -4,6 +4,7 @@
 import org.infinispan.Cache;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.commands.AbstractVisitor;
+import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commands.VisitableCommand;
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
@@ -15,9 +16,11 @@
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.transaction.LocalTransaction;
 import org.infinispan.transaction.TransactionMode;
 import org.infinispan.transaction.TransactionTable;
@@ -36,6 +39,8 @@
  */
 public class BackupReceiverImpl implements BackupReceiver {
 
+   private static final Log log = LogFactory.getLog(BackupReceiverImpl.class);
+
    private final Cache cache;
 
    //todo add some housekeeping logic for this, e.g. timeouts..
@@ -57,6 +62,23 @@ public Object handleRemoteCommand(VisitableCommand command) throws Throwable {
       return command.acceptVisitor(null, siteUpdater);
    }
 
+   @Override
+   public Object handleRemoteBatch(XSiteBatchCommand batch) throws Throwable {
+      StreamingMarshaller marshaller = cache.getAdvancedCache().getComponentRegistry()
+            .getComponent(StreamingMarshaller.class, KnownComponentNames.CACHE_MARSHALLER);
+      ReplicableCommand[] commands = batch.getCommands(marshaller);
+      log.tracef("Applying %d modifications received in batch %s", commands.length, batch);
+      for (ReplicableCommand command : commands) {
+         // an asynchronous backup has no originator waiting for the outcome, so carry on with the rest of the batch
+         try {
+            ((VisitableCommand) command).acceptVisitor(null, siteUpdater);
+         } catch (Throwable t) {
+            log.failedApplyingBackupBatchEntry(command, cache.getName(), t);
+         }
+      }
+      return null;
+   }
+
    public static final class BackupCacheUpdater extends AbstractVisitor {
 
       private static Log log = LogFactory.getLog(BackupCacheUpdater.class);
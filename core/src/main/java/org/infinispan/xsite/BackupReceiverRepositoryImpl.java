@@ -65,6 +65,11 @@ public Object handleRemoteCommand(SingleRpcCommand cmd, SiteAddress src) throws
       log.tracef("Handling command %s from remote site %s", cmd, src);
       String name = cmd.getCacheName();
       BackupReceiver localBackupCache = getBackupCacheManager(src.getSite(), name);
+      if (cmd.getCommand() instanceof XSiteBatchCommand) {
+         XSiteBatchCommand batch = (XSiteBatchCommand) cmd.getCommand();
+         batch.init(localBackupCache);
+         return batch.perform(null);
+      }
       return localBackupCache.handleRemoteCommand((VisitableCommand)cmd.getCommand());
    }
 
@@ -4,6 +4,7 @@
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.RollbackCommand;
+import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.remoting.transport.BackupResponse;
 
@@ -33,6 +34,13 @@ public interface BackupSender {
 
    BackupResponse backupWrite(WriteCommand command) throws Exception;
 
+   /**
+    * Queues a single key write for the sites with batched asynchronous backups. Invoked on the primary owner of the key,
+    * after the write is applied and while the key is still locked, so that all the updates of a key are sent to the
+    * remote sites by a single node, in the order they were applied.
+    */
+   void backupOwnedWrite(DataWriteCommand command);
+
    BackupResponse backupCommit(CommitCommand command) throws Exception;
 
    BackupResponse backupRollback(RollbackCommand command) throws Exception;
@@ -65,4 +73,21 @@ public enum TakeSiteOfflineResponse {
    }
 
    TakeSiteOfflineResponse takeSiteOffline(String siteName);
+
+   /**
+    * Returns the number of modifications queued on this node and not yet sent to the given site, or 0 if the
+    * modifications are not batched for this site.
+    */
+   int getAsyncQueueSize(String siteName);
+
+   /**
+    * Returns how long (millis) the oldest modification not yet sent to the given site has been waiting, or 0 if the
+    * modifications are not batched for this site.
+    */
+   long getAsyncReplicationLag(String siteName);
+
+   /**
+    * Sends the queued modifications to all the sites with batched asynchronous backups.
+    */
+   void flushAsyncQueues();
 }
@@ -13,7 +13,9 @@
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
+import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.BackupConfiguration;
@@ -23,8 +25,11 @@
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
 import org.infinispan.remoting.transport.AggregateBackupResponse;
 import org.infinispan.remoting.transport.BackupResponse;
 import org.infinispan.remoting.transport.Transport;
@@ -36,11 +41,15 @@
 
 import javax.transaction.Transaction;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Mircea Markus
@@ -57,6 +66,10 @@ public class BackupSenderImpl implements BackupSender {
    private TimeService timeService;
    private final Map<String, CustomFailurePolicy> siteFailurePolicy = new HashMap<String, CustomFailurePolicy>();
    private final ConcurrentMap<String, OfflineStatus> offlineStatus = CollectionFactory.makeConcurrentMap();
+   private final Map<String, AsyncBackupQueue> asyncQueues = new HashMap<String, AsyncBackupQueue>();
+   private final List<ScheduledFuture<?>> flushTasks = new ArrayList<ScheduledFuture<?>>();
+   private ScheduledExecutorService scheduledExecutor;
+   private StreamingMarshaller marshaller;
 
 
    private final String localSiteName;
@@ -70,12 +83,16 @@ public BackupSenderImpl(String localSiteName) {
    }
 
    @Inject
-   public void init(Cache cache, Transport transport, TransactionTable txTable, GlobalConfiguration gc, TimeService timeService) {
+   public void init(Cache cache, Transport transport, TransactionTable txTable, GlobalConfiguration gc, TimeService timeService,
+                    @ComponentName(KnownComponentNames.ASYNC_REPLICATION_QUEUE_EXECUTOR) ScheduledExecutorService scheduledExecutor,
+                    @ComponentName(KnownComponentNames.CACHE_MARSHALLER) StreamingMarshaller marshaller) {
       this.cache = cache;
       this.transport = transport;
       this.txTable = txTable;
       this.globalConfig = gc;
       this.timeService = timeService;
+      this.scheduledExecutor = scheduledExecutor;
+      this.marshaller = marshaller;
    }
 
    @Start
@@ -93,6 +110,35 @@ public void start() {
          }
          OfflineStatus offline = new OfflineStatus(bc.takeOffline(), timeService);
          offlineStatus.put(bc.site(), offline);
+         // the owner of a key can't queue the transactions, which span keys owned by different nodes
+         if (bc.isAsyncBatchingEnabled() && !bc.site().equals(localSiteName)
+               && !config.transaction().transactionMode().isTransactional()) {
+            startAsyncQueue(bc);
+         }
+      }
+   }
+
+   private void startAsyncQueue(final BackupConfiguration bc) {
+      final AsyncBackupQueue queue = new AsyncBackupQueue(bc.site(), bc.asyncBatchSize(), timeService);
+      asyncQueues.put(bc.site(), queue);
+      flushTasks.add(scheduledExecutor.scheduleWithFixedDelay(new Runnable() {
+         @Override
+         public void run() {
+            flush(queue, bc.replicationTimeout());
+         }
+      }, bc.asyncBatchInterval(), bc.asyncBatchInterval(), TimeUnit.MILLISECONDS));
+   }
+
+   @Stop
+   public void stop() {
+      for (ScheduledFuture<?> task : flushTasks) {
+         task.cancel(false);
+      }
+      flushTasks.clear();
+      try {
+         flushAsyncQueues();
+      } catch (Exception e) {
+         log.debug("Unable to send the queued modifications to the remote sites before shutting down", e);
       }
    }
    
@@ -179,10 +225,105 @@ public TakeSiteOfflineResponse takeSiteOffline(String siteName) {
       }
    }
 
+   @Override
+   public void backupOwnedWrite(DataWriteCommand command) {
+      if (asyncQueues.isEmpty()) return;
+      for (XSiteBackup backup : calculateBackupInfo(BackupFilter.KEEP_ALL)) {
+         AsyncBackupQueue queue = backup.isSync() ? null : asyncQueues.get(backup.getSiteName());
+         if (queue != null) {
+            enqueue(queue, backup, command);
+         }
+      }
+   }
+
    private BackupResponse backupCommand(ReplicableCommand command, List<XSiteBackup> xSiteBackups) throws Exception {
+      if (!asyncQueues.isEmpty()) {
+         xSiteBackups = enqueueBatchedBackups(command, xSiteBackups);
+      }
       return transport.backupRemotely(xSiteBackups, new SingleRpcCommand(cacheName, command));
    }
 
+   /**
+    * Queues the command for the sites with batched asynchronous backups. Single key writes are skipped, as they are
+    * queued by the primary owner of the key through {@link #backupOwnedWrite(DataWriteCommand)}.
+    *
+    * @return the sites the command should still be sent to directly
+    */
+   private List<XSiteBackup> enqueueBatchedBackups(ReplicableCommand command, List<XSiteBackup> xSiteBackups) {
+      List<XSiteBackup> direct = null;
+      for (int i = 0; i < xSiteBackups.size(); i++) {
+         final XSiteBackup backup = xSiteBackups.get(i);
+         final AsyncBackupQueue queue = backup.isSync() ? null : asyncQueues.get(backup.getSiteName());
+         if (queue == null) {
+            if (direct != null) direct.add(backup);
+            continue;
+         }
+         if (direct == null) {
+            direct = new ArrayList<XSiteBackup>(xSiteBackups.subList(0, i));
+         }
+         if (!(command instanceof DataWriteCommand)) {
+            enqueue(queue, backup, command);
+         }
+      }
+      return direct == null ? xSiteBackups : direct;
+   }
+
+   private void enqueue(final AsyncBackupQueue queue, final XSiteBackup backup, ReplicableCommand command) {
+      if (queue.add(command)) {
+         // the batch is full: don't make the caller pay for marshalling and compressing it
+         scheduledExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+               flush(queue, backup.getTimeout());
+            }
+         });
+      }
+   }
+
+   private void flush(AsyncBackupQueue queue, long timeout) {
+      String site = queue.getSiteName();
+      synchronized (queue.getFlushLock()) {
+         List<ReplicableCommand> commands = queue.drain();
+         if (commands.isEmpty()) {
+            return;
+         }
+         if (isOffline(site)) {
+            log.tracef("The site '%s' is offline, discarding %d queued modifications", site, commands.size());
+            return;
+         }
+         try {
+            XSiteBatchCommand batch = XSiteBatchCommand.create(commands, marshaller, true);
+            log.tracef("Sending %s to site %s", batch, site);
+            List<XSiteBackup> backups = Collections.singletonList(new XSiteBackup(site, false, timeout));
+            transport.backupRemotely(backups, new SingleRpcCommand(cacheName, batch));
+         } catch (Throwable t) {
+            log.failedSendingBackupBatch(commands.size(), cacheName, site, t);
+         }
+      }
+   }
+
+   @Override
+   public void flushAsyncQueues() {
+      for (BackupConfiguration bc : config.sites().enabledBackups()) {
+         AsyncBackupQueue queue = asyncQueues.get(bc.site());
+         if (queue != null) {
+            flush(queue, bc.replicationTimeout());
+         }
+      }
+   }
+
+   @Override
+   public int getAsyncQueueSize(String siteName) {
+      AsyncBackupQueue queue = asyncQueues.get(siteName);
+      return queue == null ? 0 : queue.size();
+   }
+
+   @Override
+   public long getAsyncReplicationLag(String siteName) {
+      AsyncBackupQueue queue = asyncQueues.get(siteName);
+      return queue == null ? 0 : queue.getReplicationLag();
+   }
+
    private BackupResponse sendTo1PCBackups(CommitCommand command) throws Exception {
       List<XSiteBackup> backups = calculateBackupInfo(BackupFilter.KEEP_1PC_ONLY);
       LocalTransaction localTx = txTable.getLocalTransaction(command.getGlobalTransaction());
@@ -200,6 +200,18 @@ public String getTakeOfflineAfterFailures(@Parameter(name = "site", description
       return String.valueOf(offlineStatus.getTakeOffline().afterFailures());
    }
 
+   @ManagedOperation(description = "Returns the number of modifications queued on this node and not yet sent to the given site.", displayName = "Returns the number of modifications queued on this node for the given site.")
+   public String getAsyncQueueSize(@Parameter(name = "site", description = "The name of the backup site") String site) {
+      if (backupSender.getOfflineStatus(site) == null) return incorrectSiteName(site);
+      return String.valueOf(backupSender.getAsyncQueueSize(site));
+   }
+
+   @ManagedOperation(description = "Returns how long (millis) the oldest modification queued on this node for the given site has been waiting to be sent.", displayName = "Returns the replication lag of this node for the given site.")
+   public String getAsyncReplicationLag(@Parameter(name = "site", description = "The name of the backup site") String site) {
+      if (backupSender.getOfflineStatus(site) == null) return incorrectSiteName(site);
+      return String.valueOf(backupSender.getAsyncReplicationLag(site));
+   }
+
    @ManagedOperation(description = "Brings the given site back online on all the cluster.", displayName = "Brings the given site back online on all the cluster.")
    public String bringSiteOnline(@Parameter(name = "site", description = "The name of the backup site") String site) {
       OfflineStatus offlineStatus = backupSender.getOfflineStatus(site);
@@ -0,0 +1,172 @@
+package org.infinispan.xsite;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.context.InvocationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Carries a batch of modifications backed up asynchronously to a remote site. The modifications are marshalled
+ * together and, when it makes the payload smaller, compressed.
+ * <p/>
+ * The receiving site initializes the command with the {@link BackupReceiver} of the backup cache, which unpacks it
+ * through {@link #getCommands(StreamingMarshaller)} and applies the modifications in order.
+ *
+ * @since 6.0
+ */
+public class XSiteBatchCommand implements ReplicableCommand {
+
+   public static final byte COMMAND_ID = 40;
+
+   private byte[] payload;
+   private int uncompressedLength;
+   private int size;
+
+   private BackupReceiver backupReceiver;
+
+   public XSiteBatchCommand() {
+      // For command id uniqueness test
+   }
+
+   private XSiteBatchCommand(byte[] payload, int uncompressedLength, int size) {
+      this.payload = payload;
+      this.uncompressedLength = uncompressedLength;
+      this.size = size;
+   }
+
+   public void init(BackupReceiver backupReceiver) {
+      this.backupReceiver = backupReceiver;
+   }
+
+   /**
+    * Marshalls the commands into a new batch.
+    *
+    * @param compress whether the marshalled commands should be compressed
+    */
+   public static XSiteBatchCommand create(List<ReplicableCommand> commands, StreamingMarshaller marshaller,
+                                          boolean compress) throws Exception {
+      byte[] bytes = marshaller.objectToByteBuffer(commands.toArray(new ReplicableCommand[commands.size()]));
+      if (compress) {
+         byte[] compressed = deflate(bytes);
+         if (compressed.length < bytes.length) {
+            return new XSiteBatchCommand(compressed, bytes.length, commands.size());
+         }
+      }
+      return new XSiteBatchCommand(bytes, -1, commands.size());
+   }
+
+   /**
+    * @return the commands of the batch, in the order they must be applied
+    */
+   public ReplicableCommand[] getCommands(StreamingMarshaller marshaller) throws Exception {
+      byte[] bytes = isCompressed() ? inflate(payload, uncompressedLength) : payload;
+      return (ReplicableCommand[]) marshaller.objectFromByteBuffer(bytes);
+   }
+
+   public boolean isCompressed() {
+      return uncompressedLength >= 0;
+   }
+
+   /**
+    * @return the number of commands in the batch
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * @return the size of the batch on the wire, in bytes
+    */
+   public int getPayloadLength() {
+      return payload.length;
+   }
+
+   private static byte[] deflate(byte[] bytes) {
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try {
+         deflater.setInput(bytes);
+         deflater.finish();
+         ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+         byte[] buffer = new byte[4096];
+         while (!deflater.finished()) {
+            int count = deflater.deflate(buffer);
+            out.write(buffer, 0, count);
+         }
+         return out.toByteArray();
+      } finally {
+         deflater.end();
+      }
+   }
+
+   private static byte[] inflate(byte[] bytes, int length) {
+      Inflater inflater = new Inflater();
+      try {
+         inflater.setInput(bytes);
+         byte[] result = new byte[length];
+         int offset = 0;
+         while (offset < length && !inflater.finished()) {
+            int count = inflater.inflate(result, offset, length - offset);
+            if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+               break;
+            }
+            offset += count;
+         }
+         if (offset != length) {
+            throw new CacheException("Corrupted cross-site batch: expected " + length + " bytes, got " + offset);
+         }
+         return result;
+      } catch (DataFormatException e) {
+         throw new CacheException("Corrupted cross-site batch", e);
+      } finally {
+         inflater.end();
+      }
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      return backupReceiver.handleRemoteBatch(this);
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[]{payload, uncompressedLength, size};
+   }
+
+   @Override
+   public void setParameters(int commandId, Object[] parameters) {
+      if (commandId != COMMAND_ID) throw new IllegalStateException("Invalid method id " + commandId);
+      this.payload = (byte[]) parameters[0];
+      this.uncompressedLength = (Integer) parameters[1];
+      this.size = (Integer) parameters[2];
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return false;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return true;
+   }
+
+   @Override
+   public String toString() {
+      return "XSiteBatchCommand{" +
+            "size=" + size +
+            ", payloadLength=" + (payload == null ? 0 : payload.length) +
+            ", compressed=" + isCompressed() +
+            '}';
+   }
+}
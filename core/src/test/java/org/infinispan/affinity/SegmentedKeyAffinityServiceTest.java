@@ -0,0 +1,154 @@
+package org.infinispan.affinity;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.BaseDistFunctionalTest;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "affinity.SegmentedKeyAffinityServiceTest")
+public class SegmentedKeyAffinityServiceTest extends BaseDistFunctionalTest<Object, String> {
+
+   private static final int KEYS_PER_SEGMENT = 10;
+
+   private final ExecutorService executor = Executors.newSingleThreadExecutor();
+   private SegmentedKeyAffinityServiceImpl<Object> service;
+   private SegmentedKeyAffinityServiceImpl<Object> localService;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      INIT_CLUSTER_SIZE = 2;
+      super.createCacheManagers();
+      service = (SegmentedKeyAffinityServiceImpl<Object>) KeyAffinityServiceFactory.newSegmentedKeyAffinityService(
+            c1, new RndKeyGenerator(), executor, KEYS_PER_SEGMENT);
+      localService = (SegmentedKeyAffinityServiceImpl<Object>) KeyAffinityServiceFactory.newSegmentedKeyAffinityService(
+            c1, Collections.singleton(address(c1)), new RndKeyGenerator(), executor, KEYS_PER_SEGMENT, true);
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void stopExecutor() {
+      if (service != null) service.stop();
+      if (localService != null) localService.stop();
+      executor.shutdownNow();
+   }
+
+   public void testPoolsAreFilled() {
+      assertEventuallyFull(service);
+      assertEventuallyFull(localService);
+      assertFalse(localService.getPooledSegments().isEmpty());
+      for (int segment : localService.getPooledSegments()) {
+         assertEquals(address(c1), consistentHash().locatePrimaryOwnerForSegment(segment));
+      }
+   }
+
+   @Test(dependsOnMethods = "testPoolsAreFilled")
+   public void testKeysMapToAddress() {
+      for (Cache<Object, String> c : caches) {
+         Address address = address(c);
+         // more keys than pooled, so some of them are generated by the caller
+         for (int i = 0; i < consistentHash().getNumSegments() * KEYS_PER_SEGMENT; i++) {
+            assertEquals(address, consistentHash().locatePrimaryOwner(service.getKeyForAddress(address)));
+         }
+      }
+      for (int i = 0; i < 1000; i++) {
+         Object collocatedKey = service.getCollocatedKey(i);
+         assertEquals(consistentHash().locatePrimaryOwner(i), consistentHash().locatePrimaryOwner(collocatedKey));
+      }
+   }
+
+   @Test(dependsOnMethods = "testKeysMapToAddress", expectedExceptions = IllegalStateException.class)
+   public void testFilteredAddress() {
+      localService.getKeyForAddress(address(c2));
+   }
+
+   @Test(dependsOnMethods = "testFilteredAddress")
+   public void testServerAdded() {
+      EmbeddedCacheManager cm = addClusterEnabledCacheManager();
+      cm.defineConfiguration(cacheName, configuration.build());
+      Cache<Object, String> cache = cm.getCache(cacheName);
+      caches.add(cache);
+      TestingUtil.blockUntilViewsReceived(10000, false, caches);
+      TestingUtil.waitForRehashToComplete(caches);
+
+      Address newAddress = address(cache);
+      assertEquals(3, consistentHash().getMembers().size());
+      for (int i = 0; i < 100; i++) {
+         assertEquals(newAddress, consistentHash().locatePrimaryOwner(service.getKeyForAddress(newAddress)));
+      }
+      assertEventuallyFull(service);
+      assertEventuallyFull(localService);
+      for (int segment : localService.getPooledSegments()) {
+         assertFalse(newAddress.equals(consistentHash().locatePrimaryOwnerForSegment(segment)));
+      }
+   }
+
+   @Test(dependsOnMethods = "testServerAdded")
+   public void testMemberWithoutSegments() throws Exception {
+      ConfigurationBuilder zeroCapacity = new ConfigurationBuilder().read(configuration.build());
+      zeroCapacity.clustering().hash().capacityFactor(0);
+      EmbeddedCacheManager cm = addClusterEnabledCacheManager();
+      cm.defineConfiguration(cacheName, zeroCapacity.build());
+      Cache<Object, String> cache = cm.getCache(cacheName);
+      caches.add(cache);
+      TestingUtil.blockUntilViewsReceived(10000, false, caches);
+      TestingUtil.waitForRehashToComplete(caches);
+
+      final Address address = address(cache);
+      assertTrue(consistentHash().getMembers().contains(address));
+      Future<Object> future = fork(new Callable<Object>() {
+         @Override
+         public Object call() throws Exception {
+            return service.getKeyForAddress(address);
+         }
+      });
+      // the member is still in the cluster, it just doesn't own any segment
+      Thread.sleep(500);
+      assertFalse(future.isDone());
+
+      service.stop();
+      try {
+         future.get(10, TimeUnit.SECONDS);
+         fail("Expected the service stop to fail the waiting caller");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+   }
+
+   private ConsistentHash consistentHash() {
+      return c1.getAdvancedCache().getDistributionManager().getConsistentHash();
+   }
+
+   private void assertEventuallyFull(final SegmentedKeyAffinityServiceImpl<Object> service) {
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            int[] counts = service.getPooledKeyCounts();
+            for (int segment : service.getPooledSegments()) {
+               if (counts[segment] != KEYS_PER_SEGMENT) return false;
+            }
+            return true;
+         }
+      });
+      assertTrue(service.isStarted());
+   }
+}
@@ -0,0 +1,142 @@
+package org.infinispan.compression;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryImpl;
+import org.infinispan.marshall.core.MarshalledValue;
+import org.infinispan.test.CacheManagerCallable;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.infinispan.test.TestingUtil.INFINISPAN_END_TAG;
+import static org.infinispan.test.TestingUtil.INFINISPAN_START_TAG_NO_SCHEMA;
+import static org.infinispan.test.TestingUtil.withCacheManager;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the compression of values stored as binary and written to cache stores.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "compression.CompressionFunctionalTest")
+public class CompressionFunctionalTest extends SingleCacheManagerTest {
+
+   private static final int THRESHOLD = 256;
+
+   private String tmpDirectory;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      tmpDirectory = TestingUtil.tmpDirectory(this.getClass());
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.compression().enable().threshold(THRESHOLD)
+            .persistence().addSingleFileStore().location(tmpDirectory).preload(false);
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(builder);
+      ConfigurationBuilder binary = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      binary.compression().enable().threshold(THRESHOLD)
+            .storeAsBinary().enable();
+      cm.defineConfiguration("binary", binary.build());
+      cache = cm.getCache();
+      return cm;
+   }
+
+   @AfterClass
+   protected void clearTempDir() {
+      TestingUtil.recursiveFileRemove(tmpDirectory);
+   }
+
+   public void testValueStoredAsBinaryIsCompressed() throws Exception {
+      Cache<String, List<String>> binaryCache = cacheManager.getCache("binary");
+      List<String> value = compressibleValue(200);
+      binaryCache.put("k", value);
+
+      InternalCacheEntry ice = binaryCache.getAdvancedCache().getDataContainer().get("k");
+      MarshalledValue mv = (MarshalledValue) ice.getValue();
+      int uncompressedLength = marshaller().objectToByteBuffer(value).length;
+      assertTrue("Value of " + mv.getRaw().size() + " bytes was not compressed",
+            mv.getRaw().size() < uncompressedLength / 2);
+      assertEquals(value, binaryCache.get("k"));
+   }
+
+   public void testSmallValueIsNotCompressed() {
+      CompressionManager compressionManager = TestingUtil.extractComponent(cache, CompressionManager.class);
+      assertTrue(compressionManager.isEnabled());
+      List<String> small = compressibleValue(1);
+      assertSame(small, compressionManager.compress(small));
+      assertTrue(compressionManager.compress(compressibleValue(200)) instanceof CompressedValue);
+   }
+
+   public void testValueWrittenToStoreIsCompressed() throws Exception {
+      List<String> value = compressibleValue(200);
+      cache.put("k", value);
+
+      MarshalledEntry stored = TestingUtil.getFirstLoader(cache).load("k");
+      int uncompressedLength = marshaller().objectToByteBuffer(value).length;
+      assertTrue("Stored value of " + stored.getValueBytes().getLength() + " bytes was not compressed",
+            stored.getValueBytes().getLength() < uncompressedLength / 2);
+      assertEquals(value, stored.getValue());
+
+      cache.evict("k");
+      assertFalse(cache.getAdvancedCache().getDataContainer().containsKey("k"));
+      assertEquals(value, cache.get("k"));
+   }
+
+   public void testCompressedFormIsSelfDescribing() throws Exception {
+      CompressionManager compressionManager = TestingUtil.extractComponent(cache, CompressionManager.class);
+      List<String> value = compressibleValue(200);
+      MarshalledEntryImpl<String, Object> written = new MarshalledEntryImpl<String, Object>("k",
+            compressionManager.compress(value), null, marshaller());
+
+      // read back by someone who doesn't know the value was compressed
+      MarshalledEntryImpl<String, Object> read = new MarshalledEntryImpl<String, Object>(written.getKeyBytes(),
+            written.getValueBytes(), null, marshaller());
+      assertEquals(value, read.getValue());
+      CompressedValue compressed = (CompressedValue) marshaller().objectFromByteBuffer(
+            written.getValueBytes().getBuf(), written.getValueBytes().getOffset(), written.getValueBytes().getLength());
+      assertEquals(DeflateCodec.ID, compressed.getCodecId());
+   }
+
+   public void testParsing() throws Exception {
+      String config = INFINISPAN_START_TAG_NO_SCHEMA +
+            "<default>\n" +
+            "<compression enabled=\"true\" threshold=\"512\" codec=\"" + DeflateCodec.class.getName() + "\"/>\n" +
+            "</default>\n" + INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Cache<Object, Object> cache = cm.getCache();
+            assertTrue(cache.getCacheConfiguration().compression().enabled());
+            assertEquals(512, cache.getCacheConfiguration().compression().threshold());
+            assertTrue(cache.getCacheConfiguration().compression().codec() instanceof DeflateCodec);
+         }
+      });
+   }
+
+   private StreamingMarshaller marshaller() {
+      return TestingUtil.extractCacheMarshaller(cache);
+   }
+
+   private static List<String> compressibleValue(int size) {
+      List<String> value = new ArrayList<String>(size);
+      for (int i = 0; i < size; i++) {
+         value.add("{\"id\": " + i + ", \"name\": \"item\", \"tags\": [\"a\", \"b\", \"c\"]}");
+      }
+      return value;
+   }
+}
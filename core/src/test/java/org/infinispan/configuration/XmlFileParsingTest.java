@@ -478,6 +478,10 @@ private void assertNamedCacheFile(EmbeddedCacheManager cm, boolean deprecated) {
       assertTrue(!c.clustering().async().asyncMarshalling());
       assertTrue(!c.clustering().stateTransfer().fetchInMemoryState());
       assertTrue(c.clustering().stateTransfer().awaitInitialTransfer());
+      if (!deprecated) {
+         assertEquals(65536, c.clustering().async().replQueueMaxBytes());
+         assertEquals(200, c.clustering().async().replQueueMaxLatency());
+      }
 
       c = cm.getCacheConfiguration("txSyncRepl");
 
@@ -493,6 +497,7 @@ private void assertNamedCacheFile(EmbeddedCacheManager cm, boolean deprecated) {
       assertEquals(20000, c.locking().lockAcquisitionTimeout());
       assertEquals(1000, c.locking().concurrencyLevel());
       assertEquals(IsolationLevel.REPEATABLE_READ, c.locking().isolationLevel());
+      assertTrue(c.locking().useInlineLocks());
       assertTrue(!c.storeAsBinary().enabled());
 
       c = cm.getCacheConfiguration("storeAsBinary");
@@ -520,10 +525,16 @@ private void assertNamedCacheFile(EmbeddedCacheManager cm, boolean deprecated) {
       assertEquals(1, c.persistence().stores().size());
       ClusterLoaderConfiguration clusterLoaderCfg = (ClusterLoaderConfiguration) c.persistence().stores().get(0);
       assertEquals(15000, clusterLoaderCfg.remoteCallTimeout());
+      if (!deprecated) {
+         assertEquals(20, clusterLoaderCfg.staggerDelay());
+      }
 
       c = cm.getCacheConfiguration("withLoaderDefaults");
       loaderCfg = (SingleFileStoreConfiguration) c.persistence().stores().get(0);
       assertEquals("/tmp/Another-FileCacheStore-Location", loaderCfg.location());
+      if (!deprecated) {
+         assertTrue(c.persistence().negativeLookupFilter());
+      }
 
       c = cm.getCacheConfiguration("withouthJmxEnabled");
       assertTrue(!c.jmxStatistics().enabled());
@@ -562,6 +573,10 @@ private void assertNamedCacheFile(EmbeddedCacheManager cm, boolean deprecated) {
       assertTrue(c.clustering().stateTransfer().fetchInMemoryState());
       assertEquals(120000, c.clustering().stateTransfer().timeout());
       assertEquals(1000, c.clustering().stateTransfer().chunkSize());
+      if (!deprecated) {
+         assertEquals(10485760, c.clustering().stateTransfer().maxBandwidth());
+         assertEquals(4, c.clustering().stateTransfer().maxChunksInFlight());
+      }
 
       c = cm.getCacheConfiguration("cacheWithCustomInterceptors");
       assertTrue(!c.customInterceptors().interceptors().isEmpty());
@@ -592,6 +607,9 @@ private void assertNamedCacheFile(EmbeddedCacheManager cm, boolean deprecated) {
 
       Configuration withJDBCLoader = cm.getCacheConfiguration("withJDBCLoader");
       assertTrue(withJDBCLoader.locking().supportsConcurrentUpdates());
+      if (!deprecated) {
+         assertEquals(100, withJDBCLoader.persistence().passivationQueueSize());
+      }
    }
 
    private void assertReaperAndTimeoutInfo(Configuration defaultCfg) {
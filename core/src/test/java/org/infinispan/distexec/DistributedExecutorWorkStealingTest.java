@@ -0,0 +1,117 @@
+package org.infinispan.distexec;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.TopologyAwareAddress;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the nodes of a distributed task split in sub-tasks steal the sub-tasks of the nodes
+ * owning most of the input keys.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distexec.DistributedExecutorWorkStealingTest")
+public class DistributedExecutorWorkStealingTest extends MultipleCacheManagersTest {
+
+   private static final String CACHE_NAME = "workStealing";
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1);
+      createClusteredCaches(3, CACHE_NAME, builder);
+   }
+
+   public void testIdleNodesStealSubtasks() throws Exception {
+      Cache<Object, Object> owner = cache(0, CACHE_NAME);
+      // more sub-tasks than the owner may have in progress, so that the other nodes find some to steal
+      int numKeys = 3 * Runtime.getRuntime().availableProcessors();
+      List<MagicKey> keys = new ArrayList<MagicKey>(numKeys);
+      for (int i = 0; i < numKeys; i++) {
+         MagicKey key = new MagicKey("k" + i, owner);
+         owner.put(key, "v" + i);
+         keys.add(key);
+      }
+
+      DistributedExecutorService des = new DefaultExecutorService(owner);
+      try {
+         DistributedTask<String> task = des.createDistributedTaskBuilder(new ExecutingNodeCallable())
+               .maxKeysPerSubtask(1).build();
+         List<Future<String>> futures = des.submitEverywhere(task, keys.toArray());
+         assertEquals(numKeys, futures.size());
+
+         String ownerAddress = address(0).toString();
+         int stolen = 0;
+         for (Future<String> f : futures) {
+            if (!ownerAddress.equals(f.get(30, TimeUnit.SECONDS)))
+               stolen++;
+         }
+         assertTrue("No sub-task was stolen", stolen > 0);
+      } finally {
+         des.shutdownNow();
+      }
+   }
+
+   public void testStealingFollowsExecutionPolicy() {
+      TopologyAwareAddress victim = mock(TopologyAwareAddress.class);
+      TopologyAwareAddress sameRack = mock(TopologyAwareAddress.class);
+      TopologyAwareAddress otherRack = mock(TopologyAwareAddress.class);
+      when(sameRack.isSameRack(victim)).thenReturn(true);
+      when(otherRack.isSameRack(victim)).thenReturn(false);
+
+      assertTrue(DistributedTaskExecutionPolicy.SAME_RACK.allowsStealing(sameRack, victim));
+      assertFalse(DistributedTaskExecutionPolicy.SAME_RACK.allowsStealing(otherRack, victim));
+      assertTrue(DistributedTaskExecutionPolicy.ALL.allowsStealing(otherRack, victim));
+      // without topology information, any node may steal
+      assertTrue(DistributedTaskExecutionPolicy.SAME_RACK.allowsStealing(mock(Address.class), victim));
+   }
+
+   /**
+    * Reads its input keys, which are remote on a node that stole the sub-task, and returns the
+    * address of the node that executed it.
+    */
+   static class ExecutingNodeCallable implements DistributedCallable<Object, Object, String>, Serializable {
+
+      /** The serialVersionUID */
+      private static final long serialVersionUID = -3517207155853624185L;
+
+      private transient Cache<Object, Object> cache;
+      private transient Set<Object> inputKeys;
+
+      @Override
+      public void setEnvironment(Cache<Object, Object> cache, Set<Object> inputKeys) {
+         this.cache = cache;
+         this.inputKeys = inputKeys;
+      }
+
+      @Override
+      public String call() throws Exception {
+         for (Object key : inputKeys) {
+            if (cache.get(key) == null)
+               throw new IllegalStateException("Missing value for " + key);
+         }
+         // keep the sub-task in progress for a while
+         TestingUtil.sleepThread(10);
+         return cache.getCacheManager().getAddress().toString();
+      }
+   }
+}
@@ -466,6 +466,30 @@ public void testDistributedCallableEverywhereWithKeys() throws Exception {
       }
    }
 
+   public void testDistributedCallableEverywhereWithSubtasks() throws Exception {
+      Cache<Object, Object> c1 = getCache();
+      String[] keys = new String[20];
+      int expectedLength = 0;
+      for (int i = 0; i < keys.length; i++) {
+         keys[i] = "key" + i;
+         c1.put(keys[i], "value" + i);
+         expectedLength += ("value" + i).length();
+      }
+
+      DistributedExecutorService des = createDES(getCache());
+      DistributedTaskBuilder<Integer> taskBuilder = des
+               .createDistributedTaskBuilder(new ValueLengthDistributedCallable());
+      DistributedTask<Integer> distributedTask = taskBuilder.maxKeysPerSubtask(3).build();
+      List<Future<Integer>> list = des.submitEverywhere(distributedTask, keys);
+      // at least one sub-task per 3 keys of each node
+      assert list.size() >= 7;
+      int length = 0;
+      for (Future<Integer> f : list) {
+         length += f.get();
+      }
+      assert length == expectedLength;
+   }
+
    public void testDistributedCallableEverywhereWithEmptyKeys() throws Exception {
       Cache<Object, Object> c1 = getCache();
       c1.put("key1", "Manik");
@@ -556,6 +580,30 @@ public boolean validlyInvoked() {
       }
    }
 
+   static class ValueLengthDistributedCallable implements DistributedCallable<Object, Object, Integer>,
+            Serializable {
+
+      /** The serialVersionUID */
+      private static final long serialVersionUID = -2634529381063525186L;
+      private transient Cache<Object, Object> cache;
+      private transient Set<Object> inputKeys;
+
+      @Override
+      public Integer call() throws Exception {
+         int length = 0;
+         for (Object key : inputKeys) {
+            length += ((String) cache.get(key)).length();
+         }
+         return length;
+      }
+
+      @Override
+      public void setEnvironment(Cache<Object, Object> cache, Set<Object> inputKeys) {
+         this.cache = cache;
+         this.inputKeys = inputKeys;
+      }
+   }
+
    static class SimpleCallable implements Callable<Integer>, Serializable {
 
       /** The serialVersionUID */
@@ -0,0 +1,103 @@
+package org.infinispan.distribution;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.rpc.RpcOptions;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.AbstractControlledRpcManager;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the async write methods invoked on a node which is not the primary owner of the key, and the async reads
+ * invoked on a node which is not an owner, don't wait for the response of the primary owner in a thread, but still
+ * return the same values as the synchronous methods.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distribution.DistAsyncNonOwnerWriteTest")
+public class DistAsyncNonOwnerWriteTest extends BaseDistFunctionalTest<Object, String> {
+
+   private AsyncCountingRpcManager rpcManager;
+
+   public DistAsyncNonOwnerWriteTest() {
+      INIT_CLUSTER_SIZE = 3;
+      l1CacheEnabled = false;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      super.createCacheManagers();
+      rpcManager = new AsyncCountingRpcManager(c1.getAdvancedCache().getRpcManager());
+      TestingUtil.replaceComponent(c1, RpcManager.class, rpcManager, true);
+   }
+
+   public void testAsyncWritesOnNonOwner() throws Exception {
+      MagicKey key = new MagicKey("k", c2, c3);
+      rpcManager.asyncInvocations.set(0);
+
+      assertNull(c1.putAsync(key, "v1").get(10, TimeUnit.SECONDS));
+      assertOnAllCachesAndOwnership(key, "v1");
+      assertEquals("v1", c1.putAsync(key, "v2").get(10, TimeUnit.SECONDS));
+      assertEquals("v2", c1.putIfAbsentAsync(key, "v3").get(10, TimeUnit.SECONDS));
+      assertEquals("v2", c1.replaceAsync(key, "v3").get(10, TimeUnit.SECONDS));
+      assertFalse(c1.replaceAsync(key, "v2", "v4").get(10, TimeUnit.SECONDS));
+      assertTrue(c1.replaceAsync(key, "v3", "v4").get(10, TimeUnit.SECONDS));
+      assertOnAllCachesAndOwnership(key, "v4");
+      assertFalse(c1.removeAsync(key, "v3").get(10, TimeUnit.SECONDS));
+      assertEquals("v4", c1.removeAsync(key).get(10, TimeUnit.SECONDS));
+      assertRemovedOnAllCaches(key);
+      assertNull(c1.replaceAsync(key, "v5").get(10, TimeUnit.SECONDS));
+      assertNull(c1.removeAsync(key).get(10, TimeUnit.SECONDS));
+      assertRemovedOnAllCaches(key);
+
+      assertEquals(10, rpcManager.asyncInvocations.get());
+   }
+
+   public void testAsyncReadsOnNonOwner() throws Exception {
+      MagicKey key = new MagicKey("k", c2, c3);
+      rpcManager.asyncInvocations.set(0);
+
+      assertNull(c1.getAsync(key).get(10, TimeUnit.SECONDS));
+      c2.put(key, "v1");
+      assertEquals("v1", c1.getAsync(key).get(10, TimeUnit.SECONDS));
+      assertEquals("v1", c1.get(key));
+
+      assertEquals(2, rpcManager.asyncInvocations.get());
+   }
+
+   public void testAsyncWritesOnPrimaryOwner() throws Exception {
+      MagicKey key = new MagicKey("k", c1, c2);
+      rpcManager.asyncInvocations.set(0);
+
+      assertNull(c1.putAsync(key, "v1").get(10, TimeUnit.SECONDS));
+      assertEquals("v1", c1.removeAsync(key).get(10, TimeUnit.SECONDS));
+      assertRemovedOnAllCaches(key);
+
+      assertEquals(0, rpcManager.asyncInvocations.get());
+   }
+
+   private static class AsyncCountingRpcManager extends AbstractControlledRpcManager {
+      final AtomicInteger asyncInvocations = new AtomicInteger();
+
+      AsyncCountingRpcManager(RpcManager realOne) {
+         super(realOne);
+      }
+
+      @Override
+      public NotifyingFuture<Response> invokeRemotelyAsync(Address recipient, ReplicableCommand rpc, RpcOptions options) {
+         asyncInvocations.incrementAndGet();
+         return super.invokeRemotelyAsync(recipient, rpc, options);
+      }
+   }
+}
@@ -0,0 +1,114 @@
+package org.infinispan.distribution;
+
+import org.infinispan.Cache;
+import org.infinispan.compute.ComputeEntry;
+import org.infinispan.compute.ComputeFunction;
+import org.testng.annotations.Test;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests that {@link org.infinispan.AdvancedCache#compute(Object, ComputeFunction)} applies the function once, on the
+ * primary owner, and replicates only its outcome.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distribution.DistComputeTest")
+public class DistComputeTest extends BaseDistFunctionalTest<Object, String> {
+
+   private static final AtomicInteger invocations = new AtomicInteger();
+
+   public void testComputeFromNonOwner() {
+      Object key = getKeyForCache(c1);
+      c1.put(key, "a");
+      invocations.set(0);
+
+      String previous = getFirstNonOwner(key).getAdvancedCache().compute(key, new Append("b"));
+      assertEquals("a", previous);
+      assertEquals(1, invocations.get());
+      assertOnAllCachesAndOwnership(key, "ab");
+   }
+
+   public void testComputeOnPrimaryOwner() {
+      Object key = getKeyForCache(c2);
+      invocations.set(0);
+
+      assertNull(c2.getAdvancedCache().compute(key, new Append("b")));
+      assertEquals(1, invocations.get());
+      assertOnAllCachesAndOwnership(key, "b");
+   }
+
+   public void testComputeOnBackupOwner() {
+      Object key = getKeyForCache(c3);
+      c3.put(key, "a");
+      invocations.set(0);
+
+      Cache<Object, String> backup = getOwners(key)[1];
+      assertEquals("a", backup.getAdvancedCache().compute(key, new Append("b")));
+      assertEquals(1, invocations.get());
+      assertOnAllCachesAndOwnership(key, "ab");
+   }
+
+   public void testRemove() {
+      Object key = getKeyForCache(c1);
+      c1.put(key, "a");
+
+      assertEquals("a", getFirstNonOwner(key).getAdvancedCache().compute(key, new Remove()));
+      assertRemovedOnAllCaches(key);
+   }
+
+   public void testReadOnlyFunctionIsNotReplicated() {
+      Object key = getKeyForCache(c1);
+      c1.put(key, "a");
+
+      assertEquals("a", getFirstNonOwner(key).getAdvancedCache().compute(key, new Read()));
+      for (Cache<Object, String> c : getOwners(key)) {
+         assertEquals("a", c.getAdvancedCache().getDataContainer().get(key).getValue());
+      }
+   }
+
+   public void testRemoveAbsentEntry() {
+      Object key = getKeyForCache(c1);
+      assertNull(c2.getAdvancedCache().compute(key, new Remove()));
+      for (Cache<Object, String> c : caches) {
+         assertFalse(c.getAdvancedCache().getDataContainer().containsKey(key));
+      }
+   }
+
+   private static class Append implements ComputeFunction<Object, String, String>, Serializable {
+      private final String suffix;
+
+      Append(String suffix) {
+         this.suffix = suffix;
+      }
+
+      @Override
+      public String apply(ComputeEntry<Object, String> entry) {
+         invocations.incrementAndGet();
+         String previous = entry.getValue();
+         entry.setValue(previous == null ? suffix : previous + suffix);
+         return previous;
+      }
+   }
+
+   private static class Remove implements ComputeFunction<Object, String, String>, Serializable {
+      @Override
+      public String apply(ComputeEntry<Object, String> entry) {
+         String previous = entry.getValue();
+         entry.remove();
+         return previous;
+      }
+   }
+
+   private static class Read implements ComputeFunction<Object, String, String>, Serializable {
+      @Override
+      public String apply(ComputeEntry<Object, String> entry) {
+         return entry.getValue();
+      }
+   }
+}
@@ -0,0 +1,91 @@
+package org.infinispan.distribution;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.write.InvalidateL1Command;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.AbstractControlledRpcManager;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the unicast L1 invalidations of concurrent writes are sent to each node in batches.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distribution.L1InvalidationBatchingTest")
+public class L1InvalidationBatchingTest extends BaseDistFunctionalTest<Object, String> {
+
+   private static final int NUM_KEYS = 20;
+
+   public L1InvalidationBatchingTest() {
+      numOwners = 1;
+      l1Threshold = -1;
+      testRetVals = false;
+   }
+
+   public void testConcurrentWritesShareInvalidationRpcs() throws Exception {
+      final List<MagicKey> keys = new ArrayList<MagicKey>(NUM_KEYS);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         MagicKey key = new MagicKey("k" + i, c1);
+         keys.add(key);
+         c1.put(key, "v" + i);
+         // c2 becomes a requestor of every key
+         assertEquals("v" + i, c2.get(key));
+      }
+
+      L1ManagerImpl l1Manager = (L1ManagerImpl) TestingUtil.extractComponent(c1, L1Manager.class);
+      l1Manager.resetStatistics();
+      // slow invalidations keep an RPC to c2 in progress while the other writes enqueue their keys
+      RpcManager rpcManager = TestingUtil.extractComponent(c1, RpcManager.class);
+      TestingUtil.replaceComponent(c1, RpcManager.class, new SlowInvalidationRpcManager(rpcManager), true);
+      try {
+         List<Future<Void>> writes = new ArrayList<Future<Void>>(NUM_KEYS);
+         for (int i = 0; i < NUM_KEYS; i++) {
+            final MagicKey key = keys.get(i);
+            final String value = "w" + i;
+            writes.add(fork(new Runnable() {
+               @Override
+               public void run() {
+                  c1.put(key, value);
+               }
+            }, (Void) null));
+         }
+         for (Future<Void> write : writes) {
+            write.get(30, TimeUnit.SECONDS);
+         }
+      } finally {
+         TestingUtil.replaceComponent(c1, RpcManager.class, rpcManager, true);
+      }
+
+      for (MagicKey key : keys) {
+         assertNull(c2.getAdvancedCache().getDataContainer().get(key));
+      }
+      assertEquals(NUM_KEYS, l1Manager.getUnicastInvalidations());
+      assertTrue("Expected fewer RPCs than invalidations, but got " + l1Manager.getInvalidationRpcs(),
+                 l1Manager.getInvalidationRpcs() < l1Manager.getUnicastInvalidations());
+   }
+
+   private static class SlowInvalidationRpcManager extends AbstractControlledRpcManager {
+
+      SlowInvalidationRpcManager(RpcManager realOne) {
+         super(realOne);
+      }
+
+      @Override
+      protected void beforeInvokeRemotely(ReplicableCommand command) {
+         if (command instanceof SingleRpcCommand && ((SingleRpcCommand) command).getCommand() instanceof InvalidateL1Command) {
+            TestingUtil.sleepThread(100);
+         }
+      }
+   }
+}
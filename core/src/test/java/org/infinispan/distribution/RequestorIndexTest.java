@@ -0,0 +1,98 @@
+package org.infinispan.distribution;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the L1 requestor index.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "distribution.RequestorIndexTest")
+public class RequestorIndexTest extends AbstractInfinispanTest {
+
+   private static final Address A = new TestAddress(0, "A");
+   private static final Address B = new TestAddress(1, "B");
+   private static final List<Address> MEMBERS = Arrays.asList(A, B);
+
+   public void testRequestorsOfKeys() {
+      RequestorIndex index = new RequestorIndex(AnyEquivalence.getInstance(), RequestorIndex.DEFAULT_NUM_SEGMENTS);
+      index.addRequestor("k1", A);
+      index.addRequestor("k1", B);
+      index.addRequestor("k2", B);
+      index.addRequestor("k2", B);
+
+      assertEquals(new HashSet<Address>(Arrays.asList(A, B)), index.getRequestors(Collections.<Object>singleton("k1")));
+      assertTrue(index.getRequestors(Collections.<Object>singleton("k2")).contains(B));
+      assertEquals(new HashSet<Address>(Arrays.asList(A, B)), index.getRequestors(Arrays.<Object>asList("k1", "k2")));
+   }
+
+   public void testRequestorsShareSegment() {
+      // a single segment reports the requestors of any key
+      RequestorIndex index = new RequestorIndex(AnyEquivalence.getInstance(), 1);
+      index.addRequestor("k1", A);
+      index.addRequestor("k2", B);
+
+      assertEquals(new HashSet<Address>(Arrays.asList(A, B)), index.getRequestors(Collections.<Object>singleton("k3")));
+   }
+
+   public void testRequestorsForgottenAfterTwoEpochs() {
+      RequestorIndex index = new RequestorIndex(AnyEquivalence.getInstance(), RequestorIndex.DEFAULT_NUM_SEGMENTS);
+      index.addRequestor("k1", A);
+      index.advanceEpoch(MEMBERS);
+      index.addRequestor("k1", B);
+      assertEquals(new HashSet<Address>(Arrays.asList(A, B)), index.getRequestors(Collections.<Object>singleton("k1")));
+
+      index.advanceEpoch(MEMBERS);
+      assertEquals(Collections.singleton(B), index.getRequestors(Collections.<Object>singleton("k1")));
+
+      index.advanceEpoch(MEMBERS);
+      assertTrue(index.getRequestors(Collections.<Object>singleton("k1")).isEmpty());
+   }
+
+   public void testManyRequestors() {
+      RequestorIndex index = new RequestorIndex(AnyEquivalence.getInstance(), 16);
+      Set<Address> expected = new HashSet<Address>();
+      Set<Object> keys = new HashSet<Object>();
+      for (int i = 0; i < 200; i++) {
+         Address address = new TestAddress(i);
+         expected.add(address);
+         keys.add("k" + i);
+         index.addRequestor("k" + i, address);
+      }
+
+      assertEquals(expected, index.getRequestors(keys));
+   }
+
+   public void testIndexesOfLeaversReclaimed() {
+      RequestorIndex index = new RequestorIndex(AnyEquivalence.getInstance(), 16);
+      for (int i = 0; i < 200; i++) {
+         index.addRequestor("k" + i, new TestAddress(i + 2));
+      }
+      index.addRequestor("k1", A);
+      index.addRequestor("k2", B);
+      assertEquals(202, index.getIndexedNodes());
+
+      // only the members keep an index, the requestors of the previous epoch are still reported
+      index.advanceEpoch(MEMBERS);
+      assertEquals(2, index.getIndexedNodes());
+      assertTrue(index.getRequestors(Collections.<Object>singleton("k7")).contains(new TestAddress(9)));
+
+      index.addRequestor("k3", B);
+      assertEquals(2, index.getIndexedNodes());
+      index.advanceEpoch(Collections.singletonList(A));
+      assertEquals(Collections.singleton(B), index.getRequestors(Collections.<Object>singleton("k3")));
+      assertEquals(1, index.getIndexedNodes());
+   }
+}
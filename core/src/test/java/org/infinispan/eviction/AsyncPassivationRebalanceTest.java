@@ -0,0 +1,59 @@
+package org.infinispan.eviction;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the entries staged for passivation are transferred to the nodes joining the cluster.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "eviction.AsyncPassivationRebalanceTest")
+public class AsyncPassivationRebalanceTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_KEYS = 20;
+
+   private ConfigurationBuilder builder;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1);
+      builder
+         .persistence()
+            .passivation(true)
+            .passivationQueueSize(NUM_KEYS)
+            // slow writes keep the entries staged while the joiner receives its segments
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class).slow(true).fetchPersistentState(true);
+      addClusterEnabledCacheManager(builder);
+   }
+
+   public void testJoinerReceivesStagedEntries() {
+      Cache<Object, Object> c0 = cache(0);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         c0.put("k" + i, "v" + i);
+         c0.evict("k" + i);
+      }
+
+      addClusterEnabledCacheManager(builder);
+      waitForClusterToForm();
+
+      Cache<Object, Object> c1 = cache(1);
+      int moved = 0;
+      for (int i = 0; i < NUM_KEYS; i++) {
+         String key = "k" + i;
+         if (address(1).equals(c1.getAdvancedCache().getDistributionManager().getPrimaryLocation(key)))
+            moved++;
+         assertEquals("v" + i, c1.get(key));
+         assertEquals("v" + i, c0.get(key));
+      }
+      assertTrue("No key moved to the joiner", moved > 0);
+   }
+}
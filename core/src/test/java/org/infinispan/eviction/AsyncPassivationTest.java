@@ -0,0 +1,105 @@
+package org.infinispan.eviction;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests passivation through the staging area.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "eviction.AsyncPassivationTest")
+public class AsyncPassivationTest extends SingleCacheManagerTest {
+
+   private static final int NUM_KEYS = 10;
+
+   public AsyncPassivationTest() {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder cfg = new ConfigurationBuilder();
+      cfg
+         .persistence()
+            .passivation(true)
+            .passivationQueueSize(NUM_KEYS)
+            // slow writes keep the entries staged for a while
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class).slow(true).purgeOnStartup(true);
+      cacheManager = TestCacheManagerFactory.createCacheManager(cfg);
+      cfg.eviction().strategy(EvictionStrategy.LRU).maxEntries(2);
+      cacheManager.defineConfiguration("bounded", cfg.build());
+      return cacheManager;
+   }
+
+   public void testEvictedEntriesAreReadable() {
+      evictAll();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, cache.get("k" + i));
+      }
+
+      passivationManager().flushStagedEntries();
+      DummyInMemoryStore store = store();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertFalse(store.contains("k" + i));
+      }
+   }
+
+   public void testStagedEntriesAreWrittenToStore() {
+      evictAll();
+      passivationManager().flushStagedEntries();
+
+      DummyInMemoryStore store = store();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertNull(passivationManager().getStagedEntry("k" + i));
+         assertTrue(store.contains("k" + i));
+      }
+   }
+
+   public void testRemoveStagedEntry() {
+      evictAll();
+      cache.remove("k0");
+      assertNull(cache.get("k0"));
+
+      passivationManager().flushStagedEntries();
+      assertFalse(store().contains("k0"));
+      assertTrue(store().contains("k1"));
+   }
+
+   public void testBoundedContainer() {
+      cache = cacheManager.getCache("bounded");
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, cache.get("k" + i));
+      }
+      assertEquals(NUM_KEYS, cache.size());
+   }
+
+   private void evictAll() {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache.put("k" + i, "v" + i);
+         cache.evict("k" + i);
+      }
+   }
+
+   private PassivationManager passivationManager() {
+      return TestingUtil.extractComponent(cache, PassivationManager.class);
+   }
+
+   private DummyInMemoryStore store() {
+      return (DummyInMemoryStore) TestingUtil.getCacheLoader(cache);
+   }
+}
@@ -0,0 +1,15 @@
+package org.infinispan.eviction;
+
+import org.testng.annotations.Test;
+
+/**
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "eviction.LIRSMemoryBasedEvictionFunctionalTest")
+public class LIRSMemoryBasedEvictionFunctionalTest extends MemoryBasedEvictionFunctionalTest {
+
+   @Override
+   protected EvictionStrategy getEvictionStrategy() {
+      return EvictionStrategy.LIRS;
+   }
+}
@@ -0,0 +1,108 @@
+package org.infinispan.eviction;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.interceptors.CacheMgmtInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests eviction bounded by the memory footprint of the entries.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "eviction.MemoryBasedEvictionFunctionalTest")
+public class MemoryBasedEvictionFunctionalTest extends SingleCacheManagerTest {
+
+   private static final int MAX_ENTRIES = 1000;
+   private static final long MAX_MEMORY = 20000;
+
+   public MemoryBasedEvictionFunctionalTest() {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   protected EvictionStrategy getEvictionStrategy() {
+      return EvictionStrategy.LRU;
+   }
+
+   protected int getMaxEntries() {
+      return MAX_ENTRIES;
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.eviction().maxEntries(getMaxEntries()).maxMemory(MAX_MEMORY).strategy(getEvictionStrategy())
+            // a single segment, so that the whole budget applies to all the keys
+            .locking().concurrencyLevel(1)
+            .jmxStatistics().enable();
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(builder);
+      cache = cm.getCache();
+      return cm;
+   }
+
+   public void testEvictionByWeight() {
+      for (int i = 0; i < 100; i++) {
+         cache.put("key-" + i, new byte[1000]);
+         assertTrue("Weight above budget: " + weight(), weight() <= MAX_MEMORY);
+      }
+      int size = cache.getAdvancedCache().getDataContainer().size();
+      assertTrue("Expected entries to be evicted, size is " + size, size < 20);
+      assertTrue(size > 10);
+      // the most recently written entry is never evicted first
+      assertNotNull(cache.get("key-99"));
+      assertNull(cache.get("key-0"));
+   }
+
+   public void testWeightTracksUpdatesAndRemovals() {
+      cache.put("k", new byte[1000]);
+      long weight = weight();
+      cache.put("k", new byte[2000]);
+      assertEquals(weight + 1000, weight());
+      cache.put("k", new byte[1000]);
+      assertEquals(weight, weight());
+      cache.remove("k");
+      assertEquals(0, weight());
+      cache.put("k", new byte[1000]);
+      cache.clear();
+      assertEquals(0, weight());
+   }
+
+   public void testSingleEntryLargerThanBudget() {
+      cache.put("small", new byte[100]);
+      cache.put("huge", new byte[(int) MAX_MEMORY * 2]);
+      assertTrue(weight() <= MAX_MEMORY);
+   }
+
+   public void testDefaultWeigher() {
+      DefaultEntryWeigher weigher = new DefaultEntryWeigher();
+      InternalCacheEntry entry = TestingUtil.extractComponent(cache, InternalEntryFactory.class)
+            .create("k", new byte[1000], new EmbeddedMetadata.Builder().build());
+      int weight = weigher.weigh("k", entry);
+      assertTrue(weight >= 1000 + DefaultEntryWeigher.ENTRY_OVERHEAD);
+      assertTrue(weight < 1100 + DefaultEntryWeigher.ENTRY_OVERHEAD);
+   }
+
+   public void testWeightExposedThroughJmx() {
+      CacheMgmtInterceptor stats = TestingUtil.findInterceptor(cache, CacheMgmtInterceptor.class);
+      assertEquals(0, stats.getCurrentWeight());
+      cache.put("k", new byte[1000]);
+      assertEquals(weight(), stats.getCurrentWeight());
+      assertTrue(stats.getCurrentWeight() > 1000);
+   }
+
+   private long weight() {
+      return ((DefaultDataContainer) cache.getAdvancedCache().getDataContainer()).getWeight();
+   }
+}
@@ -0,0 +1,17 @@
+package org.infinispan.eviction;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests eviction bounded only by the memory footprint of the entries, without max entries.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "eviction.MemoryOnlyEvictionFunctionalTest")
+public class MemoryOnlyEvictionFunctionalTest extends MemoryBasedEvictionFunctionalTest {
+
+   @Override
+   protected int getMaxEntries() {
+      return -1;
+   }
+}
@@ -0,0 +1,38 @@
+package org.infinispan.eviction;
+
+import org.infinispan.container.DataContainer;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "functional", testName = "eviction.TinyLFUEvictionFunctionalTest")
+public class TinyLFUEvictionFunctionalTest extends BaseEvictionFunctionalTest {
+
+   protected EvictionStrategy getEvictionStrategy() {
+      return EvictionStrategy.TINY_LFU;
+   }
+
+   public void testScanDoesNotEvictFrequentlyAccessedEntries() {
+      int hotKeys = 16;
+      for (int i = 0; i < hotKeys; i++) {
+         cache.put("hot-" + i, "value");
+      }
+      for (int j = 0; j < 10; j++) {
+         for (int i = 0; i < hotKeys; i++) {
+            cache.get("hot-" + i);
+         }
+      }
+      // a scan much larger than the cache, each key accessed only once
+      for (int i = 0; i < 1280; i++) {
+         cache.put("scan-" + i, "value");
+      }
+      DataContainer dataContainer = cache.getAdvancedCache().getDataContainer();
+      int survivors = 0;
+      for (int i = 0; i < hotKeys; i++) {
+         if (dataContainer.containsKey("hot-" + i)) {
+            survivors++;
+         }
+      }
+      assertTrue("Only " + survivors + " frequently accessed entries survived the scan", survivors >= hotKeys * 3 / 4);
+   }
+}
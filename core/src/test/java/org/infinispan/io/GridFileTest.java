@@ -703,6 +703,42 @@ public void testGetUsableSpace() {
       fs.getFile("nonsuch.txt").getUsableSpace();
    }
 
+   public void testPipelinedChunks() throws IOException {
+      GridFilesystem pipelinedFs = new GridFilesystem(dataCache, metadataCache, 16, 3, 2);
+      byte[] bytes = new byte[16 * 10 + 5];
+      for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) i;
+
+      OutputStream out = pipelinedFs.getOutput("pipelined.dat");
+      try {
+         out.write(bytes);
+      } finally {
+         out.close();
+      }
+      assertEquals(pipelinedFs.getFile("pipelined.dat").length(), bytes.length);
+      assertEquals(numberOfChunksInCache(), 11);
+
+      InputStream in = pipelinedFs.getInput("pipelined.dat");
+      try {
+         assertTrue(Arrays.equals(toBytes(in), bytes));
+      } finally {
+         in.close();
+      }
+
+      ReadableGridFileChannel channel = pipelinedFs.getReadableChannel("pipelined.dat");
+      try {
+         ByteBuffer buffer = ByteBuffer.allocate(20);
+         channel.position(150);
+         assertEquals(channel.read(buffer), 15);
+         channel.position(3);
+         buffer.clear();
+         assertEquals(channel.read(buffer), 20);
+         assertEquals(buffer.get(0), (byte) 3);
+         assertEquals(buffer.get(19), (byte) 22);
+      } finally {
+         channel.close();
+      }
+   }
+
    private String getStringFromChannel(ReadableByteChannel channel, int length) throws IOException {
       ByteBuffer buffer = ByteBuffer.allocate(length);
       channel.read(buffer);
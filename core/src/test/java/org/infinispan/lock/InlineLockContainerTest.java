@@ -0,0 +1,139 @@
+package org.infinispan.lock;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.concurrent.locks.containers.InlineLockContainer;
+import org.infinispan.util.concurrent.locks.containers.InlineLockContainer.InlineLock;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "lock.InlineLockContainerTest")
+public class InlineLockContainerTest extends AbstractInfinispanTest {
+
+   public void testReentrancy() throws Exception {
+      InlineLockContainer lc = new InlineLockContainer(4);
+      Object owner = new Object();
+      assertNotNull(lc.acquireLock(owner, "k", 0, TimeUnit.MILLISECONDS));
+      assertNotNull(lc.acquireLock(owner, "k", 0, TimeUnit.MILLISECONDS));
+      assertTrue(lc.ownsLock("k", owner));
+      assertFalse(lc.ownsLock("k", new Object()));
+      assertNull(lc.acquireLock(new Object(), "k", 0, TimeUnit.MILLISECONDS));
+
+      lc.releaseLock(owner, "k");
+      assertTrue(lc.isLocked("k"));
+      lc.releaseLock(owner, "k");
+      assertFalse(lc.isLocked("k"));
+      assertEquals(0, lc.getNumLocksHeld());
+      assertEquals(-1, lc.getLockId("k"));
+   }
+
+   public void testCollidingKeysDontBlockEachOther() throws Exception {
+      // more keys than buckets, so some of them collide
+      InlineLockContainer lc = new InlineLockContainer(1);
+      Object owner1 = new Object();
+      Object owner2 = new Object();
+      for (int i = 0; i < lc.size() * 2; i++) {
+         assertNotNull(lc.acquireLock(owner1, "a" + i, 0, TimeUnit.MILLISECONDS));
+         assertNotNull(lc.acquireLock(owner2, "b" + i, 0, TimeUnit.MILLISECONDS));
+      }
+      assertEquals(lc.size() * 4, lc.getNumLocksHeld());
+      for (int i = 0; i < lc.size() * 2; i++) {
+         assertEquals(owner1, lc.getLock("a" + i).getOwner());
+         lc.releaseLock(owner1, "a" + i);
+         lc.releaseLock(owner2, "b" + i);
+      }
+      assertEquals(0, lc.getNumLocksHeld());
+   }
+
+   public void testHandOverToWaiter() throws Exception {
+      final InlineLockContainer lc = new InlineLockContainer(4);
+      final Object owner = new Object();
+      final Object waiter = new Object();
+      final CountDownLatch waiting = new CountDownLatch(1);
+      assertNotNull(lc.acquireLock(owner, "k", 0, TimeUnit.MILLISECONDS));
+
+      Future<Boolean> f = fork(new Callable<Boolean>() {
+         @Override
+         public Boolean call() throws Exception {
+            waiting.countDown();
+            return lc.acquireLock(waiter, "k", 10, TimeUnit.SECONDS) != null;
+         }
+      });
+      waiting.await();
+      Thread.sleep(100);
+      lc.releaseLock(owner, "k");
+
+      assertTrue(f.get(10, TimeUnit.SECONDS));
+      assertTrue(lc.ownsLock("k", waiter));
+      lc.releaseLock(waiter, "k");
+      assertEquals(0, lc.getNumLocksHeld());
+   }
+
+   public void testTimeout() throws Exception {
+      final InlineLockContainer lc = new InlineLockContainer(4);
+      final Object owner = new Object();
+      assertNotNull(lc.acquireLock(owner, "k", 0, TimeUnit.MILLISECONDS));
+
+      Future<Boolean> f = fork(new Callable<Boolean>() {
+         @Override
+         public Boolean call() throws Exception {
+            return lc.acquireLock(new Object(), "k", 50, TimeUnit.MILLISECONDS) != null;
+         }
+      });
+      assertFalse(f.get(10, TimeUnit.SECONDS));
+
+      // the timed out waiter doesn't prevent the release or a later acquisition
+      lc.releaseLock(owner, "k");
+      assertFalse(lc.isLocked("k"));
+      assertNotNull(lc.acquireLock(new Object(), "k", 0, TimeUnit.MILLISECONDS));
+   }
+
+   public void testLockIdsDifferAcrossKeys() throws Exception {
+      InlineLockContainer lc = new InlineLockContainer(4);
+      Object owner = new Object();
+      assertNotNull(lc.acquireLock(owner, "k1", 0, TimeUnit.MILLISECONDS));
+      int id1 = lc.getLockId("k1");
+      lc.releaseLock(owner, "k1");
+      // the released slot is reused for the next key
+      assertNotNull(lc.acquireLock(owner, "k1", 0, TimeUnit.MILLISECONDS));
+      assertNotNull(lc.acquireLock(owner, "k2", 0, TimeUnit.MILLISECONDS));
+      assertTrue(id1 != lc.getLockId("k1"));
+      assertTrue(lc.getLockId("k1") != lc.getLockId("k2"));
+   }
+
+   public void testLockInterface() throws Exception {
+      final InlineLockContainer lc = new InlineLockContainer(4);
+      final InlineLock lock = lc.acquireLock(Thread.currentThread(), "k", 0, TimeUnit.MILLISECONDS);
+      assertNotNull(lock);
+      assertTrue(lock.tryLock());
+      lock.unlock();
+      assertTrue(lc.ownsLock("k", Thread.currentThread()));
+
+      Future<Boolean> f = fork(new Callable<Boolean>() {
+         @Override
+         public Boolean call() throws Exception {
+            if (lock.tryLock()) return false;
+            lock.lock();
+            boolean owned = lc.ownsLock("k", Thread.currentThread());
+            lock.unlock();
+            return owned;
+         }
+      });
+      Thread.sleep(100);
+      lock.unlock();
+      assertTrue(f.get(10, TimeUnit.SECONDS));
+      assertFalse(lc.isLocked("k"));
+   }
+}
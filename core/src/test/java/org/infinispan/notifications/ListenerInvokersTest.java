@@ -0,0 +1,74 @@
+package org.infinispan.notifications;
+
+import org.infinispan.notifications.cachelistener.event.Event;
+import org.infinispan.notifications.cachelistener.event.EventImpl;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+@Test(groups = "unit", testName = "notifications.ListenerInvokersTest")
+public class ListenerInvokersTest extends AbstractInfinispanTest {
+
+   public void testPublicListenerMethodIsInvokedDirectly() throws Throwable {
+      Method method = PublicListener.class.getMethod("onEvent", Event.class);
+      ListenerInvoker invoker = ListenerInvokers.getInvoker(method);
+      assertTrue(invoker.getClass().getName().contains("$$ListenerInvoker$"));
+      assertSame(invoker, ListenerInvokers.getInvoker(method));
+
+      PublicListener listener = new PublicListener();
+      EventImpl<Object, Object> event = EventImpl.createEvent(null, Event.Type.CACHE_ENTRY_CREATED);
+      invoker.invoke(listener, event);
+      assertEquals(1, listener.invocations);
+      assertSame(event, listener.event);
+   }
+
+   public void testListenerExceptionIsNotWrapped() throws Throwable {
+      ListenerInvoker invoker = ListenerInvokers.getInvoker(PublicListener.class.getMethod("fail", Object.class));
+      try {
+         invoker.invoke(new PublicListener(), "event");
+         fail("The listener exception should have been thrown");
+      } catch (IllegalStateException e) {
+         assertEquals("failed", e.getMessage());
+      }
+   }
+
+   public void testNonPublicListenerIsInvokedByReflection() throws Throwable {
+      Method method = PrivateListener.class.getMethod("onEvent", Object.class);
+      method.setAccessible(true);
+      ListenerInvoker invoker = ListenerInvokers.getInvoker(method);
+      assertFalse(invoker.getClass().getName().contains("$$ListenerInvoker$"));
+
+      PrivateListener listener = new PrivateListener();
+      invoker.invoke(listener, "event");
+      assertEquals(1, listener.invocations);
+   }
+
+   public static class PublicListener {
+      int invocations;
+      Event event;
+
+      public void onEvent(Event event) {
+         invocations++;
+         this.event = event;
+      }
+
+      public void fail(Object event) {
+         throw new IllegalStateException("failed");
+      }
+   }
+
+   private static class PrivateListener {
+      int invocations;
+
+      public void onEvent(Object event) {
+         invocations++;
+      }
+   }
+}
@@ -32,7 +32,6 @@ public void setUp() {
       mockCache = mock(Cache.class);
       n.injectDependencies(mockCache, new ClusteringDependentLogic.LocalLogic(), null);
       cl = new CacheListener();
-      n.start();
       n.addListener(cl);
       ctx = new NonTxInvocationContext(AnyEquivalence.getInstance());
    }
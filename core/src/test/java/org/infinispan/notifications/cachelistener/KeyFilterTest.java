@@ -34,7 +34,6 @@ public boolean accept(Object key) {
       mockCache = mock(Cache.class);
       n.injectDependencies(mockCache, new ClusteringDependentLogic.LocalLogic(), null);
       cl = new CacheListener();
-      n.start();
       n.addListener(cl, kf);
       ctx = new NonTxInvocationContext(AnyEquivalence.getInstance());
    }
@@ -0,0 +1,74 @@
+package org.infinispan.notifications.cachelistener;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.context.impl.NonTxInvocationContext;
+import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.notifications.Converter;
+import org.infinispan.notifications.KeyValueFilter;
+import org.infinispan.notifications.cachelistener.event.CacheEntryModifiedEvent;
+import org.infinispan.notifications.cachelistener.event.Event;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+
+@Test(testName = "notifications.cachelistener.KeyValueFilterConverterTest", groups = "unit")
+public class KeyValueFilterConverterTest extends AbstractInfinispanTest {
+   CacheNotifierImpl n;
+   Cache mockCache;
+   CacheListener filtered;
+   CacheListener unfiltered;
+   InvocationContext ctx;
+
+   @BeforeMethod
+   public void setUp() {
+      KeyValueFilter<String, String> filter = new KeyValueFilter<String, String>() {
+         @Override
+         public boolean accept(String key, String value) {
+            return value != null && value.startsWith("accept");
+         }
+      };
+      Converter<String, String, Integer> converter = new Converter<String, String, Integer>() {
+         @Override
+         public Integer convert(String key, String value) {
+            return value.length();
+         }
+      };
+
+      n = new CacheNotifierImpl();
+      mockCache = mock(Cache.class);
+      n.injectDependencies(mockCache, new ClusteringDependentLogic.LocalLogic(), null);
+      filtered = new CacheListener();
+      unfiltered = new CacheListener();
+      n.addListener(filtered, filter, converter);
+      n.addListener(unfiltered);
+      ctx = new NonTxInvocationContext(AnyEquivalence.getInstance());
+   }
+
+   public void testFilterOnValue() {
+      n.notifyCacheEntryModified("k", "reject", false, false, ctx, null);
+
+      assert filtered.getInvocationCount() == 0;
+      assert unfiltered.getInvocationCount() == 1;
+
+      n.notifyCacheEntryModified("k", "accepted", false, false, ctx, null);
+
+      assert filtered.getInvocationCount() == 1;
+      assert unfiltered.getInvocationCount() == 2;
+   }
+
+   public void testConverterOnlyAffectsItsListener() {
+      n.notifyCacheEntryModified("k", "accepted", false, false, ctx, null);
+
+      CacheEntryModifiedEvent converted = (CacheEntryModifiedEvent) filtered.getEvents().get(0);
+      assert converted.getType() == Event.Type.CACHE_ENTRY_MODIFIED;
+      assert converted.getKey().equals("k");
+      assert converted.getValue().equals(8);
+
+      CacheEntryModifiedEvent original = (CacheEntryModifiedEvent) unfiltered.getEvents().get(0);
+      assert original.getValue().equals("accepted");
+   }
+}
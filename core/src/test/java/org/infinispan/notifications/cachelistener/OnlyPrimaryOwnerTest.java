@@ -38,7 +38,6 @@ public void setUp() {
       mockCache = mock(Cache.class);
       n.injectDependencies(mockCache, cdl, null);
       cl = new PrimaryOwnerCacheListener();
-      n.start();
       n.addListener(cl);
       ctx = new NonTxInvocationContext(AnyEquivalence.getInstance());
    }
@@ -22,7 +22,6 @@ public class CacheManagerNotifierImplTest extends AbstractInfinispanTest {
    public void setUp() {
       n = new CacheManagerNotifierImpl();
       cl = new CacheManagerListener();
-      n.start();
       n.addListener(cl);
    }
 
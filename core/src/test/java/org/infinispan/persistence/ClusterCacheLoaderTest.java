@@ -28,10 +28,10 @@ protected void createCacheManagers() throws Throwable {
       registerCacheManager(cacheManager1, cacheManager2);
 
       ConfigurationBuilder config1 = getDefaultClusteredCacheConfig(cacheMode(), false);
-      config1.persistence().addClusterLoader();
+      config1.persistence().addClusterLoader().staggerDelay(staggerDelay());
 
       ConfigurationBuilder config2 = getDefaultClusteredCacheConfig(cacheMode(), false);
-      config2.persistence().addClusterLoader();
+      config2.persistence().addClusterLoader().staggerDelay(staggerDelay());
       config2.persistence().addStore(DummyInMemoryStoreConfigurationBuilder.class);
 
       cacheManager1.defineConfiguration("clusteredCl", config1.build());
@@ -64,4 +64,8 @@ public void testRemoteLoadFromCacheLoader() throws Exception {
    protected CacheMode cacheMode() {
       return CacheMode.INVALIDATION_SYNC;
    }
+
+   protected long staggerDelay() {
+      return 0;
+   }
 }
@@ -0,0 +1,93 @@
+package org.infinispan.persistence;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.CacheContainer;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests that loads skip the stores which definitely don't contain a key.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "persistence.NegativeLookupFilterFunctionalTest")
+public class NegativeLookupFilterFunctionalTest extends AbstractInfinispanTest {
+
+   Cache<String, String> cache;
+   DummyInMemoryStore store;
+   CacheContainer cm;
+
+   @BeforeMethod
+   public void setUp() {
+      ConfigurationBuilder cfg = new ConfigurationBuilder();
+      cfg
+         .persistence()
+            .negativeLookupFilter(true)
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+               .storeName(this.getClass().getName())
+               .purgeOnStartup(false);
+      cm = TestCacheManagerFactory.createCacheManager(cfg);
+      cache = cm.getCache();
+      store = (DummyInMemoryStore) TestingUtil.getCacheLoader(cache);
+   }
+
+   @AfterMethod
+   public void tearDown() throws PersistenceException {
+      store.clear();
+      TestingUtil.killCacheManagers(cm);
+   }
+
+   public void testMissingKeySkipsStore() {
+      store.clearStats();
+      assertNull(cache.get("missing"));
+      assertEquals(0, (int) store.stats().get("load"));
+   }
+
+   public void testWrittenKeyIsLoaded() {
+      cache.put("k", "v");
+      cache.evict("k");
+      store.clearStats();
+      assertEquals("v", cache.get("k"));
+      assertEquals(1, (int) store.stats().get("load"));
+   }
+
+   public void testRemovedKeySkipsStore() {
+      cache.put("k", "v");
+      cache.remove("k");
+      store.clearStats();
+      assertNull(cache.get("k"));
+      assertEquals(0, (int) store.stats().get("load"));
+   }
+
+   public void testOverwrittenKeyIsRemovedOnce() {
+      cache.put("k", "v1");
+      cache.put("k", "v2");
+      cache.remove("k");
+      store.clearStats();
+      assertNull(cache.get("k"));
+      assertEquals(0, (int) store.stats().get("load"));
+   }
+
+   public void testFilterBuiltOnStart() {
+      cache.put("k", "v");
+      cache.stop();
+      cache.start();
+      store = (DummyInMemoryStore) TestingUtil.getCacheLoader(cache);
+
+      store.clearStats();
+      assertEquals("v", cache.get("k"));
+      assertNull(cache.get("missing"));
+      assertEquals(1, (int) store.stats().get("load"));
+   }
+}
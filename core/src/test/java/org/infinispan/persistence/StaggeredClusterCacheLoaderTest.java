@@ -0,0 +1,41 @@
+package org.infinispan.persistence;
+
+import org.infinispan.Cache;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.persistence.cluster.ClusterLoader;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+/**
+ * Tests the {@link ClusterLoader} asking the most likely owner of a key before the other members.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "persistence.StaggeredClusterCacheLoaderTest")
+public class StaggeredClusterCacheLoaderTest extends ClusterCacheLoaderTest {
+
+   @Override
+   protected long staggerDelay() {
+      return 1000;
+   }
+
+   public void testLoadAll() {
+      Cache<String, String> cache1 = cache(0, "clusteredCl");
+      Cache<String, String> cache2 = cache(1, "clusteredCl");
+      cache2.put("k1", "v1");
+      cache2.put("k2", "v2");
+
+      ClusterLoader loader = (ClusterLoader) TestingUtil.getFirstLoader(cache1);
+      Map<Object, MarshalledEntry> entries = loader.loadAll(Arrays.asList("k1", "k2", "k3"));
+      assertEquals(2, entries.size());
+      assertEquals("v1", entries.get("k1").getValue());
+      assertEquals("v2", entries.get("k2").getValue());
+      assertFalse(entries.containsKey("k3"));
+   }
+}
@@ -0,0 +1,113 @@
+package org.infinispan.persistence.manager;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.Executor;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the counting Bloom filter of the keys of a store.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "persistence.manager.NegativeLookupFilterTest")
+public class NegativeLookupFilterTest extends AbstractInfinispanTest {
+
+   public void testAddedKeysAreNeverMissing() {
+      NegativeLookupFilter filter = new NegativeLookupFilter(AnyEquivalence.getInstance(), 1000);
+      for (int i = 0; i < 1000; i++) {
+         filter.add("k" + i);
+      }
+      for (int i = 0; i < 1000; i++) {
+         assertTrue(filter.mightContain("k" + i));
+      }
+
+      int falsePositives = 0;
+      for (int i = 1000; i < 11000; i++) {
+         if (filter.mightContain("k" + i))
+            falsePositives++;
+      }
+      assertTrue("Too many false positives: " + falsePositives, falsePositives < 500);
+   }
+
+   public void testRemovedKeysAreMissing() {
+      NegativeLookupFilter filter = new NegativeLookupFilter(AnyEquivalence.getInstance(), 0);
+      filter.add("k1");
+      filter.add("k2");
+      filter.remove("k1");
+      assertFalse(filter.mightContain("k1"));
+      assertTrue(filter.mightContain("k2"));
+   }
+
+   public void testKeyAddedTwiceIsRemovedTwice() {
+      NegativeLookupFilter filter = new NegativeLookupFilter(AnyEquivalence.getInstance(), 0);
+      filter.add("k1");
+      filter.add("k1");
+      filter.remove("k1");
+      assertTrue(filter.mightContain("k1"));
+      filter.remove("k1");
+      assertFalse(filter.mightContain("k1"));
+   }
+
+   public void testOverflowingCountersAreNeverDecremented() {
+      NegativeLookupFilter filter = new NegativeLookupFilter(AnyEquivalence.getInstance(), 0);
+      for (int i = 0; i < 20; i++) {
+         filter.add("k1");
+      }
+      for (int i = 0; i < 20; i++) {
+         filter.remove("k1");
+      }
+      assertTrue(filter.mightContain("k1"));
+   }
+
+   public void testFilterGrowsWhenOverloaded() {
+      NegativeLookupFilter filter = new NegativeLookupFilter(AnyEquivalence.getInstance(), 0);
+      int initialCounters = filter.numCounters();
+      final int numKeys = initialCounters;
+      for (int i = 0; i < numKeys / 20; i++) {
+         filter.add("k" + i);
+      }
+      assertFalse(filter.startRebuild());
+      for (int i = numKeys / 20; i < numKeys; i++) {
+         filter.add("k" + i);
+      }
+      assertTrue(filter.startRebuild());
+      // only one caller rebuilds the filter
+      assertFalse(filter.startRebuild());
+
+      AdvancedCacheLoader loader = mock(AdvancedCacheLoader.class);
+      doAnswer(new Answer<Void>() {
+         @Override
+         public Void answer(InvocationOnMock invocation) throws Throwable {
+            AdvancedCacheLoader.CacheLoaderTask task = (AdvancedCacheLoader.CacheLoaderTask) invocation.getArguments()[1];
+            for (int i = 0; i < numKeys; i++) {
+               MarshalledEntry entry = mock(MarshalledEntry.class);
+               when(entry.getKey()).thenReturn("k" + i);
+               task.processEntry(entry, null);
+            }
+            return null;
+         }
+      }).when(loader).process(any(AdvancedCacheLoader.KeyFilter.class), any(AdvancedCacheLoader.CacheLoaderTask.class),
+                              any(Executor.class), anyBoolean(), anyBoolean());
+      filter.rebuild(loader);
+
+      assertTrue(filter.numCounters() >= numKeys * 10);
+      for (int i = 0; i < numKeys; i++) {
+         assertTrue(filter.mightContain("k" + i));
+      }
+      assertFalse(filter.startRebuild());
+   }
+}
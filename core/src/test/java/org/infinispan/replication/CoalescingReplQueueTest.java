@@ -0,0 +1,81 @@
+package org.infinispan.replication;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.remoting.ReplicationQueue;
+import org.infinispan.remoting.ReplicationQueueImpl;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests that the unconditional writes queued in the replication queue supersede the previous writes of the same key.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "replication.CoalescingReplQueueTest")
+public class CoalescingReplQueueTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.REPL_ASYNC, false);
+      // only flush explicitly
+      builder.clustering().async().useReplQueue(true)
+            .replQueueInterval(0)
+            .replQueueMaxElements(100);
+      createCluster(builder, 2);
+      waitForClusterToForm();
+   }
+
+   public void testWritesOfSameKeyCoalesced() throws Exception {
+      Cache<Object, Object> cache1 = cache(0);
+      Cache<Object, Object> cache2 = cache(1);
+      ReplicationQueueImpl replicationQueue = (ReplicationQueueImpl) TestingUtil.extractComponent(cache1, ReplicationQueue.class);
+      replicationQueue.resetStatistics();
+
+      for (int i = 0; i < 10; i++) {
+         cache1.put("k1", "v" + i);
+      }
+      cache1.put("k2", "v");
+      cache1.remove("k2");
+      // conditional writes are never coalesced
+      cache1.put("k3", "v");
+      cache1.replace("k3", "v", "v2");
+
+      assertEquals(4, replicationQueue.getElementsCount());
+      assertEquals(10, replicationQueue.getCoalescedCommands());
+
+      assertEquals(4, replicationQueue.flush());
+      assertEquals(0, replicationQueue.getElementsCount());
+      assertEquals(4.0, replicationQueue.getAverageBatchSize(), 0.0);
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return "v2".equals(cache(1).get("k3"));
+         }
+      });
+      assertEquals("v9", cache2.get("k1"));
+      assertNull(cache2.get("k2"));
+   }
+
+   public void testWritesWithDifferentFlagsNotCoalesced() {
+      Cache<Object, Object> cache1 = cache(0);
+      ReplicationQueueImpl replicationQueue = (ReplicationQueueImpl) TestingUtil.extractComponent(cache1, ReplicationQueue.class);
+      replicationQueue.flush();
+      replicationQueue.resetStatistics();
+
+      cache1.put("k4", "v1");
+      cache1.getAdvancedCache().withFlags(Flag.SKIP_CACHE_STORE).put("k4", "v2");
+      cache1.getAdvancedCache().withFlags(Flag.SKIP_CACHE_STORE).put("k4", "v3");
+
+      assertEquals(2, replicationQueue.getElementsCount());
+      assertEquals(1, replicationQueue.getCoalescedCommands());
+      replicationQueue.flush();
+   }
+}
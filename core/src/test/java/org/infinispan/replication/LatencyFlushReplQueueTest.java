@@ -0,0 +1,48 @@
+package org.infinispan.replication;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.remoting.ReplicationQueue;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Tests that the replication queue is flushed once a command has been waiting in it for the maximum latency, even if
+ * the periodic flush and the thresholds would flush it much later.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "replication.LatencyFlushReplQueueTest")
+public class LatencyFlushReplQueueTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.REPL_ASYNC, false);
+      builder.clustering().async().useReplQueue(true)
+            .replQueueInterval(60000)
+            .replQueueMaxElements(1000)
+            .replQueueMaxLatency(100);
+      createCluster(builder, 2);
+      waitForClusterToForm();
+   }
+
+   public void testCommandFlushedAfterMaxLatency() {
+      Cache<Object, Object> cache1 = cache(0);
+      ReplicationQueue replicationQueue = TestingUtil.extractComponent(cache1, ReplicationQueue.class);
+
+      cache1.put("k1", "v1");
+      cache1.put("k2", "v2");
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return "v1".equals(cache(1).get("k1")) && "v2".equals(cache(1).get("k2"));
+         }
+      });
+      assertEquals(0, replicationQueue.getElementsCount());
+   }
+}
@@ -0,0 +1,80 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the state received by a joiner of a non-transactional cache, which is written directly to the data
+ * container and the stores, ends up in the same place as it would be after going through the interceptor chain.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "statetransfer.NonTxBulkStateTransferTest")
+public class NonTxBulkStateTransferTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_KEYS = 300;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      for (int i = 0; i < 2; i++) {
+         addClusterEnabledCacheManager(buildConfiguration(i));
+      }
+      waitForClusterToForm();
+   }
+
+   private ConfigurationBuilder buildConfiguration(int index) {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      // several chunks per state response, applied in parallel
+      builder.clustering().stateTransfer().chunkSize(20)
+            .persistence().addStore(DummyInMemoryStoreConfigurationBuilder.class)
+            .storeName(getClass().getSimpleName() + "-" + index);
+      return builder;
+   }
+
+   public void testStateAppliedToContainerAndStore() {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache(0).put("k" + i, "v" + i);
+      }
+
+      addClusterEnabledCacheManager(buildConfiguration(2));
+      TestingUtil.waitForRehashToComplete(caches());
+
+      Cache<Object, Object> joiner = cache(2);
+      Address joinerAddress = address(joiner);
+      DistributionManager dm = joiner.getAdvancedCache().getDistributionManager();
+      DummyInMemoryStore store = TestingUtil.getFirstWriter(joiner);
+      int ownedKeys = 0;
+      for (int i = 0; i < NUM_KEYS; i++) {
+         String key = "k" + i;
+         if (!dm.getConsistentHash().isKeyLocalToNode(joinerAddress, key))
+            continue;
+
+         ownedKeys++;
+         InternalCacheEntry ice = joiner.getAdvancedCache().getDataContainer().peek(key);
+         assertNotNull("Key " + key + " was not transferred", ice);
+         assertEquals("v" + i, ice.getValue());
+         assertTrue("Key " + key + " was not written to the store", store.contains(key));
+         assertEquals("v" + i, store.load(key).getValue());
+      }
+      assertTrue(ownedKeys > 0);
+
+      for (Cache<Object, Object> c : caches()) {
+         for (int i = 0; i < NUM_KEYS; i++) {
+            assertEquals("v" + i, c.get("k" + i));
+         }
+      }
+   }
+}
@@ -0,0 +1,289 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.compression.CompressionManagerImpl;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.rpc.RpcOptions;
+import org.infinispan.remoting.rpc.RpcOptionsBuilder;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the flow control and the prioritization of segments of {@link OutboundTransferTask}.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "statetransfer.OutboundTransferTaskTest")
+public class OutboundTransferTaskTest extends AbstractInfinispanTest {
+
+   private static final TestAddress A = new TestAddress(0, "A");
+   private static final TestAddress B = new TestAddress(1, "B");
+
+   private RpcManager rpcManager;
+   private CommandsFactory commandsFactory;
+   private PersistenceManager persistenceManager;
+   private DataContainer dataContainer;
+   private ConsistentHash readCh;
+   private CompressionManagerImpl compressionManager;
+
+   private List<InternalCacheEntry> cacheEntries;
+   private AtomicInteger iterations;
+   private List<Integer> segmentsToPrioritize;
+   private OutboundTransferTask task;
+   /**
+    * The chunks of each state response command, in the order the commands were sent.
+    */
+   private List<Collection<StateChunk>> sentCommands;
+
+   @BeforeMethod
+   public void setUp() {
+      rpcManager = mock(RpcManager.class);
+      commandsFactory = mock(CommandsFactory.class);
+      persistenceManager = mock(PersistenceManager.class);
+      dataContainer = mock(DataContainer.class);
+      readCh = mock(ConsistentHash.class);
+      compressionManager = new CompressionManagerImpl();
+      compressionManager.init(null, new ConfigurationBuilder().clustering().cacheMode(CacheMode.DIST_SYNC).build());
+      compressionManager.start();
+
+      cacheEntries = new ArrayList<InternalCacheEntry>();
+      iterations = new AtomicInteger();
+      segmentsToPrioritize = new ArrayList<Integer>();
+      sentCommands = new ArrayList<Collection<StateChunk>>();
+
+      when(rpcManager.getAddress()).thenReturn(A);
+      when(rpcManager.getRpcOptionsBuilder(any(ResponseMode.class))).thenAnswer(new Answer<RpcOptionsBuilder>() {
+         @Override
+         public RpcOptionsBuilder answer(InvocationOnMock invocation) {
+            return new RpcOptionsBuilder(10000, TimeUnit.MILLISECONDS, (ResponseMode) invocation.getArguments()[0], true);
+         }
+      });
+      when(commandsFactory.buildStateResponseCommand(any(Address.class), anyInt(), any(Collection.class)))
+            .thenAnswer(new Answer<StateResponseCommand>() {
+               @Override
+               public StateResponseCommand answer(InvocationOnMock invocation) {
+                  Collection<StateChunk> chunks = (Collection<StateChunk>) invocation.getArguments()[2];
+                  synchronized (sentCommands) {
+                     sentCommands.add(new ArrayList<StateChunk>(chunks));
+                  }
+                  return new StateResponseCommand("testCache", A, 1, chunks);
+               }
+            });
+      // the keys are "<segment>:<index>"
+      when(readCh.getSegment(any())).thenAnswer(new Answer<Integer>() {
+         @Override
+         public Integer answer(InvocationOnMock invocation) {
+            String key = (String) invocation.getArguments()[0];
+            return Integer.valueOf(key.substring(0, key.indexOf(':')));
+         }
+      });
+      // the destination asks for a new segment with each of the first entries of the main pass
+      when(dataContainer.iterator()).thenAnswer(new Answer<Iterator<InternalCacheEntry>>() {
+         @Override
+         public Iterator<InternalCacheEntry> answer(InvocationOnMock invocation) {
+            final Iterator<InternalCacheEntry> it = new ArrayList<InternalCacheEntry>(cacheEntries).iterator();
+            if (iterations.incrementAndGet() > 1)
+               return it;
+            return new Iterator<InternalCacheEntry>() {
+               int index;
+
+               @Override
+               public boolean hasNext() {
+                  return it.hasNext();
+               }
+
+               @Override
+               public InternalCacheEntry next() {
+                  if (index < segmentsToPrioritize.size()) {
+                     task.prioritizeSegment(segmentsToPrioritize.get(index));
+                  }
+                  index++;
+                  return it.next();
+               }
+
+               @Override
+               public void remove() {
+                  throw new UnsupportedOperationException();
+               }
+            };
+         }
+      });
+   }
+
+   public void testPrioritySegmentIsSentFirst() {
+      addEntries(2, 5);
+      segmentsToPrioritize.add(1);
+      task = createTask(100, 1);
+
+      task.run();
+
+      // the main pass and a single extra pass for the priority segment
+      assertEquals(2, iterations.get());
+      Collection<StateChunk> first = sentCommands.get(0);
+      assertEquals(1, first.size());
+      StateChunk chunk = first.iterator().next();
+      assertEquals(1, chunk.getSegmentId());
+      assertTrue(chunk.isLastChunk());
+      assertEquals(5, chunk.getCacheEntries().size());
+      assertSentOnce(2, 5);
+   }
+
+   public void testStoreIsIteratedOnce() {
+      AdvancedCacheLoader stProvider = mock(AdvancedCacheLoader.class);
+      when(persistenceManager.getStateTransferProvider()).thenReturn(stProvider);
+      addEntries(2, 5);
+      segmentsToPrioritize.add(1);
+      task = createTask(100, 1);
+
+      task.run();
+
+      verify(stProvider, times(1)).process(any(AdvancedCacheLoader.KeyFilter.class), any(AdvancedCacheLoader.CacheLoaderTask.class),
+                                           any(Executor.class), anyBoolean(), anyBoolean());
+      // the entries of segment 1 in memory are sent first, but its last chunk waits for the stored entries
+      Collection<StateChunk> first = sentCommands.get(0);
+      assertEquals(1, first.size());
+      StateChunk chunk = first.iterator().next();
+      assertEquals(1, chunk.getSegmentId());
+      assertFalse(chunk.isLastChunk());
+      assertSentOnce(2, 5);
+   }
+
+   public void testPriorityPassesAreBounded() {
+      int numSegments = OutboundTransferTask.MAX_PRIORITY_PASSES + 2;
+      addEntries(numSegments, 2);
+      for (int i = 0; i < numSegments; i++) {
+         segmentsToPrioritize.add(i);
+      }
+      task = createTask(100, 1);
+
+      task.run();
+
+      assertEquals(1 + OutboundTransferTask.MAX_PRIORITY_PASSES, iterations.get());
+      assertSentOnce(numSegments, 2);
+   }
+
+   public void testChunksInFlightAreLimitedByCredits() throws Exception {
+      final BlockingQueue<CompletableNotifyingFuture<Response>> inFlight = new LinkedBlockingQueue<CompletableNotifyingFuture<Response>>();
+      when(rpcManager.invokeRemotelyAsync(any(Address.class), any(ReplicableCommand.class), any(RpcOptions.class)))
+            .thenAnswer(new Answer<CompletableNotifyingFuture<Response>>() {
+               @Override
+               public CompletableNotifyingFuture<Response> answer(InvocationOnMock invocation) {
+                  CompletableNotifyingFuture<Response> future = new CompletableNotifyingFuture<Response>();
+                  inFlight.add(future);
+                  return future;
+               }
+            });
+      addEntries(1, 10);
+      task = createTask(1, 4);
+      Future<Void> transfer = fork(task, (Void) null);
+
+      // a single chunk is sent before the destination grants credits
+      CompletableNotifyingFuture<Response> chunk = inFlight.poll(10, TimeUnit.SECONDS);
+      assertNotNull(chunk);
+      assertNull(inFlight.poll(200, TimeUnit.MILLISECONDS));
+
+      // then as many chunks as the credits granted, even though maxChunksInFlight is higher
+      chunk.complete(SuccessfulResponse.create(2));
+      CompletableNotifyingFuture<Response> second = inFlight.poll(10, TimeUnit.SECONDS);
+      CompletableNotifyingFuture<Response> third = inFlight.poll(10, TimeUnit.SECONDS);
+      assertNotNull(second);
+      assertNotNull(third);
+      assertNull(inFlight.poll(200, TimeUnit.MILLISECONDS));
+
+      second.complete(SuccessfulResponse.create(2));
+      third.complete(SuccessfulResponse.create(2));
+      while (!transfer.isDone()) {
+         chunk = inFlight.poll(100, TimeUnit.MILLISECONDS);
+         if (chunk != null) {
+            chunk.complete(SuccessfulResponse.create(2));
+         }
+      }
+      transfer.get(10, TimeUnit.SECONDS);
+      assertSentOnce(1, 10);
+   }
+
+   private void addEntries(int numSegments, int entriesPerSegment) {
+      // interleave the segments, like a hash-based data container does
+      for (int i = 0; i < entriesPerSegment; i++) {
+         for (int segmentId = 0; segmentId < numSegments; segmentId++) {
+            cacheEntries.add(new ImmortalCacheEntry(segmentId + ":" + i, "v"));
+         }
+      }
+   }
+
+   private OutboundTransferTask createTask(int chunkSize, int maxChunksInFlight) {
+      HashSet<Integer> segments = new HashSet<Integer>();
+      for (InternalCacheEntry ice : cacheEntries) {
+         segments.add(readCh.getSegment(ice.getKey()));
+      }
+      return new OutboundTransferTask(B, segments, chunkSize, maxChunksInFlight, 1, readCh, mock(StateProviderImpl.class),
+                                      dataContainer, persistenceManager, mock(PassivationManager.class), rpcManager, commandsFactory,
+                                      mock(InternalEntryFactory.class), compressionManager, 10000, "testCache");
+   }
+
+   /**
+    * Checks that each entry was sent exactly once, and that the last chunk of each segment was sent exactly once, after
+    * all its entries.
+    */
+   private void assertSentOnce(int numSegments, int entriesPerSegment) {
+      int[] entries = new int[numSegments];
+      boolean[] completed = new boolean[numSegments];
+      synchronized (sentCommands) {
+         for (Collection<StateChunk> chunks : sentCommands) {
+            for (StateChunk chunk : chunks) {
+               int segmentId = chunk.getSegmentId();
+               assertFalse("Chunk sent after the last chunk: " + chunk, completed[segmentId]);
+               entries[segmentId] += chunk.getCacheEntries().size();
+               completed[segmentId] = chunk.isLastChunk();
+            }
+         }
+      }
+      for (int segmentId = 0; segmentId < numSegments; segmentId++) {
+         assertEquals("Entries sent for segment " + segmentId + ": " + Arrays.toString(entries), entriesPerSegment, entries[segmentId]);
+         assertTrue("Last chunk of segment " + segmentId + " not sent", completed[segmentId]);
+      }
+   }
+}
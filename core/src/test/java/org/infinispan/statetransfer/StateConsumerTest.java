@@ -5,6 +5,7 @@
 import org.infinispan.commons.hash.MurmurHash3;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.InfinispanCollections;
+import org.infinispan.compression.CompressionManagerImpl;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
@@ -19,7 +20,9 @@
 import org.infinispan.distribution.TestAddress;
 import org.infinispan.distribution.ch.DefaultConsistentHash;
 import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.eviction.PassivationManager;
 import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.marshall.core.MarshalledEntryFactory;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.remoting.responses.Response;
@@ -38,6 +41,7 @@
 import org.infinispan.transaction.totalorder.TotalOrderManager;
 import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
 import org.infinispan.util.concurrent.IsolationLevel;
+import org.infinispan.util.concurrent.locks.LockManager;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 import org.mockito.invocation.InvocationOnMock;
@@ -193,11 +197,16 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
       });
 
 
+      CompressionManagerImpl compressionManager = new CompressionManagerImpl();
+      compressionManager.init(null, configuration);
+      compressionManager.start();
+
       // create state provider
       final StateConsumerImpl stateConsumer = new StateConsumerImpl();
       stateConsumer.init(cache, pooledExecutorService, stateTransferManager, interceptorChain, icc, configuration, rpcManager, null,
             commandsFactory, persistenceManager, dataContainer, transactionTable, stateTransferLock, cacheNotifier,
-            totalOrderManager, remoteCommandsExecutor, l1Manager);
+            totalOrderManager, remoteCommandsExecutor, l1Manager, compressionManager, mock(MarshalledEntryFactory.class),
+            mock(LockManager.class), mock(PassivationManager.class));
       stateConsumer.start();
 
       final List<InternalCacheEntry> cacheEntries = new ArrayList<InternalCacheEntry>();
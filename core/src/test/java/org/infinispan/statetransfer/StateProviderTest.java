@@ -4,6 +4,8 @@
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.compression.CompressionManagerImpl;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
@@ -15,6 +17,7 @@
 import org.infinispan.distribution.TestAddress;
 import org.infinispan.distribution.ch.DefaultConsistentHash;
 import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.eviction.PassivationManager;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.remoting.responses.Response;
@@ -80,6 +83,7 @@ public class StateProviderTest {
    private StateConsumer stateConsumer;
    private CacheTopology cacheTopology;
    private InternalEntryFactory ef;
+   private CompressionManagerImpl compressionManager;
 
    @BeforeTest
    public void setUp() {
@@ -115,6 +119,9 @@ public Thread newThread(Runnable r) {
       stateTransferLock = mock(StateTransferLock.class);
       stateConsumer = mock(StateConsumer.class);
       ef = mock(InternalEntryFactory.class);
+      compressionManager = new CompressionManagerImpl();
+      compressionManager.init(null, configuration);
+      compressionManager.start();
       when(stateConsumer.getCacheTopology()).thenAnswer(new Answer<CacheTopology>() {
          @Override
          public CacheTopology answer(InvocationOnMock invocation) {
@@ -164,7 +171,8 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
       StateProviderImpl stateProvider = new StateProviderImpl();
       stateProvider.init(cache, mockExecutorService,
             configuration, rpcManager, commandsFactory, cacheNotifier, persistenceManager,
-            dataContainer, transactionTable, stateTransferLock, stateConsumer, ef);
+            dataContainer, transactionTable, stateTransferLock, stateConsumer, ef, compressionManager,
+            mock(StreamingMarshaller.class), mock(PassivationManager.class), new BandwidthLimiter());
 
       final List<InternalCacheEntry> cacheEntries = new ArrayList<InternalCacheEntry>();
       Object key1 = new TestKey("key1", 0, ch1);
@@ -273,7 +281,8 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
       StateProviderImpl stateProvider = new StateProviderImpl();
       stateProvider.init(cache, pooledExecutorService,
             configuration, rpcManager, commandsFactory, cacheNotifier, persistenceManager,
-            dataContainer, transactionTable, stateTransferLock, stateConsumer, ef);
+            dataContainer, transactionTable, stateTransferLock, stateConsumer, ef, compressionManager,
+            mock(StreamingMarshaller.class), mock(PassivationManager.class), new BandwidthLimiter());
 
       final List<InternalCacheEntry> cacheEntries = new ArrayList<InternalCacheEntry>();
       Object key1 = new TestKey("key1", 0, ch1);
@@ -329,4 +338,47 @@ public Iterator<InternalCacheEntry> answer(InvocationOnMock invocation) {
 
       assertFalse(stateProvider.isStateTransferInProgress());
    }
+
+   public void testBandwidthLimitUsesMarshalledSize() throws Exception {
+      ConfigurationBuilder cb = new ConfigurationBuilder();
+      cb.clustering().cacheMode(CacheMode.DIST_SYNC)
+            .stateTransfer().maxBandwidth(10000);
+      StreamingMarshaller marshaller = mock(StreamingMarshaller.class);
+      List<StateChunk> chunks = Collections.emptyList();
+      byte[] marshalledChunks = new byte[1000];
+      when(marshaller.objectToByteBuffer(chunks)).thenReturn(marshalledChunks);
+
+      StateProviderImpl stateProvider = new StateProviderImpl();
+      stateProvider.init(cache, mockExecutorService,
+            cb.build(), rpcManager, commandsFactory, cacheNotifier, persistenceManager,
+            dataContainer, transactionTable, stateTransferLock, stateConsumer, ef, compressionManager,
+            marshaller, mock(PassivationManager.class), new BandwidthLimiter());
+
+      // 1000 bytes at 10000 bytes per second: the 5th command can only be sent after 400 ms
+      long start = System.nanoTime();
+      for (int i = 0; i < 5; i++) {
+         StateResponseCommand command = new StateResponseCommand("testCache", A, 1, chunks);
+         stateProvider.throttle(command);
+         // the chunks marshalled to measure them are sent as they are
+         assertSame(marshalledChunks, command.getParameters()[2]);
+      }
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      assertTrue("Sent too fast: " + elapsedMillis + " ms", elapsedMillis >= 350);
+      verify(marshaller, times(5)).objectToByteBuffer(chunks);
+   }
+
+   public void testBandwidthLimitIsSharedByTheCaches() throws Exception {
+      BandwidthLimiter bandwidthLimiter = new BandwidthLimiter();
+      bandwidthLimiter.limitTo(20000);
+      bandwidthLimiter.limitTo(10000);
+      bandwidthLimiter.limitTo(40000);
+
+      // the lowest bandwidth applies: 1000 bytes at 10000 bytes per second, the 5th acquire waits 400 ms
+      long start = System.nanoTime();
+      for (int i = 0; i < 5; i++) {
+         bandwidthLimiter.acquire(1000);
+      }
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      assertTrue("Sent too fast: " + elapsedMillis + " ms", elapsedMillis >= 350);
+   }
 }
@@ -0,0 +1,116 @@
+package org.infinispan.stress;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+/**
+ * Compares the hit ratio and the throughput of the {@link BoundedConcurrentHashMap} eviction strategies on a
+ * reproducible workload: a skewed (Zipf) access pattern generated from a fixed seed, optionally interrupted by
+ * periodic full scans of keys which are never accessed again, as done by batch jobs.
+ * <p>
+ * The access trace is generated once and replayed by a single thread against each map, so the hit ratios are
+ * identical from one run to the next. Run with -Dsize=N to change the capacity and -Dseed=N to change the trace.
+ *
+ * @since 6.0
+ */
+@Test(testName = "stress.EvictionHitRatioStressTest", groups = "stress", enabled = false, description = "Disabled by default, designed to be run manually.")
+public class EvictionHitRatioStressTest {
+
+   static final int CAPACITY = Integer.getInteger("size", 10000);
+   static final long SEED = Long.getLong("seed", 12345);
+   static final int CONCURRENCY = 16;
+   static final int TRACE_LENGTH = 50 * CAPACITY;
+
+   @DataProvider(name = "workloads")
+   public Object[][] workloads() {
+      return new Object[][]{
+            // keys, zipf exponent, scan length (in multiples of the capacity), accesses between scans
+            new Object[]{10 * CAPACITY, 0.9, 0, 0},
+            new Object[]{10 * CAPACITY, 0.9, 2, 5 * CAPACITY},
+            new Object[]{100 * CAPACITY, 0.7, 3, 5 * CAPACITY},
+      };
+   }
+
+   @Test(dataProvider = "workloads", enabled = false)
+   public void testHitRatio(int numKeys, double exponent, int scanFactor, int scanInterval) {
+      System.out.printf("Testing hit ratio with capacity %d, keys %d, zipf exponent %.2f, scans of %d keys every %d accesses\n",
+            CAPACITY, numKeys, exponent, scanFactor * CAPACITY, scanInterval);
+      int[] trace = generateTrace(numKeys, exponent, scanFactor * CAPACITY, scanInterval);
+      for (Eviction eviction : new Eviction[]{Eviction.LRU, Eviction.LIRS, Eviction.TINY_LFU}) {
+         // warm up the JIT, then measure on a fresh map
+         replay(createMap(eviction), trace);
+         BoundedConcurrentHashMap<Integer, Integer> map = createMap(eviction);
+         long start = System.nanoTime();
+         long hits = replay(map, trace);
+         long duration = System.nanoTime() - start;
+         System.out.printf("Eviction %-10s  HitRatio %6.2f  Ops/s %12.2f  Size %8d\n", eviction,
+               hits * 100.0 / trace.length, trace.length * 1e9 / duration, map.size());
+      }
+   }
+
+   private BoundedConcurrentHashMap<Integer, Integer> createMap(Eviction eviction) {
+      return new BoundedConcurrentHashMap<Integer, Integer>(CAPACITY, CONCURRENCY, eviction,
+            AnyEquivalence.INT, AnyEquivalence.INT);
+   }
+
+   /**
+    * Reads every key of the trace and writes it on a miss, like a cache in front of a slower store.
+    *
+    * @return the number of hits
+    */
+   private long replay(BoundedConcurrentHashMap<Integer, Integer> map, int[] trace) {
+      long hits = 0;
+      for (int key : trace) {
+         if (map.get(key) != null) {
+            hits++;
+         } else {
+            map.put(key, key);
+         }
+      }
+      return hits;
+   }
+
+   /**
+    * Scan keys are negative, so they never collide with the keys of the regular accesses.
+    */
+   private int[] generateTrace(int numKeys, double exponent, int scanLength, int scanInterval) {
+      Random random = new Random(SEED);
+      double[] cumulative = new double[numKeys];
+      double sum = 0;
+      for (int i = 0; i < numKeys; i++) {
+         sum += 1 / Math.pow(i + 1, exponent);
+         cumulative[i] = sum;
+      }
+      int[] trace = new int[TRACE_LENGTH];
+      int nextScanKey = -1;
+      int accesses = 0;
+      int i = 0;
+      while (i < trace.length) {
+         trace[i++] = zipf(cumulative, random.nextDouble() * sum);
+         if (scanInterval > 0 && ++accesses % scanInterval == 0) {
+            for (int j = 0; j < scanLength && i < trace.length; j++) {
+               trace[i++] = nextScanKey--;
+            }
+         }
+      }
+      return trace;
+   }
+
+   private int zipf(double[] cumulative, double value) {
+      int low = 0, high = cumulative.length - 1;
+      while (low < high) {
+         int mid = (low + high) >>> 1;
+         if (cumulative[mid] < value) {
+            low = mid + 1;
+         } else {
+            high = mid;
+         }
+      }
+      return low;
+   }
+}
@@ -114,6 +114,9 @@ private Map<String, Map<String, Integer>> createMaps(int capacity, int numKeys,
       maps.put("BCHM:LIRS", new BoundedConcurrentHashMap<String, Integer>(
             capacity, concurrency, BoundedConcurrentHashMap.Eviction.LIRS,
             AnyEquivalence.STRING, AnyEquivalence.INT));
+      maps.put("BCHM:TINY_LFU", new BoundedConcurrentHashMap<String, Integer>(
+            capacity, concurrency, BoundedConcurrentHashMap.Eviction.TINY_LFU,
+            AnyEquivalence.STRING, AnyEquivalence.INT));
       // CHM doesn't have eviction, so we size it to the total number of keys to avoid resizing
       maps.put("CHM", new ConcurrentHashMap<String, Integer>(numKeys, MAP_LOAD_FACTOR, concurrency));
       maps.put("SLHM", synchronizedLinkedHashMap(capacity, MAP_LOAD_FACTOR));
@@ -0,0 +1,61 @@
+package org.infinispan.upgrade;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "upgrade.MigrationProgressTest")
+public class MigrationProgressTest extends AbstractInfinispanTest {
+
+   private final String tmpDirectory = TestingUtil.tmpDirectory(getClass());
+   private final File checkpointFile = new File(tmpDirectory, "cache-hotrod.checkpoint");
+
+   @AfterMethod(alwaysRun = true)
+   protected void clearTempDir() {
+      TestingUtil.recursiveFileRemove(tmpDirectory);
+   }
+
+   public void testCheckpointSurvivesNewProgress() {
+      MigrationProgress progress = new MigrationProgress(checkpointFile);
+      progress.start(4, 100);
+      progress.segmentCompleted(1, 20);
+      progress.segmentCompleted(3, 30);
+      assertTrue(checkpointFile.exists());
+
+      // e.g. after a restart of the node
+      MigrationProgress resumed = new MigrationProgress(checkpointFile);
+      resumed.start(4, 100);
+      assertFalse(resumed.isSegmentCompleted(0));
+      assertTrue(resumed.isSegmentCompleted(1));
+      assertFalse(resumed.isSegmentCompleted(2));
+      assertTrue(resumed.isSegmentCompleted(3));
+      assertEquals(50, resumed.getMigratedKeys());
+   }
+
+   public void testCheckpointWithOtherSegmentsIsDiscarded() {
+      MigrationProgress progress = new MigrationProgress(checkpointFile);
+      progress.start(4, 100);
+      progress.segmentCompleted(1, 20);
+
+      MigrationProgress resumed = new MigrationProgress(checkpointFile);
+      resumed.start(8, 100);
+      assertFalse(resumed.isSegmentCompleted(1));
+      assertEquals(0, resumed.getMigratedKeys());
+   }
+
+   public void testResetDeletesCheckpoint() {
+      MigrationProgress progress = new MigrationProgress(checkpointFile);
+      progress.start(2, 10);
+      progress.segmentCompleted(0, 5);
+      progress.reset();
+      assertFalse(checkpointFile.exists());
+      assertFalse(new MigrationProgress(checkpointFile).isSegmentCompleted(0));
+   }
+}
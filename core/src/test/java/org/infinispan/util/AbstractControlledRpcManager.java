@@ -1,6 +1,7 @@
 package org.infinispan.util;
 
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.remoting.RpcException;
 import org.infinispan.remoting.responses.Response;
@@ -153,6 +154,15 @@ public void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCom
       afterInvokeRemotely(rpc, null);
    }
 
+   @Override
+   public NotifyingFuture<Response> invokeRemotelyAsync(Address recipient, ReplicableCommand rpc, RpcOptions options) {
+      log.trace("ControlledRpcManager.invokeRemotelyAsync");
+      beforeInvokeRemotely(rpc);
+      NotifyingFuture<Response> future = realOne.invokeRemotelyAsync(recipient, rpc, options);
+      afterInvokeRemotely(rpc, null);
+      return future;
+   }
+
    @Override
    public Transport getTransport() {
       return realOne.getTransport();
@@ -29,6 +29,7 @@
 import org.infinispan.commands.tx.VersionedCommitCommand;
 import org.infinispan.commands.tx.VersionedPrepareCommand;
 import org.infinispan.commands.write.*;
+import org.infinispan.compute.ComputeFunction;
 import org.infinispan.context.Flag;
 import org.infinispan.distexec.mapreduce.Mapper;
 import org.infinispan.distexec.mapreduce.Reducer;
@@ -145,6 +146,11 @@ public ReplaceCommand buildReplaceCommand(Object key, Object oldValue, Object ne
       return actual.buildReplaceCommand(key, oldValue, newValue, metadata, flags);
    }
 
+   @Override
+   public ComputeCommand buildComputeCommand(Object key, ComputeFunction function, Metadata metadata, Set<Flag> flags) {
+      return actual.buildComputeCommand(key, function, metadata, flags);
+   }
+
    @Override
    public SizeCommand buildSizeCommand(Set<Flag> flags) {
       return actual.buildSizeCommand(flags);
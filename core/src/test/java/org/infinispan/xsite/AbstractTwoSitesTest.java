@@ -22,6 +22,8 @@ public abstract class AbstractTwoSitesTest extends AbstractXSiteTest {
    protected BackupConfiguration.BackupStrategy lonBackupStrategy = BackupConfiguration.BackupStrategy.SYNC;
    protected String lonCustomFailurePolicyClass = null;
    protected boolean use2Pc = false;
+   protected int lonAsyncBatchSize = 1;
+   protected long lonAsyncBatchInterval = 100;
 
    /**
     * If true, the caches from one site will backup to a cache having the same name remotely (mirror)
@@ -42,6 +44,8 @@ protected void createSites() {
             .strategy(lonBackupStrategy)
             .failurePolicyClass(lonCustomFailurePolicyClass)
             .useTwoPhaseCommit(use2Pc)
+            .asyncBatchSize(lonAsyncBatchSize)
+            .asyncBatchInterval(lonAsyncBatchInterval)
             .sites().addInUseBackupSite("NYC");
 
       GlobalConfigurationBuilder nycGc = GlobalConfigurationBuilder.defaultClusteredBuilder();
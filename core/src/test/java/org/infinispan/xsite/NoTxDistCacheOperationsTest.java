@@ -1,9 +1,13 @@
 package org.infinispan.xsite;
 
+import org.infinispan.compute.ComputeEntry;
+import org.infinispan.compute.ComputeFunction;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.testng.annotations.Test;
 
+import java.io.Serializable;
+
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNull;
 
@@ -41,4 +45,39 @@ public void testDataGetsReplicated() {
       assertNull(cache("NYC", "lonBackup", 0).get("k_lon"));
       assertNull(cache("NYC", "lonBackup", 1).get("k_lon"));
    }
+
+   public void testComputedOutcomeGetsReplicated() {
+      cache("LON", 0).put("k_compute", "a");
+      assertEquals("a", cache("LON", 1).getAdvancedCache().compute("k_compute", new Append("b")));
+      assertEquals("ab", cache("NYC", "lonBackup", 0).get("k_compute"));
+      assertEquals("ab", cache("NYC", "lonBackup", 1).get("k_compute"));
+
+      assertEquals("ab", cache("LON", 0).getAdvancedCache().compute("k_compute", new Remove()));
+      assertNull(cache("NYC", "lonBackup", 0).get("k_compute"));
+      assertNull(cache("NYC", "lonBackup", 1).get("k_compute"));
+   }
+
+   private static class Append implements ComputeFunction<Object, Object, Object>, Serializable {
+      private final String suffix;
+
+      Append(String suffix) {
+         this.suffix = suffix;
+      }
+
+      @Override
+      public Object apply(ComputeEntry<Object, Object> entry) {
+         Object previous = entry.getValue();
+         entry.setValue(previous == null ? suffix : previous + suffix);
+         return previous;
+      }
+   }
+
+   private static class Remove implements ComputeFunction<Object, Object, Object>, Serializable {
+      @Override
+      public Object apply(ComputeEntry<Object, Object> entry) {
+         Object previous = entry.getValue();
+         entry.remove();
+         return previous;
+      }
+   }
 }
@@ -0,0 +1,135 @@
+package org.infinispan.xsite;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.cache.BackupConfiguration;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.factories.KnownComponentNames;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the batching of the asynchronous backups.
+ *
+ * @since 6.0
+ */
+@Test(groups = "xsite", testName = "xsite.NonTxAsyncBatchBackupTest")
+public class NonTxAsyncBatchBackupTest extends AbstractTwoSitesTest {
+
+   public NonTxAsyncBatchBackupTest() {
+      lonBackupStrategy = BackupConfiguration.BackupStrategy.ASYNC;
+      lonAsyncBatchSize = 1000;
+      // only flush explicitly
+      lonAsyncBatchInterval = 600000;
+   }
+
+   @Override
+   protected ConfigurationBuilder getNycActiveConfig() {
+      return getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+   }
+
+   @Override
+   protected ConfigurationBuilder getLonActiveConfig() {
+      return getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+   }
+
+   public void testModificationsAreCoalesced() {
+      // the writes are queued by the primary owner of the key
+      final Object k1 = new MagicKey("k1", cache("LON", 0));
+      final Object k2 = new MagicKey("k2", cache("LON", 0));
+      for (int i = 0; i < 10; i++) {
+         cache("LON", 0).put(k1, "v" + i);
+      }
+      assertEquals("1", admin("LON", 0).getAsyncQueueSize("NYC"));
+      cache("LON", 0).put(k2, "v");
+      cache("LON", 0).remove(k2);
+      assertEquals("2", admin("LON", 0).getAsyncQueueSize("NYC"));
+      assertTrue(Long.parseLong(admin("LON", 0).getAsyncReplicationLag("NYC")) >= 0);
+      assertNull(backup("LON").get(k1));
+
+      backupSender("LON", 0).flushAsyncQueues();
+      assertEquals("0", admin("LON", 0).getAsyncQueueSize("NYC"));
+      assertEquals("0", admin("LON", 0).getAsyncReplicationLag("NYC"));
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return "v9".equals(backup("LON").get(k1));
+         }
+      });
+      assertNull(backup("LON").get(k2));
+   }
+
+   public void testClearDiscardsQueuedModifications() {
+      Object k3 = new MagicKey("k3", cache("LON", 0));
+      Object k4 = new MagicKey("k4", cache("LON", 0));
+      final Object k5 = new MagicKey("k5", cache("LON", 0));
+      cache("LON", 0).put(k3, "v");
+      cache("LON", 0).put(k4, "v");
+      cache("LON", 0).clear();
+      assertEquals("1", admin("LON", 0).getAsyncQueueSize("NYC"));
+      cache("LON", 0).put(k5, "v");
+      backupSender("LON", 0).flushAsyncQueues();
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return "v".equals(backup("LON").get(k5));
+         }
+      });
+      assertNull(backup("LON").get(k3));
+      assertNull(backup("LON").get(k4));
+   }
+
+   public void testUpdatesFromDifferentNodesAreQueuedByTheOwner() {
+      final Object key = new MagicKey("k6", cache("LON", 1));
+      cache("LON", 0).put(key, "v1");
+      cache("LON", 1).put(key, "v2");
+      cache("LON", 0).put(key, "v3");
+      assertEquals("0", admin("LON", 0).getAsyncQueueSize("NYC"));
+      assertEquals("1", admin("LON", 1).getAsyncQueueSize("NYC"));
+
+      backupSender("LON", 1).flushAsyncQueues();
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return "v3".equals(backup("LON").get(key));
+         }
+      });
+   }
+
+   public void testBatchCompression() throws Exception {
+      StreamingMarshaller marshaller = cache("LON", 0).getAdvancedCache().getComponentRegistry()
+            .getComponent(StreamingMarshaller.class, KnownComponentNames.CACHE_MARSHALLER);
+      List<ReplicableCommand> commands = new ArrayList<ReplicableCommand>();
+      for (int i = 0; i < 100; i++) {
+         commands.add(new PutKeyValueCommand("key" + i, "a rather repetitive value", false, null, null, null));
+      }
+      XSiteBatchCommand batch = XSiteBatchCommand.create(commands, marshaller, true);
+      assertTrue(batch.isCompressed());
+      assertEquals(100, batch.size());
+      XSiteBatchCommand uncompressed = XSiteBatchCommand.create(commands, marshaller, false);
+      assertTrue(batch.getPayloadLength() < uncompressed.getPayloadLength());
+
+      ReplicableCommand[] unpacked = batch.getCommands(marshaller);
+      assertEquals(100, unpacked.length);
+      for (int i = 0; i < 100; i++) {
+         assertEquals("key" + i, ((PutKeyValueCommand) unpacked[i]).getKey());
+      }
+   }
+
+   private BackupSender backupSender(String site, int cache) {
+      return cache(site, cache).getAdvancedCache().getComponentRegistry().getComponent(BackupSender.class);
+   }
+
+   private XSiteAdminOperations admin(String site, int cache) {
+      return cache(site, cache).getAdvancedCache().getComponentRegistry().getComponent(XSiteAdminOperations.class);
+   }
+}
@@ -70,6 +70,11 @@ public Object handleRemoteCommand(VisitableCommand command) throws Throwable {
          received = command;
          return br.handleRemoteCommand(command);
       }
+
+      @Override
+      public Object handleRemoteBatch(XSiteBatchCommand batch) throws Throwable {
+         return br.handleRemoteBatch(batch);
+      }
    }
 
    @Override
@@ -6,6 +6,7 @@
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.RollbackCommand;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.remoting.RpcException;
 import org.infinispan.remoting.responses.Response;
@@ -27,6 +28,7 @@
 import org.jgroups.util.Buffer;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -186,6 +188,15 @@ public void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCom
       updateStats(rpc, options.responseMode().isSynchronous(), timeService.timeDuration(start, NANOSECONDS), recipients);
    }
 
+   @Override
+   public NotifyingFuture<Response> invokeRemotelyAsync(Address recipient, ReplicableCommand rpc, RpcOptions options) {
+      long start = timeService.time();
+      NotifyingFuture<Response> future = actual.invokeRemotelyAsync(recipient, rpc, options);
+      updateStats(rpc, options.responseMode().isSynchronous(), timeService.timeDuration(start, NANOSECONDS),
+                  Collections.singleton(recipient));
+      return future;
+   }
+
    @Override
    public RpcOptionsBuilder getRpcOptionsBuilder(ResponseMode responseMode) {
       return actual.getRpcOptionsBuilder(responseMode);
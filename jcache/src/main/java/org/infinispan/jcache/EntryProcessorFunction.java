@@ -0,0 +1,90 @@
+package org.infinispan.jcache;
+
+import org.infinispan.commons.util.ReflectionUtil;
+import org.infinispan.compute.ComputeEntry;
+import org.infinispan.compute.ComputeFunction;
+
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.MutableEntry;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Adapts an {@link EntryProcessor} and its arguments to a {@link ComputeFunction}, so that the processor can be
+ * shipped to the primary owner of the key and applied there while holding the lock on the entry.
+ *
+ * @param <K> the type of key maintained by the cache
+ * @param <V> the type of value maintained by the cache
+ * @param <T> the type of the result of the processor
+ * @since 6.0
+ */
+final class EntryProcessorFunction<K, V, T> implements ComputeFunction<K, V, T>, Serializable {
+
+   private static final long serialVersionUID = 5519428914307421446L;
+
+   private final EntryProcessor<K, V, T> processor;
+   private final Object[] arguments;
+
+   EntryProcessorFunction(EntryProcessor<K, V, T> processor, Object[] arguments) {
+      this.processor = processor;
+      this.arguments = arguments;
+   }
+
+   @Override
+   public T apply(ComputeEntry<K, V> entry) {
+      try {
+         return processor.process(new ComputeMutableEntry<K, V>(entry), arguments);
+      } catch (Exception e) {
+         throw Exceptions.launderEntryProcessorException(e);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "EntryProcessorFunction{" +
+            "processor=" + processor +
+            ", arguments=" + Arrays.toString(arguments) +
+            '}';
+   }
+
+   /**
+    * The {@link MutableEntry} passed to the processor, backed by the entry being computed.
+    */
+   private static final class ComputeMutableEntry<K, V> implements MutableEntry<K, V> {
+      private final ComputeEntry<K, V> entry;
+
+      ComputeMutableEntry(ComputeEntry<K, V> entry) {
+         this.entry = entry;
+      }
+
+      @Override
+      public boolean exists() {
+         return entry.exists();
+      }
+
+      @Override
+      public void remove() {
+         entry.remove();
+      }
+
+      @Override
+      public void setValue(V value) {
+         entry.setValue(value);
+      }
+
+      @Override
+      public K getKey() {
+         return entry.getKey();
+      }
+
+      @Override
+      public V getValue() {
+         return entry.getValue();
+      }
+
+      @Override
+      public <T> T unwrap(Class<T> clazz) {
+         return ReflectionUtil.unwrap(this, clazz);
+      }
+   }
+}
@@ -0,0 +1,54 @@
+package org.infinispan.jcache;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.infinispan.distexec.DistributedCallable;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies an entry processor to all the keys owned by the node it is sent to, so that
+ * {@link javax.cache.Cache#invokeAll(Set, javax.cache.processor.EntryProcessor, Object...)} costs a single
+ * round trip per owner instead of one per key.
+ *
+ * @param <K> the type of key maintained by the cache
+ * @param <V> the type of value maintained by the cache
+ * @param <T> the type of the result of the processor
+ * @since 6.0
+ */
+final class InvokeAllCallable<K, V, T> implements DistributedCallable<K, V, Map<K, T>>, Serializable {
+
+   private static final long serialVersionUID = -4436380911185049286L;
+
+   private final EntryProcessorFunction<K, V, T> function;
+   private final boolean readThrough;
+   private transient AdvancedCache<K, V> cache;
+   private transient Set<K> keys;
+
+   InvokeAllCallable(EntryProcessorFunction<K, V, T> function, boolean readThrough) {
+      this.function = function;
+      this.readThrough = readThrough;
+   }
+
+   @Override
+   public void setEnvironment(Cache<K, V> cache, Set<K> inputKeys) {
+      this.cache = readThrough ? cache.getAdvancedCache() : cache.getAdvancedCache().withFlags(Flag.SKIP_CACHE_LOAD);
+      this.keys = inputKeys;
+   }
+
+   @Override
+   public Map<K, T> call() throws Exception {
+      Map<K, T> results = new HashMap<K, T>(keys.size());
+      for (K key : keys) {
+         // the local node is the primary owner of the key, unless the topology changed in the meantime
+         T result = cache.compute(key, function);
+         if (result != null)
+            results.put(key, result);
+      }
+      return results;
+   }
+}
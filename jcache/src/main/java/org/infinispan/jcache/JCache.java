@@ -9,7 +9,10 @@
 import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -20,6 +23,7 @@
 import javax.cache.configuration.Factory;
 import javax.cache.configuration.MutableConfiguration;
 import javax.cache.expiry.Duration;
+import javax.cache.expiry.EternalExpiryPolicy;
 import javax.cache.expiry.ExpiryPolicy;
 import javax.cache.integration.CacheLoader;
 import javax.cache.integration.CacheWriter;
@@ -35,6 +39,9 @@
 import org.infinispan.commons.api.AsyncCache;
 import org.infinispan.commons.util.ReflectionUtil;
 import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.distexec.DefaultExecutorService;
+import org.infinispan.distexec.DistributedExecutorService;
 import org.infinispan.context.Flag;
 import org.infinispan.interceptors.EntryWrappingInterceptor;
 import org.infinispan.jcache.interceptor.ExpirationTrackingInterceptor;
@@ -77,6 +84,10 @@
    private final LockContainer processorLocks = new ReentrantPerEntryLockContainer(32);
    private final long lockTimeout; // milliseconds
    private final JCacheNotifier<K, V> notifier = new JCacheNotifier<K, V>();
+   private final boolean ownerSideProcessing;
+   // whether the entry processors and their arguments can be shipped to the owners, which only depends on their class
+   private final ConcurrentMap<Class<?>, Boolean> marshallableTypes = new ConcurrentHashMap<Class<?>, Boolean>();
+   private DistributedExecutorService processorExecutor;
    private CacheLoader<K, V> jcacheLoader;
    private CacheWriter<? super K, ? super V> jcacheWriter;
 
@@ -101,6 +112,7 @@ public JCache(AdvancedCache<K, V> cache, JCacheManager cacheManager, Configurati
       this.expiryPolicy = configuration.getExpiryPolicyFactory().create();
       this.lockTimeout =  cache.getCacheConfiguration()
             .locking().lockAcquisitionTimeout();
+      this.ownerSideProcessing = isOwnerSideProcessingSupported(cache);
 
       for (CacheEntryListenerConfiguration<K, V> r
             : c.getCacheEntryListenerConfigurations())
@@ -117,6 +129,20 @@ public JCache(AdvancedCache<K, V> cache, JCacheManager cacheManager, Configurati
          setStatisticsEnabled(true);
    }
 
+   /**
+    * Entry processors can be applied by the primary owner of the key in non-transactional distributed and replicated
+    * caches. Expiry policies other than eternal need the old value on the invoking node to update the entry
+    * lifespan, so they keep applying entry processors locally.
+    */
+   private boolean isOwnerSideProcessingSupported(AdvancedCache<K, V> cache) {
+      org.infinispan.configuration.cache.Configuration cfg = cache.getCacheConfiguration();
+      CacheMode cacheMode = cfg.clustering().cacheMode();
+      return (cacheMode.isDistributed() || cacheMode.isReplicated())
+            && !cfg.transaction().transactionMode().isTransactional()
+            && !cfg.compatibility().enabled()
+            && expiryPolicy instanceof EternalExpiryPolicy;
+   }
+
    private void setCacheLoader(AdvancedCache<K, V> cache, Configuration<K, V> c) {
       // Plug user-defined cache loader into adaptor
       Factory<CacheLoader<K, V>> cacheLoaderFactory = c.getCacheLoaderFactory();
@@ -284,6 +310,12 @@ public CacheManager getCacheManager() {
 
    @Override
    public void close() {
+      synchronized (this) {
+         if (processorExecutor != null) {
+            processorExecutor.shutdownNow();
+            processorExecutor = null;
+         }
+      }
       cache.stop();
    }
 
@@ -320,6 +352,17 @@ public <T> T invoke(final K key, final EntryProcessor<K, V, T> entryProcessor, f
       if (log.isTraceEnabled())
          log.tracef("Invoke entry processor %s for key=%s", entryProcessor, key);
 
+      if (isOwnerSideProcessing(entryProcessor, arguments)) {
+         // Apply the processor on the primary owner, under the lock of the
+         // entry, so that only its outcome travels to the backup owners.
+         try {
+            return (configuration.isReadThrough() ? cache : skipCacheLoadCache)
+                  .compute(key, new EntryProcessorFunction<K, V, T>(entryProcessor, arguments));
+         } catch (RuntimeException e) {
+            throw launderOwnerSideException(e);
+         }
+      }
+
       return new WithProcessorLock<T>().call(key, new Callable<T>() {
          @Override
          public T call() throws Exception {
@@ -386,6 +429,9 @@ public <T> Map<K, T> invokeAll(Set<? extends K> keys, EntryProcessor<K, V, T> en
       verifyKeys(keys);
       verifyEntryProcessor(entryProcessor);
 
+      if (isOwnerSideProcessing(entryProcessor, arguments))
+         return invokeAllOnOwners(keys, entryProcessor, arguments);
+
       Map<K, T> result = new HashMap<K, T>(keys.size());
       for (K key : keys) {
          T t = invoke(key, entryProcessor, arguments);
@@ -396,6 +442,72 @@ public <T> Map<K, T> invokeAll(Set<? extends K> keys, EntryProcessor<K, V, T> en
       return result;
    }
 
+   private <T> Map<K, T> invokeAllOnOwners(Set<? extends K> keys,
+         EntryProcessor<K, V, T> entryProcessor, Object[] arguments) {
+      // A single task per owner applies the processor to all its keys
+      InvokeAllCallable<K, V, T> task = new InvokeAllCallable<K, V, T>(
+            new EntryProcessorFunction<K, V, T>(entryProcessor, arguments),
+            configuration.isReadThrough());
+      List<Future<Map<K, T>>> futures = processorExecutor().submitEverywhere(task, keys.toArray());
+
+      Map<K, T> result = new HashMap<K, T>(keys.size());
+      try {
+         for (Future<Map<K, T>> future : futures)
+            result.putAll(future.get());
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException(e);
+      } catch (ExecutionException e) {
+         throw launderOwnerSideException(e.getCause());
+      }
+      return result;
+   }
+
+   private boolean isOwnerSideProcessing(EntryProcessor<K, V, ?> entryProcessor, Object[] arguments) {
+      if (!ownerSideProcessing)
+         return false;
+
+      if (!isMarshallable(entryProcessor))
+         return false;
+      if (arguments != null) {
+         for (Object argument : arguments) {
+            if (argument != null && !isMarshallable(argument))
+               return false;
+         }
+      }
+      return true;
+   }
+
+   private boolean isMarshallable(Object o) {
+      Boolean marshallable = marshallableTypes.get(o.getClass());
+      if (marshallable == null) {
+         StreamingMarshaller marshaller = cache.getComponentRegistry().getCacheMarshaller();
+         try {
+            marshallable = marshaller.isMarshallable(o);
+         } catch (Exception e) {
+            marshallable = false;
+         }
+         marshallableTypes.put(o.getClass(), marshallable);
+      }
+      return marshallable;
+   }
+
+   private synchronized DistributedExecutorService processorExecutor() {
+      if (processorExecutor == null)
+         processorExecutor = new DefaultExecutorService(cache);
+      return processorExecutor;
+   }
+
+   private static RuntimeException launderOwnerSideException(Throwable t) {
+      // Entry processor failures are wrapped by the remote invocation
+      for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+         if (cause instanceof EntryProcessorException)
+            return (EntryProcessorException) cause;
+      }
+      return t instanceof RuntimeException
+            ? (RuntimeException) t : new CacheException(t);
+   }
+
    @SuppressWarnings("unchecked")
    private V safeCopy(V original) {
       try {
@@ -9,6 +9,7 @@
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.persistence.cli.CLInterfaceLoader;
 import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.upgrade.MigrationProgress;
 import org.infinispan.upgrade.TargetMigrator;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -42,8 +43,12 @@ public String getName() {
    }
 
    @Override
-   public long synchronizeData(final Cache<Object, Object> cache) throws CacheException {
-      int threads = Runtime.getRuntime().availableProcessors();
+   public long synchronizeData(Cache<Object, Object> cache) throws CacheException {
+      return synchronizeData(cache, new MigrationProgress(), Runtime.getRuntime().availableProcessors());
+   }
+
+   @Override
+   public long synchronizeData(final Cache<Object, Object> cache, final MigrationProgress progress, int threads) throws CacheException {
       PersistenceManager loaderManager = getPersistenceManager(cache);
       Set<CLInterfaceLoader> loaders = loaderManager.getStores(CLInterfaceLoader.class);
 
@@ -59,18 +64,24 @@ public long synchronizeData(final Cache<Object, Object> cache) throws CacheExcep
                      "Unable to read JSON value: " + loadedKnownKey.getValue(), e);
             }
 
+            // the keys are not split, the whole key set is migrated again after a failure
+            progress.start(1, keys.size());
             ExecutorService es = Executors.newFixedThreadPool(threads);
             final AtomicInteger count = new AtomicInteger(0);
+            final AtomicInteger failed = new AtomicInteger(0);
             for (final Object key : keys) {
                es.submit(new Runnable() {
                   @Override
                   public void run() {
                      try {
                         cache.get(key);
+                        progress.keyMigrated();
                         int i = count.getAndIncrement();
                         if (log.isDebugEnabled() && i % 100 == 0)
                            log.debugf(">>    Moved %s keys\n", i);
                      } catch (Exception e) {
+                        failed.incrementAndGet();
+                        progress.keyFailed();
                         log.keyMigrationFailed(Util.toStr(key), e);
                      }
             }
@@ -83,6 +94,9 @@ public void run() {
             } catch (InterruptedException e) {
                throw new CacheException(e);
             }
+            if (failed.get() == 0) {
+               progress.segmentCompleted(0, keys.size());
+            }
             return count.longValue();
          }
       }
@@ -1,10 +1,14 @@
 package org.infinispan.persistence.remote.upgrade;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinispan.Cache;
 import org.infinispan.client.hotrod.RemoteCache;
@@ -12,11 +16,14 @@
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.marshall.jboss.GenericJBossMarshaller;
 import org.infinispan.commons.util.Util;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.remote.RemoteStore;
 import org.infinispan.persistence.remote.configuration.RemoteStoreConfiguration;
 import org.infinispan.persistence.remote.logging.Log;
+import org.infinispan.upgrade.MigrationProgress;
 import org.infinispan.upgrade.TargetMigrator;
 import org.infinispan.util.ByteArrayKey;
 import org.infinispan.util.logging.LogFactory;
@@ -26,6 +33,12 @@ public class HotRodTargetMigrator implements TargetMigrator {
 
    private static final Log log = LogFactory.getLog(HotRodTargetMigrator.class, Log.class);
 
+   /**
+    * The segments are split in tasks of at most this many keys, so that a segment with many keys doesn't leave the other
+    * threads idle.
+    */
+   private static final int KEYS_PER_TASK = 100;
+
    public HotRodTargetMigrator() {
    }
 
@@ -35,8 +48,12 @@ public String getName() {
    }
 
    @Override
-   public long synchronizeData(final Cache<Object, Object> cache) throws CacheException {
-      int threads = Runtime.getRuntime().availableProcessors();
+   public long synchronizeData(Cache<Object, Object> cache) throws CacheException {
+      return synchronizeData(cache, new MigrationProgress(), Runtime.getRuntime().availableProcessors());
+   }
+
+   @Override
+   public long synchronizeData(final Cache<Object, Object> cache, final MigrationProgress progress, int threads) throws CacheException {
       ComponentRegistry cr = cache.getAdvancedCache().getComponentRegistry();
       PersistenceManager loaderManager = cr.getComponent(PersistenceManager.class);
       Set<RemoteStore> stores = loaderManager.getStores(RemoteStore.class);
@@ -64,30 +81,31 @@ public long synchronizeData(final Cache<Object, Object> cache) throws CacheExcep
                throw new CacheException(e);
             }
 
+            List<List<byte[]>> keysBySegment = splitBySegment(cache, keys);
+            progress.start(keysBySegment.size(), keys.size());
+            log.debugf("Migrating %d keys in %d segments to cache %s, %s", keys.size(), keysBySegment.size(), cache.getName(), progress);
+
             ExecutorService es = Executors.newFixedThreadPool(threads);
-            final AtomicInteger count = new AtomicInteger(0);
-            for (Object okey : keys) {
-               final byte[] key = (okey instanceof ByteArrayKey) ? ((ByteArrayKey)okey).getData() : ((byte[])okey);
-               es.submit(new Runnable() {
-
-                  @Override
-                  public void run() {
-                     try {
-                        cache.get(key);
-                        int i = count.getAndIncrement();
-                        if (log.isDebugEnabled() && i % 100 == 0)
-                           log.debugf(">>    Moved %s keys\n", i);
-                     } catch (Exception e) {
-                        log.keyMigrationFailed(Util.toStr(key), e);
-                     }
+            final AtomicLong count = new AtomicLong(0);
+            for (int segmentId = 0; segmentId < keysBySegment.size(); segmentId++) {
+               List<byte[]> segmentKeys = keysBySegment.get(segmentId);
+               if (!progress.isSegmentCompleted(segmentId)) {
+                  SegmentMigration segment = new SegmentMigration(segmentId, segmentKeys.size(), progress);
+                  for (int from = 0; from < segmentKeys.size(); from += KEYS_PER_TASK) {
+                     List<byte[]> taskKeys = segmentKeys.subList(from, Math.min(from + KEYS_PER_TASK, segmentKeys.size()));
+                     es.submit(new MigrationTask(cache, segment, taskKeys, progress, count));
                   }
-               });
-
+                  if (segmentKeys.isEmpty()) {
+                     progress.segmentCompleted(segmentId, 0);
+                  }
+               }
             }
             es.shutdown();
             try {
                while (!es.awaitTermination(500, TimeUnit.MILLISECONDS));
             } catch (InterruptedException e) {
+               // the segments migrated so far are kept in the progress, the next synchronization resumes from there
+               es.shutdownNow();
                throw new CacheException(e);
             }
             return count.longValue();
@@ -96,6 +114,95 @@ public void run() {
       throw log.missingMigrationData(cache.getName());
    }
 
+   /**
+    * Splits the keys in the segments of the target cache, or in as many partitions as the configured number of
+    * segments if the target cache is not distributed. The split only depends on the configuration of the cache, so a
+    * synchronization can resume from the segments completed by a previous one.
+    */
+   private List<List<byte[]>> splitBySegment(Cache<Object, Object> cache, Set<Object> keys) {
+      DistributionManager dm = cache.getAdvancedCache().getDistributionManager();
+      ConsistentHash ch = dm != null ? dm.getReadConsistentHash() : null;
+      int numSegments = ch != null ? ch.getNumSegments() : cache.getCacheConfiguration().clustering().hash().numSegments();
+      List<List<byte[]>> keysBySegment = new ArrayList<List<byte[]>>(numSegments);
+      for (int i = 0; i < numSegments; i++) {
+         keysBySegment.add(new ArrayList<byte[]>());
+      }
+      for (Object okey : keys) {
+         byte[] key = (okey instanceof ByteArrayKey) ? ((ByteArrayKey)okey).getData() : ((byte[])okey);
+         int segmentId = ch != null ? ch.getSegment(key) : (Arrays.hashCode(key) & Integer.MAX_VALUE) % numSegments;
+         keysBySegment.get(segmentId).add(key);
+      }
+      return keysBySegment;
+   }
+
+   /**
+    * Records a segment as completed in the progress once all its keys were migrated.
+    */
+   private static class SegmentMigration {
+      private final int segmentId;
+      private final int numKeys;
+      private final MigrationProgress progress;
+      private final AtomicInteger pendingKeys;
+      private volatile boolean failed;
+
+      SegmentMigration(int segmentId, int numKeys, MigrationProgress progress) {
+         this.segmentId = segmentId;
+         this.numKeys = numKeys;
+         this.progress = progress;
+         this.pendingKeys = new AtomicInteger(numKeys);
+      }
+
+      void keysProcessed(int keys, boolean failed) {
+         if (failed) {
+            this.failed = true;
+         }
+         if (pendingKeys.addAndGet(-keys) == 0 && !this.failed) {
+            progress.segmentCompleted(segmentId, numKeys);
+         }
+      }
+   }
+
+   /**
+    * Fetches some of the keys of a segment from the source cluster.
+    */
+   private static class MigrationTask implements Runnable {
+      private final Cache<Object, Object> cache;
+      private final SegmentMigration segment;
+      private final List<byte[]> keys;
+      private final MigrationProgress progress;
+      private final AtomicLong count;
+
+      MigrationTask(Cache<Object, Object> cache, SegmentMigration segment, List<byte[]> keys, MigrationProgress progress, AtomicLong count) {
+         this.cache = cache;
+         this.segment = segment;
+         this.keys = keys;
+         this.progress = progress;
+         this.count = count;
+      }
+
+      @Override
+      public void run() {
+         boolean failed = false;
+         for (byte[] key : keys) {
+            // an interrupted task leaves its segment incomplete
+            if (Thread.currentThread().isInterrupted())
+               return;
+            try {
+               cache.get(key);
+               progress.keyMigrated();
+               long i = count.getAndIncrement();
+               if (log.isDebugEnabled() && i % 100 == 0)
+                  log.debugf(">>    Moved %s keys\n", i);
+            } catch (Exception e) {
+               failed = true;
+               progress.keyFailed();
+               log.keyMigrationFailed(Util.toStr(key), e);
+            }
+         }
+         segment.keysProcessed(keys.size(), failed);
+      }
+   }
+
    @Override
    public void disconnectSource(Cache<Object, Object> cache) throws CacheException {
       ComponentRegistry cr = cache.getAdvancedCache().getComponentRegistry();
@@ -73,9 +73,16 @@ public void testSynchronization() throws Exception {
       RollingUpgradeManager sourceUpgradeManager = sourceServerCache.getAdvancedCache().getComponentRegistry().getComponent(RollingUpgradeManager.class);
       sourceUpgradeManager.recordKnownGlobalKeyset();
       RollingUpgradeManager targetUpgradeManager = targetServerCache.getAdvancedCache().getComponentRegistry().getComponent(RollingUpgradeManager.class);
-      targetUpgradeManager.synchronizeData("hotrod");
+      assertEquals(26, targetUpgradeManager.synchronizeData("hotrod", 4));
       // The server contains one extra key: MIGRATION_MANAGER_HOT_ROD_KNOWN_KEYS
       assertEquals(sourceServerCache.getAdvancedCache().withFlags(Flag.SKIP_CACHE_STORE).size() - 1, targetServerCache.getAdvancedCache().withFlags(Flag.SKIP_CACHE_STORE).size());
+      assertEquals(26, targetUpgradeManager.getTotalKeys());
+      assertEquals(26, targetUpgradeManager.getMigratedKeys());
+      assertEquals(0, targetUpgradeManager.getFailedKeys());
+      assertEquals(100.0, targetUpgradeManager.getSynchronizationProgress(), 0.0);
+
+      // a completed synchronization is not resumed, the next one migrates all the keys again
+      assertEquals(26, targetUpgradeManager.synchronizeData("hotrod"));
 
       targetUpgradeManager.disconnectSource("hotrod");
    }
@@ -1,6 +1,9 @@
 package org.infinispan.query;
 
+import java.util.Map;
+
 import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 
 /**
@@ -12,6 +15,10 @@
  * While reindexing is being performed queries should not be executed as they
  * will very likely miss many or all results.
  *
+ * Each node reindexes the entries it is primary owner of, segment by segment. If
+ * the process fails or is interrupted, it can be resumed and only the segments
+ * which were not completed are reindexed again.
+ *
  * @author Sanne Grinovero <sanne@hibernate.org> (C) 2012 Red Hat Inc.
  */
 @MBean(objectName = "MassIndexer",
@@ -23,4 +30,15 @@ public interface MassIndexer {
    @ManagedOperation(description = "Starts rebuilding the index", displayName = "Rebuild index")
    void start();
 
+   @ManagedOperation(description = "Resumes an interrupted index rebuild, skipping the segments which were already reindexed", displayName = "Resume index rebuild")
+   void resume();
+
+   /**
+    * @return the number of documents written so far by the local node, by segment
+    */
+   Map<Integer, Long> getDocumentsPerSegment();
+
+   @ManagedAttribute(description = "Number of segments reindexed by the local node", displayName = "Completed segments")
+   int getCompletedSegments();
+
 }
@@ -38,7 +38,8 @@
 import org.infinispan.query.backend.QueryInterceptor;
 import org.infinispan.query.backend.SearchableCacheConfiguration;
 import org.infinispan.query.clustered.QueryBox;
-import org.infinispan.query.impl.massindex.MapReduceMassIndexer;
+import org.infinispan.query.impl.massindex.DistributedExecutorMassIndexer;
+import org.infinispan.query.impl.massindex.MassIndexerProgress;
 import org.infinispan.query.logging.Log;
 import org.infinispan.query.spi.ProgrammaticSearchMappingProvider;
 import org.infinispan.transaction.LockingMode;
@@ -142,6 +143,8 @@ public void cacheStarted(ComponentRegistry cr, String cacheName) {
       queryBox.setCache(cache.getAdvancedCache());
       cr.registerComponent(queryBox, QueryBox.class);
 
+      cr.registerComponent(new MassIndexerProgress(), MassIndexerProgress.class);
+
       // Register query mbeans
       registerQueryMBeans(cache.getAdvancedCache(), cr, cacheName);
    }
@@ -180,7 +183,7 @@ private void registerQueryMBeans(AdvancedCache cache,
             .toManageableComponentMetadata();
       try {
          // TODO: MassIndexer should be some kind of query cache component?
-         MapReduceMassIndexer maxIndexer = new MapReduceMassIndexer(cache, sf);
+         MassIndexer maxIndexer = new DistributedExecutorMassIndexer(cache);
          ResourceDMBean mbean = new ResourceDMBean(maxIndexer, massIndexerCompMetadata);
          ObjectName massIndexerObjName = new ObjectName(jmxDomain + ":"
                + queryGroupName + ",component=" + massIndexerCompMetadata.getJmxObjectName());
@@ -16,7 +16,7 @@
 import org.infinispan.query.clustered.ClusteredCacheQueryImpl;
 import org.infinispan.query.dsl.QueryFactory;
 import org.infinispan.query.dsl.embedded.impl.EmbeddedLuceneQueryFactory;
-import org.infinispan.query.impl.massindex.MapReduceMassIndexer;
+import org.infinispan.query.impl.massindex.DistributedExecutorMassIndexer;
 import org.infinispan.query.spi.SearchManagerImplementor;
 
 /**
@@ -115,7 +115,7 @@ public SearchFactory getSearchFactory() {
    @Override
    public MassIndexer getMassIndexer() {
       // TODO: Should a new instance be created every time?
-      return new MapReduceMassIndexer(cache, searchFactory);
+      return new DistributedExecutorMassIndexer(cache);
    }
 
 }
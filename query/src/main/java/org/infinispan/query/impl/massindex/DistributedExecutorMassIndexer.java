@@ -0,0 +1,116 @@
+package org.infinispan.query.impl.massindex;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.CacheException;
+import org.infinispan.distexec.DefaultExecutorService;
+import org.infinispan.distexec.DistributedExecutorService;
+import org.infinispan.distexec.DistributedTask;
+import org.infinispan.query.MassIndexer;
+import org.infinispan.query.backend.QueryInterceptor;
+import org.infinispan.query.impl.ComponentRegistryUtils;
+
+/**
+ * A {@link MassIndexer} which runs an {@link IndexWorker} on every node of the cluster: each node reindexes the
+ * entries it is primary owner of, splitting the work by segment across a local thread pool and writing documents in
+ * batches.
+ * <p/>
+ * The following indexing properties can be used to tune it:
+ * <ul>
+ *    <li>{@value #BATCH_SIZE} - the number of entries indexed in a single IndexWriter session (default 1000)</li>
+ *    <li>{@value #THREADS} - the number of indexing threads per node (default: the number of available cores)</li>
+ *    <li>{@value #MAX_DOCUMENTS_PER_SECOND} - the maximum number of documents written per second on each node,
+ *    0 for no limit (default 0)</li>
+ * </ul>
+ *
+ * @since 6.0
+ */
+public class DistributedExecutorMassIndexer implements MassIndexer {
+
+   public static final String BATCH_SIZE = "infinispan.massindexer.batch_size";
+   public static final String THREADS = "infinispan.massindexer.threads";
+   public static final String MAX_DOCUMENTS_PER_SECOND = "infinispan.massindexer.max_documents_per_second";
+
+   private static final int DEFAULT_BATCH_SIZE = 1000;
+
+   private final AdvancedCache<Object, Object> cache;
+
+   public DistributedExecutorMassIndexer(AdvancedCache cache) {
+      this.cache = cache;
+   }
+
+   @Override
+   public void start() {
+      wipeExistingIndexes();
+      execute(false);
+   }
+
+   @Override
+   public void resume() {
+      execute(true);
+   }
+
+   @Override
+   public Map<Integer, Long> getDocumentsPerSegment() {
+      return getLocalProgress().getDocumentsPerSegment();
+   }
+
+   @Override
+   public int getCompletedSegments() {
+      return getLocalProgress().getCompletedSegments().size();
+   }
+
+   private MassIndexerProgress getLocalProgress() {
+      return cache.getComponentRegistry().getComponent(MassIndexerProgress.class);
+   }
+
+   private void execute(boolean resume) {
+      Properties properties = cache.getCacheConfiguration().indexing().properties();
+      int batchSize = getIntProperty(properties, BATCH_SIZE, DEFAULT_BATCH_SIZE);
+      int threads = getIntProperty(properties, THREADS, Runtime.getRuntime().availableProcessors());
+      int maxDocumentsPerSecond = getIntProperty(properties, MAX_DOCUMENTS_PER_SECOND, 0);
+      IndexWorker worker = new IndexWorker(resume, Math.max(batchSize, 1), Math.max(threads, 1), maxDocumentsPerSecond);
+
+      DistributedExecutorService executor = new DefaultExecutorService(cache);
+      try {
+         // reindexing can take much longer than the replication timeout
+         DistributedTask<Void> task = executor.createDistributedTaskBuilder(worker)
+               .timeout(0, TimeUnit.MILLISECONDS)
+               .build();
+         List<Future<Void>> futures = executor.submitEverywhere(task);
+         for (Future<Void> future : futures) {
+            future.get();
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException("Interrupted while rebuilding the indexes", e);
+      } catch (ExecutionException e) {
+         throw new CacheException("Failed to rebuild the indexes", e.getCause());
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private void wipeExistingIndexes() {
+      QueryInterceptor queryInterceptor = ComponentRegistryUtils.getQueryInterceptor(cache);
+      queryInterceptor.purgeAllIndexes();
+   }
+
+   private static int getIntProperty(Properties properties, String name, int defaultValue) {
+      String value = properties.getProperty(name);
+      if (value == null) {
+         return defaultValue;
+      }
+      try {
+         return Integer.parseInt(value.trim());
+      } catch (NumberFormatException e) {
+         throw new CacheException("Invalid value '" + value + "' for indexing property " + name, e);
+      }
+   }
+}
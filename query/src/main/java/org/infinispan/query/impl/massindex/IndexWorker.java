@@ -0,0 +1,403 @@
+package org.infinispan.query.impl.massindex;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.backend.UpdateLuceneWork;
+import org.hibernate.search.backend.impl.batch.DefaultBatchBackend;
+import org.hibernate.search.bridge.spi.ConversionContext;
+import org.hibernate.search.bridge.util.impl.ContextualExceptionBridgeHelper;
+import org.hibernate.search.engine.spi.DocumentBuilderIndexedEntity;
+import org.hibernate.search.engine.spi.EntityIndexBinding;
+import org.hibernate.search.impl.SimpleInitializer;
+import org.hibernate.search.indexes.spi.IndexManager;
+import org.hibernate.search.spi.SearchFactoryIntegrator;
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.commons.CacheException;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.distexec.DistributedCallable;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledValue;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.query.backend.KeyTransformationHandler;
+import org.infinispan.query.backend.QueryInterceptor;
+import org.infinispan.query.impl.ComponentRegistryUtils;
+import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.topology.CacheTopology;
+import org.infinispan.util.TimeService;
+
+/**
+ * Rebuilds, on the node it is executed on, the index documents of all the entries this node is primary owner of.
+ * <p/>
+ * The segments are reindexed one after the other. The keys of a segment are streamed directly from the
+ * {@link DataContainer} and from the cache stores into batches of {@code batchSize} entries, so that only the keys of
+ * the batches being filled or in flight are kept in memory. Each batch is turned into documents and applied with a
+ * single {@link IndexManager#performOperations} call (hence a single IndexWriter session) by a pool of {@code threads}
+ * threads. The number of batches in flight is bounded, and an optional cap on the number of documents written per
+ * second keeps the reindexing from starving live traffic.
+ * <p/>
+ * Progress is tracked by segment in the node's {@link MassIndexerProgress}: a segment is completed as soon as its last
+ * batch is written, and when resuming, the segments which were already completed by a previous run are skipped.
+ *
+ * @since 6.0
+ */
+public final class IndexWorker implements DistributedCallable<Object, Object, Void>, Serializable {
+
+   private static final long serialVersionUID = 2385637284671749311L;
+
+   private final boolean resume;
+   private final int batchSize;
+   private final int threads;
+   private final int maxDocumentsPerSecond;
+
+   private transient AdvancedCache<Object, Object> cache;
+
+   public IndexWorker(boolean resume, int batchSize, int threads, int maxDocumentsPerSecond) {
+      this.resume = resume;
+      this.batchSize = batchSize;
+      this.threads = threads;
+      this.maxDocumentsPerSecond = maxDocumentsPerSecond;
+   }
+
+   @Override
+   public void setEnvironment(Cache<Object, Object> cache, Set<Object> inputKeys) {
+      this.cache = cache.getAdvancedCache();
+   }
+
+   @Override
+   public Void call() throws Exception {
+      MassIndexerProgress progress = cache.getComponentRegistry().getComponent(MassIndexerProgress.class);
+      if (!progress.begin()) {
+         throw new CacheException("Mass indexing is already running for cache " + cache.getName());
+      }
+      try {
+         if (!resume) {
+            progress.reset();
+         }
+         new SegmentIndexer(progress).run();
+      } finally {
+         progress.end();
+      }
+      return null;
+   }
+
+   private final class SegmentIndexer {
+
+      private final MassIndexerProgress progress;
+      private final DataContainer dataContainer;
+      private final PersistenceManager persistenceManager;
+      private final ClusteringDependentLogic cdl;
+      private final ConsistentHash consistentHash;
+      private final TimeService timeService;
+      private final QueryInterceptor queryInterceptor;
+      private final SearchFactoryIntegrator searchFactory;
+      private final KeyTransformationHandler keyTransformationHandler;
+      private final DefaultMassIndexerProgressMonitor progressMonitor;
+      private final DefaultBatchBackend batchBackend;
+
+      private final Set<Class<?>> shardedTypes = new HashSet<Class<?>>();
+      private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+      private final Semaphore inFlightBatches;
+      private final ExecutorService executor;
+
+      private long startTime;
+      private long submittedDocuments;
+
+      SegmentIndexer(MassIndexerProgress progress) {
+         ComponentRegistry cr = cache.getComponentRegistry();
+         this.progress = progress;
+         this.dataContainer = cr.getComponent(DataContainer.class);
+         this.persistenceManager = cr.getComponent(PersistenceManager.class);
+         this.cdl = cr.getComponent(ClusteringDependentLogic.class);
+         this.timeService = cr.getTimeService();
+         StateTransferManager stateTransferManager = cr.getComponent(StateTransferManager.class);
+         CacheTopology cacheTopology = stateTransferManager != null ? stateTransferManager.getCacheTopology() : null;
+         this.consistentHash = cacheTopology != null ? cacheTopology.getReadConsistentHash() : null;
+         this.queryInterceptor = ComponentRegistryUtils.getQueryInterceptor(cache);
+         this.searchFactory = queryInterceptor.getSearchFactory();
+         this.keyTransformationHandler = queryInterceptor.getKeyTransformationHandler();
+         this.progressMonitor = new DefaultMassIndexerProgressMonitor(timeService);
+         this.batchBackend = new DefaultBatchBackend(searchFactory, progressMonitor);
+         this.inFlightBatches = new Semaphore(threads * 2);
+         this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger threadId = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+               Thread t = new Thread(r, "MassIndexer-" + cache.getName() + "-" + threadId.getAndIncrement());
+               t.setDaemon(true);
+               return t;
+            }
+         });
+      }
+
+      void run() throws InterruptedException {
+         int numSegments = consistentHash != null ? consistentHash.getNumSegments() : 1;
+         startTime = timeService.time();
+         try {
+            for (int segment = 0; segment < numSegments && failure.get() == null; segment++) {
+               if (!progress.isSegmentCompleted(segment)) {
+                  indexSegment(segment);
+               }
+            }
+         } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+         }
+
+         Throwable t = failure.get();
+         if (t != null) {
+            throw new CacheException("Mass indexing failed for cache " + cache.getName(), t);
+         }
+         progressMonitor.indexingCompleted();
+      }
+
+      /**
+       * Streams the keys of the entries of a segment this node is primary owner of, from the data container and the
+       * stores, into batches which are submitted as soon as they are full. Only the keys of the batches being filled or
+       * in flight are kept in memory: the values are read again when their batch is indexed. Each segment takes a scan
+       * of the keys of the data container and of the stores, the stores only loading the keys of the segment.
+       * <p/>
+       * The segment is marked as completed as soon as its last batch is written, so that a failure in a later segment
+       * doesn't require it to be reindexed on resume.
+       */
+      private void indexSegment(final int segment) throws InterruptedException {
+         final SegmentBatcher batcher = new SegmentBatcher(segment);
+         long now = timeService.wallClockTime();
+         for (InternalCacheEntry ice : dataContainer) {
+            if (failure.get() != null) {
+               break;
+            }
+            Object key = ice.getKey();
+            if (getSegment(key) == segment && !ice.isExpired(now) && cdl.localNodeIsPrimaryOwner(key)) {
+               batcher.add(key);
+            }
+         }
+
+         if (persistenceManager != null && failure.get() == null) {
+            persistenceManager.processOnAllStores(new AdvancedCacheLoader.KeyFilter() {
+               @Override
+               public boolean shouldLoadKey(Object key) {
+                  return getSegment(key) == segment && !dataContainer.containsKey(key)
+                        && cdl.localNodeIsPrimaryOwner(key);
+               }
+            }, new AdvancedCacheLoader.CacheLoaderTask() {
+               @Override
+               public void processEntry(MarshalledEntry marshalledEntry, AdvancedCacheLoader.TaskContext taskContext)
+                     throws InterruptedException {
+                  if (failure.get() != null) {
+                     taskContext.stop();
+                     return;
+                  }
+                  batcher.add(marshalledEntry.getKey());
+               }
+            }, false, false);
+         }
+         batcher.finish();
+      }
+
+      private int getSegment(Object key) {
+         return consistentHash != null ? consistentHash.getSegment(key) : 0;
+      }
+
+      private void submit(final Batch batch) throws InterruptedException {
+         throttle(batch.keys.size());
+         inFlightBatches.acquire();
+         executor.execute(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  if (failure.get() == null) {
+                     indexBatch(batch);
+                     if (batch.remainingBatches.decrementAndGet() == 0 && failure.get() == null) {
+                        completeSegment(batch.segment);
+                     }
+                  }
+               } catch (Throwable t) {
+                  failure.compareAndSet(null, t);
+               } finally {
+                  inFlightBatches.release();
+               }
+            }
+         });
+      }
+
+      /**
+       * Pauses the producer when the documents submitted so far exceed the configured rate.
+       */
+      private void throttle(int documents) throws InterruptedException {
+         if (maxDocumentsPerSecond <= 0) {
+            return;
+         }
+         long expectedMillis;
+         synchronized (this) {
+            submittedDocuments += documents;
+            expectedMillis = submittedDocuments * 1000 / maxDocumentsPerSecond;
+         }
+         long elapsedMillis = timeService.timeDuration(startTime, TimeUnit.MILLISECONDS);
+         if (elapsedMillis < expectedMillis) {
+            Thread.sleep(expectedMillis - elapsedMillis);
+         }
+      }
+
+      private void completeSegment(int segment) {
+         synchronized (shardedTypes) {
+            // the works of sharded indexes are written asynchronously
+            if (!shardedTypes.isEmpty()) {
+               batchBackend.flush(shardedTypes);
+            }
+         }
+         progress.segmentCompleted(segment);
+      }
+
+      private void indexBatch(Batch batch) throws InterruptedException {
+         Map<IndexManager, List<LuceneWork>> works = new HashMap<IndexManager, List<LuceneWork>>();
+         ConversionContext conversionContext = new ContextualExceptionBridgeHelper();
+         int documents = 0;
+         for (Object storedKey : batch.keys) {
+            Object key = unwrap(storedKey);
+            Object value = unwrap(loadValue(storedKey));
+            if (value != null && searchFactory.getIndexBinding(value.getClass()) == null) {
+               // the stored form is not the indexed type (e.g. a type converter is in place) so read it through the cache
+               value = cache.withFlags(Flag.CACHE_MODE_LOCAL, Flag.SKIP_CACHE_LOAD, Flag.SKIP_LOCKING).get(key);
+            }
+            if (value == null || !queryInterceptor.updateKnownTypesIfNeeded(value)) {
+               continue;
+            }
+            Class clazz = value.getClass();
+            EntityIndexBinding entityIndexBinding = searchFactory.getIndexBinding(clazz);
+            if (entityIndexBinding == null) {
+               // it might be possible to receive not-indexes types
+               continue;
+            }
+            DocumentBuilderIndexedEntity docBuilder = entityIndexBinding.getDocumentBuilder();
+            String idInString = keyTransformationHandler.keyToString(key);
+            UpdateLuceneWork updateWork = docBuilder.createUpdateWork(clazz, value, idInString, idInString,
+                                                                      SimpleInitializer.INSTANCE, conversionContext);
+            IndexManager[] indexManagers = entityIndexBinding.getIndexManagers();
+            if (indexManagers.length == 1) {
+               List<LuceneWork> list = works.get(indexManagers[0]);
+               if (list == null) {
+                  list = new ArrayList<LuceneWork>(batch.keys.size());
+                  works.put(indexManagers[0], list);
+               }
+               list.add(updateWork);
+            } else {
+               // sharded indexes: let the backend route each work to the right shard
+               synchronized (shardedTypes) {
+                  shardedTypes.add(clazz);
+               }
+               batchBackend.enqueueAsyncWork(updateWork);
+            }
+            documents++;
+         }
+         for (Map.Entry<IndexManager, List<LuceneWork>> e : works.entrySet()) {
+            e.getKey().performOperations(e.getValue(), null);
+         }
+         progress.documentsIndexed(batch.segment, documents);
+         progressMonitor.documentsAdded(documents);
+      }
+
+      /**
+       * @return the current value of the key, or null if it was removed since its key was collected
+       */
+      private Object loadValue(Object key) {
+         InternalCacheEntry ice = dataContainer.peek(key);
+         if (ice != null) {
+            return ice.getValue();
+         }
+         if (persistenceManager != null) {
+            MarshalledEntry me = persistenceManager.loadFromAllStores(key);
+            if (me != null) {
+               return me.getValue();
+            }
+         }
+         return null;
+      }
+
+      private Object unwrap(Object o) {
+         return o instanceof MarshalledValue ? ((MarshalledValue) o).get() : o;
+      }
+
+      /**
+       * Fills the batches of a segment, from the data container and from the store threads.
+       */
+      private final class SegmentBatcher {
+
+         private final int segment;
+         // the batches not written yet, plus one for the scan of the keys
+         private final AtomicInteger remainingBatches = new AtomicInteger(1);
+         private List<Object> keys = new ArrayList<Object>(batchSize);
+
+         SegmentBatcher(int segment) {
+            this.segment = segment;
+         }
+
+         void add(Object key) throws InterruptedException {
+            List<Object> full = null;
+            synchronized (this) {
+               keys.add(key);
+               if (keys.size() >= batchSize) {
+                  full = keys;
+                  keys = new ArrayList<Object>(batchSize);
+               }
+            }
+            if (full != null) {
+               submitBatch(full);
+            }
+         }
+
+         void finish() throws InterruptedException {
+            List<Object> last;
+            synchronized (this) {
+               last = keys;
+               keys = null;
+            }
+            if (!last.isEmpty() && failure.get() == null) {
+               submitBatch(last);
+            }
+            if (remainingBatches.decrementAndGet() == 0 && failure.get() == null) {
+               completeSegment(segment);
+            }
+         }
+
+         private void submitBatch(List<Object> batchKeys) throws InterruptedException {
+            remainingBatches.incrementAndGet();
+            submit(new Batch(segment, batchKeys, remainingBatches));
+         }
+      }
+   }
+
+   private static final class Batch {
+
+      final int segment;
+      final List<Object> keys;
+      final AtomicInteger remainingBatches;
+
+      Batch(int segment, List<Object> keys, AtomicInteger remainingBatches) {
+         this.segment = segment;
+         this.keys = keys;
+         this.remainingBatches = remainingBatches;
+      }
+   }
+}
@@ -0,0 +1,96 @@
+package org.infinispan.query.impl.massindex;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.util.concurrent.ConcurrentHashSet;
+
+/**
+ * Keeps track, on the local node, of the segments which were already reindexed by the
+ * {@link DistributedExecutorMassIndexer} and of the number of documents written for each segment.
+ * <p/>
+ * The state survives a failed or interrupted run, so that a subsequent resume only needs to process
+ * the segments which were not completed.
+ *
+ * @since 6.0
+ */
+public class MassIndexerProgress {
+
+   private final Set<Integer> completedSegments = new ConcurrentHashSet<Integer>();
+
+   private final ConcurrentMap<Integer, AtomicLong> documentsPerSegment = CollectionFactory.makeConcurrentMap();
+
+   private volatile boolean running;
+
+   public void reset() {
+      completedSegments.clear();
+      documentsPerSegment.clear();
+   }
+
+   /**
+    * @return false if a mass indexing process is already running on this node
+    */
+   public synchronized boolean begin() {
+      if (running) {
+         return false;
+      }
+      running = true;
+      return true;
+   }
+
+   public synchronized void end() {
+      running = false;
+   }
+
+   public boolean isRunning() {
+      return running;
+   }
+
+   public boolean isSegmentCompleted(int segment) {
+      return completedSegments.contains(segment);
+   }
+
+   public void segmentCompleted(int segment) {
+      completedSegments.add(segment);
+   }
+
+   public void documentsIndexed(int segment, long count) {
+      AtomicLong counter = documentsPerSegment.get(segment);
+      if (counter == null) {
+         counter = new AtomicLong();
+         AtomicLong existing = documentsPerSegment.putIfAbsent(segment, counter);
+         if (existing != null) {
+            counter = existing;
+         }
+      }
+      counter.addAndGet(count);
+   }
+
+   public Set<Integer> getCompletedSegments() {
+      return Collections.unmodifiableSet(completedSegments);
+   }
+
+   /**
+    * @return a snapshot of the number of documents written so far, by segment
+    */
+   public Map<Integer, Long> getDocumentsPerSegment() {
+      Map<Integer, Long> snapshot = new HashMap<Integer, Long>(documentsPerSegment.size());
+      for (Map.Entry<Integer, AtomicLong> e : documentsPerSegment.entrySet()) {
+         snapshot.put(e.getKey(), e.getValue().get());
+      }
+      return snapshot;
+   }
+
+   public long getTotalDocuments() {
+      long total = 0;
+      for (AtomicLong counter : documentsPerSegment.values()) {
+         total += counter.get();
+      }
+      return total;
+   }
+}
@@ -10,10 +10,13 @@
 import org.infinispan.context.Flag;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.query.CacheQuery;
+import org.infinispan.query.MassIndexer;
 import org.infinispan.query.Search;
 import org.infinispan.query.SearchManager;
 import org.infinispan.query.queries.faceting.Car;
+import org.infinispan.statetransfer.StateTransferManager;
 import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.junit.Assert;
 import org.testng.annotations.Test;
@@ -64,6 +67,33 @@ public void testReindexing() throws Exception {
       verifyFindsCar(2, "megane");
    }
 
+   public void testProgressBySegment() throws Exception {
+      caches.get(0).put(key("C1NUM"), new Car("clio", "white", 200));
+      caches.get(1).getAdvancedCache().withFlags(Flag.SKIP_INDEXING).put(key("C2NUM"), new Car("clio", "blue", 200));
+      verifyFindsCar(1, "clio");
+      rebuildIndexes();
+      verifyFindsCar(2, "clio");
+
+      long documents = 0;
+      for (Cache cache : caches) {
+         MassIndexer massIndexer = Search.getSearchManager(cache).getMassIndexer();
+         int numSegments = TestingUtil.extractComponent(cache, StateTransferManager.class)
+               .getCacheTopology().getReadConsistentHash().getNumSegments();
+         Assert.assertEquals(numSegments, massIndexer.getCompletedSegments());
+         for (Long count : massIndexer.getDocumentsPerSegment().values()) {
+            documents += count;
+         }
+      }
+      Assert.assertTrue(documents >= 2);
+
+      //all the segments are completed, so resuming doesn't pick up unindexed entries:
+      caches.get(2).getAdvancedCache().withFlags(Flag.SKIP_INDEXING).put(key("C3NUM"), new Car("clio", "red", 200));
+      Search.getSearchManager(caches.get(0)).getMassIndexer().resume();
+      verifyFindsCar(2, "clio");
+      rebuildIndexes();
+      verifyFindsCar(3, "clio");
+   }
+
    protected Object key(String keyId) {
       //Used to verify remoting is fine with non serializable keys
       return new NonSerializableKeyType(keyId);
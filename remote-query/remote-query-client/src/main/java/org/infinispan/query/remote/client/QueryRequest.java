@@ -16,6 +16,10 @@ public final class QueryRequest {
 
    private int maxResults;
 
+   private int fetchSize;
+
+   private long continuationToken = -1;
+
    public String getJpqlString() {
       return jpqlString;
    }
@@ -48,6 +52,22 @@ public void setMaxResults(int maxResults) {
       this.maxResults = maxResults;
    }
 
+   public int getFetchSize() {
+      return fetchSize;
+   }
+
+   public void setFetchSize(int fetchSize) {
+      this.fetchSize = fetchSize;
+   }
+
+   public long getContinuationToken() {
+      return continuationToken;
+   }
+
+   public void setContinuationToken(long continuationToken) {
+      this.continuationToken = continuationToken;
+   }
+
    public static final class SortCriteria {
 
       private String attributePath;
@@ -18,6 +18,14 @@ public QueryRequest readFrom(ProtoStreamReader reader) throws IOException {
       queryRequest.setSortCriteria(reader.readCollection("sortCriteria", new ArrayList<QueryRequest.SortCriteria>(), QueryRequest.SortCriteria.class));
       queryRequest.setStartOffset(reader.readLong("startOffset"));
       queryRequest.setMaxResults(reader.readInt("maxResults"));
+      Integer fetchSize = reader.readInt("fetchSize");
+      if (fetchSize != null) {
+         queryRequest.setFetchSize(fetchSize);
+      }
+      Long continuationToken = reader.readLong("continuationToken");
+      if (continuationToken != null) {
+         queryRequest.setContinuationToken(continuationToken);
+      }
       return queryRequest;
    }
 
@@ -27,6 +35,8 @@ public void writeTo(ProtoStreamWriter writer, QueryRequest remoteQuery) throws I
       writer.writeCollection("sortCriteria", remoteQuery.getSortCriteria(), QueryRequest.SortCriteria.class);
       writer.writeLong("startOffset", remoteQuery.getStartOffset());
       writer.writeInt("maxResults", remoteQuery.getMaxResults());
+      writer.writeInt("fetchSize", remoteQuery.getFetchSize());
+      writer.writeLong("continuationToken", remoteQuery.getContinuationToken());
    }
 
    @Override
@@ -16,6 +16,10 @@ public class QueryResponse {
 
    private List<WrappedMessage> results;
 
+   private long continuationToken = -1;
+
+   private int totalResults = -1;
+
    public int getNumResults() {
       return numResults;
    }
@@ -39,4 +43,27 @@ public List<WrappedMessage> getResults() {
    public void setResults(List<WrappedMessage> results) {
       this.results = results;
    }
+
+   public long getContinuationToken() {
+      return continuationToken;
+   }
+
+   public void setContinuationToken(long continuationToken) {
+      this.continuationToken = continuationToken;
+   }
+
+   /**
+    * Indicates whether more results can be fetched by sending back the continuation token of this response.
+    */
+   public boolean hasMoreResults() {
+      return continuationToken >= 0;
+   }
+
+   public int getTotalResults() {
+      return totalResults;
+   }
+
+   public void setTotalResults(int totalResults) {
+      this.totalResults = totalResults;
+   }
 }
@@ -18,6 +18,14 @@ public QueryResponse readFrom(ProtoStreamReader reader) throws IOException {
       queryResponse.setNumResults(reader.readInt("numResults"));
       queryResponse.setProjectionSize(reader.readInt("projectionSize"));
       queryResponse.setResults(reader.readCollection("results", new ArrayList<WrappedMessage>(), WrappedMessage.class));
+      Long continuationToken = reader.readLong("continuationToken");
+      if (continuationToken != null) {
+         queryResponse.setContinuationToken(continuationToken);
+      }
+      Integer totalResults = reader.readInt("totalResults");
+      if (totalResults != null) {
+         queryResponse.setTotalResults(totalResults);
+      }
       return queryResponse;
    }
 
@@ -26,6 +34,8 @@ public void writeTo(ProtoStreamWriter writer, QueryResponse queryResponse) throw
       writer.writeInt("numResults", queryResponse.getNumResults());
       writer.writeInt("projectionSize", queryResponse.getProjectionSize());
       writer.writeCollection("results", queryResponse.getResults(), WrappedMessage.class);
+      writer.writeLong("continuationToken", queryResponse.getContinuationToken());
+      writer.writeInt("totalResults", queryResponse.getTotalResults());
    }
 
    @Override
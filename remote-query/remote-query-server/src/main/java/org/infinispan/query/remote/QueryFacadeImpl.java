@@ -36,6 +36,7 @@
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -194,19 +195,30 @@ public FieldBridge getFieldBridge(String type, String propertyPath) {
          projSize = projections.size();
          cacheQuery = cacheQuery.projection(projections.toArray(new String[projSize]));
       }
-      if (request.getStartOffset() > 0) {
-         cacheQuery = cacheQuery.firstResult((int) request.getStartOffset());
+      // when paging, only the current page is materialized on the server; the continuation token is simply the
+      // offset of the next page so no cursor state needs to be retained between requests and any server can
+      // serve the next page
+      long startOffset = request.getContinuationToken() >= 0 ? request.getContinuationToken() : request.getStartOffset();
+      long endOffset = request.getMaxResults() > 0 ? request.getStartOffset() + request.getMaxResults() : Long.MAX_VALUE;
+      long pageSize = endOffset - startOffset;
+      boolean paged = request.getFetchSize() > 0;
+      if (paged && request.getFetchSize() < pageSize) {
+         pageSize = request.getFetchSize();
       }
-      if (request.getMaxResults() > 0) {
-         cacheQuery = cacheQuery.maxResults(request.getMaxResults());
+      if (startOffset > 0) {
+         cacheQuery = cacheQuery.firstResult((int) startOffset);
+      }
+      if (pageSize < Integer.MAX_VALUE) {
+         cacheQuery = cacheQuery.maxResults((int) Math.max(pageSize, 0));
       }
 
-      List list = cacheQuery.list();
+      List list = pageSize > 0 ? cacheQuery.list() : Collections.emptyList();
       List<WrappedMessage> results = new ArrayList<WrappedMessage>(projSize == 0 ? list.size() : list.size() * projSize);
       for (Object o : list) {
          if (projSize == 0) {
             results.add(new WrappedMessage(o));
          } else {
+            // only the projected fields are shipped back, the entity is never loaded
             Object[] row = (Object[]) o;
             for (int j = 0; j < projSize; j++) {
                results.add(new WrappedMessage(row[j]));
@@ -218,6 +230,14 @@ public FieldBridge getFieldBridge(String type, String propertyPath) {
       response.setNumResults(list.size());
       response.setProjectionSize(projSize);
       response.setResults(results);
+      if (paged) {
+         int totalResults = cacheQuery.getResultSize();
+         long nextOffset = startOffset + list.size();
+         response.setTotalResults(totalResults);
+         if (!list.isEmpty() && nextOffset < endOffset && nextOffset < totalResults) {
+            response.setContinuationToken(nextOffset);
+         }
+      }
 
       return ProtobufUtil.toByteArray(serCtx, response);
    }
@@ -1,6 +1,7 @@
 package org.infinispan.spring.mock;
 
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.rpc.ResponseFilter;
 import org.infinispan.remoting.rpc.ResponseMode;
@@ -23,6 +24,12 @@ public Map<Address, Response> invokeRemotely(final Collection<Address> recipient
       return null;
    }
 
+   @Override
+   public NotifyingFuture<Response> invokeRemotelyAsync(final Address recipient, final ReplicableCommand rpcCommand,
+                                                        final long timeout, final boolean usePriorityQueue) throws Exception {
+      return null;
+   }
+
    @Override
    public boolean isCoordinator() {
       return false;
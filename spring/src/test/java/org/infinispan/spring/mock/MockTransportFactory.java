@@ -47,6 +47,11 @@ public Transport getTransport(final byte[] key) {
       return null;
    }
 
+   @Override
+   public Transport getTransport(final byte[] key, final boolean readOnly) {
+      return null;
+   }
+
    @Override
    public boolean isTcpNoDelay() {
       return false;
@@ -60,7 +60,7 @@ private Set<Node<K, V>> getChildren(AdvancedCache<?, ?> cache) {
       startAtomic();
       try {
          Set<Node<K, V>> result = new HashSet<Node<K, V>>();
-         for (Fqn f : getStructure().values()) {
+         for (Fqn f : getStructure(cache).values()) {
             NodeImpl<K, V> n = new NodeImpl<K, V>(f, cache, batchContainer);
             result.add(n);
          }
@@ -139,9 +139,10 @@ private Node<K, V> addChild(AdvancedCache<?, ?> cache, Fqn f) {
       try {
          Fqn absoluteChildFqn = Fqn.fromRelativeFqn(fqn, f);
 
-         //1) first register it with the parent
+         //1) first register it with the parent, unless it's already there: writing copies the whole structure map
          AtomicMap<Object, Fqn> structureMap = getStructure(cache);
-         structureMap.put(f.getLastElement(), absoluteChildFqn);
+         if (!absoluteChildFqn.equals(structureMap.get(f.getLastElement())))
+            structureMap.put(f.getLastElement(), absoluteChildFqn);
 
          //2) then create the structure and data maps
          createNodeInCache(cache, absoluteChildFqn);
@@ -183,11 +184,7 @@ private boolean removeChild(AdvancedCache cache, Object childName) {
          AtomicMap<Object, Fqn> s = getStructure(cache);
          Fqn childFqn = s.remove(childName);
          if (childFqn != null) {
-            Node<K, V> child = new NodeImpl<K, V>(childFqn, cache, batchContainer);
-            child.removeChildren();
-            child.clearData();  // this is necessary in case we have a remove and then an add on the same node, in the same tx.
-            cache.remove(new NodeKey(childFqn, NodeKey.Type.DATA));
-            cache.remove(new NodeKey(childFqn, NodeKey.Type.STRUCTURE));
+            removeSubtree(cache, childFqn);
             return true;
          }
 
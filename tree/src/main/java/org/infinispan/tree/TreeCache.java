@@ -128,7 +128,8 @@
    V remove(String fqn, K key, Flag... flags);
 
    /**
-    * Removes a {@link Node} indicated by absolute {@link Fqn}.
+    * Removes a {@link Node} indicated by absolute {@link Fqn}, and all its descendants. The data and children entries of
+    * every node in the subtree are removed in the same batch.
     *
     * @param fqn {@link Node} to remove
     * @return true if the node was removed, false if the node was not found
@@ -9,6 +9,9 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class TreeStructureSupport extends AutoBatchSupport {
    private static final Log log = LogFactory.getLog(TreeStructureSupport.class);
 
@@ -64,6 +67,36 @@ protected boolean createNodeInCache(AdvancedCache<?, ?> cache, Fqn fqn) {
       }
    }
 
+   /**
+    * Removes a node and all its descendants. The node must already have been removed from its parent's structure.
+    * <p/>
+    * The descendants are found by reading their structure maps, and their keys are then removed. Unlike removing the
+    * children of each node one by one, this never copies a structure map for writing.
+    */
+   protected void removeSubtree(AdvancedCache<?, ?> cache, Fqn fqn) {
+      List<Fqn> subtree = new ArrayList<Fqn>();
+      collectSubtree(cache, fqn, subtree);
+      // descendants first
+      for (int i = subtree.size() - 1; i >= 0; i--) {
+         Fqn f = subtree.get(i);
+         NodeKey dataKey = new NodeKey(f, NodeKey.Type.DATA);
+         AtomicMap<?, ?> data = getAtomicMap(cache, dataKey, false);
+         // this is necessary in case we have a remove and then an add on the same node, in the same tx.
+         if (data != null && !data.isEmpty()) data.clear();
+         cache.remove(dataKey);
+         cache.remove(new NodeKey(f, NodeKey.Type.STRUCTURE));
+         if (log.isTraceEnabled()) log.tracef("Removed node %s", f);
+      }
+   }
+
+   private void collectSubtree(AdvancedCache<?, ?> cache, Fqn fqn, List<Fqn> subtree) {
+      subtree.add(fqn);
+      AtomicMap<Object, Fqn> structure = getAtomicMap(cache, new NodeKey(fqn, NodeKey.Type.STRUCTURE), false);
+      if (structure != null) {
+         for (Fqn child : structure.values()) collectSubtree(cache, child, subtree);
+      }
+   }
+
    private AtomicMap<Object, Fqn> getStructure(AdvancedCache<?, ?> cache, Fqn fqn) {
       return getAtomicMap(cache, new NodeKey(fqn, NodeKey.Type.STRUCTURE));
    }
@@ -107,4 +140,8 @@ protected final <K, V> AtomicMap<K, V> getAtomicMap(AdvancedCache<?, ?> cache, N
       return AtomicMapLookup.getAtomicMap((AdvancedCache<NodeKey, AtomicMap<?, ?>>) cache, key);
    }
 
+   protected final <K, V> AtomicMap<K, V> getAtomicMap(AdvancedCache<?, ?> cache, NodeKey key, boolean createIfAbsent) {
+      return AtomicMapLookup.getAtomicMap((AdvancedCache<NodeKey, AtomicMap<?, ?>>) cache, key, createIfAbsent);
+   }
+
 }
@@ -5,5 +5,11 @@
  * This package is intended as a compatibility layer between JBoss Cache and Infinispan, and also
  * as an API for when a tree structure is useful.  In general though, this will not perform as
  * well as the core Infinispan API.
+ * <p />
+ * Each node is stored as two cache entries: an AtomicMap holding its data, and an AtomicMap indexing its children by
+ * name. Listing the children of a node thus costs a single lookup, while adding or removing a child writes the
+ * parent's children map and replicates a delta of it. Removing a node removes both entries of every node in its
+ * subtree, within a single batch. There is no separate hierarchical index, so the cost of these operations grows with
+ * the width of the parent and the size of the subtree.
  */
 package org.infinispan.tree;
\ No newline at end of file
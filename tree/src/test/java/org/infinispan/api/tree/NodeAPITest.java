@@ -6,6 +6,7 @@
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.infinispan.tree.Fqn;
 import org.infinispan.tree.Node;
+import org.infinispan.tree.NodeKey;
 import org.infinispan.tree.TreeCache;
 import org.infinispan.tree.TreeCacheImpl;
 import org.testng.annotations.Test;
@@ -374,4 +375,31 @@ public void testDoubleRemovalOfData2() throws Exception {
       assertNull(cache.get("/foo/1/2", "item"));
       assertNull(cache.get("/foo/1", "item"));
    }
+
+   public void testRemoveSubtree() throws Exception {
+      cache.put("/foo/1/2/3", "item", 1);
+      cache.put("/foo/1/4", "item", 2);
+      cache.put("/foo/5", "item", 3);
+
+      assertTrue(cache.removeNode("/foo/1"));
+      assertFalse(cache.exists("/foo/1"));
+      assertFalse(cache.exists("/foo/1/2/3"));
+      assertFalse(cache.exists("/foo/1/4"));
+      assertEquals(Collections.singleton((Object) "5"), cache.getNode("/foo").getChildrenNames());
+      assertEquals(3, cache.get("/foo/5", "item"));
+      for (String fqn : new String[]{"/foo/1", "/foo/1/2", "/foo/1/2/3", "/foo/1/4"}) {
+         assertFalse(cache.getCache().containsKey(new NodeKey(Fqn.fromString(fqn), NodeKey.Type.DATA)));
+         assertFalse(cache.getCache().containsKey(new NodeKey(Fqn.fromString(fqn), NodeKey.Type.STRUCTURE)));
+      }
+
+      // re-adding a removed node in the same tx starts from empty data
+      cache.put("/foo/5/6", "item", 4);
+      tm.begin();
+      cache.removeNode("/foo/5");
+      cache.put("/foo/5/6", "other", 5);
+      tm.commit();
+      assertNull(cache.get("/foo/5", "item"));
+      assertNull(cache.get("/foo/5/6", "item"));
+      assertEquals(5, cache.get("/foo/5/6", "other"));
+   }
 }